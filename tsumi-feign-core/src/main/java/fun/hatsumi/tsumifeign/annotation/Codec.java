@@ -0,0 +1,21 @@
+package fun.hatsumi.tsumifeign.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 编解码格式注解
+ * 标注在接口方法或接口上，方法上的声明优先；按名称从 CodecRegistry 选择编码器和解码器，
+ * 未声明时使用客户端的默认编解码器
+ *
+ * @author Kakeru
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Codec {
+
+    /**
+     * 编解码器名称，如 json、jsonb
+     */
+    String value();
+}
@@ -0,0 +1,31 @@
+package fun.hatsumi.tsumifeign.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 对冲请求注解
+ * 标注在 GET 方法或接口上，方法上的声明优先；响应在对冲延迟内未到达时向另一个实例追加请求，
+ * 先到达的响应生效，其余请求被取消。接口上的声明只作用于其中的 GET 方法
+ *
+ * @author Kakeru
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Hedged {
+
+    /**
+     * 固定对冲延迟（毫秒），同时声明 percentile 时在统计样本不足前使用
+     */
+    long delay() default 0;
+
+    /**
+     * 以近期延迟的该分位数（0~1，如 0.95）作为对冲延迟，0 表示只使用固定延迟
+     */
+    double percentile() default 0;
+
+    /**
+     * 最多追加的对冲请求数
+     */
+    int maxHedges() default 1;
+}
@@ -0,0 +1,28 @@
+package fun.hatsumi.tsumifeign.annotation;
+
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+
+import java.lang.annotation.*;
+
+/**
+ * JSON 特性注解
+ * 标注在接口方法或接口上，方法上的声明优先；覆盖 FastJSON2 序列化请求体和解析返回值时使用的特性
+ *
+ * @author Kakeru
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface JsonFeatures {
+
+    /**
+     * 序列化请求体的特性，默认输出值为 null 的字段；声明为空数组时省略 null 字段以减小请求体
+     */
+    JSONWriter.Feature[] write() default {JSONWriter.Feature.WriteMapNullValue};
+
+    /**
+     * 解析返回值的特性
+     */
+    JSONReader.Feature[] read() default {};
+}
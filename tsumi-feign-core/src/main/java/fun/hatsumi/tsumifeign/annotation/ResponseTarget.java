@@ -0,0 +1,15 @@
+package fun.hatsumi.tsumifeign.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 响应体目标文件注解
+ * 标注在 java.nio.file.Path 参数上，响应体不经过缓冲直接写入该文件
+ *
+ * @author Kakeru
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ResponseTarget {
+}
@@ -0,0 +1,27 @@
+package fun.hatsumi.tsumifeign.annotation;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调用超时注解
+ * 标注在接口方法或接口上，方法上的声明优先；覆盖从建立连接到读完响应体的整个调用，
+ * 与当前线程绑定的截止时间同时存在时取较早者
+ *
+ * @author Kakeru
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Timeout {
+
+    /**
+     * 超时时长
+     */
+    long value();
+
+    /**
+     * 时间单位，默认毫秒
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
@@ -43,4 +43,15 @@ public @interface TsumiFeignClient {
      * 默认为空字符串，表示使用全局配置
      */
     String clientType() default "";
+
+    /**
+     * 是否在创建客户端时预先解析全部方法并准备编解码器
+     * 全局配置开启时对所有客户端生效
+     */
+    boolean eagerInit() default false;
+
+    /**
+     * 预初始化时预热的连接数，-1 表示使用全局配置
+     */
+    int warmUpConnections() default -1;
 }
@@ -0,0 +1,88 @@
+package fun.hatsumi.tsumifeign.client;
+
+import lombok.Getter;
+import okhttp3.Call;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 服务舱壁
+ * 持有单个服务专用的 OkHttpClient（独立的连接池和 Dispatcher），并限制排队请求数，
+ * 某个下游变慢时只会耗尽自己的连接和并发额度，不影响其他服务
+ *
+ * @author Kakeru
+ */
+public class Bulkhead {
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final OkHttpClient client;
+
+    private final int maxQueuedRequests;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param name              舱壁名称，即 @TsumiFeignClient 的服务名或主机名
+     * @param client            专用的 OkHttpClient，通常由共享客户端 newBuilder() 派生并替换连接池和 Dispatcher
+     * @param maxQueuedRequests 并发已满时最多排队的请求数
+     */
+    public Bulkhead(String name, OkHttpClient client, int maxQueuedRequests) {
+        this.name = name;
+        this.client = client;
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    /**
+     * 检查是否还能接收请求，请求需要排队且排队已满时计入拒绝数并抛出异常
+     * 单个主机的并发受 maxRequestsPerHost 限制，往往先于 maxRequests 占满，已有请求在排队即说明并发已满；
+     * 检查与入队之间不加锁，排队数在并发下可能短暂超出上限
+     *
+     * @param host 请求的目标主机
+     */
+    void admit(String host) throws BulkheadFullException {
+        Dispatcher dispatcher = client.dispatcher();
+        int queued = dispatcher.queuedCallsCount();
+        if (queued >= maxQueuedRequests && (queued > 0 || isSaturated(dispatcher, host))) {
+            rejected.increment();
+            throw new BulkheadFullException("Bulkhead '" + name + "' is full: "
+                    + dispatcher.runningCallsCount() + " running, " + queued + " queued");
+        }
+    }
+
+    /**
+     * 新请求是否需要排队：总并发或目标主机的并发已满
+     */
+    private static boolean isSaturated(Dispatcher dispatcher, String host) {
+        if (dispatcher.runningCallsCount() >= dispatcher.getMaxRequests()) {
+            return true;
+        }
+        int runningForHost = 0;
+        for (Call call : dispatcher.runningCalls()) {
+            if (call.request().url().host().equals(host)) {
+                runningForHost++;
+            }
+        }
+        return runningForHost >= dispatcher.getMaxRequestsPerHost();
+    }
+
+    /**
+     * 当前使用情况
+     */
+    public BulkheadStats stats() {
+        Dispatcher dispatcher = client.dispatcher();
+        return BulkheadStats.builder()
+                .name(name)
+                .maxRequests(dispatcher.getMaxRequests())
+                .runningRequests(dispatcher.runningCallsCount())
+                .maxQueuedRequests(maxQueuedRequests)
+                .queuedRequests(dispatcher.queuedCallsCount())
+                .connections(client.connectionPool().connectionCount())
+                .idleConnections(client.connectionPool().idleConnectionCount())
+                .rejectedRequests(rejected.sum())
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package fun.hatsumi.tsumifeign.client;
+
+import java.io.IOException;
+
+/**
+ * 舱壁排队已满，请求在发出前被拒绝
+ *
+ * @author Kakeru
+ */
+public class BulkheadFullException extends IOException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,39 @@
+package fun.hatsumi.tsumifeign.client;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按服务名或主机名登记的舱壁
+ *
+ * @author Kakeru
+ */
+public class BulkheadRegistry {
+
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    public BulkheadRegistry(Collection<Bulkhead> bulkheads) {
+        bulkheads.forEach(bulkhead -> this.bulkheads.put(bulkhead.getName(), bulkhead));
+    }
+
+    public static BulkheadRegistry empty() {
+        return new BulkheadRegistry(List.of());
+    }
+
+    public Bulkhead get(String name) {
+        return bulkheads.get(name);
+    }
+
+    public boolean isEmpty() {
+        return bulkheads.isEmpty();
+    }
+
+    /**
+     * 所有舱壁的使用情况
+     */
+    public List<BulkheadStats> stats() {
+        return bulkheads.values().stream().map(Bulkhead::stats).toList();
+    }
+}
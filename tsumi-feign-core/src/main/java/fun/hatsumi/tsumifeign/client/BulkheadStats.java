@@ -0,0 +1,61 @@
+package fun.hatsumi.tsumifeign.client;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 舱壁使用情况快照
+ *
+ * @author Kakeru
+ */
+@Data
+@Builder
+public class BulkheadStats {
+
+    /**
+     * 舱壁名称，即 @TsumiFeignClient 的服务名或主机名
+     */
+    private String name;
+
+    /**
+     * 最大并发请求数
+     */
+    private int maxRequests;
+
+    /**
+     * 执行中的请求数
+     */
+    private int runningRequests;
+
+    /**
+     * 最大排队请求数
+     */
+    private int maxQueuedRequests;
+
+    /**
+     * 排队中的请求数
+     */
+    private int queuedRequests;
+
+    /**
+     * 连接池中的连接数
+     */
+    private int connections;
+
+    /**
+     * 连接池中的空闲连接数
+     */
+    private int idleConnections;
+
+    /**
+     * 因排队已满被拒绝的请求总数
+     */
+    private long rejectedRequests;
+
+    /**
+     * 并发利用率，执行中的请求数 / 最大并发请求数
+     */
+    public double getUtilization() {
+        return maxRequests > 0 ? (double) runningRequests / maxRequests : 0;
+    }
+}
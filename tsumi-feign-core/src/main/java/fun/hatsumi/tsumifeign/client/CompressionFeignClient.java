@@ -0,0 +1,246 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.codec.Compressor;
+import fun.hatsumi.tsumifeign.codec.EncodedBody;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * 压缩 Feign 客户端
+ * 请求体达到阈值时压缩并设置 Content-Encoding，延迟编码的请求体在编码时直接写入压缩流；
+ * 声明 Accept-Encoding 后按响应的 Content-Encoding 解压，此时 OkHttp 不再做透明 gzip，解压统一由本客户端完成
+ *
+ * @author Kakeru
+ */
+@Slf4j
+public class CompressionFeignClient implements FeignClient {
+
+    private final FeignClient delegate;
+
+    /**
+     * 请求体压缩算法，为 null 时不压缩请求
+     */
+    private final Compressor requestCompressor;
+
+    /**
+     * 请求体压缩阈值（字节），小于该大小的请求体原样发送
+     */
+    private final int minRequestSize;
+
+    /**
+     * 可接受的响应编码，按优先级排列，为空时不声明 Accept-Encoding
+     */
+    private final List<Compressor> acceptedEncodings;
+
+    private final String acceptEncoding;
+
+    public CompressionFeignClient(FeignClient delegate, Compressor requestCompressor, int minRequestSize,
+                                  List<Compressor> acceptedEncodings) {
+        this.delegate = delegate;
+        this.requestCompressor = requestCompressor;
+        this.minRequestSize = minRequestSize;
+        this.acceptedEncodings = List.copyOf(acceptedEncodings);
+        this.acceptEncoding = acceptedEncodings.isEmpty() ? null
+                : acceptedEncodings.stream().map(Compressor::encoding).collect(Collectors.joining(", "));
+    }
+
+    @Override
+    public Response execute(RequestTemplate requestTemplate) throws IOException {
+        compressRequest(requestTemplate);
+        return decompressResponse(delegate.execute(requestTemplate));
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        try {
+            compressRequest(requestTemplate);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Response> future = delegate.executeAsync(requestTemplate);
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        future.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(Futures.unwrap(throwable));
+                return;
+            }
+            try {
+                Response decompressed = decompressResponse(response);
+                if (!result.complete(decompressed)) {
+                    // 解压期间已被取消，调用方不会再收到响应
+                    decompressed.close();
+                }
+            } catch (IOException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return Futures.propagateCancel(result, future);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String url, int connections) {
+        return delegate.warmUp(url, connections);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String clientName, String url, int connections) {
+        return delegate.warmUp(clientName, url, connections);
+    }
+
+    @Override
+    public void evictConnections(String url) {
+        delegate.evictConnections(url);
+    }
+
+    /**
+     * 声明可接受的编码，并压缩达到阈值的字节数组或延迟编码请求体；已设置 Content-Encoding 的请求不再处理
+     */
+    private void compressRequest(RequestTemplate requestTemplate) throws IOException {
+        Map<String, String> headers = requestTemplate.getHeaders();
+        if (acceptEncoding != null && findHeader(headers, "Accept-Encoding") == null) {
+            headers.put("Accept-Encoding", acceptEncoding);
+        }
+        if (requestCompressor == null || findHeader(headers, "Content-Encoding") != null) {
+            return;
+        }
+
+        if (requestTemplate.getBody() instanceof EncodedBody encoded) {
+            compressEncoded(requestTemplate, encoded);
+        } else if (requestTemplate.getBody() instanceof byte[] body && body.length >= minRequestSize) {
+            byte[] compressed = requestCompressor.compress(body);
+            setCompressedBody(requestTemplate, body.length, compressed);
+        }
+    }
+
+    /**
+     * 延迟编码的请求体由编码器直接写入压缩流，不生成完整的原始字节数组；
+     * 编码输出未达到阈值时只缓冲了阈值以内的字节，原样作为请求体发送
+     */
+    private void compressEncoded(RequestTemplate requestTemplate, EncodedBody encoded) throws IOException {
+        ThresholdOutputStream out = new ThresholdOutputStream();
+        try (out) {
+            encoded.writeTo(out);
+        }
+        if (out.compressed == null) {
+            requestTemplate.setBody(out.buffer.toByteArray());
+        } else {
+            setCompressedBody(requestTemplate, out.size, out.compressed.toByteArray());
+        }
+    }
+
+    private void setCompressedBody(RequestTemplate requestTemplate, long originalSize, byte[] compressed) {
+        log.debug("Compressed request body with {}: {} -> {} bytes",
+                requestCompressor.encoding(), originalSize, compressed.length);
+        requestTemplate.setBody(compressed);
+        requestTemplate.getHeaders().put("Content-Encoding", requestCompressor.encoding());
+        removeHeader(requestTemplate.getHeaders(), "Content-Length");
+    }
+
+    /**
+     * 按 Content-Encoding 解压响应体，解压后移除 Content-Encoding 和 Content-Length
+     */
+    private Response decompressResponse(Response response) throws IOException {
+        if (acceptedEncodings.isEmpty()) {
+            return response;
+        }
+        String encoding = response.getHeader("Content-Encoding");
+        if (encoding == null) {
+            return response;
+        }
+        Compressor compressor = null;
+        for (Compressor candidate : acceptedEncodings) {
+            if (candidate.encoding().equalsIgnoreCase(encoding.trim())) {
+                compressor = candidate;
+                break;
+            }
+        }
+        if (compressor == null) {
+            return response;
+        }
+
+        if (response.getBodyStream() != null) {
+            response.setBodyStream(compressor.decompress(response.getBodyStream()));
+        } else if (response.getBody() != null && response.getBody().length > 0) {
+            try (InputStream in = compressor.decompress(new ByteArrayInputStream(response.getBody()))) {
+                response.setBody(in.readAllBytes());
+            }
+        } else {
+            return response;
+        }
+        removeHeader(response.getHeaders(), "Content-Encoding");
+        removeHeader(response.getHeaders(), "Content-Length");
+        return response;
+    }
+
+    private static String findHeader(Map<String, String> headers, String name) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static void removeHeader(Map<String, String> headers, String name) {
+        headers.keySet().removeIf(key -> key != null && key.equalsIgnoreCase(name));
+    }
+
+    /**
+     * 按阈值切换的输出流：先缓冲原始数据，累计达到阈值后把已缓冲部分和后续数据写入压缩流
+     */
+    private final class ThresholdOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.min(minRequestSize, 8192));
+        private ByteArrayOutputStream compressed;
+        private OutputStream compressing;
+        private long size;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            size += len;
+            if (compressing == null && size < minRequestSize) {
+                buffer.write(b, off, len);
+                return;
+            }
+            if (compressing == null) {
+                startCompressing();
+            }
+            compressing.write(b, off, len);
+        }
+
+        private void startCompressing() throws IOException {
+            compressed = new ByteArrayOutputStream();
+            compressing = requestCompressor.compress(compressed);
+            buffer.writeTo(compressing);
+            buffer.reset();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (compressing == null && size >= minRequestSize) {
+                // 阈值为 0 时空请求体同样压缩，与字节数组请求体一致
+                startCompressing();
+            }
+            if (compressing != null) {
+                compressing.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package fun.hatsumi.tsumifeign.client;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.internal.connection.RealConnection;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * OkHttp 连接跟踪
+ * 作为 OkHttpClient 的 EventListener 记录每个连接上进行中的调用数，
+ * 以便在实例下线时关闭指向该实例的空闲连接；ConnectionPool 本身只支持整体驱逐
+ * <p>
+ * 连接以弱引用记录，被连接池清理后自动移除
+ *
+ * @author Kakeru
+ */
+@Slf4j
+public class ConnectionTracker extends EventListener implements EventListener.Factory {
+
+    private final Map<Connection, Integer> activeCalls = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @NotNull
+    @Override
+    public EventListener create(@NotNull Call call) {
+        return this;
+    }
+
+    @Override
+    public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+        activeCalls.merge(connection, 1, Integer::sum);
+    }
+
+    @Override
+    public void connectionReleased(@NotNull Call call, @NotNull Connection connection) {
+        activeCalls.computeIfPresent(connection, (key, count) -> count - 1);
+    }
+
+    /**
+     * 关闭指向目标主机和端口且没有进行中调用的连接，连接池在下次检查时将其移除
+     * <p>
+     * 连接池在连接锁内检查连接是否可复用后才把它交给新调用，
+     * 因此在同一把锁内确认空闲并标记为不可复用，关闭前不会被新调用取走
+     *
+     * @return 关闭的连接数
+     */
+    public int evictIdle(String host, int port) {
+        int evicted = 0;
+        synchronized (activeCalls) {
+            Iterator<Map.Entry<Connection, Integer>> iterator = activeCalls.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Connection, Integer> entry = iterator.next();
+                HttpUrl url = entry.getKey().route().address().url();
+                if (entry.getValue() > 0 || !url.host().equals(host) || url.port() != port
+                        || !retire(entry.getKey())) {
+                    continue;
+                }
+                try {
+                    entry.getKey().socket().close();
+                } catch (IOException e) {
+                    log.debug("Failed to close connection to {}:{}", host, port, e);
+                }
+                iterator.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * 连接仍空闲时标记为不再承载新调用
+     */
+    private static boolean retire(Connection connection) {
+        if (!(connection instanceof RealConnection realConnection)) {
+            return false;
+        }
+        synchronized (realConnection) {
+            if (!realConnection.getCalls().isEmpty()) {
+                return false;
+            }
+            realConnection.setNoNewExchanges(true);
+            return true;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import fun.hatsumi.tsumifeign.core.RequestTemplate;
 import fun.hatsumi.tsumifeign.core.Response;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Feign 客户端接口
@@ -20,4 +21,54 @@ public interface FeignClient {
      * @throws IOException IO 异常
      */
     Response execute(RequestTemplate requestTemplate) throws IOException;
+
+    /**
+     * 异步执行 HTTP 请求
+     * 默认在调用线程上同步执行后返回已完成的 Future，支持非阻塞 IO 的实现应覆盖该方法
+     *
+     * @param requestTemplate 请求模板
+     * @return HTTP 响应的 Future，取消该 Future 时实现应尽量取消底层调用
+     */
+    default CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        try {
+            return CompletableFuture.completedFuture(execute(requestTemplate));
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 预热到目标地址的连接
+     * 默认不做任何事，支持连接池的实现应提前建立指定数量的连接
+     *
+     * @param url         目标地址或服务名
+     * @param connections 期望建立的连接数
+     * @return 预热完成的 Future，预热失败不会使其异常完成
+     */
+    default CompletableFuture<Void> warmUp(String url, int connections) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 按客户端名称预热到目标地址的连接
+     * 负载均衡时请求以服务名作为客户端名称发往实例地址，按名称配置了独立连接池的实现应预热该连接池；
+     * 默认忽略客户端名称
+     *
+     * @param clientName  客户端名称，通常为服务名
+     * @param url         目标实例地址
+     * @param connections 期望建立的连接数
+     * @return 预热完成的 Future，预热失败不会使其异常完成
+     */
+    default CompletableFuture<Void> warmUp(String clientName, String url, int connections) {
+        return warmUp(url, connections);
+    }
+
+    /**
+     * 关闭到目标地址的空闲连接
+     * 实例下线后调用，避免连接池保留指向已下线实例的连接直到保活超时；默认不做任何事
+     *
+     * @param url 目标实例地址
+     */
+    default void evictConnections(String url) {
+    }
 }
@@ -0,0 +1,62 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.core.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 异步调用工具
+ * 装饰器在 executeAsync 中派生出新的 Future 时，用于把取消操作传回底层调用
+ *
+ * @author Kakeru
+ */
+@Slf4j
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * 取消 result 时同步取消 source
+     * source 已经返回响应时无法再取消，此时关闭该响应释放连接，调用方不会再收到它
+     *
+     * @param result 返回给调用方的派生 Future
+     * @param source 底层调用的 Future
+     * @return result 本身
+     */
+    public static <T> CompletableFuture<T> propagateCancel(CompletableFuture<T> result, CompletableFuture<?> source) {
+        result.whenComplete((value, throwable) -> {
+            if (result.isCancelled() && !source.cancel(true)) {
+                closeDelivered(source);
+            }
+        });
+        return result;
+    }
+
+    private static void closeDelivered(CompletableFuture<?> source) {
+        if (source.isCompletedExceptionally() || !(source.join() instanceof Response response)) {
+            return;
+        }
+        try {
+            response.close();
+        } catch (IOException e) {
+            log.debug("Failed to close response of cancelled call", e);
+        }
+    }
+
+    /**
+     * 剥离 CompletableFuture 包装的异常
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
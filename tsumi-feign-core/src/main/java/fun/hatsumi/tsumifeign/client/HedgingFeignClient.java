@@ -0,0 +1,276 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.codec.EncodedBody;
+import fun.hatsumi.tsumifeign.core.HedgePolicy;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对冲请求 Feign 客户端
+ * 幂等的 GET 请求在对冲延迟内未收到响应时追加请求，与 LoadBalancerFeignClient 组合时追加的请求发往其他实例；
+ * 先到达的响应生效，其余请求被取消。追加的请求消耗按客户端共享的令牌预算，预算耗尽时不再对冲
+ *
+ * @author Kakeru
+ */
+@Slf4j
+public class HedgingFeignClient implements FeignClient {
+
+    private final FeignClient delegate;
+
+    /**
+     * 按配置对客户端全部 GET 方法生效的策略，方法上的 @Hedged 优先，为 null 时只对冲声明了 @Hedged 的方法
+     */
+    private final HedgePolicy defaultPolicy;
+
+    private final TokenBudget budget;
+
+    /**
+     * 按请求方法和路径统计的近期延迟
+     */
+    private final Map<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
+
+    public HedgingFeignClient(FeignClient delegate, HedgePolicy defaultPolicy, TokenBudget budget) {
+        this.delegate = delegate;
+        this.defaultPolicy = defaultPolicy;
+        this.budget = budget;
+    }
+
+    @Override
+    public Response execute(RequestTemplate requestTemplate) throws IOException {
+        HedgePolicy policy = resolvePolicy(requestTemplate);
+        if (policy == null) {
+            return delegate.execute(requestTemplate);
+        }
+        return await(new HedgedCall(requestTemplate, policy).start());
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        HedgePolicy policy = resolvePolicy(requestTemplate);
+        if (policy == null) {
+            return delegate.executeAsync(requestTemplate);
+        }
+        return new HedgedCall(requestTemplate, policy).start();
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String url, int connections) {
+        return delegate.warmUp(url, connections);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String clientName, String url, int connections) {
+        return delegate.warmUp(clientName, url, connections);
+    }
+
+    @Override
+    public void evictConnections(String url) {
+        delegate.evictConnections(url);
+    }
+
+    /**
+     * 指定方法和路径的延迟统计，尚无调用时为 null
+     */
+    LatencyTracker latencies(String method, String path) {
+        return latencies.get(method + " " + path);
+    }
+
+    /**
+     * 只对冲 GET 和 HEAD 请求，流式请求体无法重放，不参与对冲
+     */
+    private HedgePolicy resolvePolicy(RequestTemplate requestTemplate) {
+        String method = requestTemplate.getMethod();
+        if (!"GET".equalsIgnoreCase(method) && !"HEAD".equalsIgnoreCase(method)) {
+            return null;
+        }
+        Object body = requestTemplate.getBody();
+        if (body != null && !(body instanceof byte[]) && !(body instanceof EncodedBody)) {
+            return null;
+        }
+        return requestTemplate.getHedgePolicy() != null ? requestTemplate.getHedgePolicy() : defaultPolicy;
+    }
+
+    /**
+     * 对冲延迟：样本充足时使用统计分位数，否则使用固定延迟，均不可用时返回 0 表示不对冲
+     */
+    private static long hedgeDelay(HedgePolicy policy, LatencyTracker tracker) {
+        if (policy.percentile() > 0) {
+            long tracked = tracker.percentile(policy.percentile());
+            if (tracked >= 0) {
+                return Math.max(1, tracked);
+            }
+        }
+        return policy.delayMillis();
+    }
+
+    private Response await(CompletableFuture<Response> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void closeQuietly(Response response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            log.debug("Failed to close hedged response", e);
+        }
+    }
+
+    /**
+     * 一次对冲调用
+     * 追加的请求基于首个请求发出前的模板副本，在计时线程上发出
+     */
+    private final class HedgedCall {
+
+        private final RequestTemplate template;
+        private final RequestTemplate snapshot;
+        private final HedgePolicy policy;
+        private final LatencyTracker tracker;
+        private final CompletableFuture<Response> result = new CompletableFuture<>();
+
+        /**
+         * 已发出的请求，仅在持有 this 锁时访问
+         */
+        private final List<CompletableFuture<Response>> attempts = new ArrayList<>();
+        private int outstanding;
+
+        /**
+         * 剩余可追加的请求数，只在依次执行的对冲任务中修改
+         */
+        private int hedgesLeft;
+
+        /**
+         * 首个请求及其发出时间，对冲请求胜出时用于记录首个请求的耗时
+         */
+        private volatile CompletableFuture<Response> primary;
+        private long primaryStart;
+
+        private HedgedCall(RequestTemplate template, HedgePolicy policy) {
+            if (template.getAttemptedInstances() == null) {
+                // 各次请求共享已选实例，负载均衡据此避开已经请求过的实例
+                template.setAttemptedInstances(ConcurrentHashMap.newKeySet());
+            }
+            this.template = template;
+            this.snapshot = template.copy();
+            this.policy = policy;
+            this.tracker = latencies.computeIfAbsent(template.getMethod() + " " + template.getPath(),
+                    key -> new LatencyTracker());
+            this.hedgesLeft = policy.maxHedges();
+        }
+
+        private CompletableFuture<Response> start() {
+            budget.deposit();
+
+            // 响应生效或调用方取消时取消其余请求
+            result.whenComplete((response, throwable) -> cancelAttempts());
+
+            primaryStart = System.nanoTime();
+            primary = launch(template, primaryStart);
+            scheduleHedge();
+            return result;
+        }
+
+        private CompletableFuture<Response> launch(RequestTemplate attempt, long start) {
+            CompletableFuture<Response> future;
+            try {
+                future = delegate.executeAsync(attempt);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            synchronized (this) {
+                attempts.add(future);
+                outstanding++;
+            }
+            if (result.isDone()) {
+                // 与生效的响应并发发出的对冲请求
+                future.cancel(true);
+            }
+            future.whenComplete((response, throwable) -> onComplete(response, throwable, start));
+            return future;
+        }
+
+        private void onComplete(Response response, Throwable throwable, long start) {
+            if (throwable == null) {
+                // 落败的请求同样记录耗时，只记录胜出者会使分位数偏低
+                tracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                if (!result.complete(response)) {
+                    // 落败的流式响应需要释放连接
+                    closeQuietly(response);
+                }
+                return;
+            }
+
+            // 仍有请求在进行时等待其结果，最后一个请求失败时整个调用失败
+            boolean last;
+            synchronized (this) {
+                last = --outstanding == 0;
+            }
+            if (last) {
+                result.completeExceptionally(Futures.unwrap(throwable));
+            }
+        }
+
+        private void scheduleHedge() {
+            long delay = hedgeDelay(policy, tracker);
+            if (delay <= 0) {
+                return;
+            }
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(this::hedge);
+        }
+
+        private void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            if (!budget.tryAcquire()) {
+                log.debug("Hedge budget exhausted, not hedging {} {}", template.getMethod(), template.getPath());
+                return;
+            }
+            log.debug("Hedging {} {}", template.getMethod(), template.getPath());
+            launch(snapshot.copy(), System.nanoTime());
+            if (--hedgesLeft > 0) {
+                scheduleHedge();
+            }
+        }
+
+        private void cancelAttempts() {
+            if (!result.isCompletedExceptionally() && primary != null && primary.cancel(true)) {
+                // 对冲请求胜出时首个请求被取消，其耗时至少为已等待的时间，按此记录，
+                // 否则慢请求的样本总被对冲截掉，分位数持续偏低
+                tracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - primaryStart));
+            }
+            List<CompletableFuture<Response>> pending;
+            synchronized (this) {
+                pending = new ArrayList<>(attempts);
+            }
+            for (CompletableFuture<Response> attempt : pending) {
+                attempt.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.codec.EncodedBody;
+import fun.hatsumi.tsumifeign.core.Deadline;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * JDK HttpClient 客户端实现
+ * 默认使用 HTTP/2，同一目标的并发请求复用少量连接上的多路复用流；异步请求通过 sendAsync 非阻塞执行
+ *
+ * @author Kakeru
+ */
+@Slf4j
+public class JdkHttpFeignClient implements FeignClient {
+
+    /**
+     * JDK HttpClient 不允许手动设置的请求头，由客户端自行维护
+     */
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        RESTRICTED_HEADERS.addAll(List.of("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+    }
+
+    private final HttpClient httpClient;
+
+    /**
+     * 单次请求的超时时间，null 表示不限制；设置了方法超时或截止时间的请求以剩余时间替代
+     */
+    private final Duration requestTimeout;
+
+    public JdkHttpFeignClient() {
+        this(newHttpClient(HttpClient.Version.HTTP_2, Duration.ofSeconds(5), null), Duration.ofSeconds(10));
+    }
+
+    public JdkHttpFeignClient(HttpClient httpClient) {
+        this(httpClient, null);
+    }
+
+    public JdkHttpFeignClient(HttpClient httpClient, Duration requestTimeout) {
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * 创建 HttpClient
+     *
+     * @param version        HTTP 版本，HTTP_2 时对 https 通过 ALPN 协商、对 http 尝试 h2c 升级，失败时回退 HTTP/1.1
+     * @param connectTimeout 连接超时
+     * @param executor       异步回调执行器（可选），传入虚拟线程执行器时回调运行在虚拟线程上
+     * @return HttpClient
+     */
+    public static HttpClient newHttpClient(HttpClient.Version version, Duration connectTimeout, Executor executor) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Response execute(RequestTemplate requestTemplate) throws IOException {
+        HttpRequest request = buildRequest(requestTemplate);
+        log.debug("Executing request: {} {}", requestTemplate.getMethod(), request.uri());
+
+        try {
+            if (requestTemplate.isStreamingResponse()) {
+                // 流式响应不关闭连接，由调用方关闭响应体时释放
+                return buildStreamingResponse(httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream()));
+            }
+            return buildResponse(httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request interrupted: " + request.uri());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+
+        CompletableFuture<?> call;
+        try {
+            HttpRequest request = buildRequest(requestTemplate);
+            log.debug("Sending async request: {} {}", requestTemplate.getMethod(), request.uri());
+            if (requestTemplate.isStreamingResponse()) {
+                CompletableFuture<HttpResponse<InputStream>> sent =
+                        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+                sent.whenComplete((response, throwable) -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(Futures.unwrap(throwable));
+                    } else if (!future.complete(buildStreamingResponse(response))) {
+                        closeQuietly(response.body());
+                    }
+                });
+                call = sent;
+            } else {
+                CompletableFuture<HttpResponse<byte[]>> sent =
+                        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+                sent.whenComplete((response, throwable) -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(Futures.unwrap(throwable));
+                    } else {
+                        future.complete(buildResponse(response));
+                    }
+                });
+                call = sent;
+            }
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        // 取消 Future 时直接取消 sendAsync 返回的 Future，由 HttpClient 中止交换，
+        // 不依赖派生阶段是否把取消传回原 Future
+        return Futures.propagateCancel(future, call);
+    }
+
+    /**
+     * 并发发送 HEAD 请求建立连接，HTTP/2 下同一目标通常只需一个连接
+     */
+    @Override
+    public CompletableFuture<Void> warmUp(String url, int connections) {
+        URI uri;
+        try {
+            uri = url != null ? URI.create(url) : null;
+        } catch (IllegalArgumentException e) {
+            uri = null;
+        }
+        if (uri == null || uri.getScheme() == null || connections <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        log.debug("Warming up {} connections to {}", connections, uri);
+        HttpRequest request = HttpRequest.newBuilder(uri).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+        URI target = uri;
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            futures[i] = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, throwable) -> {
+                        if (throwable != null) {
+                            log.warn("Connection warm-up to {} failed: {}", target, throwable.getMessage());
+                        }
+                        return null;
+                    });
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    /**
+     * 构建 JDK HttpRequest
+     */
+    private HttpRequest buildRequest(RequestTemplate requestTemplate) throws IOException {
+        // 截止时间已过时不再发出请求
+        long timeoutMillis = Deadline.propagate(requestTemplate);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(requestTemplate.buildUrl()));
+        if (requestTemplate.getHeaders() != null) {
+            requestTemplate.getHeaders().forEach((name, value) -> {
+                if (!RESTRICTED_HEADERS.contains(name)) {
+                    builder.header(name, value);
+                }
+            });
+        }
+        // 方法超时或截止时间替换客户端配置的请求超时，可以更长也可以更短
+        Duration timeout = timeoutMillis > 0 ? Duration.ofMillis(timeoutMillis) : requestTimeout;
+        if (timeout != null) {
+            builder.timeout(timeout);
+        }
+
+        builder.method(requestTemplate.getMethod(), buildBodyPublisher(requestTemplate));
+        return builder.build();
+    }
+
+    /**
+     * 构建请求体，流式请求体在发送时才读取数据源
+     */
+    private HttpRequest.BodyPublisher buildBodyPublisher(RequestTemplate requestTemplate) throws FileNotFoundException {
+        String method = requestTemplate.getMethod();
+
+        // GET 和 DELETE 请求不需要请求体
+        Object body = requestTemplate.getBody();
+        if ("GET".equals(method) || "DELETE".equals(method) || body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+
+        if (body instanceof byte[] bytes) {
+            return HttpRequest.BodyPublishers.ofByteArray(bytes);
+        }
+        if (body instanceof EncodedBody encoded) {
+            // BodyPublisher 以 ByteBuffer 推送数据，无法直接写入输出流，编码为字节数组发送
+            return HttpRequest.BodyPublishers.ofByteArray(encoded.toByteArray());
+        }
+        if (body instanceof Path path) {
+            return HttpRequest.BodyPublishers.ofFile(path);
+        }
+        if (body instanceof File file) {
+            return HttpRequest.BodyPublishers.ofFile(file.toPath());
+        }
+
+        long contentLength = contentLength(requestTemplate);
+        if (body instanceof InputStream inputStream) {
+            return withLength(HttpRequest.BodyPublishers.ofInputStream(() -> inputStream), contentLength);
+        }
+        if (body instanceof Flow.Publisher<?> publisher) {
+            @SuppressWarnings("unchecked")
+            Flow.Publisher<ByteBuffer> buffers = (Flow.Publisher<ByteBuffer>) publisher;
+            return withLength(buffers, contentLength);
+        }
+
+        return HttpRequest.BodyPublishers.noBody();
+    }
+
+    private static HttpRequest.BodyPublisher withLength(Flow.Publisher<ByteBuffer> publisher, long contentLength) {
+        return contentLength >= 0
+                ? HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength)
+                : HttpRequest.BodyPublishers.fromPublisher(publisher);
+    }
+
+    /**
+     * 请求头中声明的 Content-Length，未声明时返回 -1 使用分块传输
+     */
+    private long contentLength(RequestTemplate requestTemplate) {
+        String contentLength = requestTemplate.getHeaders().get("Content-Length");
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 构建响应
+     */
+    private Response buildResponse(HttpResponse<byte[]> response) {
+        Response feignResponse = buildResponseHead(response);
+        feignResponse.setBody(response.body());
+        return feignResponse;
+    }
+
+    /**
+     * 构建流式响应，响应体直接从连接读取，关闭输入流时释放连接
+     */
+    private Response buildStreamingResponse(HttpResponse<InputStream> response) {
+        Response feignResponse = buildResponseHead(response);
+        feignResponse.setBodyStream(response.body());
+        return feignResponse;
+    }
+
+    /**
+     * 构建响应状态和响应头，同名响应头取最后一个值
+     */
+    private Response buildResponseHead(HttpResponse<?> response) {
+        Response feignResponse = new Response();
+        feignResponse.setStatus(response.statusCode());
+
+        Map<String, String> headers = new HashMap<>();
+        response.headers().map().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(name, values.get(values.size() - 1));
+            }
+        });
+        feignResponse.setHeaders(headers);
+        return feignResponse;
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            log.debug("Failed to close response body: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package fun.hatsumi.tsumifeign.client;
+
+import java.util.Arrays;
+
+/**
+ * 近期延迟统计
+ * 保留最近 WINDOW 个样本，分位数每记录 REFRESH_INTERVAL 个样本重新计算一次
+ *
+ * @author Kakeru
+ */
+final class LatencyTracker {
+
+    private static final int WINDOW = 128;
+
+    /**
+     * 样本数少于该值时不提供分位数
+     */
+    private static final int MIN_SAMPLES = 20;
+
+    private static final int REFRESH_INTERVAL = 16;
+
+    private final long[] samples = new long[WINDOW];
+    private int count;
+    private int next;
+    private int sinceRefresh;
+    private double cachedPercentile = -1;
+    private long cachedValue;
+
+    /**
+     * 记录一次调用的延迟（毫秒）
+     */
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % WINDOW;
+        if (count < WINDOW) {
+            count++;
+        }
+        sinceRefresh++;
+    }
+
+    /**
+     * 窗口内的样本数
+     */
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * 近期延迟的分位数（毫秒），样本不足时返回 -1
+     */
+    synchronized long percentile(double percentile) {
+        if (count < MIN_SAMPLES) {
+            return -1;
+        }
+        if (percentile != cachedPercentile || sinceRefresh >= REFRESH_INTERVAL) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * count) - 1;
+            cachedValue = sorted[Math.max(0, Math.min(count - 1, index))];
+            cachedPercentile = percentile;
+            sinceRefresh = 0;
+        }
+        return cachedValue;
+    }
+}
@@ -1,13 +1,29 @@
 package fun.hatsumi.tsumifeign.client;
 
+import fun.hatsumi.tsumifeign.codec.EncodedBody;
+import fun.hatsumi.tsumifeign.core.Deadline;
 import fun.hatsumi.tsumifeign.core.RequestTemplate;
 import fun.hatsumi.tsumifeign.core.Response;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -18,8 +34,48 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class OkHttpFeignClient implements FeignClient {
 
+    /**
+     * 缓存的基础 URL 数量上限，超出后不再缓存
+     */
+    private static final int MAX_CACHED_BASE_URLS = 1024;
+
+    /**
+     * Unix 域套接字地址前缀，如 unix:///var/run/svc.sock
+     */
+    private static final String UNIX_SCHEME = "unix:";
+
+    /**
+     * 经 Unix 域套接字发送的请求使用的虚拟主机
+     */
+    private static final HttpUrl UNIX_BASE_URL = HttpUrl.get("http://localhost/");
+
     private final OkHttpClient okHttpClient;
 
+    /**
+     * 按客户端名称或主机名覆盖的 OkHttpClient，如对网格内服务使用 h2c 或单独的并发限制
+     */
+    private final Map<String, OkHttpClient> serviceClients;
+
+    /**
+     * 按客户端名称或主机名隔离的舱壁，优先于 serviceClients
+     */
+    private final BulkheadRegistry bulkheads;
+
+    /**
+     * 已解析的基础 URL，避免每次请求重新解析完整 URL
+     */
+    private final Map<String, HttpUrl> baseUrls = new ConcurrentHashMap<>();
+
+    /**
+     * 按套接字路径派生的客户端，与来源客户端共享连接池和 Dispatcher
+     */
+    private final Map<UnixClientKey, OkHttpClient> unixClients = new ConcurrentHashMap<>();
+
+    /**
+     * 按来源客户端派生的带超时拦截器的客户端，与来源客户端共享连接池和 Dispatcher
+     */
+    private final Map<OkHttpClient, OkHttpClient> timeoutClients = new ConcurrentHashMap<>();
+
     public OkHttpFeignClient() {
         this(new OkHttpClient.Builder()
                 .connectTimeout(5, TimeUnit.SECONDS) // 连接超时时间
@@ -30,22 +86,291 @@ public class OkHttpFeignClient implements FeignClient {
     }
 
     public OkHttpFeignClient(OkHttpClient okHttpClient) {
+        this(okHttpClient, Map.of());
+    }
+
+    /**
+     * 支持按服务覆盖传输配置的构造函数
+     *
+     * @param okHttpClient   默认的 OkHttpClient
+     * @param serviceClients 按客户端名称（@TsumiFeignClient 的 name 或 url）或主机名覆盖的 OkHttpClient
+     */
+    public OkHttpFeignClient(OkHttpClient okHttpClient, Map<String, OkHttpClient> serviceClients) {
+        this(okHttpClient, serviceClients, BulkheadRegistry.empty());
+    }
+
+    /**
+     * 支持按服务舱壁隔离的构造函数
+     *
+     * @param okHttpClient   默认的 OkHttpClient
+     * @param serviceClients 按客户端名称或主机名覆盖的 OkHttpClient
+     * @param bulkheads      按客户端名称或主机名隔离的舱壁
+     */
+    public OkHttpFeignClient(OkHttpClient okHttpClient, Map<String, OkHttpClient> serviceClients,
+                             BulkheadRegistry bulkheads) {
         this.okHttpClient = okHttpClient;
+        this.serviceClients = Map.copyOf(serviceClients);
+        this.bulkheads = bulkheads;
     }
 
     @Override
     public Response execute(RequestTemplate requestTemplate) throws IOException {
+        // 截止时间已过时不再发出请求
+        long timeoutMillis = Deadline.propagate(requestTemplate);
+
         // 构建 OkHttp Request
         Request request = buildRequest(requestTemplate);
 
         log.debug("Executing request: {} {}", requestTemplate.getMethod(), request.url());
 
+        Bulkhead bulkhead = selectBulkhead(requestTemplate.getClientName(), request.url());
+        if (bulkhead != null) {
+            // 舱壁内的同步调用也经由 Dispatcher 执行，与异步调用共用并发和排队上限
+            bulkhead.admit(request.url().host());
+            OkHttpClient client = routeClient(bulkhead.getClient(), requestTemplate.getUrl());
+            return await(enqueue(newCall(client, request, timeoutMillis), requestTemplate));
+        }
+
         // 执行请求
-        try (okhttp3.Response response = okHttpClient.newCall(request).execute()) {
+        OkHttpClient client = selectClient(requestTemplate.getClientName(), request.url());
+        Call call = newCall(routeClient(client, requestTemplate.getUrl()), request, timeoutMillis);
+        if (requestTemplate.isStreamingResponse()) {
+            // 流式响应不关闭连接，由调用方关闭响应体时释放
+            return buildStreamingResponse(call.execute());
+        }
+        try (okhttp3.Response response = call.execute()) {
             return buildResponse(response);
         }
     }
 
+    @Override
+    public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        Call call;
+        try {
+            long timeoutMillis = Deadline.propagate(requestTemplate);
+            Request request = buildRequest(requestTemplate);
+            log.debug("Enqueuing request: {} {}", requestTemplate.getMethod(), request.url());
+            Bulkhead bulkhead = selectBulkhead(requestTemplate.getClientName(), request.url());
+            if (bulkhead != null) {
+                bulkhead.admit(request.url().host());
+                call = newCall(routeClient(bulkhead.getClient(), requestTemplate.getUrl()), request, timeoutMillis);
+            } else {
+                OkHttpClient client = selectClient(requestTemplate.getClientName(), request.url());
+                call = newCall(routeClient(client, requestTemplate.getUrl()), request, timeoutMillis);
+            }
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return enqueue(call, requestTemplate);
+    }
+
+    /**
+     * 创建调用，设置了截止时间时以剩余时间作为整个调用的超时，并替换客户端配置的读写超时，
+     * 方法超时可以长于也可以短于客户端的全局配置
+     */
+    private Call newCall(OkHttpClient client, Request request, long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            return client.newCall(request);
+        }
+        Call call = timeoutClients.computeIfAbsent(client, OkHttpFeignClient::withCallTimeouts)
+                .newCall(request.newBuilder().tag(CallTimeout.class, new CallTimeout(timeoutMillis)).build());
+        call.timeout().timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        return call;
+    }
+
+    /**
+     * 派生按请求标签设置读写超时的客户端
+     */
+    private static OkHttpClient withCallTimeouts(OkHttpClient client) {
+        return client.newBuilder()
+                .addInterceptor(chain -> {
+                    CallTimeout timeout = chain.request().tag(CallTimeout.class);
+                    if (timeout == null) {
+                        return chain.proceed(chain.request());
+                    }
+                    int millis = (int) Math.min(Integer.MAX_VALUE, timeout.millis());
+                    return chain.withReadTimeout(millis, TimeUnit.MILLISECONDS)
+                            .withWriteTimeout(millis, TimeUnit.MILLISECONDS)
+                            .proceed(chain.request());
+                })
+                .build();
+    }
+
+    /**
+     * 本次调用的超时（毫秒），作为请求标签传给拦截器
+     */
+    private record CallTimeout(long millis) {
+    }
+
+    /**
+     * 通过 Dispatcher 执行调用
+     */
+    private CompletableFuture<Response> enqueue(Call call, RequestTemplate requestTemplate) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+
+        // 取消 Future 时同步取消底层调用
+        future.whenComplete((response, throwable) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+
+        // 通过 Dispatcher 非阻塞执行，在回调中读取响应体
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull okhttp3.Response response) {
+                if (requestTemplate.isStreamingResponse()) {
+                    if (!future.complete(buildStreamingResponse(response))) {
+                        response.close();
+                    }
+                    return;
+                }
+                try (response) {
+                    future.complete(buildResponse(response));
+                } catch (IOException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 在调用线程上等待异步调用完成，被中断时取消调用
+     */
+    private Response await(CompletableFuture<Response> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 以目标地址作为客户端名称预热
+     */
+    @Override
+    public CompletableFuture<Void> warmUp(String url, int connections) {
+        return warmUp(url, url, connections);
+    }
+
+    /**
+     * 并发发送 HEAD 请求预热连接池，响应状态不影响结果；
+     * 与请求相同按舱壁、客户端名称、主机名选择客户端，连接建立在实际发送请求的连接池中
+     */
+    @Override
+    public CompletableFuture<Void> warmUp(String clientName, String url, int connections) {
+        HttpUrl httpUrl = url != null ? parseBaseUrl(url) : null;
+        if (httpUrl == null || connections <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        log.debug("Warming up {} connections to {}", connections, url);
+        Request request = new Request.Builder().url(httpUrl).head().build();
+        OkHttpClient client = routeClient(selectClient(clientName, httpUrl), url);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            client.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                    log.warn("Connection warm-up to {} failed: {}", httpUrl, e.getMessage());
+                    future.complete(null);
+                }
+
+                @Override
+                public void onResponse(@NotNull Call call, @NotNull okhttp3.Response response) {
+                    response.close();
+                    future.complete(null);
+                }
+            });
+            futures[i] = future;
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    /**
+     * 客户端使用 ConnectionTracker 作为事件监听时，关闭指向目标地址的空闲连接
+     * 按服务覆盖的客户端和舱壁由默认客户端派生，共用同一个跟踪器
+     */
+    @Override
+    public void evictConnections(String url) {
+        HttpUrl httpUrl = url != null ? HttpUrl.parse(url) : null;
+        if (httpUrl == null) {
+            return;
+        }
+        if (okHttpClient.eventListenerFactory() instanceof ConnectionTracker tracker) {
+            int evicted = tracker.evictIdle(httpUrl.host(), httpUrl.port());
+            log.debug("Evicted {} idle connections to {}", evicted, httpUrl);
+        }
+    }
+
+    /**
+     * 基础 URL 为 unix: 地址时，派生通过该套接字建连的客户端；
+     * 连接池按 SocketFactory 区分地址，不同套接字的连接不会混用
+     */
+    private OkHttpClient routeClient(OkHttpClient client, String baseUrl) {
+        if (baseUrl == null || !baseUrl.startsWith(UNIX_SCHEME)) {
+            return client;
+        }
+        return unixClients.computeIfAbsent(new UnixClientKey(client, baseUrl), key -> {
+            Path socketPath = Path.of(URI.create(baseUrl).getPath());
+            log.info("Routing {} through unix domain socket {}", baseUrl, socketPath);
+            return client.newBuilder()
+                    .socketFactory(new UnixDomainSocketFactory(socketPath))
+                    .dns(hostname -> List.of(InetAddress.getLoopbackAddress()))
+                    .build();
+        });
+    }
+
+    private record UnixClientKey(OkHttpClient client, String baseUrl) {
+    }
+
+    /**
+     * 依次按客户端名称、主机名查找舱壁
+     */
+    private Bulkhead selectBulkhead(String clientName, HttpUrl url) {
+        if (bulkheads.isEmpty()) {
+            return null;
+        }
+        Bulkhead bulkhead = clientName != null ? bulkheads.get(clientName) : null;
+        return bulkhead != null ? bulkhead : bulkheads.get(url.host());
+    }
+
+    /**
+     * 依次按舱壁、客户端名称、主机名查找覆盖配置，未配置时使用默认客户端
+     */
+    private OkHttpClient selectClient(String clientName, HttpUrl url) {
+        Bulkhead bulkhead = selectBulkhead(clientName, url);
+        if (bulkhead != null) {
+            return bulkhead.getClient();
+        }
+        if (serviceClients.isEmpty()) {
+            return okHttpClient;
+        }
+        OkHttpClient client = clientName != null ? serviceClients.get(clientName) : null;
+        if (client == null) {
+            client = serviceClients.get(url.host());
+        }
+        return client != null ? client : okHttpClient;
+    }
+
     /**
      * 构建 OkHttp Request
      */
@@ -53,8 +378,7 @@ public class OkHttpFeignClient implements FeignClient {
         Request.Builder builder = new Request.Builder();
 
         // 设置 URL
-        String url = requestTemplate.buildUrl();
-        builder.url(url);
+        builder.url(buildUrl(requestTemplate));
 
         // 设置请求头
         if (requestTemplate.getHeaders() != null) {
@@ -68,6 +392,47 @@ public class OkHttpFeignClient implements FeignClient {
         return builder.build();
     }
 
+    /**
+     * 在预解析的基础 URL 上追加编码后的路径和查询串；基础 URL 无法解析或自带查询串时按完整 URL 解析
+     */
+    private HttpUrl buildUrl(RequestTemplate requestTemplate) {
+        HttpUrl baseUrl = parseBaseUrl(requestTemplate.getUrl());
+        if (baseUrl == null || baseUrl.encodedQuery() != null) {
+            return HttpUrl.get(requestTemplate.buildUrl());
+        }
+
+        HttpUrl.Builder builder = baseUrl.newBuilder();
+        String path = requestTemplate.buildPath();
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        // 与 RequestTemplate.buildUrl 一致，空路径时补齐末尾的 '/'
+        builder.addEncodedPathSegments(path);
+        String query = requestTemplate.buildQuery();
+        if (query != null) {
+            builder.encodedQuery(query);
+        }
+        return builder.build();
+    }
+
+    private HttpUrl parseBaseUrl(String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        if (url.startsWith(UNIX_SCHEME)) {
+            return UNIX_BASE_URL;
+        }
+        HttpUrl baseUrl = baseUrls.get(url);
+        if (baseUrl != null) {
+            return baseUrl;
+        }
+        baseUrl = HttpUrl.parse(url);
+        if (baseUrl != null && baseUrls.size() < MAX_CACHED_BASE_URLS) {
+            baseUrls.put(url, baseUrl);
+        }
+        return baseUrl;
+    }
+
     /**
      * 构建请求体
      */
@@ -89,14 +454,83 @@ public class OkHttpFeignClient implements FeignClient {
                     ("Content-Type", "application/json; charset=UTF-8");
             return RequestBody.create((byte[]) body, MediaType.parse(contentType));
         }
+        if (body instanceof EncodedBody encoded) {
+            String contentType = requestTemplate.getHeaders().getOrDefault
+                    ("Content-Type", "application/json; charset=UTF-8");
+            return StreamingRequestBodies.ofEncoded(encoded, MediaType.parse(contentType));
+        }
+
+        // 流式请求体，写出时才读取数据源
+        MediaType mediaType = MediaType.parse(requestTemplate.getHeaders().getOrDefault
+                ("Content-Type", "application/octet-stream"));
+        if (body instanceof Path path) {
+            return StreamingRequestBodies.ofPath(path, mediaType);
+        }
+        if (body instanceof File file) {
+            return StreamingRequestBodies.ofPath(file.toPath(), mediaType);
+        }
+        if (body instanceof InputStream inputStream) {
+            return StreamingRequestBodies.ofInputStream(inputStream, mediaType, contentLength(requestTemplate));
+        }
+        if (body instanceof Flow.Publisher<?> publisher) {
+            @SuppressWarnings("unchecked")
+            Flow.Publisher<ByteBuffer> buffers = (Flow.Publisher<ByteBuffer>) publisher;
+            return StreamingRequestBodies.ofPublisher(buffers, mediaType, contentLength(requestTemplate));
+        }
 
         return RequestBody.create(new byte[0]);
     }
 
+    /**
+     * 请求头中声明的 Content-Length，未声明时返回 -1 使用分块传输
+     */
+    private long contentLength(RequestTemplate requestTemplate) {
+        String contentLength = requestTemplate.getHeaders().get("Content-Length");
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     /**
      * 构建响应
      */
     private Response buildResponse(okhttp3.Response response) throws IOException {
+        Response feignResponse = buildResponseHead(response);
+
+        // 设置响应体
+        ResponseBody responseBody = response.body();
+        if (responseBody != null) {
+            feignResponse.setBody(responseBody.bytes());
+        }
+
+        return feignResponse;
+    }
+
+    /**
+     * 构建流式响应，响应体直接从连接读取，关闭输入流时释放连接
+     */
+    private Response buildStreamingResponse(okhttp3.Response response) {
+        Response feignResponse = buildResponseHead(response);
+
+        ResponseBody responseBody = response.body();
+        if (responseBody != null) {
+            feignResponse.setBodyStream(responseBody.byteStream());
+        } else {
+            response.close();
+        }
+
+        return feignResponse;
+    }
+
+    /**
+     * 构建响应状态和响应头
+     */
+    private Response buildResponseHead(okhttp3.Response response) {
         Response feignResponse = new Response();
         feignResponse.setStatus(response.code());
 
@@ -106,13 +540,6 @@ public class OkHttpFeignClient implements FeignClient {
                 .forEach(pair
                         -> headers.put(pair.getFirst(), pair.getSecond()));
         feignResponse.setHeaders(headers);
-
-        // 设置响应体
-        ResponseBody responseBody = response.body();
-        if (responseBody != null) {
-            feignResponse.setBody(responseBody.bytes());
-        }
-
         return feignResponse;
     }
 }
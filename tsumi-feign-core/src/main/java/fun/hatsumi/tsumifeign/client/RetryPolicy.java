@@ -0,0 +1,41 @@
+package fun.hatsumi.tsumifeign.client;
+
+import java.util.Set;
+
+/**
+ * 重试策略
+ *
+ * @param maxRetries           最大重试次数，不含首次请求
+ * @param initialBackoffMillis 首次重试前的退避上限（毫秒），之后每次翻倍，实际等待时间在 [0, 上限] 内随机
+ * @param maxBackoffMillis     退避上限的最大值（毫秒）
+ * @param retryableStatuses    幂等请求可以重试的响应状态码
+ * @author Kakeru
+ */
+public record RetryPolicy(int maxRetries, long initialBackoffMillis, long maxBackoffMillis,
+                          Set<Integer> retryableStatuses) {
+
+    public RetryPolicy {
+        if (maxRetries < 0 || initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis) {
+            throw new IllegalArgumentException("Invalid retry policy");
+        }
+        retryableStatuses = Set.copyOf(retryableStatuses);
+    }
+
+    /**
+     * 默认策略：最多重试 3 次，退避从 100 毫秒开始、不超过 2 秒，重试 502、503 和 504
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(3, 100, 2000, Set.of(502, 503, 504));
+    }
+
+    /**
+     * 第 retry 次重试（从 1 开始）前的退避时间，带完全随机抖动
+     */
+    long backoffMillis(int retry, double random) {
+        long ceiling = initialBackoffMillis << Math.min(retry - 1, 30);
+        if (ceiling <= 0 || ceiling > maxBackoffMillis) {
+            ceiling = maxBackoffMillis;
+        }
+        return (long) (ceiling * random);
+    }
+}
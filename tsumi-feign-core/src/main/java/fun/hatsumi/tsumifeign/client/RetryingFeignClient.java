@@ -0,0 +1,295 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.codec.EncodedBody;
+import fun.hatsumi.tsumifeign.core.Deadline;
+import fun.hatsumi.tsumifeign.core.DeadlineExceededException;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 重试 Feign 客户端
+ * 幂等请求在 I/O 异常或指定状态码时重试，非幂等请求只在连接未建立时重试；重试前按指数退避加随机抖动等待，
+ * 与 LoadBalancerFeignClient 组合时重试发往其他实例。每次重试消耗按客户端共享的令牌预算，
+ * 预算只随成功的调用恢复，下游整体故障时重试很快停止，不会放大流量
+ *
+ * @author Kakeru
+ */
+@Slf4j
+public class RetryingFeignClient implements FeignClient {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS", "TRACE");
+
+    private final FeignClient delegate;
+    private final RetryPolicy policy;
+    private final TokenBudget budget;
+
+    public RetryingFeignClient(FeignClient delegate, RetryPolicy policy, TokenBudget budget) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.budget = budget;
+    }
+
+    @Override
+    public Response execute(RequestTemplate requestTemplate) throws IOException {
+        if (!isReplayable(requestTemplate)) {
+            return delegate.execute(requestTemplate);
+        }
+
+        RequestTemplate snapshot = prepare(requestTemplate);
+        RequestTemplate attempt = requestTemplate;
+        for (int retry = 1; ; retry++) {
+            Response response = null;
+            IOException failure = null;
+            try {
+                response = delegate.execute(attempt);
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            if (failure == null && !isRetryableStatus(requestTemplate, response)) {
+                onSuccess(response);
+                return response;
+            }
+            long backoff = failure == null || isRetryable(requestTemplate, failure)
+                    ? nextBackoff(requestTemplate, retry) : -1;
+            if (backoff < 0) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+            discard(requestTemplate, response, failure, retry);
+
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Retry interrupted");
+            }
+            attempt = snapshot.copy();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        if (!isReplayable(requestTemplate)) {
+            return delegate.executeAsync(requestTemplate);
+        }
+        return new AsyncRetry(requestTemplate, prepare(requestTemplate)).start();
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String url, int connections) {
+        return delegate.warmUp(url, connections);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String clientName, String url, int connections) {
+        return delegate.warmUp(clientName, url, connections);
+    }
+
+    @Override
+    public void evictConnections(String url) {
+        delegate.evictConnections(url);
+    }
+
+    /**
+     * 各次请求共享已选实例，返回首次请求发出前的模板副本，重试基于该副本发出
+     */
+    private RequestTemplate prepare(RequestTemplate requestTemplate) {
+        if (requestTemplate.getAttemptedInstances() == null) {
+            requestTemplate.setAttemptedInstances(ConcurrentHashMap.newKeySet());
+        }
+        return requestTemplate.copy();
+    }
+
+    /**
+     * 流式请求体只能发送一次，不参与重试
+     */
+    private boolean isReplayable(RequestTemplate requestTemplate) {
+        Object body = requestTemplate.getBody();
+        return policy.maxRetries() > 0 && (body == null || body instanceof byte[] || body instanceof EncodedBody);
+    }
+
+    private static boolean isIdempotent(RequestTemplate requestTemplate) {
+        String method = requestTemplate.getMethod();
+        return method != null && IDEMPOTENT_METHODS.contains(method.toUpperCase());
+    }
+
+    private boolean isRetryableStatus(RequestTemplate requestTemplate, Response response) {
+        return isIdempotent(requestTemplate) && policy.retryableStatuses().contains(response.getStatus());
+    }
+
+    /**
+     * 截止时间已过、舱壁拒绝和调用被中断时不重试；连接未建立时请求未发出，任意方法都可以重试
+     * 负载均衡等装饰器会包装底层异常，各项判断都沿异常链查找
+     */
+    private static boolean isRetryable(RequestTemplate requestTemplate, IOException failure) {
+        if (Thread.currentThread().isInterrupted()
+                || findCause(failure, DeadlineExceededException.class, BulkheadFullException.class) != null) {
+            return false;
+        }
+        if (findCause(failure, ConnectException.class, NoRouteToHostException.class,
+                UnknownHostException.class) != null) {
+            return true;
+        }
+        Throwable interrupted = findCause(failure, InterruptedIOException.class);
+        if (interrupted != null && !(interrupted instanceof SocketTimeoutException)) {
+            // 整个调用超时或被取消
+            return false;
+        }
+        return isIdempotent(requestTemplate);
+    }
+
+    /**
+     * 沿异常链查找第一个属于指定类型之一的异常，未找到时返回 null
+     */
+    @SafeVarargs
+    private static Throwable findCause(Throwable failure, Class<? extends Throwable>... types) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            for (Class<? extends Throwable> type : types) {
+                if (type.isInstance(cause)) {
+                    return cause;
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 第 retry 次重试前的等待时间，重试次数用尽、预算不足或等待会超过截止时间时返回 -1
+     */
+    private long nextBackoff(RequestTemplate requestTemplate, int retry) {
+        if (retry > policy.maxRetries()) {
+            return -1;
+        }
+        long backoff = policy.backoffMillis(retry, ThreadLocalRandom.current().nextDouble());
+        Deadline deadline = requestTemplate.getDeadline();
+        if (deadline != null && deadline.remainingMillis() <= backoff) {
+            return -1;
+        }
+        if (!budget.tryAcquire()) {
+            log.warn("Retry budget exhausted, not retrying {} {}", requestTemplate.getMethod(), requestTemplate.getPath());
+            return -1;
+        }
+        return backoff;
+    }
+
+    private void onSuccess(Response response) {
+        if (response.isSuccess()) {
+            budget.deposit();
+        }
+    }
+
+    private static void discard(RequestTemplate requestTemplate, Response response, Throwable failure, int retry) {
+        if (response != null) {
+            log.debug("Retrying {} {} after status {} (retry {})",
+                    requestTemplate.getMethod(), requestTemplate.getPath(), response.getStatus(), retry);
+            closeQuietly(response);
+        } else {
+            log.debug("Retrying {} {} after {} (retry {})",
+                    requestTemplate.getMethod(), requestTemplate.getPath(), failure.toString(), retry);
+        }
+    }
+
+    private static void closeQuietly(Response response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            log.debug("Failed to close discarded response", e);
+        }
+    }
+
+    /**
+     * 一次异步调用的重试过程，退避在计时线程上等待，取消返回的 Future 时同时取消进行中的请求
+     */
+    private final class AsyncRetry {
+
+        private final RequestTemplate template;
+        private final RequestTemplate snapshot;
+        private final CompletableFuture<Response> result = new CompletableFuture<>();
+        private volatile CompletableFuture<Response> current;
+
+        private AsyncRetry(RequestTemplate template, RequestTemplate snapshot) {
+            this.template = template;
+            this.snapshot = snapshot;
+        }
+
+        private CompletableFuture<Response> start() {
+            result.whenComplete((response, throwable) -> {
+                CompletableFuture<Response> attempt = current;
+                if (result.isCancelled() && attempt != null) {
+                    attempt.cancel(true);
+                }
+            });
+            attempt(template, 1);
+            return result;
+        }
+
+        private void attempt(RequestTemplate attempt, int retry) {
+            CompletableFuture<Response> future;
+            try {
+                future = delegate.executeAsync(attempt);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            current = future;
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+            future.whenComplete((response, throwable) -> onComplete(response, throwable, retry));
+        }
+
+        private void onComplete(Response response, Throwable throwable, int retry) {
+            if (result.isDone()) {
+                if (response != null) {
+                    closeQuietly(response);
+                }
+                return;
+            }
+
+            Throwable failure = throwable != null ? Futures.unwrap(throwable) : null;
+            if (failure == null && !isRetryableStatus(template, response)) {
+                onSuccess(response);
+                if (!result.complete(response)) {
+                    closeQuietly(response);
+                }
+                return;
+            }
+            boolean retryable = failure == null
+                    || (failure instanceof IOException io && isRetryable(template, io));
+            long backoff = retryable ? nextBackoff(template, retry) : -1;
+            if (backoff < 0) {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else if (!result.complete(response)) {
+                    closeQuietly(response);
+                }
+                return;
+            }
+            discard(template, response, failure, retry);
+
+            CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS).execute(() -> {
+                if (!result.isDone()) {
+                    attempt(snapshot.copy(), retry + 1);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.codec.EncodedBody;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 流式请求体
+ * 请求体在写出时才从数据源读取，经 Okio 分段缓冲写入连接，上传大文件时内存占用与文件大小无关
+ *
+ * @author Kakeru
+ */
+final class StreamingRequestBodies {
+
+    private StreamingRequestBodies() {
+    }
+
+    /**
+     * 文件请求体，Content-Length 取文件大小，可在重定向或重试时重复发送
+     */
+    static RequestBody ofPath(Path path, MediaType mediaType) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return mediaType;
+            }
+
+            @Override
+            public long contentLength() throws IOException {
+                return Files.size(path);
+            }
+
+            @Override
+            public void writeTo(@NotNull BufferedSink sink) throws IOException {
+                try (Source source = Okio.source(path)) {
+                    sink.writeAll(source);
+                }
+            }
+        };
+    }
+
+    /**
+     * 延迟编码的请求体，写出时由编码器直接写入 Okio 的分段缓冲，可在重定向或重试时重复发送
+     * 长度未知，HTTP/1.1 下使用分块传输
+     */
+    static RequestBody ofEncoded(EncodedBody body, MediaType mediaType) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return mediaType;
+            }
+
+            @Override
+            public void writeTo(@NotNull BufferedSink sink) throws IOException {
+                // 不关闭 sink 的输出流视图，连接由 OkHttp 管理
+                body.writeTo(sink.outputStream());
+            }
+        };
+    }
+
+    /**
+     * 输入流请求体，只能发送一次，发送完成后关闭输入流
+     *
+     * @param contentLength 已知长度，-1 表示未知，此时使用分块传输
+     */
+    static RequestBody ofInputStream(InputStream inputStream, MediaType mediaType, long contentLength) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return mediaType;
+            }
+
+            @Override
+            public long contentLength() {
+                return contentLength;
+            }
+
+            @Override
+            public boolean isOneShot() {
+                return true;
+            }
+
+            @Override
+            public void writeTo(@NotNull BufferedSink sink) throws IOException {
+                try (Source source = Okio.source(inputStream)) {
+                    sink.writeAll(source);
+                }
+            }
+        };
+    }
+
+    /**
+     * Publisher 请求体，只能发送一次；每写出一个 ByteBuffer 才请求下一个，
+     * 发布者速度再快也最多缓存一个元素
+     *
+     * @param contentLength 已知长度，-1 表示未知，此时使用分块传输
+     */
+    static RequestBody ofPublisher(Flow.Publisher<ByteBuffer> publisher, MediaType mediaType, long contentLength) {
+        return new PublisherRequestBody(publisher, mediaType, contentLength);
+    }
+
+    /**
+     * 将 Flow.Publisher 桥接到 OkHttp 的阻塞写出
+     */
+    private static final class PublisherRequestBody extends RequestBody {
+
+        /**
+         * 发布完成信号
+         */
+        private static final Object COMPLETE = new Object();
+
+        private final Flow.Publisher<ByteBuffer> publisher;
+        private final MediaType mediaType;
+        private final long contentLength;
+
+        private PublisherRequestBody(Flow.Publisher<ByteBuffer> publisher, MediaType mediaType, long contentLength) {
+            this.publisher = publisher;
+            this.mediaType = mediaType;
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return mediaType;
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return true;
+        }
+
+        @Override
+        public void writeTo(@NotNull BufferedSink sink) throws IOException {
+            BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+            publisher.subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    signals.add(subscription);
+                }
+
+                @Override
+                public void onNext(ByteBuffer item) {
+                    signals.add(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    signals.add(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    signals.add(COMPLETE);
+                }
+            });
+
+            Flow.Subscription subscription = null;
+            try {
+                while (true) {
+                    Object signal = signals.take();
+                    if (signal == COMPLETE) {
+                        return;
+                    }
+                    if (signal instanceof Throwable throwable) {
+                        throw new IOException("Request body publisher failed", throwable);
+                    }
+                    if (signal instanceof Flow.Subscription s) {
+                        subscription = s;
+                    } else {
+                        ByteBuffer buffer = (ByteBuffer) signal;
+                        while (buffer.hasRemaining()) {
+                            sink.write(buffer);
+                        }
+                    }
+                    subscription.request(1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(subscription);
+                throw new InterruptedIOException("Interrupted while writing request body");
+            } catch (IOException | RuntimeException e) {
+                cancel(subscription);
+                throw e;
+            }
+        }
+
+        private static void cancel(Flow.Subscription subscription) {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
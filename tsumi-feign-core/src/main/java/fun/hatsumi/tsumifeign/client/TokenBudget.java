@@ -0,0 +1,65 @@
+package fun.hatsumi.tsumifeign.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 令牌桶预算
+ * 每次正常调用存入 ratio 个令牌，追加的请求（对冲、重试）各消耗一个令牌，
+ * 额外负载因此不超过正常调用量的固定比例，令牌数以 maxTokens 为上限
+ *
+ * @author Kakeru
+ */
+public class TokenBudget {
+
+    /**
+     * 令牌按千分之一为单位计数，避免浮点数的并发更新
+     */
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong tokens;
+
+    /**
+     * @param ratio     每次正常调用存入的令牌数，如 0.1 表示额外请求不超过正常调用的 10%
+     * @param maxTokens 令牌上限，也是初始令牌数，决定允许的突发量
+     */
+    public TokenBudget(double ratio, int maxTokens) {
+        if (ratio < 0 || maxTokens < 1) {
+            throw new IllegalArgumentException("ratio must be non-negative and maxTokens at least 1");
+        }
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = maxTokens * SCALE;
+        this.tokens = new AtomicLong(capacity);
+    }
+
+    /**
+     * 存入一次正常调用的令牌
+     */
+    public void deposit() {
+        tokens.getAndUpdate(current -> Math.min(capacity, current + deposit));
+    }
+
+    /**
+     * 尝试取出一个令牌
+     *
+     * @return 预算充足时返回 true
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * 当前可用的令牌数
+     */
+    public double available() {
+        return tokens.get() / (double) SCALE;
+    }
+}
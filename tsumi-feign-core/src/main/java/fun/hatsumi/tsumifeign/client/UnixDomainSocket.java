@@ -0,0 +1,244 @@
+package fun.hatsumi.tsumifeign.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * 基于 Unix 域套接字通道的 Socket 适配
+ * UNIX 协议族的 SocketChannel 不提供 socket() 适配器，这里以非阻塞通道加选择器实现读写，
+ * 读操作支持 soTimeout，OkHttp 的空闲连接健康检查依赖它；忽略 connect 传入的 TCP 地址
+ *
+ * @author Kakeru
+ */
+final class UnixDomainSocket extends Socket {
+
+    private final Path path;
+    private final Object readLock = new Object();
+    private final Object writeLock = new Object();
+
+    private volatile SocketChannel channel;
+    private Selector readSelector;
+    private Selector writeSelector;
+    private volatile int soTimeout;
+    private volatile boolean closed;
+    private volatile boolean inputShutdown;
+    private volatile boolean outputShutdown;
+
+    private final InputStream inputStream = new InputStream() {
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return UnixDomainSocket.this.read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            UnixDomainSocket.this.close();
+        }
+    };
+
+    private final OutputStream outputStream = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            UnixDomainSocket.this.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            UnixDomainSocket.this.close();
+        }
+    };
+
+    UnixDomainSocket(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void connect(SocketAddress endpoint) throws IOException {
+        connect(endpoint, 0);
+    }
+
+    @Override
+    public void connect(SocketAddress endpoint, int timeout) throws IOException {
+        if (closed) {
+            throw new SocketException("Socket is closed");
+        }
+        // 本机套接字连接立即完成，不需要连接超时
+        SocketChannel opened = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            opened.connect(UnixDomainSocketAddress.of(path));
+            opened.configureBlocking(false);
+        } catch (IOException e) {
+            opened.close();
+            throw new IOException("Failed to connect to unix socket " + path, e);
+        }
+        channel = opened;
+    }
+
+    private int read(byte[] b, int off, int len) throws IOException {
+        if (inputShutdown) {
+            return -1;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+        synchronized (readLock) {
+            while (true) {
+                int n = channel().read(buffer);
+                if (n != 0 || len == 0) {
+                    return n;
+                }
+                int timeout = soTimeout;
+                if (readSelector == null) {
+                    readSelector = Selector.open();
+                    channel().register(readSelector, SelectionKey.OP_READ);
+                }
+                if (await(readSelector, timeout) == 0 && timeout > 0 && !closed) {
+                    throw new SocketTimeoutException("Read timed out");
+                }
+            }
+        }
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        if (outputShutdown) {
+            throw new SocketException("Socket output is shutdown");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+        synchronized (writeLock) {
+            while (buffer.hasRemaining()) {
+                if (channel().write(buffer) > 0) {
+                    continue;
+                }
+                // 发送缓冲区已满，等待可写；写超时由 OkHttp 关闭套接字实现
+                if (writeSelector == null) {
+                    writeSelector = Selector.open();
+                    channel().register(writeSelector, SelectionKey.OP_WRITE);
+                }
+                await(writeSelector, 0);
+            }
+        }
+    }
+
+    private int await(Selector selector, int timeout) throws IOException {
+        try {
+            int ready = selector.select(timeout);
+            selector.selectedKeys().clear();
+            return ready;
+        } catch (ClosedSelectorException e) {
+            throw new SocketException("Socket closed");
+        }
+    }
+
+    private SocketChannel channel() throws SocketException {
+        SocketChannel current = channel;
+        if (current == null) {
+            throw new SocketException("Socket is not connected");
+        }
+        return current;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        channel();
+        return inputStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        channel();
+        return outputStream;
+    }
+
+    @Override
+    public void setSoTimeout(int timeout) {
+        this.soTimeout = timeout;
+    }
+
+    @Override
+    public int getSoTimeout() {
+        return soTimeout;
+    }
+
+    @Override
+    public void shutdownInput() throws IOException {
+        channel().shutdownInput();
+        inputShutdown = true;
+    }
+
+    @Override
+    public void shutdownOutput() throws IOException {
+        channel().shutdownOutput();
+        outputShutdown = true;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return channel != null;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean isInputShutdown() {
+        return inputShutdown;
+    }
+
+    @Override
+    public boolean isOutputShutdown() {
+        return outputShutdown;
+    }
+
+    /**
+     * 关闭通道和选择器，阻塞在选择器上的读写随之返回
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        SocketChannel current = channel;
+        if (current != null) {
+            current.close();
+        }
+        Selector selector = readSelector;
+        if (selector != null) {
+            selector.close();
+        }
+        selector = writeSelector;
+        if (selector != null) {
+            selector.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "UnixDomainSocket[" + path + "]";
+    }
+}
@@ -0,0 +1,51 @@
+package fun.hatsumi.tsumifeign.client;
+
+import javax.net.SocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+
+/**
+ * 创建连接到固定 Unix 域套接字的 Socket，供 OkHttpClient.Builder#socketFactory 使用
+ *
+ * @author Kakeru
+ */
+public class UnixDomainSocketFactory extends SocketFactory {
+
+    private final Path path;
+
+    public UnixDomainSocketFactory(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public Socket createSocket() {
+        return new UnixDomainSocket(path);
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        Socket socket = createSocket();
+        socket.connect(InetSocketAddress.createUnresolved(host, port));
+        return socket;
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        return createSocket(host, port);
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        Socket socket = createSocket();
+        socket.connect(new InetSocketAddress(host, port));
+        return socket;
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+        return createSocket(address, port);
+    }
+}
@@ -0,0 +1,86 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 虚拟线程 Feign 客户端
+ * 将被装饰客户端的阻塞 execute 调用放到虚拟线程上执行，作为异步路径的实现，
+ * 并发请求数不再受平台线程池或 OkHttp Dispatcher 的 maxRequests 限制
+ * <p>
+ * 同步调用仍在调用线程上执行：调用方本身运行在虚拟线程上时（如 spring.threads.virtual.enabled），
+ * 整条阻塞调用链自然运行在虚拟线程上
+ *
+ * @author Kakeru
+ */
+@Slf4j
+public class VirtualThreadFeignClient implements FeignClient {
+
+    private final FeignClient delegate;
+    private final ExecutorService executor;
+
+    public VirtualThreadFeignClient(FeignClient delegate) {
+        this(delegate, Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("tsumi-feign-vt-", 0).factory()));
+    }
+
+    public VirtualThreadFeignClient(FeignClient delegate, ExecutorService executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public Response execute(RequestTemplate requestTemplate) throws IOException {
+        return delegate.execute(requestTemplate);
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    future.complete(delegate.execute(requestTemplate));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to submit request to virtual thread executor", e);
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        // 取消时中断虚拟线程，阻塞在套接字上的读写会随之关闭
+        future.whenComplete((response, throwable) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String url, int connections) {
+        return delegate.warmUp(url, connections);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String clientName, String url, int connections) {
+        return delegate.warmUp(clientName, url, connections);
+    }
+
+    @Override
+    public void evictConnections(String url) {
+        delegate.evictConnections(url);
+    }
+}
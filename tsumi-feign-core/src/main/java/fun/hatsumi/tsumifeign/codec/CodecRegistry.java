@@ -0,0 +1,103 @@
+package fun.hatsumi.tsumifeign.codec;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 编解码器注册表
+ * 按名称登记编码器和解码器，供 @Codec 按客户端或方法选择；按响应的 Content-Type 查找实际使用的解码器
+ *
+ * @author Kakeru
+ */
+public class CodecRegistry {
+
+    /**
+     * 文本 JSON
+     */
+    public static final String JSON = "json";
+
+    /**
+     * FastJSON2 JSONB，服务端未声明支持时回退到文本 JSON
+     */
+    public static final String JSONB = "jsonb";
+
+    private final Map<String, Entry> byName = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byMediaType = new ConcurrentHashMap<>();
+
+    /**
+     * 包含 json 和 jsonb 的注册表
+     */
+    public static CodecRegistry defaults() {
+        return defaults(new FastJsonEncoder(), new FastJsonDecoder());
+    }
+
+    /**
+     * 包含 json 和 jsonb 的注册表，json 使用指定的编解码器
+     */
+    public static CodecRegistry defaults(Encoder jsonEncoder, Decoder jsonDecoder) {
+        return new CodecRegistry()
+                .register(JSON, jsonEncoder, jsonDecoder)
+                .register(JSONB, new FastJsonbEncoder(), new FastJsonbDecoder(), JSON);
+    }
+
+    /**
+     * 登记编解码器
+     */
+    public CodecRegistry register(String name, Encoder encoder, Decoder decoder) {
+        return register(name, encoder, decoder, null);
+    }
+
+    /**
+     * 登记编解码器
+     *
+     * @param fallback 服务端未声明支持该格式时改用的编解码器名称，为 null 时始终使用该格式
+     */
+    public CodecRegistry register(String name, Encoder encoder, Decoder decoder, String fallback) {
+        Entry entry = new Entry(name, encoder, decoder, mediaType(encoder.getContentType()), fallback);
+        byName.put(name, entry);
+        if (entry.mediaType() != null) {
+            byMediaType.put(entry.mediaType(), entry);
+        }
+        return this;
+    }
+
+    /**
+     * 按名称获取编解码器
+     *
+     * @throws IllegalArgumentException 未登记该名称
+     */
+    public Entry get(String name) {
+        Entry entry = byName.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown codec: " + name);
+        }
+        return entry;
+    }
+
+    /**
+     * 按 Content-Type 查找编解码器，忽略参数和大小写，未找到时返回 null
+     */
+    public Entry forContentType(String contentType) {
+        String mediaType = mediaType(contentType);
+        return mediaType != null ? byMediaType.get(mediaType) : null;
+    }
+
+    private static String mediaType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int semicolon = contentType.indexOf(';');
+        String mediaType = (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType).trim();
+        return mediaType.isEmpty() ? null : mediaType.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 已登记的编解码器
+     *
+     * @param mediaType 编码器 Content-Type 去除参数后的媒体类型
+     * @param fallback  回退的编解码器名称，可以为 null
+     */
+    public record Entry(String name, Encoder encoder, Decoder decoder, String mediaType, String fallback) {
+    }
+}
@@ -0,0 +1,56 @@
+package fun.hatsumi.tsumifeign.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 内容压缩算法，对应一种 HTTP Content-Encoding
+ *
+ * @author Kakeru
+ */
+public interface Compressor {
+
+    /**
+     * Content-Encoding 标识，如 gzip、zstd
+     */
+    String encoding();
+
+    /**
+     * 压缩请求体
+     *
+     * @param data 原始数据
+     * @return 压缩后的数据
+     * @throws IOException IO 异常
+     */
+    byte[] compress(byte[] data) throws IOException;
+
+    /**
+     * 包装压缩请求体的输出流，关闭时写出剩余的压缩数据并关闭 out
+     * 默认实现缓冲全部数据后一次压缩，支持流式压缩的算法应覆盖
+     *
+     * @param out 压缩数据的输出流
+     * @return 写入原始数据的输出流
+     * @throws IOException IO 异常
+     */
+    default OutputStream compress(OutputStream out) throws IOException {
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                try (out) {
+                    out.write(compress(toByteArray()));
+                }
+            }
+        };
+    }
+
+    /**
+     * 包装解压响应体的输入流
+     *
+     * @param compressed 压缩数据流
+     * @return 解压后的数据流
+     * @throws IOException IO 异常
+     */
+    InputStream decompress(InputStream compressed) throws IOException;
+}
@@ -1,5 +1,9 @@
 package fun.hatsumi.tsumifeign.codec;
 
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
 
 /**
@@ -18,4 +22,57 @@ public interface Decoder {
      * @return 解码后的对象
      */
     Object decode(byte[] bytes, Type type);
+
+    /**
+     * 直接从响应体输入流解码对象，省去中间的字节数组
+     * 默认读取全部字节后按字节数组解码；输入流由调用方关闭
+     *
+     * @param input 响应体输入流
+     * @param type  目标类型
+     * @return 解码后的对象
+     * @throws IOException 读取响应体失败
+     */
+    default Object decodeStream(InputStream input, Type type) throws IOException {
+        return decode(input.readAllBytes(), type);
+    }
+
+    /**
+     * 按方法元数据解码，可以使用解析方法时为其准备的资源；默认按解码目标类型解码
+     *
+     * @param bytes    字节数组
+     * @param metadata 方法元数据
+     * @return 解码后的对象
+     */
+    default Object decode(byte[] bytes, MethodMetadata metadata) {
+        return decode(bytes, metadata.getDecodeType());
+    }
+
+    /**
+     * 按方法元数据从响应体输入流解码；默认按解码目标类型解码，输入流由调用方关闭
+     *
+     * @param input    响应体输入流
+     * @param metadata 方法元数据
+     * @return 解码后的对象
+     * @throws IOException 读取响应体失败
+     */
+    default Object decodeStream(InputStream input, MethodMetadata metadata) throws IOException {
+        return decodeStream(input, metadata.getDecodeType());
+    }
+
+    /**
+     * 获取解码指定类型时请求携带的 Accept，返回 null 时不设置
+     *
+     * @param type 目标类型
+     */
+    default String getAccept(Type type) {
+        return null;
+    }
+
+    /**
+     * 预先准备指定类型的解码资源（如反序列化器），用于客户端创建时的预热
+     *
+     * @param type 目标类型
+     */
+    default void prepare(Type type) {
+    }
 }
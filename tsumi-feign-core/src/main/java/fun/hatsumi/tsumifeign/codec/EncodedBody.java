@@ -0,0 +1,42 @@
+package fun.hatsumi.tsumifeign.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 延迟编码的请求体
+ * 由流式编码器生成，发送时才由编码器直接写入连接的输出缓冲；可以重复写出，重试和对冲时重新编码
+ *
+ * @author Kakeru
+ */
+public final class EncodedBody {
+
+    private final Object value;
+    private final Encoder encoder;
+
+    public EncodedBody(Object value, Encoder encoder) {
+        this.value = value;
+        this.encoder = encoder;
+    }
+
+    /**
+     * 待编码对象
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * 将对象编码后写入输出流，不关闭输出流
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        encoder.encode(value, output);
+    }
+
+    /**
+     * 编码为字节数组，供无法直接写入输出流的场景（如请求压缩）使用
+     */
+    public byte[] toByteArray() {
+        return encoder.encode(value);
+    }
+}
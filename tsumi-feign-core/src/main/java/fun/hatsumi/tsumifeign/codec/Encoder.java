@@ -1,5 +1,11 @@
 package fun.hatsumi.tsumifeign.codec;
 
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
 /**
  * 编码器接口
  * 负责将 Java 对象编码为字节数组
@@ -16,8 +22,64 @@ public interface Encoder {
      */
     byte[] encode(Object object);
 
+    /**
+     * 将对象编码后直接写入输出流，默认先编码为字节数组再写出；输出流由调用方关闭
+     *
+     * @param object 待编码对象
+     * @param output 输出流
+     * @throws IOException 写出失败
+     */
+    default void encode(Object object, OutputStream output) throws IOException {
+        output.write(encode(object));
+    }
+
+    /**
+     * 是否以流方式编码请求体，为 true 时请求体在发送时才写入连接，不生成中间字节数组
+     */
+    default boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * 编码请求体参数：流式编码器返回延迟写出的 {@link EncodedBody}，否则返回编码后的字节数组
+     *
+     * @param object 待编码对象
+     * @return 请求体
+     */
+    default Object encodeBody(Object object) {
+        return isStreaming() ? new EncodedBody(object, this) : encode(object);
+    }
+
+    /**
+     * 按方法元数据编码请求体参数，可以使用解析方法时为其准备的资源；默认同 {@link #encodeBody(Object)}
+     *
+     * @param object   待编码对象
+     * @param metadata 方法元数据
+     * @return 请求体
+     */
+    default Object encodeBody(Object object, MethodMetadata metadata) {
+        return encodeBody(object);
+    }
+
     /**
      * 获取 Content-Type
      */
     String getContentType();
+
+    /**
+     * 获取指定参数类型的 Content-Type，可按类型选择编码格式的编码器覆盖此方法
+     *
+     * @param type 请求体参数类型
+     */
+    default String getContentType(Type type) {
+        return getContentType();
+    }
+
+    /**
+     * 预先准备指定类型的编码资源（如序列化器），用于客户端创建时的预热
+     *
+     * @param type 待编码对象的类型
+     */
+    default void prepare(Type type) {
+    }
 }
@@ -0,0 +1,244 @@
+package fun.hatsumi.tsumifeign.codec;
+
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONFactory;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.reader.ObjectReader;
+import com.alibaba.fastjson2.util.TypeUtils;
+import com.alibaba.fastjson2.writer.ObjectWriter;
+import fun.hatsumi.tsumifeign.core.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 方法级 FastJSON2 绑定
+ * 解析方法时按返回值类型和请求体类型取得 ObjectReader、ObjectWriter，连同方法声明的特性保存在方法元数据中，
+ * FastJsonEncoder 和 FastJsonDecoder 编解码时直接使用，不再逐次经 FastJSON2 的提供者缓存查找
+ *
+ * @author Kakeru
+ */
+@Slf4j
+public final class FastJsonBinding {
+
+    /**
+     * 默认的序列化特性，与 FastJsonEncoder 一致
+     */
+    static final JSONWriter.Feature[] DEFAULT_WRITE_FEATURES = {JSONWriter.Feature.WriteMapNullValue};
+
+    private static final JSONReader.Feature[] DEFAULT_READ_FEATURES = {};
+
+    private final Type decodeType;
+    private final ObjectReader<?> reader;
+    private final JSONReader.Feature[] readFeatures;
+    private final boolean checkClose;
+
+    private final Type bodyType;
+    private final Class<?> bodyClass;
+    private final ObjectWriter<?> writer;
+    private final JSONWriter.Feature[] writeFeatures;
+
+    /**
+     * 流式编码时写出请求体的编码器
+     */
+    private final Encoder encoder = new BindingEncoder();
+
+    private FastJsonBinding(Type decodeType, ObjectReader<?> reader, JSONReader.Feature[] readFeatures,
+                            Type bodyType, Class<?> bodyClass, ObjectWriter<?> writer,
+                            JSONWriter.Feature[] writeFeatures) {
+        this.decodeType = decodeType;
+        this.reader = reader;
+        this.readFeatures = readFeatures;
+        this.bodyType = bodyType;
+        this.bodyClass = bodyClass;
+        this.writer = writer;
+        this.writeFeatures = writeFeatures;
+
+        long readMask = 0;
+        for (JSONReader.Feature feature : readFeatures) {
+            readMask |= feature.mask;
+        }
+        this.checkClose = (readMask & JSONReader.Feature.IgnoreCheckClose.mask) == 0;
+    }
+
+    /**
+     * 创建绑定并取得类型对应的 ObjectReader 和 ObjectWriter
+     *
+     * @param decodeType    解码目标类型，流式响应为 null
+     * @param bodyType      请求体参数类型，没有请求体时为 null
+     * @param writeFeatures 序列化特性，为 null 时使用默认特性
+     * @param readFeatures  反序列化特性，为 null 时使用默认特性
+     * @return 方法级绑定
+     */
+    public static FastJsonBinding of(Type decodeType, Type bodyType,
+                                     JSONWriter.Feature[] writeFeatures, JSONReader.Feature[] readFeatures) {
+        ObjectReader<?> reader = isBindable(decodeType) ? resolveReader(decodeType) : null;
+
+        // 只有具体类型可以在编码前确定 ObjectWriter，接口和抽象类按运行时类型查找
+        Class<?> bodyClass = isBindable(bodyType) ? TypeUtils.getClass(bodyType) : null;
+        ObjectWriter<?> writer = null;
+        if (bodyClass != null && !bodyClass.isPrimitive() && !bodyClass.isInterface()
+                && !Modifier.isAbstract(bodyClass.getModifiers())) {
+            writer = resolveWriter(bodyType, bodyClass);
+        }
+
+        return new FastJsonBinding(decodeType, reader,
+                readFeatures != null ? readFeatures.clone() : DEFAULT_READ_FEATURES,
+                bodyType, bodyClass, writer,
+                writeFeatures != null ? writeFeatures.clone() : DEFAULT_WRITE_FEATURES);
+    }
+
+    private static boolean isBindable(Type type) {
+        return type != null && type != void.class && type != Void.class && type != String.class
+                && type != byte[].class && type != Object.class && type != Response.class;
+    }
+
+    private static ObjectReader<?> resolveReader(Type type) {
+        try {
+            return JSONFactory.getDefaultObjectReaderProvider().getObjectReader(type);
+        } catch (RuntimeException e) {
+            log.debug("Failed to resolve ObjectReader for {}, falling back to per-call lookup", type, e);
+            return null;
+        }
+    }
+
+    private static ObjectWriter<?> resolveWriter(Type type, Class<?> clazz) {
+        try {
+            return JSONFactory.getDefaultObjectWriterProvider().getObjectWriter(type, clazz, false);
+        } catch (RuntimeException e) {
+            log.debug("Failed to resolve ObjectWriter for {}, falling back to per-call lookup", type, e);
+            return null;
+        }
+    }
+
+    /**
+     * 是否已取得返回值类型的 ObjectReader
+     */
+    public boolean canRead() {
+        return reader != null;
+    }
+
+    /**
+     * 返回值类型的 ObjectReader，未取得时为 null
+     */
+    public ObjectReader<?> getReader() {
+        return reader;
+    }
+
+    /**
+     * 请求体类型的 ObjectWriter，请求体类型不是具体类型时为 null
+     */
+    public ObjectWriter<?> getWriter() {
+        return writer;
+    }
+
+    /**
+     * 解析非空的字节数组，与 JSON.parseObject 一致检查输入是否完整
+     */
+    Object read(byte[] bytes) {
+        try (JSONReader jsonReader = JSONReader.of(bytes, readContext())) {
+            Object result = read(jsonReader);
+            if (checkClose && !jsonReader.isEnd()) {
+                throw new JSONException(jsonReader.info("input not end"));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 从输入流解析，空响应体返回 null
+     */
+    Object read(InputStream input) {
+        try (JSONReader jsonReader = JSONReader.of(input, StandardCharsets.UTF_8, readContext())) {
+            if (jsonReader.isEnd()) {
+                return null;
+            }
+            return read(jsonReader);
+        }
+    }
+
+    private Object read(JSONReader jsonReader) {
+        Object result = reader.readObject(jsonReader, decodeType, null, 0);
+        jsonReader.handleResolveTasks(result);
+        return result;
+    }
+
+    private JSONReader.Context readContext() {
+        return new JSONReader.Context(JSONFactory.getDefaultObjectReaderProvider(), readFeatures);
+    }
+
+    /**
+     * 编码为字节数组
+     */
+    byte[] write(Object object) {
+        try (JSONWriter jsonWriter = JSONWriter.ofUTF8(writeContext())) {
+            write(jsonWriter, object);
+            return jsonWriter.getBytes();
+        }
+    }
+
+    /**
+     * 序列化到 JSONWriter 的线程缓存缓冲区后一次写入输出流
+     */
+    void write(Object object, OutputStream output) throws IOException {
+        try (JSONWriter jsonWriter = JSONWriter.ofUTF8(writeContext())) {
+            write(jsonWriter, object);
+            jsonWriter.flushTo(output);
+        }
+    }
+
+    private void write(JSONWriter jsonWriter, Object object) {
+        if (object == null) {
+            jsonWriter.writeNull();
+            return;
+        }
+        jsonWriter.setRootObject(object);
+        Class<?> valueClass = object.getClass();
+        ObjectWriter<?> objectWriter = valueClass == bodyClass && writer != null
+                ? writer : jsonWriter.getObjectWriter(valueClass, valueClass);
+        objectWriter.write(jsonWriter, object, null, null, 0);
+    }
+
+    private JSONWriter.Context writeContext() {
+        return new JSONWriter.Context(JSONFactory.getDefaultObjectWriterProvider(), writeFeatures);
+    }
+
+    /**
+     * 流式编码时写出请求体的编码器
+     */
+    Encoder encoder() {
+        return encoder;
+    }
+
+    @Override
+    public String toString() {
+        return "FastJsonBinding(" + decodeType + ", " + bodyType + ")";
+    }
+
+    /**
+     * 按绑定编码的编码器，供延迟编码的请求体使用
+     */
+    private final class BindingEncoder implements Encoder {
+
+        @Override
+        public byte[] encode(Object object) {
+            return write(object);
+        }
+
+        @Override
+        public void encode(Object object, OutputStream output) throws IOException {
+            write(object, output);
+        }
+
+        @Override
+        public String getContentType() {
+            return FastJsonEncoder.CONTENT_TYPE;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package fun.hatsumi.tsumifeign.codec;
 
 import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONFactory;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.reader.ObjectReader;
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 
@@ -36,4 +42,60 @@ public class FastJsonDecoder implements Decoder {
         // 使用 FastJSON2 解析 JSON
         return JSON.parseObject(bytes, type);
     }
+
+    /**
+     * 从输入流读取 JSON，读取缓冲来自 FastJSON2 的缓冲池，大响应不再分配与响应体等长的字节数组
+     */
+    @Override
+    public Object decodeStream(InputStream input, Type type) throws IOException {
+        if (input == null || type == void.class || type == Void.class) {
+            return null;
+        }
+        if (type == String.class || type == byte[].class) {
+            return decode(input.readAllBytes(), type);
+        }
+
+        try (JSONReader reader = JSONReader.of(input, StandardCharsets.UTF_8)) {
+            if (reader.isEnd()) {
+                return null;
+            }
+            ObjectReader<?> objectReader = reader.getObjectReader(type);
+            Object result = objectReader.readObject(reader, type, null, 0);
+            reader.handleResolveTasks(result);
+            return result;
+        }
+    }
+
+    /**
+     * 使用方法元数据中预先取得的 ObjectReader 和方法声明的特性解析
+     */
+    @Override
+    public Object decode(byte[] bytes, MethodMetadata metadata) {
+        FastJsonBinding binding = metadata.getJsonBinding();
+        if (binding == null || !binding.canRead() || bytes == null || bytes.length == 0) {
+            return decode(bytes, metadata.getDecodeType());
+        }
+        return binding.read(bytes);
+    }
+
+    @Override
+    public Object decodeStream(InputStream input, MethodMetadata metadata) throws IOException {
+        FastJsonBinding binding = metadata.getJsonBinding();
+        if (binding == null || !binding.canRead() || input == null) {
+            return decodeStream(input, metadata.getDecodeType());
+        }
+        return binding.read(input);
+    }
+
+    /**
+     * 提前创建并缓存目标类型的 ObjectReader
+     */
+    @Override
+    public void prepare(Type type) {
+        if (type == null || type == String.class || type == byte[].class
+                || type == void.class || type == Void.class || type == Object.class) {
+            return;
+        }
+        JSONFactory.getDefaultObjectReaderProvider().getObjectReader(type);
+    }
 }
@@ -1,8 +1,14 @@
 package fun.hatsumi.tsumifeign.codec;
 
 import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONFactory;
 import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.util.TypeUtils;
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -12,6 +18,24 @@ import java.nio.charset.StandardCharsets;
  */
 public class FastJsonEncoder implements Encoder {
 
+    static final String CONTENT_TYPE = "application/json; charset=UTF-8";
+
+    /**
+     * 是否以流方式编码请求体
+     */
+    private final boolean streaming;
+
+    public FastJsonEncoder() {
+        this(false);
+    }
+
+    /**
+     * @param streaming 为 true 时请求体在发送时由池化的 JSONWriter 直接写入连接，不再生成中间字节数组
+     */
+    public FastJsonEncoder(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     @Override
     public byte[] encode(Object object) {
         if (object == null) {
@@ -30,8 +54,52 @@ public class FastJsonEncoder implements Encoder {
         return JSON.toJSONBytes(object, JSONWriter.Feature.WriteMapNullValue);
     }
 
+    /**
+     * 序列化到 JSONWriter 的线程缓存缓冲区后一次写入输出流
+     */
+    @Override
+    public void encode(Object object, OutputStream output) throws IOException {
+        if (object == null) {
+            return;
+        }
+        if (object instanceof String || object instanceof byte[]) {
+            output.write(encode(object));
+            return;
+        }
+        JSON.writeTo(output, object, JSONWriter.Feature.WriteMapNullValue);
+    }
+
+    /**
+     * 使用方法元数据中预先取得的 ObjectWriter 和方法声明的特性编码
+     */
+    @Override
+    public Object encodeBody(Object object, MethodMetadata metadata) {
+        FastJsonBinding binding = metadata.getJsonBinding();
+        if (binding == null || object == null || object instanceof String || object instanceof byte[]) {
+            return encodeBody(object);
+        }
+        return streaming ? new EncodedBody(object, binding.encoder()) : binding.write(object);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     @Override
     public String getContentType() {
-        return "application/json; charset=UTF-8";
+        return CONTENT_TYPE;
+    }
+
+    /**
+     * 提前创建并缓存参数类型的 ObjectWriter
+     */
+    @Override
+    public void prepare(Type type) {
+        Class<?> clazz = TypeUtils.getClass(type);
+        if (clazz == null || clazz == String.class || clazz == byte[].class || clazz == Object.class) {
+            return;
+        }
+        JSONFactory.getDefaultObjectWriterProvider().getObjectWriter(type, clazz, false);
     }
 }
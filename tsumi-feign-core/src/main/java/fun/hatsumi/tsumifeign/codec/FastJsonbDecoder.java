@@ -0,0 +1,50 @@
+package fun.hatsumi.tsumifeign.codec;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONFactory;
+
+import java.lang.reflect.Type;
+
+/**
+ * FastJSON2 JSONB 解码器
+ * 请求时同时接受 JSONB 和文本 JSON，服务端不支持 JSONB 时按响应的 Content-Type 改用 JSON 解码
+ *
+ * @author Kakeru
+ */
+public class FastJsonbDecoder implements Decoder {
+
+    private static final String ACCEPT = FastJsonbEncoder.MEDIA_TYPE + ", application/json;q=0.9";
+
+    @Override
+    public Object decode(byte[] bytes, Type type) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        if (type == byte[].class) {
+            return bytes;
+        }
+
+        if (type == void.class || type == Void.class) {
+            return null;
+        }
+
+        return JSONB.parseObject(bytes, type);
+    }
+
+    @Override
+    public String getAccept(Type type) {
+        return ACCEPT;
+    }
+
+    /**
+     * 提前创建并缓存目标类型的 ObjectReader
+     */
+    @Override
+    public void prepare(Type type) {
+        if (type == null || type == byte[].class || type == void.class || type == Void.class || type == Object.class) {
+            return;
+        }
+        JSONFactory.getDefaultObjectReaderProvider().getObjectReader(type);
+    }
+}
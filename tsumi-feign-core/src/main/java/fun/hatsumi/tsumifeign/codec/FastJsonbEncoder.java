@@ -0,0 +1,51 @@
+package fun.hatsumi.tsumifeign.codec;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONFactory;
+import com.alibaba.fastjson2.util.TypeUtils;
+
+import java.lang.reflect.Type;
+
+/**
+ * FastJSON2 JSONB 编码器
+ * 按 JSONB 二进制格式编码，体积更小、解析更快；服务端需要支持 application/x-jsonb
+ *
+ * @author Kakeru
+ */
+public class FastJsonbEncoder implements Encoder {
+
+    /**
+     * JSONB 的媒体类型
+     */
+    public static final String MEDIA_TYPE = "application/x-jsonb";
+
+    @Override
+    public byte[] encode(Object object) {
+        if (object == null) {
+            return new byte[0];
+        }
+
+        if (object instanceof byte[]) {
+            return (byte[]) object;
+        }
+
+        return JSONB.toBytes(object);
+    }
+
+    @Override
+    public String getContentType() {
+        return MEDIA_TYPE;
+    }
+
+    /**
+     * 提前创建并缓存参数类型的 ObjectWriter
+     */
+    @Override
+    public void prepare(Type type) {
+        Class<?> clazz = TypeUtils.getClass(type);
+        if (clazz == null || clazz == byte[].class || clazz == Object.class) {
+            return;
+        }
+        JSONFactory.getDefaultObjectWriterProvider().getObjectWriter(type, clazz, false);
+    }
+}
@@ -0,0 +1,41 @@
+package fun.hatsumi.tsumifeign.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip 压缩，基于 JDK 实现
+ *
+ * @author Kakeru
+ */
+public class GzipCompressor implements Compressor {
+
+    @Override
+    public String encoding() {
+        return "gzip";
+    }
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+        // JSON 通常能压缩到几分之一，按原始大小的 1/4 预分配
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, 8192);
+    }
+
+    @Override
+    public InputStream decompress(InputStream compressed) throws IOException {
+        return new GZIPInputStream(compressed, 8192);
+    }
+}
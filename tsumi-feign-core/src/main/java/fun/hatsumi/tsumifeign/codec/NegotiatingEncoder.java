@@ -0,0 +1,92 @@
+package fun.hatsumi.tsumifeign.codec;
+
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * 按服务端支持情况选择格式的编码器
+ * 服务端以首选格式响应后才用首选格式编码请求体，在此之前以及服务端返回 415 后使用回退格式；
+ * 状态按客户端保存，每次编码前通过 {@link #current(Encoder)} 取得当前生效的编码器
+ *
+ * @author Kakeru
+ */
+public class NegotiatingEncoder implements Encoder {
+
+    private final Encoder preferred;
+    private final Encoder fallback;
+    private volatile boolean supported;
+
+    public NegotiatingEncoder(Encoder preferred, Encoder fallback) {
+        this.preferred = preferred;
+        this.fallback = fallback;
+    }
+
+    /**
+     * 当前生效的编码器，同一请求的请求体和 Content-Type 应来自同一个编码器
+     */
+    public Encoder current() {
+        return supported ? preferred : fallback;
+    }
+
+    /**
+     * 取得编码器当前生效的实现，非协商编码器原样返回
+     */
+    public static Encoder current(Encoder encoder) {
+        return encoder instanceof NegotiatingEncoder negotiating ? negotiating.current() : encoder;
+    }
+
+    /**
+     * 记录服务端是否支持首选格式
+     */
+    public void setSupported(boolean supported) {
+        this.supported = supported;
+    }
+
+    public boolean isSupported() {
+        return supported;
+    }
+
+    @Override
+    public byte[] encode(Object object) {
+        return current().encode(object);
+    }
+
+    @Override
+    public void encode(Object object, OutputStream output) throws IOException {
+        current().encode(object, output);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return current().isStreaming();
+    }
+
+    @Override
+    public Object encodeBody(Object object) {
+        return current().encodeBody(object);
+    }
+
+    @Override
+    public Object encodeBody(Object object, MethodMetadata metadata) {
+        return current().encodeBody(object, metadata);
+    }
+
+    @Override
+    public String getContentType() {
+        return current().getContentType();
+    }
+
+    @Override
+    public String getContentType(Type type) {
+        return current().getContentType(type);
+    }
+
+    @Override
+    public void prepare(Type type) {
+        preferred.prepare(type);
+        fallback.prepare(type);
+    }
+}
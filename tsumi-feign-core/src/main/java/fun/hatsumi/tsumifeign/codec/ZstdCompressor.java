@@ -0,0 +1,84 @@
+package fun.hatsumi.tsumifeign.codec;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * zstd 压缩，需要 zstd-jni 依赖
+ * 可选使用预训练字典：小而重复的 JSON 载荷在字典模式下压缩率明显更高，服务端必须使用同一字典
+ *
+ * @author Kakeru
+ */
+public class ZstdCompressor implements Compressor {
+
+    private final int level;
+    private final ZstdDictCompress compressDict;
+    private final ZstdDictDecompress decompressDict;
+
+    public ZstdCompressor() {
+        this(Zstd.defaultCompressionLevel());
+    }
+
+    public ZstdCompressor(int level) {
+        this.level = level;
+        this.compressDict = null;
+        this.decompressDict = null;
+    }
+
+    /**
+     * 使用预训练字典
+     *
+     * @param level      压缩级别
+     * @param dictionary 由 zstd --train 生成的字典
+     */
+    public ZstdCompressor(int level, byte[] dictionary) {
+        this.level = level;
+        // 字典只解析一次，后续压缩和解压复用
+        this.compressDict = new ZstdDictCompress(dictionary, level);
+        this.decompressDict = new ZstdDictDecompress(dictionary);
+    }
+
+    /**
+     * 从本地文件加载预训练字典
+     */
+    public static ZstdCompressor withDictionary(int level, Path dictionary) throws IOException {
+        return new ZstdCompressor(level, Files.readAllBytes(dictionary));
+    }
+
+    @Override
+    public String encoding() {
+        return "zstd";
+    }
+
+    @Override
+    public byte[] compress(byte[] data) {
+        return compressDict != null ? Zstd.compress(data, compressDict) : Zstd.compress(data, level);
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out) throws IOException {
+        ZstdOutputStream zstd = new ZstdOutputStream(out, level);
+        if (compressDict != null) {
+            zstd.setDict(compressDict);
+        }
+        return zstd;
+    }
+
+    @Override
+    public InputStream decompress(InputStream compressed) throws IOException {
+        ZstdInputStream in = new ZstdInputStream(compressed);
+        if (decompressDict != null) {
+            in.setDict(decompressDict);
+        }
+        return in;
+    }
+}
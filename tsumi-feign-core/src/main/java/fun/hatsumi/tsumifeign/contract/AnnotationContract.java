@@ -1,14 +1,28 @@
 package fun.hatsumi.tsumifeign.contract;
 
 import fun.hatsumi.tsumifeign.annotation.*;
+import fun.hatsumi.tsumifeign.codec.FastJsonBinding;
+import fun.hatsumi.tsumifeign.core.HedgePolicy;
 import fun.hatsumi.tsumifeign.core.MethodMetadata;
+import fun.hatsumi.tsumifeign.core.ParameterizedTypeImpl;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.File;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 
 /**
  * 注解契约解析器
@@ -19,6 +33,9 @@ import java.util.List;
 @Slf4j
 public class AnnotationContract {
 
+    private static final String MONO_TYPE = "reactor.core.publisher.Mono";
+    private static final String FLUX_TYPE = "reactor.core.publisher.Flux";
+
     /**
      * 解析方法
      */
@@ -27,12 +44,27 @@ public class AnnotationContract {
         metadata.setMethod(method);
         metadata.setReturnType(method.getGenericReturnType());
 
+        // 解析返回值包装类型
+        parseReturnType(method, metadata);
+
         // 解析 HTTP 方法和路径
         parseHttpMethod(method, metadata);
 
         // 解析方法参数
         parseParameters(method, metadata);
 
+        // 解析调用超时
+        parseTimeout(method, metadata);
+
+        // 解析对冲策略
+        parseHedging(method, metadata);
+
+        // 解析编解码格式
+        parseCodec(method, metadata);
+
+        // 取得返回值和请求体类型的序列化器
+        parseJsonBinding(method, metadata);
+
         return metadata;
     }
 
@@ -65,6 +97,120 @@ public class AnnotationContract {
         }
     }
 
+    /**
+     * 解析调用超时，方法上的 @Timeout 优先于接口上的声明
+     */
+    private void parseTimeout(Method method, MethodMetadata metadata) {
+        Timeout timeout = method.getAnnotation(Timeout.class);
+        if (timeout == null) {
+            timeout = method.getDeclaringClass().getAnnotation(Timeout.class);
+        }
+        if (timeout != null) {
+            if (timeout.value() <= 0) {
+                throw new IllegalStateException("@Timeout of method " + method.getName() + " must be positive");
+            }
+            metadata.setTimeoutMillis(Math.max(1, timeout.unit().toMillis(timeout.value())));
+        }
+    }
+
+    /**
+     * 解析对冲策略，只有 GET 方法可以对冲；接口上的 @Hedged 只作用于其中的 GET 方法
+     */
+    private void parseHedging(Method method, MethodMetadata metadata) {
+        Hedged hedged = method.getAnnotation(Hedged.class);
+        if (hedged != null && !"GET".equals(metadata.getHttpMethod())) {
+            throw new IllegalStateException("@Hedged method " + method.getName() + " must be a GET method");
+        }
+        if (hedged == null && "GET".equals(metadata.getHttpMethod())) {
+            hedged = method.getDeclaringClass().getAnnotation(Hedged.class);
+        }
+        if (hedged != null) {
+            try {
+                metadata.setHedgePolicy(new HedgePolicy(hedged.delay(), hedged.percentile(), hedged.maxHedges()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid @Hedged on method " + method.getName() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 解析编解码格式，方法上的 @Codec 优先于接口上的声明
+     */
+    private void parseCodec(Method method, MethodMetadata metadata) {
+        Codec codec = method.getAnnotation(Codec.class);
+        if (codec == null) {
+            codec = method.getDeclaringClass().getAnnotation(Codec.class);
+        }
+        if (codec != null) {
+            if (codec.value().isEmpty()) {
+                throw new IllegalStateException("@Codec of method " + method.getName() + " must not be empty");
+            }
+            metadata.setCodec(codec.value());
+        }
+    }
+
+    /**
+     * 取得返回值和首个请求体参数类型的 ObjectReader、ObjectWriter，方法上的 @JsonFeatures 优先于接口上的声明
+     */
+    private void parseJsonBinding(Method method, MethodMetadata metadata) {
+        JsonFeatures features = method.getAnnotation(JsonFeatures.class);
+        if (features == null) {
+            features = method.getDeclaringClass().getAnnotation(JsonFeatures.class);
+        }
+        Type bodyType = null;
+        for (MethodMetadata.ParameterMetadata param : metadata.getParameters()) {
+            if (param.getParamType() == MethodMetadata.ParameterType.BODY) {
+                bodyType = param.getType();
+                break;
+            }
+        }
+        metadata.setJsonBinding(FastJsonBinding.of(metadata.isStreamingResponse() ? null : metadata.getDecodeType(),
+                bodyType, features != null ? features.write() : null, features != null ? features.read() : null));
+    }
+
+    /**
+     * 解析返回值包装类型和解码目标类型
+     */
+    private void parseReturnType(Method method, MethodMetadata metadata) {
+        Class<?> rawType = method.getReturnType();
+        if (rawType == CompletableFuture.class || rawType == CompletionStage.class) {
+            metadata.setReturnKind(MethodMetadata.ReturnKind.FUTURE);
+            metadata.setDecodeType(getTypeArgument(method.getGenericReturnType()));
+        } else if (MONO_TYPE.equals(rawType.getName())) {
+            // 按类名识别 Reactor 类型，未引入 Reactor 时不会触发类加载
+            metadata.setReturnKind(MethodMetadata.ReturnKind.MONO);
+            metadata.setDecodeType(getTypeArgument(method.getGenericReturnType()));
+        } else if (FLUX_TYPE.equals(rawType.getName())) {
+            // Flux 的响应体按 JSON 数组解码后逐个发出
+            metadata.setReturnKind(MethodMetadata.ReturnKind.FLUX);
+            metadata.setDecodeType(new ParameterizedTypeImpl(List.class,
+                    getTypeArgument(method.getGenericReturnType())));
+        } else {
+            metadata.setReturnKind(MethodMetadata.ReturnKind.SYNC);
+            metadata.setDecodeType(method.getGenericReturnType());
+        }
+
+        // 流式返回类型不缓冲响应体
+        Type decodeType = metadata.getDecodeType();
+        if (decodeType == InputStream.class || decodeType == ReadableByteChannel.class) {
+            metadata.setStreamingResponse(true);
+        }
+    }
+
+    /**
+     * 获取包装类型的泛型参数，未声明时按 Object 处理
+     */
+    private Type getTypeArgument(Type type) {
+        if (type instanceof ParameterizedType parameterizedType) {
+            Type argument = parameterizedType.getActualTypeArguments()[0];
+            if (argument instanceof WildcardType wildcardType) {
+                return wildcardType.getUpperBounds()[0];
+            }
+            return argument;
+        }
+        return Object.class;
+    }
+
     /**
      * 获取路径
      */
@@ -89,7 +235,14 @@ public class AnnotationContract {
             paramMetadata.setType(parameter.getParameterizedType());
 
             // 解析参数注解
-            if (parameter.isAnnotationPresent(PathVariable.class)) {
+            if (parameter.isAnnotationPresent(ResponseTarget.class)) {
+                if (parameter.getType() != Path.class) {
+                    throw new IllegalStateException("@ResponseTarget parameter of method " + method.getName()
+                            + " must be a java.nio.file.Path");
+                }
+                paramMetadata.setParamType(MethodMetadata.ParameterType.RESPONSE_TARGET);
+                metadata.setStreamingResponse(true);
+            } else if (parameter.isAnnotationPresent(PathVariable.class)) {
                 PathVariable pathVariable = parameter.getAnnotation(PathVariable.class);
                 paramMetadata.setParamType(MethodMetadata.ParameterType.PATH);
                 paramMetadata.setName(getParamName(pathVariable.value(), pathVariable.name()));
@@ -98,14 +251,14 @@ public class AnnotationContract {
                 paramMetadata.setParamType(MethodMetadata.ParameterType.QUERY);
                 paramMetadata.setName(getParamName(requestParam.value(), requestParam.name()));
             } else if (parameter.isAnnotationPresent(RequestBody.class)) {
-                paramMetadata.setParamType(MethodMetadata.ParameterType.BODY);
+                paramMetadata.setParamType(getBodyType(method, parameter));
             } else if (parameter.isAnnotationPresent(RequestHeader.class)) {
                 RequestHeader requestHeader = parameter.getAnnotation(RequestHeader.class);
                 paramMetadata.setParamType(MethodMetadata.ParameterType.HEADER);
                 paramMetadata.setName(getParamName(requestHeader.value(), requestHeader.name()));
             } else {
                 // 默认作为请求体
-                paramMetadata.setParamType(MethodMetadata.ParameterType.BODY);
+                paramMetadata.setParamType(getBodyType(method, parameter));
             }
 
             parameterMetadataList.add(paramMetadata);
@@ -114,6 +267,25 @@ public class AnnotationContract {
         metadata.setParameters(parameterMetadataList);
     }
 
+    /**
+     * 请求体参数类型：InputStream、Path、File 和 {@code Flow.Publisher<ByteBuffer>} 以流方式发送，其余交给编码器
+     */
+    private MethodMetadata.ParameterType getBodyType(Method method, Parameter parameter) {
+        Class<?> type = parameter.getType();
+        if (InputStream.class.isAssignableFrom(type) || Path.class.isAssignableFrom(type)
+                || File.class.isAssignableFrom(type)) {
+            return MethodMetadata.ParameterType.STREAM_BODY;
+        }
+        if (Flow.Publisher.class.isAssignableFrom(type)) {
+            if (getTypeArgument(parameter.getParameterizedType()) != ByteBuffer.class) {
+                throw new IllegalStateException("Publisher body parameter of method " + method.getName()
+                        + " must be a Flow.Publisher<ByteBuffer>");
+            }
+            return MethodMetadata.ParameterType.STREAM_BODY;
+        }
+        return MethodMetadata.ParameterType.BODY;
+    }
+
     /**
      * 获取参数名
      */
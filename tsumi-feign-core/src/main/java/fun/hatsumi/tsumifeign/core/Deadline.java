@@ -0,0 +1,135 @@
+package fun.hatsumi.tsumifeign.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调用截止时间
+ * 入站请求携带的剩余时间通过 bind 绑定到当前线程，出站调用时与方法的 @Timeout 取较早者；
+ * 发送前剩余时间写入请求头传给下游，同时作为本次调用的超时在本地强制执行
+ *
+ * @author Kakeru
+ */
+public final class Deadline {
+
+    /**
+     * 传递剩余时间（毫秒）的请求头，使用相对时长以避免上下游时钟偏差
+     */
+    public static final String HEADER = "X-Tsumi-Timeout";
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 截止时刻，System.nanoTime() 时间轴
+     */
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 从现在起经过指定时长后截止
+     */
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * 解析请求头中的剩余时间，格式不合法时返回 null
+     */
+    public static Deadline parse(String remainingMillis) {
+        if (remainingMillis == null || remainingMillis.isEmpty()) {
+            return null;
+        }
+        try {
+            return after(Long.parseLong(remainingMillis.trim()), TimeUnit.MILLISECONDS);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 剩余时间（毫秒），不足 1 毫秒或已过期时为 0 或负数
+     */
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    /**
+     * 取两个截止时间中较早的一个
+     */
+    public Deadline min(Deadline other) {
+        if (other == null) {
+            return this;
+        }
+        return deadlineNanos - other.deadlineNanos <= 0 ? this : other;
+    }
+
+    /**
+     * 当前线程绑定的截止时间
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 绑定截止时间到当前线程
+     */
+    public static void bind(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    /**
+     * 解除当前线程绑定的截止时间
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 计算一次调用的截止时间：方法超时与当前线程绑定的截止时间取较早者，均未设置时返回 null
+     *
+     * @param timeoutMillis 方法超时（毫秒），0 表示未声明
+     * @return 截止时间
+     */
+    public static Deadline resolve(long timeoutMillis) {
+        Deadline current = CURRENT.get();
+        if (timeoutMillis <= 0) {
+            return current;
+        }
+        return after(timeoutMillis, TimeUnit.MILLISECONDS).min(current);
+    }
+
+    /**
+     * 发送前检查请求模板的截止时间，并将剩余时间写入请求头
+     *
+     * @param requestTemplate 请求模板
+     * @return 剩余时间（毫秒），未设置截止时间时返回 0
+     * @throws DeadlineExceededException 截止时间已过，请求不应发出
+     */
+    public static long propagate(RequestTemplate requestTemplate) throws DeadlineExceededException {
+        Deadline deadline = requestTemplate.getDeadline();
+        if (deadline == null) {
+            return 0;
+        }
+        long remaining = deadline.remainingMillis();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException("Deadline exceeded before sending "
+                    + requestTemplate.getMethod() + " " + requestTemplate.getPath());
+        }
+        requestTemplate.addHeader(HEADER, Long.toString(remaining));
+        return remaining;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + remainingMillis() + "ms]";
+    }
+}
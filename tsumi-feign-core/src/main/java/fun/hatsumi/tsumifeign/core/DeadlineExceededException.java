@@ -0,0 +1,15 @@
+package fun.hatsumi.tsumifeign.core;
+
+import java.io.InterruptedIOException;
+
+/**
+ * 调用截止时间已过，请求在发出前被拒绝
+ *
+ * @author Kakeru
+ */
+public class DeadlineExceededException extends InterruptedIOException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package fun.hatsumi.tsumifeign.core;
+
+/**
+ * 对冲请求策略
+ *
+ * @param delayMillis 固定对冲延迟（毫秒），0 表示只使用统计分位数
+ * @param percentile  以近期延迟的该分位数（0~1）作为对冲延迟，0 表示只使用固定延迟
+ * @param maxHedges   最多追加的对冲请求数
+ * @author Kakeru
+ */
+public record HedgePolicy(long delayMillis, double percentile, int maxHedges) {
+
+    public HedgePolicy {
+        if (delayMillis < 0 || percentile < 0 || percentile >= 1 || (delayMillis == 0 && percentile == 0)) {
+            throw new IllegalArgumentException("Hedge policy requires a positive delay or a percentile in (0, 1)");
+        }
+        if (maxHedges < 1) {
+            throw new IllegalArgumentException("maxHedges must be at least 1");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package fun.hatsumi.tsumifeign.core;
 
+import fun.hatsumi.tsumifeign.codec.FastJsonBinding;
 import lombok.Data;
 
 import java.lang.reflect.Method;
@@ -40,11 +41,63 @@ public class MethodMetadata {
      */
     private Type returnType;
 
+    /**
+     * 返回值包装类型
+     */
+    private ReturnKind returnKind = ReturnKind.SYNC;
+
+    /**
+     * 解码目标类型，即去除 CompletableFuture、Mono 等包装后的实际类型，Flux&lt;T&gt; 按 List&lt;T&gt; 解码
+     */
+    private Type decodeType;
+
+    /**
+     * 是否以流方式读取响应体：返回 InputStream、ReadableByteChannel 或声明了 @ResponseTarget 参数
+     */
+    private boolean streamingResponse;
+
+    /**
+     * 调用超时（毫秒），来自方法或接口上的 @Timeout，0 表示沿用客户端的全局超时
+     */
+    private long timeoutMillis;
+
+    /**
+     * 对冲策略，来自 GET 方法或接口上的 @Hedged，为 null 时不对冲
+     */
+    private HedgePolicy hedgePolicy;
+
+    /**
+     * 编解码器名称，来自方法或接口上的 @Codec，为 null 时使用客户端的默认编解码器
+     */
+    private String codec;
+
     /**
      * 参数列表
      */
     private List<ParameterMetadata> parameters;
 
+    /**
+     * 返回值和请求体类型的 FastJSON2 ObjectReader、ObjectWriter，以及方法或接口上 @JsonFeatures 声明的特性
+     */
+    private FastJsonBinding jsonBinding;
+
+    /**
+     * 是否直接从连接流式解码响应体：同步调用且返回值需要解码器解析时，不再先把响应体缓冲为字节数组
+     * 异步调用在 I/O 线程上完成，仍然使用缓冲的响应体，避免在 I/O 线程上阻塞读取
+     */
+    public boolean isStreamingDecode() {
+        return returnKind == ReturnKind.SYNC && !streamingResponse && decodeType != null
+                && decodeType != Response.class && decodeType != void.class && decodeType != Void.class
+                && decodeType != String.class && decodeType != byte[].class;
+    }
+
+    /**
+     * 传输层是否以流方式返回响应体
+     */
+    public boolean isResponseStreamed() {
+        return streamingResponse || isStreamingDecode();
+    }
+
     /**
      * 参数元数据
      */
@@ -71,6 +124,16 @@ public class MethodMetadata {
         private ParameterType paramType;
     }
 
+    /**
+     * 返回值包装类型枚举
+     */
+    public enum ReturnKind {
+        SYNC,    // 同步返回
+        FUTURE,  // CompletableFuture / CompletionStage
+        MONO,    // Reactor Mono
+        FLUX     // Reactor Flux
+    }
+
     /**
      * 参数类型枚举
      */
@@ -78,6 +141,8 @@ public class MethodMetadata {
         PATH,    // 路径变量
         QUERY,   // 查询参数
         BODY,    // 请求体
-        HEADER   // 请求头
+        STREAM_BODY,  // 流式请求体（InputStream、Path、File、Flow.Publisher），不经过编码器
+        HEADER,  // 请求头
+        RESPONSE_TARGET  // 响应体目标文件
     }
 }
@@ -0,0 +1,68 @@
+package fun.hatsumi.tsumifeign.core;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 泛型类型实现
+ * 用于在运行时构造 List&lt;T&gt; 等解码目标类型
+ *
+ * @author Kakeru
+ */
+public final class ParameterizedTypeImpl implements ParameterizedType {
+
+    private final Class<?> rawType;
+    private final Type[] actualTypeArguments;
+
+    public ParameterizedTypeImpl(Class<?> rawType, Type... actualTypeArguments) {
+        this.rawType = rawType;
+        this.actualTypeArguments = actualTypeArguments.clone();
+    }
+
+    @Override
+    public Type[] getActualTypeArguments() {
+        return actualTypeArguments.clone();
+    }
+
+    @Override
+    public Type getRawType() {
+        return rawType;
+    }
+
+    @Override
+    public Type getOwnerType() {
+        return rawType.getDeclaringClass();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ParameterizedType that)) {
+            return false;
+        }
+        return rawType.equals(that.getRawType())
+                && Objects.equals(getOwnerType(), that.getOwnerType())
+                && Arrays.equals(actualTypeArguments, that.getActualTypeArguments());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(actualTypeArguments) ^ Objects.hashCode(getOwnerType()) ^ rawType.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(rawType.getName()).append('<');
+        for (int i = 0; i < actualTypeArguments.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(actualTypeArguments[i].getTypeName());
+        }
+        return sb.append('>').toString();
+    }
+}
@@ -0,0 +1,204 @@
+package fun.hatsumi.tsumifeign.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路径模板
+ * 在创建时将 "/users/{id}/orders/{orderId}" 预先拆分为字面量片段和变量名，
+ * 展开时只需按顺序拼接，不再对整条路径做多次字符串替换。
+ * 变量值按 RFC 3986 百分号编码，路径中 '?' 之后的部分作为静态查询串保留
+ *
+ * @author Kakeru
+ */
+public final class PathTemplate {
+
+    private static final String[] EMPTY = new String[0];
+
+    /**
+     * 原始路径模板
+     */
+    private final String template;
+
+    /**
+     * 路径部分的字面量片段，长度始终为 names.length + 1
+     */
+    private final String[] literals;
+
+    /**
+     * 路径部分的变量名，按出现顺序排列
+     */
+    private final String[] names;
+
+    /**
+     * 静态查询串的字面量片段，没有 '?' 时为 null
+     */
+    private final String[] queryLiterals;
+
+    /**
+     * 静态查询串中的变量名
+     */
+    private final String[] queryNames;
+
+    /**
+     * 字面量总长度，用于预估展开后的长度
+     */
+    private final int literalLength;
+
+    private PathTemplate(String template, String[] literals, String[] names,
+                         String[] queryLiterals, String[] queryNames) {
+        this.template = template;
+        this.literals = literals;
+        this.names = names;
+        this.queryLiterals = queryLiterals;
+        this.queryNames = queryNames;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        if (queryLiterals != null) {
+            for (String literal : queryLiterals) {
+                length += literal.length();
+            }
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * 解析路径模板
+     */
+    public static PathTemplate compile(String path) {
+        String source = path != null ? path : "";
+
+        // 查找变量之外的第一个 '?'
+        int queryStart = -1;
+        boolean inVariable = false;
+        for (int i = 0; i < source.length() && queryStart < 0; i++) {
+            char c = source.charAt(i);
+            if (c == '{') {
+                inVariable = true;
+            } else if (c == '}') {
+                inVariable = false;
+            } else if (c == '?' && !inVariable) {
+                queryStart = i;
+            }
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        split(queryStart >= 0 ? source.substring(0, queryStart) : source, literals, names);
+        if (queryStart < 0) {
+            return new PathTemplate(source, literals.toArray(EMPTY), names.toArray(EMPTY), null, EMPTY);
+        }
+
+        List<String> queryLiterals = new ArrayList<>();
+        List<String> queryNames = new ArrayList<>();
+        split(source.substring(queryStart + 1), queryLiterals, queryNames);
+        return new PathTemplate(source, literals.toArray(EMPTY), names.toArray(EMPTY),
+                queryLiterals.toArray(EMPTY), queryNames.toArray(EMPTY));
+    }
+
+    /**
+     * 拆分字面量片段和变量名
+     */
+    private static void split(String source, List<String> literals, List<String> names) {
+        int start = 0;
+        int open = source.indexOf('{');
+        while (open >= 0) {
+            int close = source.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            literals.add(source.substring(start, open));
+            names.add(source.substring(open + 1, close));
+            start = close + 1;
+            open = source.indexOf('{', start);
+        }
+        literals.add(source.substring(start));
+    }
+
+    /**
+     * 获取原始路径模板
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * 是否包含路径变量
+     */
+    public boolean hasVariables() {
+        return names.length > 0 || queryNames.length > 0;
+    }
+
+    /**
+     * 获取路径变量数量
+     */
+    public int getVariableCount() {
+        return names.length + queryNames.length;
+    }
+
+    /**
+     * 是否包含静态查询串
+     */
+    public boolean hasQuery() {
+        return queryLiterals != null;
+    }
+
+    /**
+     * 预估展开后的长度，用于预分配 StringBuilder
+     */
+    public int estimateLength() {
+        return literalLength + getVariableCount() * 8;
+    }
+
+    /**
+     * 展开路径模板，未提供值的变量保留原样
+     */
+    public String expand(Map<String, Object> variables) {
+        if (!hasVariables()) {
+            return template;
+        }
+
+        StringBuilder sb = new StringBuilder(estimateLength());
+        expandPath(sb, variables);
+        if (hasQuery()) {
+            sb.append('?');
+            expandQuery(sb, variables);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 将路径部分展开到 sb，变量值按路径段编码
+     */
+    public void expandPath(StringBuilder sb, Map<String, Object> variables) {
+        expand(sb, literals, names, variables, false);
+    }
+
+    /**
+     * 将静态查询串展开到 sb（不含 '?'），变量值按查询参数编码
+     */
+    public void expandQuery(StringBuilder sb, Map<String, Object> variables) {
+        if (queryLiterals != null) {
+            expand(sb, queryLiterals, queryNames, variables, true);
+        }
+    }
+
+    private static void expand(StringBuilder sb, String[] literals, String[] names,
+                               Map<String, Object> variables, boolean query) {
+        for (int i = 0; i < names.length; i++) {
+            sb.append(literals[i]);
+            Object value = variables != null ? variables.get(names[i]) : null;
+            if (value == null) {
+                sb.append('{').append(names[i]).append('}');
+            } else if (query) {
+                UriEncoding.appendQueryComponent(sb, String.valueOf(value));
+            } else {
+                UriEncoding.appendPathSegment(sb, String.valueOf(value));
+            }
+        }
+        sb.append(literals[names.length]);
+    }
+}
@@ -0,0 +1,233 @@
+package fun.hatsumi.tsumifeign.core;
+
+import fun.hatsumi.tsumifeign.codec.Encoder;
+import fun.hatsumi.tsumifeign.codec.NegotiatingEncoder;
+
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 请求计划
+ * 由方法元数据预编译而来：静态请求头、路径模板和参数绑定器只在创建时解析一次，
+ * 每次调用只需按参数位置填充 RequestTemplate
+ *
+ * @author hatsumi
+ */
+public final class RequestPlan {
+
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    /**
+     * 流式请求体未声明 Content-Type 时使用的默认值
+     */
+    private static final String OCTET_STREAM = "application/octet-stream";
+
+    /**
+     * 为装饰器（如 Seata XID 传播）追加请求头预留的容量
+     */
+    private static final int RESERVED_HEADERS = 2;
+
+    private final MethodMetadata metadata;
+    private final String baseUrl;
+    private final PathTemplate pathTemplate;
+
+    /**
+     * 预解析的静态请求头
+     */
+    private final String[] headerNames;
+    private final String[] headerValues;
+
+    /**
+     * 参数绑定器，下标与方法参数位置一致，null 表示该参数不参与请求构建
+     */
+    private final ParameterBinder[] binders;
+
+    private final int headerCapacity;
+    private final int queryCapacity;
+    private final int pathCapacity;
+
+    private RequestPlan(MethodMetadata metadata, String baseUrl, PathTemplate pathTemplate,
+                        String[] headerNames, String[] headerValues, ParameterBinder[] binders,
+                        int headerCapacity, int queryCapacity, int pathCapacity) {
+        this.metadata = metadata;
+        this.baseUrl = baseUrl;
+        this.pathTemplate = pathTemplate;
+        this.headerNames = headerNames;
+        this.headerValues = headerValues;
+        this.binders = binders;
+        this.headerCapacity = headerCapacity;
+        this.queryCapacity = queryCapacity;
+        this.pathCapacity = pathCapacity;
+    }
+
+    /**
+     * 编译请求计划
+     *
+     * @param metadata 方法元数据
+     * @param baseUrl  基础 URL 或服务名
+     * @param encoder  请求体编码器
+     * @return 请求计划
+     */
+    public static RequestPlan compile(MethodMetadata metadata, String baseUrl, Encoder encoder) {
+        // 预解析静态请求头
+        List<String> names = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        if (metadata.getHeaders() != null) {
+            for (String header : metadata.getHeaders()) {
+                String[] parts = header.split(":", 2);
+                if (parts.length == 2) {
+                    names.add(parts[0].trim());
+                    values.add(parts[1].trim());
+                }
+            }
+        }
+
+        // 按参数位置生成绑定器
+        int parameterCount = metadata.getMethod() != null ? metadata.getMethod().getParameterCount() : 0;
+        List<MethodMetadata.ParameterMetadata> parameters = metadata.getParameters();
+        if (parameters != null) {
+            for (MethodMetadata.ParameterMetadata param : parameters) {
+                parameterCount = Math.max(parameterCount, param.getIndex() + 1);
+            }
+        }
+
+        ParameterBinder[] binders = new ParameterBinder[parameterCount];
+        int headerParams = 0;
+        int queryParams = 0;
+        int pathParams = 0;
+        if (parameters != null) {
+            for (MethodMetadata.ParameterMetadata param : parameters) {
+                String name = param.getName();
+                switch (param.getParamType()) {
+                    // 路径参数
+                    case PATH:
+                        binders[param.getIndex()] = (template, value) -> template.addPathVariable(name, value);
+                        pathParams++;
+                        break;
+
+                    // 查询参数
+                    case QUERY:
+                        binders[param.getIndex()] = (template, value) -> template.addQueryParam(name, value);
+                        queryParams++;
+                        break;
+
+                    // 请求头
+                    case HEADER:
+                        binders[param.getIndex()] = (template, value) -> template.addHeader(name, String.valueOf(value));
+                        headerParams++;
+                        break;
+
+                    // 请求体，Content-Type 在编译期从编码器取得
+                    case BODY:
+                        Type bodyType = param.getType();
+                        if (encoder instanceof NegotiatingEncoder negotiating) {
+                            // 协商格式的编码器每次调用时确定格式，请求体和 Content-Type 取自同一个编码器
+                            binders[param.getIndex()] = (template, value) -> {
+                                Encoder current = negotiating.current();
+                                template.setBody(current.encodeBody(value, metadata));
+                                template.addHeader(CONTENT_TYPE, current.getContentType(bodyType));
+                            };
+                        } else {
+                            String contentType = encoder.getContentType(bodyType);
+                            binders[param.getIndex()] = (template, value) -> {
+                                template.setBody(encoder.encodeBody(value, metadata));
+                                template.addHeader(CONTENT_TYPE, contentType);
+                            };
+                        }
+                        headerParams++;
+                        break;
+
+                    // 流式请求体原样交给客户端发送，静态请求头中的 Content-Type 优先
+                    case STREAM_BODY:
+                        binders[param.getIndex()] = (template, value) -> {
+                            template.setBody(value);
+                            template.getHeaders().putIfAbsent(CONTENT_TYPE, OCTET_STREAM);
+                        };
+                        headerParams++;
+                        break;
+
+                    // 响应体目标文件
+                    case RESPONSE_TARGET:
+                        binders[param.getIndex()] = (template, value) -> template.setResponseTarget((Path) value);
+                        break;
+
+                    default:
+                        break;
+                }
+            }
+        }
+
+        return new RequestPlan(metadata, baseUrl, PathTemplate.compile(metadata.getPath()),
+                names.toArray(new String[0]), values.toArray(new String[0]), binders,
+                names.size() + headerParams + RESERVED_HEADERS, queryParams, pathParams);
+    }
+
+    /**
+     * 根据调用参数创建请求模板
+     */
+    public RequestTemplate createTemplate(Object[] args) {
+        Map<String, String> headers = new HashMap<>(capacityFor(headerCapacity));
+        for (int i = 0; i < headerNames.length; i++) {
+            headers.put(headerNames[i], headerValues[i]);
+        }
+
+        RequestTemplate template = RequestTemplate.builder()
+                .method(metadata.getHttpMethod())
+                .url(baseUrl)
+                .clientName(baseUrl)
+                .path(pathTemplate.getTemplate())
+                .pathTemplate(pathTemplate)
+                .headers(headers)
+                .queryParams(queryCapacity > 0 ? new LinkedHashMap<>(capacityFor(queryCapacity)) : null)
+                .pathVariables(pathCapacity > 0 ? new HashMap<>(capacityFor(pathCapacity)) : null)
+                .streamingResponse(metadata.isResponseStreamed())
+                .build();
+
+        // 填充参数
+        if (args != null) {
+            int count = Math.min(args.length, binders.length);
+            for (int i = 0; i < count; i++) {
+                ParameterBinder binder = binders[i];
+                Object value = args[i];
+                if (binder != null && value != null) {
+                    binder.bind(template, value);
+                }
+            }
+        }
+        return template;
+    }
+
+    /**
+     * 获取方法元数据
+     */
+    public MethodMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * 获取路径模板
+     */
+    public PathTemplate getPathTemplate() {
+        return pathTemplate;
+    }
+
+    /**
+     * 计算容纳 n 个元素而不扩容的 HashMap 初始容量
+     */
+    private static int capacityFor(int n) {
+        return (int) (n / 0.75f) + 1;
+    }
+
+    /**
+     * 参数绑定器
+     */
+    @FunctionalInterface
+    private interface ParameterBinder {
+        void bind(RequestTemplate template, Object value);
+    }
+}
@@ -3,8 +3,12 @@ package fun.hatsumi.tsumifeign.core;
 import lombok.Data;
 import lombok.Builder;
 
-import java.util.Map;
+import java.lang.reflect.Array;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * HTTP 请求模板
@@ -13,7 +17,7 @@ import java.util.HashMap;
  * @author Kakeru
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class RequestTemplate {
 
     /**
@@ -26,11 +30,21 @@ public class RequestTemplate {
      */
     private String url;
 
+    /**
+     * 客户端名称，即 @TsumiFeignClient 的服务名或 URL；负载均衡改写 url 后仍保留，用于按服务选择传输配置
+     */
+    private String clientName;
+
     /**
      * 请求路径
      */
     private String path;
 
+    /**
+     * 预编译的路径模板（可选），与 path 一致时用于展开路径变量
+     */
+    private PathTemplate pathTemplate;
+
     /**
      * 请求头
      */
@@ -38,10 +52,10 @@ public class RequestTemplate {
     private Map<String, String> headers = new HashMap<>();
 
     /**
-     * 查询参数
+     * 查询参数，按添加顺序拼接
      */
     @Builder.Default
-    private Map<String, Object> queryParams = new HashMap<>();
+    private Map<String, Object> queryParams = new LinkedHashMap<>();
 
     /**
      * 路径变量
@@ -54,6 +68,43 @@ public class RequestTemplate {
      */
     private Object body;
 
+    /**
+     * 是否以流方式读取响应体，为 true 时客户端不缓冲响应体，由调用方负责关闭
+     */
+    private boolean streamingResponse;
+
+    /**
+     * 响应体写入的目标文件（可选）
+     */
+    private Path responseTarget;
+
+    /**
+     * 调用截止时间（可选），由方法的 @Timeout 与当前线程绑定的截止时间取较早者
+     */
+    private Deadline deadline;
+
+    /**
+     * 对冲策略（可选），来自方法或接口上的 @Hedged
+     */
+    private HedgePolicy hedgePolicy;
+
+    /**
+     * 同一调用的各次请求已选过的实例地址（可选），对冲和重试时由各次请求共享，负载均衡据此选择其他实例
+     */
+    private Set<String> attemptedInstances;
+
+    /**
+     * 复制请求模板，请求头、查询参数和路径变量复制到新的容器，其余字段与原模板共享
+     * 用于同一调用需要发出多次请求的场景，如对冲和重试
+     */
+    public RequestTemplate copy() {
+        return toBuilder()
+                .headers(headers != null ? new HashMap<>(headers) : new HashMap<>())
+                .queryParams(queryParams != null ? new LinkedHashMap<>(queryParams) : null)
+                .pathVariables(pathVariables != null ? new HashMap<>(pathVariables) : null)
+                .build();
+    }
+
     /**
      * 添加请求头
      */
@@ -69,7 +120,7 @@ public class RequestTemplate {
      */
     public void addQueryParam(String name, Object value) {
         if (queryParams == null) {
-            queryParams = new HashMap<>();
+            queryParams = new LinkedHashMap<>();
         }
         queryParams.put(name, value);
     }
@@ -85,38 +136,110 @@ public class RequestTemplate {
     }
 
     /**
-     * 构建完整的 URL
+     * 构建完整的 URL，基础 URL、路径和查询串写入同一个预分配的 StringBuilder
      */
     public String buildUrl() {
-        String fullPath = path;
+        PathTemplate template = resolvePathTemplate();
+        int baseLength = url != null ? url.length() : 0;
+        StringBuilder sb = new StringBuilder(baseLength + template.estimateLength() + estimateQueryLength());
+        if (url != null) {
+            sb.append(url);
+        }
 
-        // 替换路径变量
-        if (pathVariables != null && !pathVariables.isEmpty()) {
-            for (Map.Entry<String, Object> entry : pathVariables.entrySet()) {
-                fullPath = fullPath.replace("{" + entry.getKey() + "}", String.valueOf(entry.getValue()));
+        int mark = sb.length();
+        template.expandPath(sb, pathVariables);
+
+        // 拼接基础 URL 与路径之间的 '/'
+        if (mark > 0) {
+            boolean baseSlash = sb.charAt(mark - 1) == '/';
+            boolean pathSlash = mark < sb.length() && sb.charAt(mark) == '/';
+            if (baseSlash && pathSlash) {
+                sb.deleteCharAt(mark);
+            } else if (!baseSlash && !pathSlash) {
+                sb.insert(mark, '/');
             }
         }
 
-        // 拼接查询参数
-        if (queryParams != null && !queryParams.isEmpty()) {
-            StringBuilder sb = new StringBuilder(fullPath);
-            sb.append("?");
-            for (Map.Entry<String, Object> entry : queryParams.entrySet()) {
-                sb.append(entry.getKey()).append("=").append(entry.getValue()).append("&");
-            }
-            fullPath = sb.substring(0, sb.length() - 1);
+        appendQuery(sb, template);
+        return sb.toString();
+    }
+
+    /**
+     * 构建编码后的路径（不含基础 URL 和查询串）
+     */
+    public String buildPath() {
+        PathTemplate template = resolvePathTemplate();
+        StringBuilder sb = new StringBuilder(template.estimateLength());
+        template.expandPath(sb, pathVariables);
+        return sb.toString();
+    }
+
+    /**
+     * 构建编码后的查询串（不含 '?'），没有查询参数时返回 null
+     */
+    public String buildQuery() {
+        PathTemplate template = resolvePathTemplate();
+        StringBuilder sb = new StringBuilder(estimateQueryLength() + 1);
+        appendQuery(sb, template);
+        return sb.length() > 0 ? sb.substring(1) : null;
+    }
+
+    /**
+     * 与 path 一致时复用预编译的路径模板，否则临时解析
+     */
+    private PathTemplate resolvePathTemplate() {
+        String source = path != null ? path : "";
+        if (pathTemplate != null && pathTemplate.getTemplate().equals(source)) {
+            return pathTemplate;
         }
+        return PathTemplate.compile(source);
+    }
 
-        // 如果有基础 URL，则拼接
-        if (url != null && !url.isEmpty()) {
-            if (url.endsWith("/") && fullPath.startsWith("/")) {
-                return url + fullPath.substring(1);
-            } else if (!url.endsWith("/") && !fullPath.startsWith("/")) {
-                return url + "/" + fullPath;
+    /**
+     * 追加静态查询串和查询参数，以 '?' 开头；Iterable 和数组展开为同名的多个参数，null 值跳过
+     */
+    private void appendQuery(StringBuilder sb, PathTemplate template) {
+        int start = sb.length();
+        if (template.hasQuery()) {
+            sb.append('?');
+            template.expandQuery(sb, pathVariables);
+        }
+        if (queryParams == null || queryParams.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<String, Object> entry : queryParams.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Iterable<?> iterable) {
+                for (Object element : iterable) {
+                    appendQueryParam(sb, start, entry.getKey(), element);
+                }
+            } else if (value != null && value.getClass().isArray()) {
+                int length = Array.getLength(value);
+                for (int i = 0; i < length; i++) {
+                    appendQueryParam(sb, start, entry.getKey(), Array.get(value, i));
+                }
+            } else {
+                appendQueryParam(sb, start, entry.getKey(), value);
             }
-            return url + fullPath;
         }
+    }
+
+    private static void appendQueryParam(StringBuilder sb, int start, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (sb.length() == start) {
+            sb.append('?');
+        } else if (sb.length() > start + 1) {
+            sb.append('&');
+        }
+        UriEncoding.appendQueryComponent(sb, name);
+        sb.append('=');
+        UriEncoding.appendQueryComponent(sb, String.valueOf(value));
+    }
 
-        return fullPath;
+    private int estimateQueryLength() {
+        return queryParams != null ? queryParams.size() * 16 : 0;
     }
 }
@@ -5,6 +5,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 /**
@@ -16,7 +20,7 @@ import java.util.Map;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class Response {
+public class Response implements Closeable {
 
     /**
      * 响应状态码
@@ -38,6 +42,30 @@ public class Response {
      */
     private byte[] body;
 
+    /**
+     * 流式响应体，请求声明 streamingResponse 时由客户端设置，此时 body 为空，关闭后释放底层连接
+     */
+    private InputStream bodyStream;
+
+    /**
+     * 按名称获取响应头，忽略大小写
+     */
+    public String getHeader(String name) {
+        if (headers == null) {
+            return null;
+        }
+        String value = headers.get(name);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey() != null && header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
     /**
      * 获取响应体字符串
      */
@@ -48,6 +76,26 @@ public class Response {
         return new String(body);
     }
 
+    /**
+     * 获取响应体输入流，非流式响应包装已缓冲的字节数组
+     */
+    public InputStream getBodyAsStream() {
+        if (bodyStream != null) {
+            return bodyStream;
+        }
+        return body != null ? new ByteArrayInputStream(body) : null;
+    }
+
+    /**
+     * 关闭流式响应体并释放底层连接，非流式响应无需关闭
+     */
+    @Override
+    public void close() throws IOException {
+        if (bodyStream != null) {
+            bodyStream.close();
+        }
+    }
+
     /**
      * 判断是否成功
      */
@@ -0,0 +1,87 @@
+package fun.hatsumi.tsumifeign.core;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * URI 百分号编码
+ * 按 RFC 3986 对路径段和查询参数分别编码；值中全部为安全字符时直接追加，不做任何额外分配
+ *
+ * @author Kakeru
+ */
+final class UriEncoding {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * 路径段中无需编码的字符：unreserved、sub-delims、':' 和 '@'
+     */
+    private static final boolean[] PATH_SAFE = safeTable("-._~!$&'()*+,;=:@");
+
+    /**
+     * 查询参数名和值中无需编码的字符：不含 '&'、'='、'+' 和 '#'，避免改变查询串结构
+     */
+    private static final boolean[] QUERY_SAFE = safeTable("-._~!$'()*,;:@/?");
+
+    private UriEncoding() {
+    }
+
+    /**
+     * 按路径段编码追加，'/' 会被编码
+     */
+    static void appendPathSegment(StringBuilder sb, String value) {
+        append(sb, value, PATH_SAFE);
+    }
+
+    /**
+     * 按查询参数编码追加
+     */
+    static void appendQueryComponent(StringBuilder sb, String value) {
+        append(sb, value, QUERY_SAFE);
+    }
+
+    private static void append(StringBuilder sb, String value, boolean[] safe) {
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c >= 128 || !safe[c]) {
+                break;
+            }
+            i++;
+        }
+
+        // 快速路径：无需编码
+        if (i == length) {
+            sb.append(value);
+            return;
+        }
+
+        sb.append(value, 0, i);
+        byte[] bytes = value.substring(i).getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            int unsigned = b & 0xFF;
+            if (unsigned < 128 && safe[unsigned]) {
+                sb.append((char) unsigned);
+            } else {
+                sb.append('%').append(HEX[unsigned >> 4]).append(HEX[unsigned & 0xF]);
+            }
+        }
+    }
+
+    private static boolean[] safeTable(String extra) {
+        boolean[] table = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++) {
+            table[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            table[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            table[c] = true;
+        }
+        for (int i = 0; i < extra.length(); i++) {
+            table[extra.charAt(i)] = true;
+        }
+        return table;
+    }
+}
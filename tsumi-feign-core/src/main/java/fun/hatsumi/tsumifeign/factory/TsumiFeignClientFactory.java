@@ -2,9 +2,10 @@ package fun.hatsumi.tsumifeign.factory;
 
 import fun.hatsumi.tsumifeign.annotation.TsumiFeignClient;
 import fun.hatsumi.tsumifeign.proxy.FeignInvocationHandler;
+import fun.hatsumi.tsumifeign.proxy.GeneratedClients;
+import fun.hatsumi.tsumifeign.proxy.ProxyEngine;
 import lombok.extern.slf4j.Slf4j;
 
-import java.lang.reflect.Proxy;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -18,9 +19,9 @@ import java.util.concurrent.ConcurrentHashMap;
 public class TsumiFeignClientFactory {
 
     /**
-     * 客户端实例缓存：存储已创建的 Feign 客户端代理实例，避免重复创建
+     * 客户端实例缓存：按接口类型和代理引擎存储已创建的 Feign 客户端代理实例，避免重复创建
      */
-    private static final Map<Class<?>, Object> CLIENT_CACHE = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<ProxyEngine, Object>> CLIENT_CACHE = new ConcurrentHashMap<>();
 
     /**
      * 创建 Feign 客户端实例
@@ -29,13 +30,25 @@ public class TsumiFeignClientFactory {
      * @param <T>           客户端类型
      * @return 客户端实例
      */
+    public static <T> T create(Class<T> interfaceType) {
+        return create(interfaceType, ProxyEngine.JDK);
+    }
+
+    /**
+     * 使用指定代理引擎创建 Feign 客户端实例
+     *
+     * @param interfaceType 接口类型
+     * @param proxyEngine   代理引擎
+     * @param <T>           客户端类型
+     * @return 客户端实例
+     */
     @SuppressWarnings("unchecked")
     /*
     这里需要使用强制类型转换 (T) 将 Object 类型转换为泛型 T，
     但由于Java的类型擦除机制，编译器无法在运行时验证这个转换的安全性，
     因此会产生"unchecked"警告。
      */
-    public static <T> T create(Class<T> interfaceType) {
+    public static <T> T create(Class<T> interfaceType, ProxyEngine proxyEngine) {
         // 验证接口
         if (!interfaceType.isInterface()) {
             throw new IllegalArgumentException("Type must be an interface");
@@ -45,18 +58,25 @@ public class TsumiFeignClientFactory {
             throw new IllegalArgumentException("Interface must have @TsumiFeignClient annotation");
         }
 
-        // 从缓存中获取
-        return (T) CLIENT_CACHE.computeIfAbsent(interfaceType, key -> {
-            log.info("Creating Feign client for interface: {}", interfaceType.getName());
+        // 从缓存中获取，不同代理引擎各自缓存
+        Map<ProxyEngine, Object> clients = CLIENT_CACHE.computeIfAbsent(interfaceType,
+                key -> new ConcurrentHashMap<>());
+        return (T) clients.computeIfAbsent(proxyEngine, key -> {
+            log.info("Creating Feign client for interface: {} with {} proxy", interfaceType.getName(), proxyEngine);
 
             // 创建动态代理
             FeignInvocationHandler handler = new FeignInvocationHandler(interfaceType);
 
-            return Proxy.newProxyInstance(
-                    interfaceType.getClassLoader(),
-                    new Class<?>[]{interfaceType},
-                    handler
-            );
+            // 预初始化：解析全部方法并预热连接
+            TsumiFeignClient annotation = interfaceType.getAnnotation(TsumiFeignClient.class);
+            if (annotation.eagerInit()) {
+                handler.eagerInit();
+                handler.warmUp(annotation.warmUpConnections());
+            }
+
+            // 优先使用编译期生成的实现类
+            Object generated = GeneratedClients.newInstance(interfaceType, handler);
+            return generated != null ? generated : proxyEngine.newProxy(interfaceType, handler);
         });
     }
 
@@ -2,20 +2,37 @@ package fun.hatsumi.tsumifeign.proxy;
 
 import fun.hatsumi.tsumifeign.annotation.TsumiFeignClient;
 import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.client.Futures;
 import fun.hatsumi.tsumifeign.client.OkHttpFeignClient;
+import fun.hatsumi.tsumifeign.codec.CodecRegistry;
 import fun.hatsumi.tsumifeign.codec.Decoder;
 import fun.hatsumi.tsumifeign.codec.Encoder;
 import fun.hatsumi.tsumifeign.codec.FastJsonDecoder;
 import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
+import fun.hatsumi.tsumifeign.codec.NegotiatingEncoder;
 import fun.hatsumi.tsumifeign.contract.AnnotationContract;
+import fun.hatsumi.tsumifeign.core.Deadline;
 import fun.hatsumi.tsumifeign.core.MethodMetadata;
+import fun.hatsumi.tsumifeign.core.RequestPlan;
 import fun.hatsumi.tsumifeign.core.RequestTemplate;
 import fun.hatsumi.tsumifeign.core.Response;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -28,6 +45,11 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class FeignInvocationHandler implements InvocationHandler {
 
+    /**
+     * 写入目标文件时单次 transferFrom 的最大字节数
+     */
+    private static final long TRANSFER_CHUNK_SIZE = 8L * 1024 * 1024;
+
     private final Class<?> targetType;
     private final String baseUrl;
     private final FeignClient feignClient;
@@ -36,16 +58,26 @@ public class FeignInvocationHandler implements InvocationHandler {
     private final AnnotationContract contract;
 
     /**
-     * 方法元数据缓存
+     * 编解码器注册表，声明了 @Codec 的方法从中选择编解码器，可以为 null
+     */
+    private final CodecRegistry codecRegistry;
+
+    /**
+     * 按编解码器名称缓存的编码器，需要协商格式的编解码器在此保存本客户端的协商状态
+     */
+    private final Map<String, Encoder> codecEncoders = new ConcurrentHashMap<>();
+
+    /**
+     * 请求计划缓存，每个方法只解析、编译一次
      */
-    private final Map<Method, MethodMetadata> metadataCache = new ConcurrentHashMap<>();
+    private final Map<Method, RequestPlan> planCache = new ConcurrentHashMap<>();
 
     /**
      * 默认构造函数，使用内置的实现
      */
     public FeignInvocationHandler(Class<?> targetType) {
         this(targetType, new OkHttpFeignClient(), new FastJsonEncoder(), 
-             new FastJsonDecoder(), new AnnotationContract());
+             new FastJsonDecoder(), new AnnotationContract(), CodecRegistry.defaults());
     }
 
     /**
@@ -56,11 +88,26 @@ public class FeignInvocationHandler implements InvocationHandler {
                                   Encoder encoder,
                                   Decoder decoder,
                                   AnnotationContract contract) {
+        this(targetType, feignClient, encoder, decoder, contract, null);
+    }
+
+    /**
+     * 支持按方法选择编解码器的构造函数
+     *
+     * @param codecRegistry 编解码器注册表，为 null 时不支持 @Codec
+     */
+    public FeignInvocationHandler(Class<?> targetType,
+                                  FeignClient feignClient,
+                                  Encoder encoder,
+                                  Decoder decoder,
+                                  AnnotationContract contract,
+                                  CodecRegistry codecRegistry) {
         this.targetType = targetType;
         this.feignClient = feignClient;
         this.encoder = encoder;
         this.decoder = decoder;
         this.contract = contract;
+        this.codecRegistry = codecRegistry;
 
         // 解析类注解获取 baseUrl
         TsumiFeignClient annotation = targetType.getAnnotation(TsumiFeignClient.class);
@@ -91,100 +138,342 @@ public class FeignInvocationHandler implements InvocationHandler {
             return method.invoke(this, args);
         }
 
-        // 获取或解析方法元数据
-        MethodMetadata metadata = metadataCache.computeIfAbsent(method, contract::parseMethod);
+        // 获取或编译请求计划
+        RequestPlan plan = planCache.computeIfAbsent(method, this::compilePlan);
+        return dispatch(plan, args);
+    }
+
+    /**
+     * 获取基础 URL 或服务名
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * 获取请求体编码器
+     */
+    public Encoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * 获取方法使用的请求体编码器
+     * 声明了 @Codec 的方法使用注册表中的编码器，需要协商格式时返回 {@link NegotiatingEncoder}
+     *
+     * @param metadata 方法元数据
+     * @return 请求体编码器
+     */
+    public Encoder getEncoder(MethodMetadata metadata) {
+        String codec = metadata.getCodec();
+        if (codec == null) {
+            return encoder;
+        }
+        Encoder codecEncoder = codecEncoders.get(codec);
+        return codecEncoder != null ? codecEncoder : codecEncoders.computeIfAbsent(codec, this::createCodecEncoder);
+    }
+
+    private Encoder createCodecEncoder(String codec) {
+        CodecRegistry.Entry entry = codecEntry(codec);
+        if (entry.fallback() == null) {
+            return entry.encoder();
+        }
+        return new NegotiatingEncoder(entry.encoder(), codecEntry(entry.fallback()).encoder());
+    }
+
+    private CodecRegistry.Entry codecEntry(String codec) {
+        if (codecRegistry == null) {
+            throw new IllegalStateException("@Codec(\"" + codec + "\") on " + targetType.getName()
+                    + " requires a CodecRegistry");
+        }
+        return codecRegistry.get(codec);
+    }
+
+    /**
+     * 方法声明的解码器，决定请求的 Accept
+     */
+    private Decoder getDecoder(MethodMetadata metadata) {
+        return metadata.getCodec() == null ? decoder : codecEntry(metadata.getCodec()).decoder();
+    }
+
+    /**
+     * 解码响应使用的解码器
+     * 声明了 @Codec 的方法按响应的 Content-Type 选择，服务端以首选格式响应时记录其支持该格式
+     */
+    private Decoder getDecoder(MethodMetadata metadata, Response response) {
+        if (metadata.getCodec() == null) {
+            return decoder;
+        }
+        CodecRegistry.Entry declared = codecEntry(metadata.getCodec());
+        CodecRegistry.Entry actual = codecRegistry.forContentType(response.getHeader("Content-Type"));
+        if (actual == declared && getEncoder(metadata) instanceof NegotiatingEncoder negotiating
+                && !negotiating.isSupported()) {
+            log.debug("{} supports {}, switching request bodies", baseUrl, declared.mediaType());
+            negotiating.setSupported(true);
+        }
+        return actual != null ? actual.decoder() : declared.decoder();
+    }
+
+    /**
+     * 预先解析并校验接口的全部方法，同时准备返回值和请求体类型的编解码器
+     * 任一方法定义不合法时立即失败，而不是等到首次调用
+     */
+    public void eagerInit() {
+        for (Method method : targetType.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers())) {
+                continue;
+            }
+
+            RequestPlan plan;
+            try {
+                plan = planCache.computeIfAbsent(method, this::compilePlan);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Invalid Feign method: " + method, e);
+            }
+
+            MethodMetadata metadata = plan.getMetadata();
+            getDecoder(metadata).prepare(metadata.getDecodeType());
+            if (metadata.getParameters() != null) {
+                for (MethodMetadata.ParameterMetadata param : metadata.getParameters()) {
+                    if (param.getParamType() == MethodMetadata.ParameterType.BODY) {
+                        getEncoder(metadata).prepare(param.getType());
+                    }
+                }
+            }
+        }
+        log.debug("Eagerly initialized {} methods for {}", planCache.size(), targetType.getName());
+    }
+
+    /**
+     * 预热到目标服务的连接
+     *
+     * @param connections 期望建立的连接数
+     * @return 预热完成的 Future
+     */
+    public CompletableFuture<Void> warmUp(int connections) {
+        if (connections <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        log.info("Warming up {} connections for {} to {}", connections, targetType.getName(), baseUrl);
+        return feignClient.warmUp(baseUrl, connections);
+    }
+
+    /**
+     * 获取绑定到指定方法的处理器
+     * 请求计划在首次调用时编译并保存在处理器内，之后的调用不再查找缓存
+     *
+     * @param method 接口方法
+     * @return 方法处理器
+     */
+    public MethodHandler methodHandler(Method method) {
+        return new BoundMethodHandler(method);
+    }
 
+    /**
+     * 按请求计划执行一次调用
+     */
+    private Object dispatch(RequestPlan plan, Object[] args) throws Throwable {
         // 构建请求模板
-        RequestTemplate requestTemplate = buildRequestTemplate(metadata, args);
+        return execute(plan.createTemplate(args), plan.getMetadata());
+    }
+
+    /**
+     * 执行已构建好的请求模板并按方法元数据处理响应
+     * 供编译期生成的客户端实现调用
+     *
+     * @param requestTemplate 请求模板
+     * @param metadata        方法元数据
+     * @return 方法返回值
+     * @throws Throwable 调用过程中抛出的异常
+     */
+    public Object execute(RequestTemplate requestTemplate, MethodMetadata metadata) throws Throwable {
+        // 截止时间在调用线程上确定，异步路径切换线程后仍然有效
+        requestTemplate.setDeadline(Deadline.resolve(metadata.getTimeoutMillis()));
+        requestTemplate.setHedgePolicy(metadata.getHedgePolicy());
+
+        // 按返回类型协商响应格式，静态声明的 Accept 优先
+        String accept = getDecoder(metadata).getAccept(metadata.getDecodeType());
+        if (accept != null) {
+            requestTemplate.getHeaders().putIfAbsent("Accept", accept);
+        }
+
+        // 异步和响应式返回类型走非阻塞路径，在响应完成时解码
+        switch (metadata.getReturnKind()) {
+            case FUTURE:
+                return executeAsync(requestTemplate, metadata);
+            case MONO:
+                return ReactiveSupport.toMono(() -> executeAsync(requestTemplate, metadata));
+            case FLUX:
+                return ReactiveSupport.toFlux(() -> executeAsync(requestTemplate, metadata));
+            default:
+                break;
+        }
 
         // 执行请求
         Response response = feignClient.execute(requestTemplate);
 
+        // 同步调用直接从连接解码，解析完成后关闭响应释放连接
+        if (metadata.isStreamingDecode() && response.isSuccess() && response.getBodyStream() != null) {
+            try (response) {
+                return getDecoder(metadata, response).decodeStream(response.getBodyStream(), metadata);
+            }
+        }
+
         // 处理响应
-        return handleResponse(response, metadata);
+        return handleResponse(response, requestTemplate, metadata);
     }
 
     /**
-     * 构建请求模板
+     * 异步执行请求，取消返回的 Future 会同时取消底层调用，底层已返回的响应随之关闭
      */
-    private RequestTemplate buildRequestTemplate(MethodMetadata metadata, Object[] args) {
-        RequestTemplate template = RequestTemplate.builder()
-                .method(metadata.getHttpMethod())
-                .url(baseUrl)
-                .path(metadata.getPath())
-                .build();
+    private CompletableFuture<Object> executeAsync(RequestTemplate requestTemplate, MethodMetadata metadata) {
+        CompletableFuture<Response> responseFuture = feignClient.executeAsync(requestTemplate);
+        CompletableFuture<Object> result = responseFuture.thenApply(
+                response -> handleResponse(response, requestTemplate, metadata));
+        return Futures.propagateCancel(result, responseFuture);
+    }
 
-        // 设置请求头
-        if (metadata.getHeaders() != null) {
-            for (String header : metadata.getHeaders()) {
-                String[] parts = header.split(":");
-                if (parts.length == 2) {
-                    template.addHeader(parts[0].trim(), parts[1].trim());
-                }
-            }
-        }
+    /**
+     * 绑定到单个方法的处理器
+     * 与 JDK 动态代理一致，未在方法上声明的受检异常包装为 UndeclaredThrowableException
+     */
+    private final class BoundMethodHandler implements MethodHandler {
 
-        // 处理参数
-        if (metadata.getParameters() != null && args != null) {
-            for (MethodMetadata.ParameterMetadata param : metadata.getParameters()) {
-                Object value = args[param.getIndex()];
-                if (value == null) {
-                    continue;
-                }
+        private final Method method;
+        private final Class<?>[] exceptionTypes;
+        private volatile RequestPlan plan;
 
-                switch (param.getParamType()) {
-                    // 路径参数
-                    case PATH:
-                        template.addPathVariable(param.getName(), value);
-                        break;
-
-                    // 查询参数
-                    case QUERY:
-                        template.addQueryParam(param.getName(), value);
-                        break;
-
-                    // 请求头
-                    case HEADER:
-                        template.addHeader(param.getName(), String.valueOf(value));
-                        break;
-
-                    // 请求体
-                    case BODY:
-                        // 使用编码器编码请求体
-                        byte[] encodedBody = encoder.encode(value);
-                        template.setBody(encodedBody);
-                        template.addHeader("Content-Type", encoder.getContentType());
-                        break;
-
-                    default:
-                        break;
+        private BoundMethodHandler(Method method) {
+            this.method = method;
+            this.exceptionTypes = method.getExceptionTypes();
+        }
+
+        @Override
+        public Object invoke(Object[] args) throws Throwable {
+            RequestPlan current = plan;
+            if (current == null) {
+                current = planCache.computeIfAbsent(method, FeignInvocationHandler.this::compilePlan);
+                plan = current;
+            }
+            try {
+                return dispatch(current, args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                for (Class<?> exceptionType : exceptionTypes) {
+                    if (exceptionType.isInstance(e)) {
+                        throw e;
+                    }
                 }
+                throw new UndeclaredThrowableException(e);
             }
         }
-        return template;
+    }
+
+    /**
+     * 解析方法元数据并编译为请求计划
+     */
+    private RequestPlan compilePlan(Method method) {
+        MethodMetadata metadata = contract.parseMethod(method);
+        return RequestPlan.compile(metadata, baseUrl, getEncoder(metadata));
     }
 
     /**
      * 处理响应
      */
-    private Object handleResponse(Response response, MethodMetadata metadata) {
+    private Object handleResponse(Response response, RequestTemplate requestTemplate, MethodMetadata metadata) {
         // 检查响应状态
         if (!response.isSuccess()) {
+            closeQuietly(response);
+            if (response.getStatus() == 415 && getEncoder(metadata) instanceof NegotiatingEncoder negotiating) {
+                // 服务端不再接受首选格式，之后的请求体改用回退格式
+                negotiating.setSupported(false);
+            }
             log.error("Request failed with status: {}", response.getStatus());
             throw new RuntimeException("Request failed with status: " + response.getStatus());
         }
 
+        Type decodeType = metadata.getDecodeType();
+
+        // 流式响应不经过解码器
+        if (metadata.isStreamingResponse()) {
+            return handleStreamingResponse(response, requestTemplate.getResponseTarget(), decodeType);
+        }
+
         // 如果返回类型是 void，直接返回 null
-        if (metadata.getReturnType() == void.class || metadata.getReturnType() == Void.class) {
+        if (decodeType == void.class || decodeType == Void.class) {
             return null;
         }
 
         // 如果返回类型是 Response，直接返回响应对象
-        if (metadata.getReturnType() == Response.class) {
+        if (decodeType == Response.class) {
             return response;
         }
 
         // 使用解码器解码响应体
-        return decoder.decode(response.getBody(), metadata.getReturnType());
+        return getDecoder(metadata, response).decode(response.getBody(), metadata);
+    }
+
+    /**
+     * 处理流式响应
+     * 指定了目标文件时写入文件后关闭响应，否则把输入流交给调用方，由调用方关闭以释放连接
+     */
+    private Object handleStreamingResponse(Response response, Path target, Type decodeType) {
+        if (decodeType == InputStream.class || decodeType == ReadableByteChannel.class) {
+            InputStream stream = response.getBodyAsStream();
+            if (stream == null) {
+                stream = InputStream.nullInputStream();
+            }
+            return decodeType == ReadableByteChannel.class ? Channels.newChannel(stream) : stream;
+        }
+
+        if (target == null) {
+            closeQuietly(response);
+            throw new IllegalArgumentException("@ResponseTarget path must not be null");
+        }
+
+        long size;
+        try (response) {
+            size = transferTo(response.getBodyAsStream(), target);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write response body to " + target, e);
+        }
+        log.debug("Wrote {} bytes of response body to {}", size, target);
+
+        if (decodeType == Path.class) {
+            return target;
+        }
+        if (decodeType == long.class || decodeType == Long.class) {
+            return size;
+        }
+        return null;
+    }
+
+    /**
+     * 通过 FileChannel 分段写入文件，返回写入的字节数
+     */
+    private static long transferTo(InputStream in, Path target) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (in == null) {
+                return 0;
+            }
+            try (ReadableByteChannel source = Channels.newChannel(in)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) {
+                    position += transferred;
+                }
+                return position;
+            }
+        }
+    }
+
+    private static void closeQuietly(Response response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            log.debug("Failed to close response", e);
+        }
     }
 }
@@ -0,0 +1,130 @@
+package fun.hatsumi.tsumifeign.proxy;
+
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import fun.hatsumi.tsumifeign.codec.FastJsonBinding;
+import fun.hatsumi.tsumifeign.core.HedgePolicy;
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Type;
+import java.util.Optional;
+
+/**
+ * 编译期生成客户端的运行时支持
+ * tsumi-feign-processor 为每个 @TsumiFeignClient 接口生成 {@code <接口名>_TsumiFeign} 实现类，
+ * 存在时工厂优先使用生成类，不再创建动态代理
+ *
+ * @author hatsumi
+ */
+@Slf4j
+public final class GeneratedClients {
+
+    /**
+     * 生成类名后缀
+     */
+    public static final String SUFFIX = "_TsumiFeign";
+
+    /**
+     * 生成类构造函数缓存，未生成时为空
+     */
+    private static final ClassValue<Optional<Constructor<?>>> CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Optional<Constructor<?>> computeValue(Class<?> type) {
+            return findConstructor(type);
+        }
+    };
+
+    private GeneratedClients() {
+    }
+
+    /**
+     * 创建生成的客户端实例
+     *
+     * @param type    Feign 接口类型
+     * @param handler 调用处理器
+     * @param <T>     接口类型
+     * @return 客户端实例，未生成实现类时返回 null
+     */
+    public static <T> T newInstance(Class<T> type, FeignInvocationHandler handler) {
+        Optional<Constructor<?>> constructor = CONSTRUCTORS.get(type);
+        if (constructor.isEmpty()) {
+            return null;
+        }
+        try {
+            return type.cast(constructor.get().newInstance(handler));
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create generated client for " + type.getName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create generated client for " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 生成类对应的类名：包名不变，嵌套接口的外部类名以下划线连接
+     */
+    public static String generatedClassName(Class<?> type) {
+        String packageName = type.getPackageName();
+        String simpleName = packageName.isEmpty() ? type.getName() : type.getName().substring(packageName.length() + 1);
+        String className = simpleName.replace('$', '_') + SUFFIX;
+        return packageName.isEmpty() ? className : packageName + "." + className;
+    }
+
+    /**
+     * 构建生成类使用的方法元数据
+     * 生成类通过 {@code GeneratedClients.metadata()} 取得构建器，按需设置各项后调用 build()，未设置的项取默认值
+     *
+     * @param httpMethod        HTTP 方法
+     * @param path              请求路径
+     * @param headers           静态请求头
+     * @param returnKind        返回值包装类型
+     * @param returnType        返回类型
+     * @param decodeType        解码目标类型
+     * @param streamingResponse 是否以流方式读取响应体
+     * @param timeoutMillis     调用超时（毫秒），0 表示未声明
+     * @param hedgePolicy       对冲策略，未声明时为 null
+     * @param codec             编解码器名称，未声明时为 null
+     * @param bodyType          首个请求体参数类型，没有请求体时为 null
+     * @param writeFeatures     @JsonFeatures 声明的序列化特性，未声明时为 null
+     * @param readFeatures      @JsonFeatures 声明的反序列化特性，未声明时为 null
+     * @return 方法元数据
+     */
+    @Builder(builderMethodName = "metadata", builderClassName = "MetadataBuilder")
+    private static MethodMetadata newMetadata(String httpMethod, String path, String[] headers,
+                                              MethodMetadata.ReturnKind returnKind, Type returnType, Type decodeType,
+                                              boolean streamingResponse, long timeoutMillis, HedgePolicy hedgePolicy,
+                                              String codec, Type bodyType, JSONWriter.Feature[] writeFeatures,
+                                              JSONReader.Feature[] readFeatures) {
+        MethodMetadata metadata = new MethodMetadata();
+        metadata.setHttpMethod(httpMethod);
+        metadata.setPath(path);
+        metadata.setHeaders(headers);
+        metadata.setReturnKind(returnKind != null ? returnKind : MethodMetadata.ReturnKind.SYNC);
+        metadata.setReturnType(returnType);
+        metadata.setDecodeType(decodeType);
+        metadata.setStreamingResponse(streamingResponse);
+        metadata.setTimeoutMillis(timeoutMillis);
+        metadata.setHedgePolicy(hedgePolicy);
+        metadata.setCodec(codec);
+        metadata.setJsonBinding(FastJsonBinding.of(streamingResponse ? null : decodeType, bodyType,
+                writeFeatures, readFeatures));
+        return metadata;
+    }
+
+    private static Optional<Constructor<?>> findConstructor(Class<?> type) {
+        String className = generatedClassName(type);
+        try {
+            Class<?> generated = Class.forName(className, false, type.getClassLoader());
+            if (!type.isAssignableFrom(generated)) {
+                return Optional.empty();
+            }
+            log.debug("Found generated client {} for {}", className, type.getName());
+            return Optional.of(generated.getConstructor(FeignInvocationHandler.class));
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+}
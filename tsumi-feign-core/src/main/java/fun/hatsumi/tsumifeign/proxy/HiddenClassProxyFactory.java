@@ -0,0 +1,446 @@
+package fun.hatsumi.tsumifeign.proxy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 隐藏类代理工厂
+ * 为每个 Feign 接口生成一个实现类并通过 Lookup.defineHiddenClass 定义，
+ * 每个接口方法直接调用构造时传入的 MethodHandler，调用时不再经过 InvocationHandler 和方法查找
+ *
+ * <p>省去的只是分派开销，调用本身并非零分配：MethodHandler 以 Object[] 接收参数，
+ * 每次调用仍会新建参数数组，基本类型参数和返回值仍经过装箱/拆箱。</p>
+ *
+ * <p>生成的方法体只包含顺序执行的字节码（无分支），因此无需 StackMapTable。
+ * 生成失败（如接口所在模块未开放）时回退到 JDK 动态代理。</p>
+ *
+ * @author hatsumi
+ */
+@Slf4j
+final class HiddenClassProxyFactory {
+
+    private static final int CLASS_VERSION = 61;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String HANDLER = MethodHandler.class.getName().replace('.', '/');
+    private static final String HANDLER_ARRAY = "[L" + HANDLER + ";";
+    private static final String HANDLERS_FIELD = "handlers";
+
+    /**
+     * 每个接口只生成一次代理类，代理实例之间共享
+     */
+    private static final ClassValue<ProxyClass> PROXY_CLASSES = new ClassValue<>() {
+        @Override
+        protected ProxyClass computeValue(Class<?> type) {
+            return defineProxyClass(type);
+        }
+    };
+
+    private HiddenClassProxyFactory() {
+    }
+
+    /**
+     * 创建代理实例
+     */
+    static <T> T newProxy(Class<T> type, FeignInvocationHandler handler) {
+        ProxyClass proxyClass;
+        try {
+            proxyClass = PROXY_CLASSES.get(type);
+        } catch (RuntimeException | LinkageError e) {
+            log.warn("Failed to generate hidden class proxy for {}, falling back to JDK proxy", type.getName(), e);
+            return ProxyEngine.JDK.newProxy(type, handler);
+        }
+
+        MethodHandler[] handlers = new MethodHandler[proxyClass.methods.length];
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i] = handler.methodHandler(proxyClass.methods[i]);
+        }
+        try {
+            return type.cast(proxyClass.constructor.invoke(handlers));
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to instantiate proxy for " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 生成并定义代理类
+     */
+    private static ProxyClass defineProxyClass(Class<?> type) {
+        Method[] methods = collectMethods(type);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            String className = type.getName().replace('.', '/') + "$$TsumiFeignProxy";
+            byte[] bytes = generate(className, type, methods);
+            MethodHandles.Lookup hidden = lookup.defineHiddenClass(bytes, true);
+            MethodHandle constructor = hidden.findConstructor(hidden.lookupClass(),
+                            MethodType.methodType(void.class, MethodHandler[].class))
+                    .asType(MethodType.methodType(Object.class, MethodHandler[].class));
+            log.debug("Generated hidden class proxy {} with {} methods", hidden.lookupClass().getName(), methods.length);
+            return new ProxyClass(constructor, methods);
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException("Cannot define proxy class for " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 收集需要实现的抽象方法，按描述符去重
+     * default、static 方法以及重新声明的 Object 方法保持原有实现
+     */
+    private static Method[] collectMethods(Class<?> type) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Method method : type.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method)) {
+                continue;
+            }
+            methods.putIfAbsent(method.getName() + methodDescriptor(method), method);
+        }
+        return methods.values().toArray(new Method[0]);
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 生成代理类字节码
+     */
+    private static byte[] generate(String className, Class<?> type, Method[] methods) {
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef(className);
+        int superClass = pool.classRef(OBJECT);
+        int interfaceClass = pool.classRef(type.getName().replace('.', '/'));
+        int handlersField = pool.fieldRef(className, HANDLERS_FIELD, HANDLER_ARRAY);
+        int codeName = pool.utf8("Code");
+
+        List<byte[]> methodInfos = new ArrayList<>();
+        methodInfos.add(constructor(pool, handlersField, codeName));
+        for (int i = 0; i < methods.length; i++) {
+            methodInfos.add(proxyMethod(pool, handlersField, codeName, methods[i], i));
+        }
+        int fieldName = pool.utf8(HANDLERS_FIELD);
+        int fieldDescriptor = pool.utf8(HANDLER_ARRAY);
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            pool.writeTo(out);
+            out.writeShort(ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceClass);
+
+            // private final MethodHandler[] handlers
+            out.writeShort(1);
+            out.writeShort(ACC_PRIVATE | ACC_FINAL);
+            out.writeShort(fieldName);
+            out.writeShort(fieldDescriptor);
+            out.writeShort(0);
+
+            out.writeShort(methodInfos.size());
+            for (byte[] methodInfo : methodInfos) {
+                out.write(methodInfo);
+            }
+            out.writeShort(0);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 构造函数：保存处理器数组
+     */
+    private static byte[] constructor(ConstantPool pool, int handlersField, int codeName) {
+        Code code = new Code();
+        code.op(0x2a);                                              // aload_0
+        code.op(0xb7).u2(pool.methodRef(OBJECT, "<init>", "()V"));  // invokespecial Object.<init>
+        code.op(0x2a);                                              // aload_0
+        code.op(0x2b);                                              // aload_1
+        code.op(0xb5).u2(handlersField);                            // putfield handlers
+        code.op(0xb1);                                              // return
+        return methodInfo(pool, ACC_PUBLIC, "<init>", "(" + HANDLER_ARRAY + ")V", codeName, code, 2, 2);
+    }
+
+    /**
+     * 接口方法：handlers[index].invoke(new Object[]{args...})，再转换为声明的返回类型
+     * 参数数组按调用分配，基本类型参数经 valueOf 装箱
+     */
+    private static byte[] proxyMethod(ConstantPool pool, int handlersField, int codeName, Method method, int index) {
+        Code code = new Code();
+        code.op(0x2a);                                              // aload_0
+        code.op(0xb4).u2(handlersField);                            // getfield handlers
+        code.pushInt(index);
+        code.op(0x32);                                              // aaload
+
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        code.pushInt(parameterTypes.length);
+        code.op(0xbd).u2(pool.classRef(OBJECT));                    // anewarray Object
+        int slot = 1;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> parameterType = parameterTypes[i];
+            code.op(0x59);                                          // dup
+            code.pushInt(i);
+            code.load(loadOpcode(parameterType), slot);
+            if (parameterType.isPrimitive()) {
+                String box = boxClass(parameterType);
+                code.op(0xb8).u2(pool.methodRef(box, "valueOf",
+                        "(" + descriptor(parameterType) + ")L" + box + ";"));
+            }
+            code.op(0x53);                                          // aastore
+            slot += slotSize(parameterType);
+        }
+
+        code.op(0xb9).u2(pool.interfaceMethodRef(HANDLER, "invoke",
+                "([Ljava/lang/Object;)Ljava/lang/Object;")).u1(2).u1(0);
+
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class) {
+            code.op(0x57);                                          // pop
+            code.op(0xb1);                                          // return
+        } else if (returnType.isPrimitive()) {
+            String box = boxClass(returnType);
+            code.op(0xc0).u2(pool.classRef(box));                   // checkcast
+            code.op(0xb6).u2(pool.methodRef(box, returnType.getName() + "Value",
+                    "()" + descriptor(returnType)));
+            code.op(returnOpcode(returnType));
+        } else {
+            if (returnType != Object.class) {
+                code.op(0xc0).u2(pool.classRef(internalName(returnType)));
+            }
+            code.op(0xb0);                                          // areturn
+        }
+
+        return methodInfo(pool, ACC_PUBLIC, method.getName(), methodDescriptor(method), codeName, code, 6, slot);
+    }
+
+    private static byte[] methodInfo(ConstantPool pool, int access, String name, String descriptor,
+                                     int codeName, Code code, int maxStack, int maxLocals) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + code.size());
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeShort(access);
+            out.writeShort(pool.utf8(name));
+            out.writeShort(pool.utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + code.size());
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.size());
+            code.writeTo(out);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int loadOpcode(Class<?> type) {
+        if (type == long.class) {
+            return 0x16;
+        } else if (type == float.class) {
+            return 0x17;
+        } else if (type == double.class) {
+            return 0x18;
+        } else if (type.isPrimitive()) {
+            return 0x15;
+        }
+        return 0x19;
+    }
+
+    private static int returnOpcode(Class<?> type) {
+        if (type == long.class) {
+            return 0xad;
+        } else if (type == float.class) {
+            return 0xae;
+        } else if (type == double.class) {
+            return 0xaf;
+        }
+        return 0xac;
+    }
+
+    private static int slotSize(Class<?> type) {
+        return type == long.class || type == double.class ? 2 : 1;
+    }
+
+    private static String boxClass(Class<?> type) {
+        return internalName(MethodType.methodType(type).wrap().returnType());
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.isArray() ? descriptor(type) : type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+        return type.descriptorString();
+    }
+
+    private static String methodDescriptor(Method method) {
+        return MethodType.methodType(method.getReturnType(), method.getParameterTypes()).toMethodDescriptorString();
+    }
+
+    /**
+     * 已生成的代理类
+     */
+    private static final class ProxyClass {
+
+        private final MethodHandle constructor;
+        private final Method[] methods;
+
+        private ProxyClass(MethodHandle constructor, Method[] methods) {
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+    }
+
+    /**
+     * 方法字节码缓冲区
+     */
+    private static final class Code {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+
+        Code op(int opcode) {
+            bytes.write(opcode);
+            return this;
+        }
+
+        Code u1(int value) {
+            bytes.write(value);
+            return this;
+        }
+
+        Code u2(int value) {
+            bytes.write(value >>> 8);
+            bytes.write(value);
+            return this;
+        }
+
+        void pushInt(int value) {
+            if (value <= 5) {
+                op(0x03 + value);                                   // iconst_<n>
+            } else if (value <= Byte.MAX_VALUE) {
+                op(0x10).u1(value);                                 // bipush
+            } else {
+                op(0x11).u2(value);                                 // sipush
+            }
+        }
+
+        void load(int opcode, int slot) {
+            if (slot <= 0xff) {
+                op(opcode).u1(slot);
+            } else {
+                op(0xc4).op(opcode).u2(slot);                       // wide
+            }
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+    }
+
+    /**
+     * 常量池，相同常量只写入一次
+     */
+    private static final class ConstantPool {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int next = 1;
+
+        int utf8(String value) {
+            return indexes.computeIfAbsent("U" + value, key -> add(1, entry -> entry.writeUTF(value)));
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return indexes.computeIfAbsent("C" + internalName, key -> add(7, entry -> entry.writeShort(name)));
+        }
+
+        int fieldRef(String owner, String name, String descriptor) {
+            return memberRef(9, owner, name, descriptor);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            return memberRef(10, owner, name, descriptor);
+        }
+
+        int interfaceMethodRef(String owner, String name, String descriptor) {
+            return memberRef(11, owner, name, descriptor);
+        }
+
+        private int memberRef(int tag, String owner, String name, String descriptor) {
+            int ownerIndex = classRef(owner);
+            int nameAndType = nameAndType(name, descriptor);
+            return indexes.computeIfAbsent(tag + owner + "." + name + descriptor, key -> add(tag, entry -> {
+                entry.writeShort(ownerIndex);
+                entry.writeShort(nameAndType);
+            }));
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            return indexes.computeIfAbsent("N" + name + ":" + descriptor, key -> add(12, entry -> {
+                entry.writeShort(nameIndex);
+                entry.writeShort(descriptorIndex);
+            }));
+        }
+
+        private int add(int tag, EntryWriter writer) {
+            try {
+                out.writeByte(tag);
+                writer.write(out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return next++;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            out.flush();
+            target.writeShort(next);
+            bytes.writeTo(target);
+        }
+
+        @FunctionalInterface
+        private interface EntryWriter {
+            void write(DataOutputStream out) throws IOException;
+        }
+    }
+}
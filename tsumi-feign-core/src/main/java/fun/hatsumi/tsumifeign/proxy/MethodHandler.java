@@ -0,0 +1,20 @@
+package fun.hatsumi.tsumifeign.proxy;
+
+/**
+ * 方法处理器
+ * 绑定到单个接口方法，生成的代理类按方法直接调用，不再经过 Method 查找
+ *
+ * @author hatsumi
+ */
+@FunctionalInterface
+public interface MethodHandler {
+
+    /**
+     * 处理一次方法调用
+     *
+     * @param args 方法参数
+     * @return 方法返回值
+     * @throws Throwable 调用过程中抛出的异常
+     */
+    Object invoke(Object[] args) throws Throwable;
+}
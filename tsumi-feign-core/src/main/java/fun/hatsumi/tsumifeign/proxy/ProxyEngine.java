@@ -0,0 +1,42 @@
+package fun.hatsumi.tsumifeign.proxy;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * 代理引擎
+ * 决定 Feign 接口代理实例的生成方式
+ *
+ * @author hatsumi
+ */
+public enum ProxyEngine {
+
+    /**
+     * JDK 动态代理，每次调用经过 InvocationHandler 和方法缓存查找
+     */
+    JDK {
+        @Override
+        public <T> T newProxy(Class<T> type, FeignInvocationHandler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+    },
+
+    /**
+     * 运行时生成隐藏类，每个接口方法直接调用预先绑定的处理器
+     */
+    HIDDEN_CLASS {
+        @Override
+        public <T> T newProxy(Class<T> type, FeignInvocationHandler handler) {
+            return HiddenClassProxyFactory.newProxy(type, handler);
+        }
+    };
+
+    /**
+     * 创建代理实例
+     *
+     * @param type    Feign 接口类型
+     * @param handler 调用处理器
+     * @param <T>     接口类型
+     * @return 代理实例
+     */
+    public abstract <T> T newProxy(Class<T> type, FeignInvocationHandler handler);
+}
@@ -0,0 +1,34 @@
+package fun.hatsumi.tsumifeign.proxy;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Reactor 适配
+ * 单独成类，只有接口方法返回 Mono/Flux 时才会加载 Reactor
+ *
+ * @author hatsumi
+ */
+final class ReactiveSupport {
+
+    private ReactiveSupport() {
+    }
+
+    /**
+     * 订阅时才发起请求，取消订阅会取消底层调用
+     */
+    static Mono<Object> toMono(Supplier<CompletableFuture<Object>> call) {
+        return Mono.fromFuture(call, false);
+    }
+
+    /**
+     * 将解码得到的 List 按下游需求逐个发出
+     */
+    static Flux<Object> toFlux(Supplier<CompletableFuture<Object>> call) {
+        return toMono(call).flatMapIterable(value -> (List<?>) value);
+    }
+}
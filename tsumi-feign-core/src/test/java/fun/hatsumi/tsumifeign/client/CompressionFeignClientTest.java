@@ -0,0 +1,164 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.codec.Compressor;
+import fun.hatsumi.tsumifeign.codec.EncodedBody;
+import fun.hatsumi.tsumifeign.codec.Encoder;
+import fun.hatsumi.tsumifeign.codec.GzipCompressor;
+import fun.hatsumi.tsumifeign.codec.ZstdCompressor;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * CompressionFeignClient 单元测试
+ *
+ * @author Kakeru
+ */
+public class CompressionFeignClientTest {
+
+    private static final String PAYLOAD = "{\"id\":1,\"name\":\"Tsumi\",\"email\":\"tsumi@example.com\"}".repeat(40);
+
+    private MockWebServer mockWebServer;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        baseUrl = mockWebServer.url("/api").toString();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void testGzipRequestAboveThreshold() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        GzipCompressor gzip = new GzipCompressor();
+        FeignClient client = new CompressionFeignClient(new OkHttpFeignClient(), gzip, 1024, List.of(gzip));
+
+        client.execute(post(PAYLOAD));
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("gzip", request.getHeader("Content-Encoding"));
+        assertEquals("gzip", request.getHeader("Accept-Encoding"));
+        byte[] body = request.getBody().readByteArray();
+        assertTrue(body.length < PAYLOAD.length() / 5);
+        try (InputStream in = gzip.decompress(new ByteArrayInputStream(body))) {
+            assertEquals(PAYLOAD, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testSmallRequestNotCompressed() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        GzipCompressor gzip = new GzipCompressor();
+        FeignClient client = new CompressionFeignClient(new OkHttpFeignClient(), gzip, 1024, List.of(gzip));
+
+        client.execute(post("{\"id\":1}"));
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertNull(request.getHeader("Content-Encoding"));
+        assertEquals("{\"id\":1}", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testEncodedBodyCompressedWhileEncoding() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        byte[] dictionary = "{\"id\":,\"name\":\"\",\"email\":\"@example.com\"}".repeat(8).getBytes(StandardCharsets.UTF_8);
+        Compressor zstd = new ZstdCompressor(3, dictionary);
+        FeignClient client = new CompressionFeignClient(new OkHttpFeignClient(), zstd, 1024, List.of(zstd));
+
+        client.execute(post(new EncodedBody(PAYLOAD, new ChunkedEncoder())));
+        client.execute(post(new EncodedBody("{\"id\":1}", new ChunkedEncoder())));
+
+        RecordedRequest large = mockWebServer.takeRequest();
+        assertEquals("zstd", large.getHeader("Content-Encoding"));
+        try (InputStream in = zstd.decompress(new ByteArrayInputStream(large.getBody().readByteArray()))) {
+            assertEquals(PAYLOAD, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        RecordedRequest small = mockWebServer.takeRequest();
+        assertNull(small.getHeader("Content-Encoding"));
+        assertEquals("{\"id\":1}", small.getBody().readUtf8());
+    }
+
+    @Test
+    public void testZstdDictionaryResponse() throws Exception {
+        byte[] dictionary = "{\"id\":,\"name\":\"\",\"email\":\"@example.com\"}".repeat(8).getBytes(StandardCharsets.UTF_8);
+        Compressor zstd = new ZstdCompressor(3, dictionary);
+        Compressor gzip = new GzipCompressor();
+        FeignClient client = new CompressionFeignClient(new OkHttpFeignClient(), zstd, 0, List.of(zstd, gzip));
+
+        byte[] compressed = zstd.compress(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+        mockWebServer.enqueue(new MockResponse()
+                .setHeader("Content-Encoding", "zstd")
+                .setBody(new Buffer().write(compressed)));
+
+        Response response = client.execute(post("{\"id\":1}"));
+
+        assertEquals(PAYLOAD, new String(response.getBody(), StandardCharsets.UTF_8));
+        assertNull(response.getHeader("Content-Encoding"));
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("zstd, gzip", request.getHeader("Accept-Encoding"));
+        assertEquals("zstd", request.getHeader("Content-Encoding"));
+    }
+
+    private RequestTemplate post(Object body) {
+        RequestTemplate template = RequestTemplate.builder()
+                .method("POST")
+                .url(baseUrl)
+                .path("/users")
+                .headers(new HashMap<>())
+                .build();
+        template.setBody(body instanceof String text ? text.getBytes(StandardCharsets.UTF_8) : body);
+        return template;
+    }
+
+    /**
+     * 分段写出字符串的流式编码器，不支持编码为完整字节数组
+     */
+    private static final class ChunkedEncoder implements Encoder {
+
+        @Override
+        public byte[] encode(Object object) {
+            throw new UnsupportedOperationException("Body must be written to a stream");
+        }
+
+        @Override
+        public void encode(Object object, OutputStream output) throws IOException {
+            byte[] bytes = ((String) object).getBytes(StandardCharsets.UTF_8);
+            for (int off = 0; off < bytes.length; off += 100) {
+                output.write(bytes, off, Math.min(100, bytes.length - off));
+            }
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return true;
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/json";
+        }
+    }
+}
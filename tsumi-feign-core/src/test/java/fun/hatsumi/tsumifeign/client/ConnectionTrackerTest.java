@@ -0,0 +1,79 @@
+package fun.hatsumi.tsumifeign.client;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * ConnectionTracker 单元测试
+ *
+ * @author Kakeru
+ */
+public class ConnectionTrackerTest {
+
+    private MockWebServer mockWebServer;
+    private ConnectionTracker tracker;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        tracker = new ConnectionTracker();
+        client = new OkHttpClient.Builder().eventListenerFactory(tracker).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.connectionPool().evictAll();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void testEvictIdleSkipsActiveConnections() throws Exception {
+        // 响应体延迟发送，驱逐时仍需从套接字读取
+        mockWebServer.enqueue(new MockResponse().setBody("active").setBodyDelay(300, TimeUnit.MILLISECONDS));
+        mockWebServer.enqueue(new MockResponse().setBody("idle"));
+        mockWebServer.enqueue(new MockResponse().setBody("fresh"));
+
+        // 未读取的响应体占用第一个连接，第二个请求只能新建连接
+        try (Response active = execute()) {
+            try (Response idle = execute()) {
+                assertEquals("idle", idle.body().string());
+            }
+            assertEquals(2, client.connectionPool().connectionCount());
+
+            assertEquals(1, tracker.evictIdle(mockWebServer.getHostName(), mockWebServer.getPort()));
+            assertEquals("active", active.body().string());
+        }
+
+        // 被驱逐的连接不再复用，之后的请求仍能正常完成
+        try (Response fresh = execute()) {
+            assertEquals("fresh", fresh.body().string());
+        }
+    }
+
+    @Test
+    public void testEvictIdleIgnoresOtherAddresses() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("ok"));
+        try (Response response = execute()) {
+            assertEquals("ok", response.body().string());
+        }
+
+        assertEquals(0, tracker.evictIdle(mockWebServer.getHostName(), mockWebServer.getPort() + 1));
+        assertEquals(1, client.connectionPool().idleConnectionCount());
+    }
+
+    private Response execute() throws Exception {
+        return client.newCall(new Request.Builder().url(mockWebServer.url("/")).build()).execute();
+    }
+}
@@ -0,0 +1,65 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.core.Response;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * Futures 单元测试
+ *
+ * @author Kakeru
+ */
+public class FuturesTest {
+
+    @Test
+    public void testCancelPropagatesToSource() {
+        CompletableFuture<Response> source = new CompletableFuture<>();
+        CompletableFuture<Response> result = Futures.propagateCancel(new CompletableFuture<>(), source);
+
+        result.cancel(true);
+
+        assertTrue(source.isCancelled());
+    }
+
+    @Test
+    public void testCancelClosesDeliveredResponse() {
+        TrackingStream body = new TrackingStream();
+        CompletableFuture<Response> source = new CompletableFuture<>();
+        CompletableFuture<Response> result = Futures.propagateCancel(new CompletableFuture<>(), source);
+
+        // 底层调用已返回流式响应，派生阶段尚未完成时被取消
+        source.complete(Response.builder().status(200).bodyStream(body).build());
+        result.cancel(true);
+
+        assertTrue(body.closed);
+    }
+
+    @Test
+    public void testCompletedResultKeepsResponseOpen() {
+        TrackingStream body = new TrackingStream();
+        Response response = Response.builder().status(200).bodyStream(body).build();
+        CompletableFuture<Response> source = CompletableFuture.completedFuture(response);
+        CompletableFuture<Response> result = Futures.propagateCancel(source.thenApply(r -> r), source);
+
+        assertFalse(result.cancel(true));
+        assertFalse(body.closed);
+    }
+
+    private static final class TrackingStream extends ByteArrayInputStream {
+
+        private boolean closed;
+
+        private TrackingStream() {
+            super(new byte[0]);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.core.HedgePolicy;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * HedgingFeignClient 单元测试
+ *
+ * @author Kakeru
+ */
+public class HedgingFeignClientTest {
+
+    private static final HedgePolicy POLICY = new HedgePolicy(50, 0, 1);
+
+    private MockWebServer mockWebServer;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        baseUrl = mockWebServer.url("/api").toString();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void testHedgeWinsOverSlowRequest() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+        mockWebServer.enqueue(new MockResponse().setBody("fast"));
+        FeignClient client = new HedgingFeignClient(new OkHttpFeignClient(), null, new TokenBudget(0.1, 10));
+
+        long start = System.nanoTime();
+        Response response = client.execute(get(POLICY));
+
+        assertEquals("fast", response.getBodyAsString());
+        assertEquals(2, mockWebServer.getRequestCount());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+    }
+
+    @Test
+    public void testLatencyRecordedForPrimaryAndHedge() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+        mockWebServer.enqueue(new MockResponse().setBody("fast"));
+        HedgingFeignClient client = new HedgingFeignClient(new OkHttpFeignClient(), null, new TokenBudget(0.1, 10));
+
+        assertEquals("fast", client.execute(get(POLICY)).getBodyAsString());
+
+        // 胜出的对冲请求和被取消的首个请求各记录一个样本
+        LatencyTracker tracker = client.latencies("GET", "/lookup");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (tracker.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, tracker.size());
+    }
+
+    @Test
+    public void testBudgetLimitsHedges() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        mockWebServer.enqueue(new MockResponse().setBody("fast"));
+        mockWebServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        FeignClient client = new HedgingFeignClient(new OkHttpFeignClient(), POLICY, new TokenBudget(0, 1));
+
+        assertEquals("fast", client.execute(get(null)).getBodyAsString());
+
+        // 唯一的令牌已经用完，第二次调用只发出一个请求
+        assertEquals("slow", client.execute(get(null)).getBodyAsString());
+        assertEquals(3, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    public void testNonIdempotentRequestNotHedged() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("created").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        FeignClient client = new HedgingFeignClient(new OkHttpFeignClient(), POLICY, new TokenBudget(0.1, 10));
+
+        RequestTemplate template = get(null);
+        template.setMethod("POST");
+        template.setBody(new byte[0]);
+
+        assertEquals("created", client.execute(template).getBodyAsString());
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    public void testTokenBudget() {
+        TokenBudget budget = new TokenBudget(0.5, 2);
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+
+        // 两次正常调用攒出一个令牌
+        budget.deposit();
+        assertFalse(budget.tryAcquire());
+        budget.deposit();
+        assertTrue(budget.tryAcquire());
+    }
+
+    private RequestTemplate get(HedgePolicy policy) {
+        return RequestTemplate.builder()
+                .method("GET")
+                .url(baseUrl)
+                .path("/lookup")
+                .hedgePolicy(policy)
+                .build();
+    }
+}
@@ -0,0 +1,191 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.core.Deadline;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * JdkHttpFeignClient 单元测试
+ *
+ * @author Kakeru
+ */
+public class JdkHttpFeignClientTest {
+
+    private MockWebServer mockWebServer;
+    private JdkHttpFeignClient feignClient;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        baseUrl = mockWebServer.url("/api").toString();
+        feignClient = new JdkHttpFeignClient();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void testGetRequest() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader("X-Trace", "t1")
+                .setBody("{\"id\":1}"));
+
+        RequestTemplate template = template("GET", "/users/{id}");
+        template.addPathVariable("id", 1);
+        template.addQueryParam("q", "a b");
+        template.addHeader("X-Token", "secret");
+        Response response = feignClient.execute(template);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("{\"id\":1}", new String(response.getBody(), StandardCharsets.UTF_8));
+        assertEquals("t1", response.getHeaders().get("x-trace"));
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("GET", request.getMethod());
+        assertEquals("/api/users/1?q=a%20b", request.getPath());
+        assertEquals("secret", request.getHeader("X-Token"));
+    }
+
+    @Test
+    public void testPostBody() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+
+        RequestTemplate template = template("POST", "/users");
+        template.addHeader("Content-Type", "application/json");
+        template.setBody("{\"name\":\"Tsumi\"}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(201, feignClient.execute(template).getStatus());
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("POST", request.getMethod());
+        assertEquals("application/json", request.getHeader("Content-Type"));
+        assertEquals("{\"name\":\"Tsumi\"}", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testStreamingBodyWithDeclaredLength() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+        RequestTemplate template = template("PUT", "/files");
+        template.addHeader("Content-Length", "8");
+        template.setBody(new ByteArrayInputStream("streamed".getBytes(StandardCharsets.UTF_8)));
+        feignClient.execute(template);
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("8", request.getHeader("Content-Length"));
+        assertEquals("streamed", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testAsyncRequest() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("async"));
+
+        CompletableFuture<Response> future = feignClient.executeAsync(template("GET", "/async"));
+        Response response = future.get(5, TimeUnit.SECONDS);
+
+        assertEquals("async", new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDeadlineExtendsRequestTimeout() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("report").setHeadersDelay(800, TimeUnit.MILLISECONDS));
+        feignClient = new JdkHttpFeignClient(HttpClient.newHttpClient(), Duration.ofMillis(300));
+
+        // 截止时间的剩余部分替换客户端 300 毫秒的请求超时
+        RequestTemplate template = template("GET", "/report");
+        template.setDeadline(Deadline.after(5, TimeUnit.SECONDS));
+
+        assertEquals("report", new String(feignClient.execute(template).getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCancelAbortsExchange() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            RequestTemplate template = template("GET", "/hang");
+            template.setUrl("http://127.0.0.1:" + server.getLocalPort());
+            CompletableFuture<Response> future = feignClient.executeAsync(template);
+
+            try (Socket socket = server.accept()) {
+                // 读完请求头后不响应，取消后连接应被客户端关闭
+                socket.setSoTimeout(5000);
+                InputStream input = socket.getInputStream();
+                int matched = 0;
+                while (matched < 4) {
+                    int b = input.read();
+                    assertNotEquals(-1, b);
+                    matched = b == "\r\n\r\n".charAt(matched) ? matched + 1 : (b == '\r' ? 1 : 0);
+                }
+
+                assertTrue(future.cancel(true));
+                try {
+                    assertEquals(-1, input.read());
+                } catch (SocketException e) {
+                    // 连接被重置同样说明交换已中止
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingResponse() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("report"));
+
+        RequestTemplate template = template("GET", "/export");
+        template.setStreamingResponse(true);
+        try (Response response = feignClient.execute(template); InputStream stream = response.getBodyAsStream()) {
+            assertEquals("report", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testConnectionFailure() {
+        RequestTemplate template = RequestTemplate.builder()
+                .method("GET")
+                .url("http://127.0.0.1:1")
+                .path("/")
+                .build();
+
+        CompletableFuture<Response> future = feignClient.executeAsync(template);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected failure");
+        } catch (Exception e) {
+            assertTrue(e.getCause() instanceof java.io.IOException);
+        }
+    }
+
+    private RequestTemplate template(String method, String path) {
+        Map<String, String> headers = new HashMap<>();
+        return RequestTemplate.builder()
+                .method(method)
+                .url(baseUrl)
+                .path(path)
+                .headers(headers)
+                .build();
+    }
+}
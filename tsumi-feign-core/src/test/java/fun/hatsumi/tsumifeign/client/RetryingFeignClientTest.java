@@ -0,0 +1,125 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * RetryingFeignClient 单元测试
+ *
+ * @author Kakeru
+ */
+public class RetryingFeignClientTest {
+
+    private static final RetryPolicy POLICY = new RetryPolicy(2, 10, 50, Set.of(503));
+
+    private MockWebServer mockWebServer;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        baseUrl = mockWebServer.url("/api").toString();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void testRetryIdempotentOnStatus() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setBody("ok"));
+        FeignClient client = new RetryingFeignClient(new OkHttpFeignClient(), POLICY, new TokenBudget(0.2, 10));
+
+        Response response = client.execute(request("GET"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("ok", response.getBodyAsString());
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    public void testNonIdempotentNotRetriedOnStatus() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        FeignClient client = new RetryingFeignClient(new OkHttpFeignClient(), POLICY, new TokenBudget(0.2, 10));
+
+        RequestTemplate template = request("POST");
+        template.setBody(new byte[0]);
+
+        assertEquals(503, client.execute(template).getStatus());
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    public void testConnectFailureRetriedForAnyMethod() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        TokenBudget budget = new TokenBudget(0.2, 10);
+        FeignClient client = new RetryingFeignClient(new OkHttpFeignClient(), POLICY, budget);
+
+        RequestTemplate template = request("POST");
+        template.setUrl("http://127.0.0.1:" + closedPort);
+        template.setBody(new byte[0]);
+
+        assertThrows(IOException.class, () -> client.execute(template));
+        // 首次请求失败后重试两次，各消耗一个令牌
+        assertEquals(8, budget.available(), 0.001);
+    }
+
+    @Test
+    public void testBudgetStopsRetries() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        FeignClient client = new RetryingFeignClient(new OkHttpFeignClient(), POLICY, new TokenBudget(0, 1));
+
+        // 唯一的令牌只够重试一次
+        assertEquals(503, client.execute(request("GET")).getStatus());
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    public void testRetryAsync() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setBody("ok"));
+        FeignClient client = new RetryingFeignClient(new OkHttpFeignClient(), POLICY, new TokenBudget(0.2, 10));
+
+        Response response = client.executeAsync(request("GET")).get();
+
+        assertEquals("ok", response.getBodyAsString());
+        assertEquals(3, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    public void testBackoffIsCapped() {
+        RetryPolicy policy = new RetryPolicy(10, 100, 1000, Set.of());
+        assertEquals(100, policy.backoffMillis(1, 1.0));
+        assertEquals(400, policy.backoffMillis(3, 1.0));
+        assertEquals(1000, policy.backoffMillis(8, 1.0));
+        assertEquals(0, policy.backoffMillis(8, 0.0));
+    }
+
+    private RequestTemplate request(String method) {
+        return RequestTemplate.builder()
+                .method(method)
+                .url(baseUrl)
+                .path("/resource")
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unix 域套接字传输单元测试
+ *
+ * @author Kakeru
+ */
+public class UnixDomainSocketFactoryTest {
+
+    private Path socketPath;
+    private ServerSocketChannel server;
+    private final List<String> requestLines = new CopyOnWriteArrayList<>();
+    private volatile boolean respond = true;
+
+    @Before
+    public void setUp() throws Exception {
+        socketPath = Files.createTempDirectory("tsumi-uds").resolve("svc.sock");
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+        Thread.ofVirtual().start(this::serve);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+        Files.deleteIfExists(socketPath);
+        Files.deleteIfExists(socketPath.getParent());
+    }
+
+    @Test
+    public void testRequestsOverUnixSocket() throws Exception {
+        OkHttpFeignClient client = new OkHttpFeignClient();
+
+        RequestTemplate get = template("GET", "/users/{id}");
+        get.addPathVariable("id", 1);
+        get.addQueryParam("q", "a b");
+        Response response = client.execute(get);
+        assertEquals(200, response.getStatus());
+        assertEquals("ok", new String(response.getBody(), StandardCharsets.UTF_8));
+
+        RequestTemplate post = template("POST", "/users");
+        post.setBody("{\"name\":\"Tsumi\"}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(200, client.executeAsync(post).get(5, TimeUnit.SECONDS).getStatus());
+
+        assertEquals("GET /users/1?q=a%20b HTTP/1.1", requestLines.get(0));
+        assertEquals("POST /users HTTP/1.1", requestLines.get(1));
+    }
+
+    @Test
+    public void testReadTimeout() {
+        respond = false;
+        OkHttpFeignClient client = new OkHttpFeignClient(new OkHttpClient.Builder()
+                .readTimeout(200, TimeUnit.MILLISECONDS)
+                .build());
+
+        try {
+            client.execute(template("GET", "/slow"));
+            fail("Expected timeout");
+        } catch (IOException e) {
+            assertTrue(e instanceof SocketTimeoutException);
+        }
+    }
+
+    private RequestTemplate template(String method, String path) {
+        return RequestTemplate.builder()
+                .method(method)
+                .url("unix://" + socketPath)
+                .path(path)
+                .headers(new HashMap<>())
+                .build();
+    }
+
+    /**
+     * 极简 HTTP/1.1 服务：读取请求头和定长请求体后返回固定响应，连接保持复用
+     */
+    private void serve() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                Thread.ofVirtual().start(() -> handle(channel));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel; InputStream in = Channels.newInputStream(channel);
+             OutputStream out = Channels.newOutputStream(channel)) {
+            while (true) {
+                String head = readHead(in);
+                if (head == null) {
+                    return;
+                }
+                String[] lines = head.split("\r\n");
+                requestLines.add(lines[0]);
+                for (String line : lines) {
+                    if (line.toLowerCase().startsWith("content-length:")) {
+                        in.readNBytes(Integer.parseInt(line.substring(15).trim()));
+                    }
+                }
+                if (!respond) {
+                    Thread.sleep(2000);
+                    return;
+                }
+                out.write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // 客户端关闭连接
+        }
+    }
+
+    private String readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            head.write(b);
+            matched = (b == '\r' && (matched == 0 || matched == 2)) || (b == '\n' && (matched == 1 || matched == 3))
+                    ? matched + 1 : 0;
+            if (matched == 4) {
+                return head.toString(StandardCharsets.US_ASCII);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package fun.hatsumi.tsumifeign.client;
+
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * VirtualThreadFeignClient 单元测试
+ *
+ * @author Kakeru
+ */
+public class VirtualThreadFeignClientTest {
+
+    @Test
+    public void testExecuteAsyncRunsOnVirtualThread() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+        FeignClient delegate = template -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            return Response.builder().status(200).build();
+        };
+
+        Response response = new VirtualThreadFeignClient(delegate)
+                .executeAsync(RequestTemplate.builder().method("GET").build())
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, response.getStatus());
+        assertTrue(virtual.get());
+    }
+
+    @Test
+    public void testCancelInterruptsBlockingCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        FeignClient delegate = template -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Response.builder().status(200).build();
+        };
+
+        CompletableFuture<Response> future = new VirtualThreadFeignClient(delegate)
+                .executeAsync(RequestTemplate.builder().method("GET").build());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        future.cancel(true);
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,63 @@
+package fun.hatsumi.tsumifeign.codec;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * CodecRegistry 单元测试
+ *
+ * @author Kakeru
+ */
+public class CodecRegistryTest {
+
+    private final CodecRegistry registry = CodecRegistry.defaults();
+
+    @Test
+    public void testDefaults() {
+        CodecRegistry.Entry jsonb = registry.get(CodecRegistry.JSONB);
+        assertEquals(FastJsonbEncoder.MEDIA_TYPE, jsonb.mediaType());
+        assertEquals(CodecRegistry.JSON, jsonb.fallback());
+        assertNull(registry.get(CodecRegistry.JSON).fallback());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownCodec() {
+        registry.get("cbor");
+    }
+
+    @Test
+    public void testForContentType() {
+        assertEquals(CodecRegistry.JSON, registry.forContentType("application/json; charset=utf-8").name());
+        assertEquals(CodecRegistry.JSONB, registry.forContentType("Application/X-JSONB").name());
+        assertNull(registry.forContentType("text/plain"));
+        assertNull(registry.forContentType(null));
+    }
+
+    @Test
+    public void testJsonbRoundTrip() {
+        CodecRegistry.Entry jsonb = registry.get(CodecRegistry.JSONB);
+        byte[] bytes = jsonb.encoder().encode(Map.of("name", "TsumiFeign", "tags", List.of("a", "b")));
+
+        Map<?, ?> decoded = (Map<?, ?>) jsonb.decoder().decode(bytes, Map.class);
+        assertEquals("TsumiFeign", decoded.get("name"));
+        assertEquals(List.of("a", "b"), decoded.get("tags"));
+        assertNull(jsonb.decoder().decode(new byte[0], Map.class));
+    }
+
+    @Test
+    public void testNegotiatingEncoder() {
+        Encoder preferred = new FastJsonbEncoder();
+        Encoder fallback = new FastJsonEncoder();
+        NegotiatingEncoder encoder = new NegotiatingEncoder(preferred, fallback);
+
+        assertSame(fallback, NegotiatingEncoder.current(encoder));
+        encoder.setSupported(true);
+        assertSame(preferred, NegotiatingEncoder.current(encoder));
+        assertEquals(FastJsonbEncoder.MEDIA_TYPE, encoder.getContentType());
+        assertSame(fallback, NegotiatingEncoder.current(fallback));
+    }
+}
@@ -1,9 +1,16 @@
 package fun.hatsumi.tsumifeign.codec;
 
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONReader;
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
+import fun.hatsumi.tsumifeign.core.ParameterizedTypeImpl;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -91,9 +98,73 @@ public class FastJsonDecoderTest {
         assertTrue(user.isActive());
     }
 
+    @Test
+    public void testDecodeStream() throws Exception {
+        String json = "{\"id\":2,\"name\":\"StreamUser\",\"email\":\"stream@example.com\",\"active\":true}";
+
+        Object result = decoder.decodeStream(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                TestUser.class);
+        TestUser user = (TestUser) result;
+        assertEquals(Long.valueOf(2), user.getId());
+        assertEquals("StreamUser", user.getName());
+    }
+
+    @Test
+    public void testDecodeStreamGenericType() throws Exception {
+        Type type = new ParameterizedTypeImpl(List.class, TestUser.class);
+        String json = "[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"name\":\"b\"}]";
+
+        @SuppressWarnings("unchecked")
+        List<TestUser> users = (List<TestUser>) decoder.decodeStream(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), type);
+        assertEquals(2, users.size());
+        assertEquals("b", users.get(1).getName());
+    }
+
+    @Test
+    public void testDecodeEmptyStream() throws Exception {
+        assertNull(decoder.decodeStream(InputStream.nullInputStream(), TestUser.class));
+        assertEquals("text", decoder.decodeStream(
+                new ByteArrayInputStream("text".getBytes(StandardCharsets.UTF_8)), String.class));
+    }
+
     /**
      * 测试用 POJO
      */
+    @Test
+    public void testDecodeWithBinding() throws Exception {
+        Type listType = new ParameterizedTypeImpl(List.class, TestUser.class);
+        MethodMetadata metadata = new MethodMetadata();
+        metadata.setDecodeType(listType);
+        metadata.setJsonBinding(FastJsonBinding.of(listType, null, null, null));
+        assertTrue(metadata.getJsonBinding().canRead());
+
+        String json = "[{\"id\":1,\"name\":\"Tsumi\"},{\"id\":2,\"name\":\"Feign\"}]";
+        List<?> users = (List<?>) decoder.decode(json.getBytes(StandardCharsets.UTF_8), metadata);
+        assertEquals(2, users.size());
+        assertEquals("Feign", ((TestUser) users.get(1)).getName());
+
+        try (InputStream input = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))) {
+            users = (List<?>) decoder.decodeStream(input, metadata);
+        }
+        assertEquals(Long.valueOf(1), ((TestUser) users.get(0)).getId());
+        assertNull(decoder.decode(new byte[0], metadata));
+    }
+
+    @Test
+    public void testDecodeWithBindingFeatures() {
+        MethodMetadata metadata = new MethodMetadata();
+        metadata.setDecodeType(TestUser.class);
+        byte[] bytes = "{\"id\":1} trailing".getBytes(StandardCharsets.UTF_8);
+
+        metadata.setJsonBinding(FastJsonBinding.of(TestUser.class, null, null, null));
+        assertThrows(JSONException.class, () -> decoder.decode(bytes, metadata));
+
+        metadata.setJsonBinding(FastJsonBinding.of(TestUser.class, null, null,
+                new JSONReader.Feature[]{JSONReader.Feature.IgnoreCheckClose}));
+        assertEquals(Long.valueOf(1), ((TestUser) decoder.decode(bytes, metadata)).getId());
+    }
+
     public static class TestUser {
         private Long id;
         private String name;
@@ -1,7 +1,10 @@
 package fun.hatsumi.tsumifeign.codec;
 
+import com.alibaba.fastjson2.JSONWriter;
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
@@ -58,6 +61,61 @@ public class FastJsonEncoderTest {
         assertTrue(json.contains("TsumiFeign"));
     }
 
+    @Test
+    public void testEncodeToStream() throws Exception {
+        Map<String, Object> input = new HashMap<>();
+        input.put("name", "TsumiFeign");
+        input.put("tag", null);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        encoder.encode(input, output);
+        assertArrayEquals(encoder.encode(input), output.toByteArray());
+    }
+
+    @Test
+    public void testStreamingEncodeBody() {
+        Map<String, Object> input = Map.of("name", "TsumiFeign");
+
+        assertTrue(encoder.encodeBody(input) instanceof byte[]);
+        Object body = new FastJsonEncoder(true).encodeBody(input);
+        assertTrue(body instanceof EncodedBody);
+        assertEquals("{\"name\":\"TsumiFeign\"}",
+                new String(((EncodedBody) body).toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEncodeBodyWithBinding() {
+        FastJsonDecoderTest.TestUser user = new FastJsonDecoderTest.TestUser();
+        user.setName("Tsumi");
+
+        // 默认特性与 encode 一致输出 null 字段
+        MethodMetadata metadata = new MethodMetadata();
+        metadata.setJsonBinding(FastJsonBinding.of(null, FastJsonDecoderTest.TestUser.class, null, null));
+        assertNotNull(metadata.getJsonBinding().getWriter());
+        assertArrayEquals(encoder.encode(user), (byte[]) encoder.encodeBody(user, metadata));
+
+        // 去掉 WriteMapNullValue 后省略 null 字段，流式编码使用同一绑定
+        metadata.setJsonBinding(FastJsonBinding.of(null, FastJsonDecoderTest.TestUser.class,
+                new JSONWriter.Feature[0], null));
+        String expected = "{\"active\":false,\"name\":\"Tsumi\"}";
+        assertEquals(expected, new String((byte[]) encoder.encodeBody(user, metadata), StandardCharsets.UTF_8));
+        Object body = new FastJsonEncoder(true).encodeBody(user, metadata);
+        assertEquals(expected, new String(((EncodedBody) body).toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEncodeBodyWithBindingRuntimeType() {
+        // 声明类型为接口时按运行时类型查找 ObjectWriter，仍然应用方法声明的特性
+        MethodMetadata metadata = new MethodMetadata();
+        metadata.setJsonBinding(FastJsonBinding.of(null, Map.class, new JSONWriter.Feature[0], null));
+        assertNull(metadata.getJsonBinding().getWriter());
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "Tsumi");
+        map.put("note", null);
+        assertEquals("{\"name\":\"Tsumi\"}", new String((byte[]) encoder.encodeBody(map, metadata), StandardCharsets.UTF_8));
+    }
+
     @Test
     public void testGetContentType() {
         String contentType = encoder.getContentType();
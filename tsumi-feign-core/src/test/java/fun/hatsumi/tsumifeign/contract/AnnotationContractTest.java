@@ -1,11 +1,19 @@
 package fun.hatsumi.tsumifeign.contract;
 
 import fun.hatsumi.tsumifeign.annotation.*;
+import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
+import fun.hatsumi.tsumifeign.core.HedgePolicy;
 import fun.hatsumi.tsumifeign.core.MethodMetadata;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -54,6 +62,58 @@ public class AnnotationContractTest {
         assertEquals(MethodMetadata.ParameterType.BODY, param.getParamType());
     }
 
+    @Test
+    public void testParseTimeout() throws NoSuchMethodException {
+        // 方法上的 @Timeout 优先，未声明时沿用接口上的声明
+        assertEquals(250, contract.parseMethod(TimedClient.class.getMethod("fast")).getTimeoutMillis());
+        assertEquals(3000, contract.parseMethod(TimedClient.class.getMethod("report")).getTimeoutMillis());
+        assertEquals(0, contract.parseMethod(TestClient.class.getMethod("deleteUser", Long.class)).getTimeoutMillis());
+    }
+
+    @Test
+    public void testParseHedged() throws NoSuchMethodException {
+        // 接口上的 @Hedged 只作用于 GET 方法
+        assertEquals(new HedgePolicy(0, 0.95, 1), contract.parseMethod(HedgedClient.class.getMethod("lookup")).getHedgePolicy());
+        assertNull(contract.parseMethod(HedgedClient.class.getMethod("save")).getHedgePolicy());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testParseHedgedNonGetMethod() throws NoSuchMethodException {
+        contract.parseMethod(HedgedClient.class.getMethod("delete"));
+    }
+
+    @Test
+    public void testParseJsonBinding() throws NoSuchMethodException {
+        // 返回值和请求体类型的序列化器在解析时取得
+        MethodMetadata metadata = contract.parseMethod(TestClient.class.getMethod("updateUser", Long.class, TestUser.class));
+        assertTrue(metadata.getJsonBinding().canRead());
+        assertNotNull(metadata.getJsonBinding().getWriter());
+
+        // 流式响应不经过解码器
+        assertFalse(contract.parseMethod(TestClient.class.getMethod("export")).getJsonBinding().canRead());
+    }
+
+    @Test
+    public void testParseJsonFeatures() throws NoSuchMethodException {
+        TestUser user = new TestUser();
+        user.setName("Tsumi");
+        FastJsonEncoder encoder = new FastJsonEncoder();
+
+        // 接口上的 @JsonFeatures 省略 null 字段，方法上的声明优先
+        MethodMetadata compact = contract.parseMethod(JsonFeaturesClient.class.getMethod("compact", TestUser.class));
+        assertEquals("{\"name\":\"Tsumi\"}", new String((byte[]) encoder.encodeBody(user, compact), StandardCharsets.UTF_8));
+        MethodMetadata full = contract.parseMethod(JsonFeaturesClient.class.getMethod("full", TestUser.class));
+        assertTrue(new String((byte[]) encoder.encodeBody(user, full), StandardCharsets.UTF_8).contains("\"id\":null"));
+    }
+
+    @Test
+    public void testParseCodec() throws NoSuchMethodException {
+        // 方法上的 @Codec 优先于接口上的声明
+        assertEquals("jsonb", contract.parseMethod(CodecClient.class.getMethod("lookup")).getCodec());
+        assertEquals("json", contract.parseMethod(CodecClient.class.getMethod("save")).getCodec());
+        assertNull(contract.parseMethod(TestClient.class.getMethod("createUser", TestUser.class)).getCodec());
+    }
+
     @Test
     public void testParsePutMapping() throws NoSuchMethodException {
         Method method = TestClient.class.getMethod("updateUser", Long.class, TestUser.class);
@@ -115,12 +175,97 @@ public class AnnotationContractTest {
         assertEquals("Accept: application/json", metadata.getHeaders()[0]);
     }
 
+    @Test
+    public void testParseStreamingResponse() throws NoSuchMethodException {
+        MethodMetadata export = contract.parseMethod(TestClient.class.getMethod("export"));
+        assertTrue(export.isStreamingResponse());
+
+        MethodMetadata download = contract.parseMethod(TestClient.class.getMethod("download", Path.class));
+        assertTrue(download.isStreamingResponse());
+        assertEquals(MethodMetadata.ParameterType.RESPONSE_TARGET, download.getParameters().get(0).getParamType());
+
+        MethodMetadata getUser = contract.parseMethod(TestClient.class.getMethod("getUser", Long.class));
+        assertFalse(getUser.isStreamingResponse());
+    }
+
+    @Test
+    public void testParseStreamingBody() throws NoSuchMethodException {
+        MethodMetadata upload = contract.parseMethod(TestClient.class.getMethod("upload", Path.class));
+        assertEquals(MethodMetadata.ParameterType.STREAM_BODY, upload.getParameters().get(0).getParamType());
+
+        MethodMetadata publish = contract.parseMethod(TestClient.class.getMethod("publish", Flow.Publisher.class));
+        assertEquals(MethodMetadata.ParameterType.STREAM_BODY, publish.getParameters().get(0).getParamType());
+
+        MethodMetadata createUser = contract.parseMethod(TestClient.class.getMethod("createUser", TestUser.class));
+        assertEquals(MethodMetadata.ParameterType.BODY, createUser.getParameters().get(0).getParamType());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testParseInvalidPublisherBody() throws NoSuchMethodException {
+        contract.parseMethod(TestClient.class.getMethod("publishStrings", Flow.Publisher.class));
+    }
+
     @Test(expected = IllegalStateException.class)
     public void testParseMethodWithoutHttpAnnotation() throws NoSuchMethodException {
         Method method = TestClient.class.getMethod("invalidMethod");
         contract.parseMethod(method);
     }
 
+    /**
+     * 调用超时测试接口
+     */
+    @Timeout(value = 3, unit = TimeUnit.SECONDS)
+    interface TimedClient {
+        @Timeout(250)
+        @GetMapping("/fast")
+        void fast();
+
+        @GetMapping("/report")
+        void report();
+    }
+
+    /**
+     * 对冲请求测试接口
+     */
+    @Hedged(percentile = 0.95)
+    interface HedgedClient {
+        @GetMapping("/lookup")
+        void lookup();
+
+        @PostMapping("/save")
+        void save();
+
+        @Hedged(delay = 50)
+        @DeleteMapping("/delete")
+        void delete();
+    }
+
+    /**
+     * JSON 特性测试接口
+     */
+    @JsonFeatures(write = {})
+    interface JsonFeaturesClient {
+        @PostMapping("/compact")
+        void compact(@RequestBody TestUser user);
+
+        @JsonFeatures
+        @PostMapping("/full")
+        void full(@RequestBody TestUser user);
+    }
+
+    /**
+     * 编解码格式测试接口
+     */
+    @Codec("jsonb")
+    interface CodecClient {
+        @GetMapping("/lookup")
+        void lookup();
+
+        @Codec("json")
+        @PostMapping("/save")
+        void save();
+    }
+
     /**
      * 测试用接口
      */
@@ -143,6 +288,21 @@ public class AnnotationContractTest {
         @GetMapping("/users/current")
         TestUser getUserWithAuth(@RequestHeader("Authorization") String token);
 
+        @GetMapping("/export")
+        InputStream export();
+
+        @PostMapping("/upload")
+        void upload(@RequestBody Path file);
+
+        @PostMapping("/upload")
+        void publish(@RequestBody Flow.Publisher<ByteBuffer> chunks);
+
+        @PostMapping("/upload")
+        void publishStrings(@RequestBody Flow.Publisher<String> chunks);
+
+        @GetMapping("/export")
+        void download(@ResponseTarget Path target);
+
         // 无 HTTP 方法注解的方法
         void invalidMethod();
     }
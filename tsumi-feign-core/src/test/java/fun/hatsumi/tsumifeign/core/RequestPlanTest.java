@@ -0,0 +1,100 @@
+package fun.hatsumi.tsumifeign.core;
+
+import fun.hatsumi.tsumifeign.annotation.*;
+import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
+import fun.hatsumi.tsumifeign.contract.AnnotationContract;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * RequestPlan 单元测试
+ *
+ * @author Kakeru
+ */
+public class RequestPlanTest {
+
+    private final AnnotationContract contract = new AnnotationContract();
+    private final FastJsonEncoder encoder = new FastJsonEncoder();
+
+    private RequestPlan compile(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        Method method = TestClient.class.getMethod(name, parameterTypes);
+        return RequestPlan.compile(contract.parseMethod(method), "http://localhost:8080/api", encoder);
+    }
+
+    @Test
+    public void testStaticHeadersAndPathVariables() throws NoSuchMethodException {
+        RequestPlan plan = compile("getOrder", Long.class, Long.class);
+
+        RequestTemplate template = plan.createTemplate(new Object[]{1L, 2L});
+
+        assertEquals("GET", template.getMethod());
+        assertEquals("/users/{id}/orders/{orderId}", template.getPath());
+        assertEquals("application/json", template.getHeaders().get("Accept"));
+        assertEquals("Basic a:b", template.getHeaders().get("Authorization"));
+        assertNull(template.getQueryParams());
+        assertEquals("http://localhost:8080/api/users/1/orders/2", template.buildUrl());
+    }
+
+    @Test
+    public void testQueryAndHeaderParams() throws NoSuchMethodException {
+        RequestPlan plan = compile("search", String.class, String.class);
+
+        RequestTemplate template = plan.createTemplate(new Object[]{"tsumi", "token"});
+
+        assertEquals("tsumi", template.getQueryParams().get("name"));
+        assertEquals("token", template.getHeaders().get("X-Token"));
+        assertEquals("http://localhost:8080/api/users/search?name=tsumi", template.buildUrl());
+    }
+
+    @Test
+    public void testBodyIsEncodedWithContentType() throws NoSuchMethodException {
+        RequestPlan plan = compile("create", String.class);
+
+        RequestTemplate template = plan.createTemplate(new Object[]{"payload"});
+
+        assertArrayEquals("payload".getBytes(StandardCharsets.UTF_8), (byte[]) template.getBody());
+        assertEquals(encoder.getContentType(), template.getHeaders().get("Content-Type"));
+    }
+
+    @Test
+    public void testNullArgumentsAreSkipped() throws NoSuchMethodException {
+        RequestPlan plan = compile("search", String.class, String.class);
+
+        RequestTemplate template = plan.createTemplate(new Object[]{null, null});
+
+        assertTrue(template.getQueryParams().isEmpty());
+        assertFalse(template.getHeaders().containsKey("X-Token"));
+        assertEquals("http://localhost:8080/api/users/search", template.buildUrl());
+    }
+
+    @Test
+    public void testTemplatesAreIndependent() throws NoSuchMethodException {
+        RequestPlan plan = compile("getOrder", Long.class, Long.class);
+
+        RequestTemplate first = plan.createTemplate(new Object[]{1L, 2L});
+        first.addHeader("TX_XID", "xid");
+        RequestTemplate second = plan.createTemplate(new Object[]{3L, 4L});
+
+        assertFalse(second.getHeaders().containsKey("TX_XID"));
+        assertEquals("http://localhost:8080/api/users/3/orders/4", second.buildUrl());
+    }
+
+    /**
+     * 测试用接口
+     */
+    interface TestClient {
+        @GetMapping(value = "/users/{id}/orders/{orderId}",
+                headers = {"Accept: application/json", "Authorization: Basic a:b"})
+        String getOrder(@PathVariable("id") Long id, @PathVariable("orderId") Long orderId);
+
+        @GetMapping("/users/search")
+        String search(@RequestParam("name") String name, @RequestHeader("X-Token") String token);
+
+        @PostMapping("/users")
+        String create(@RequestBody String body);
+    }
+}
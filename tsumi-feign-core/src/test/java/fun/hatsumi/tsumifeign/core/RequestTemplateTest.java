@@ -3,6 +3,7 @@ package fun.hatsumi.tsumifeign.core;
 import org.junit.Test;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -41,6 +42,23 @@ public class RequestTemplateTest {
         assertEquals("http://localhost:8080/api/users/123/orders/456", url);
     }
 
+    @Test
+    public void testBuildUrlWithPathTemplate() {
+        Map<String, Object> pathVariables = new HashMap<>();
+        pathVariables.put("id", "123");
+
+        RequestTemplate template = RequestTemplate.builder()
+                .url("http://localhost:8080/api")
+                .path("/users/{id}/orders/{orderId}")
+                .pathTemplate(PathTemplate.compile("/users/{id}/orders/{orderId}"))
+                .pathVariables(pathVariables)
+                .build();
+
+        // 未提供值的变量保留原样
+        String url = template.buildUrl();
+        assertEquals("http://localhost:8080/api/users/123/orders/{orderId}", url);
+    }
+
     @Test
     public void testBuildUrlWithQueryParams() {
         Map<String, Object> queryParams = new HashMap<>();
@@ -128,6 +146,54 @@ public class RequestTemplateTest {
         assertTrue(url.contains("?"));
     }
 
+    @Test
+    public void testPercentEncoding() {
+        Map<String, Object> pathVariables = new HashMap<>();
+        pathVariables.put("name", "a b/c");
+
+        RequestTemplate template = RequestTemplate.builder()
+                .url("http://localhost:8080/api")
+                .path("/files/{name}")
+                .pathTemplate(PathTemplate.compile("/files/{name}"))
+                .pathVariables(pathVariables)
+                .build();
+        template.addQueryParam("q", "张三&x=1");
+        template.addQueryParam("email", "test@example.com");
+
+        assertEquals("http://localhost:8080/api/files/a%20b%2Fc?q=%E5%BC%A0%E4%B8%89%26x%3D1&email=test@example.com",
+                template.buildUrl());
+    }
+
+    @Test
+    public void testCollectionQueryParams() {
+        RequestTemplate template = RequestTemplate.builder()
+                .url("http://localhost:8080/api")
+                .path("/users")
+                .build();
+        template.addQueryParam("id", List.of(1, 2));
+        template.addQueryParam("tag", new String[]{"a", "b"});
+        template.addQueryParam("page", new int[]{3});
+
+        assertEquals("http://localhost:8080/api/users?id=1&id=2&tag=a&tag=b&page=3", template.buildUrl());
+        assertEquals("id=1&id=2&tag=a&tag=b&page=3", template.buildQuery());
+    }
+
+    @Test
+    public void testStaticQueryInPath() {
+        Map<String, Object> pathVariables = new HashMap<>();
+        pathVariables.put("type", "x y");
+
+        RequestTemplate template = RequestTemplate.builder()
+                .url("http://localhost:8080/api")
+                .path("/search?type={type}&v=1")
+                .pathVariables(pathVariables)
+                .build();
+        template.addQueryParam("q", "tsumi");
+
+        assertEquals("http://localhost:8080/api/search?type=x%20y&v=1&q=tsumi", template.buildUrl());
+        assertEquals("/search", template.buildPath());
+    }
+
     @Test
     public void testEmptyPath() {
         RequestTemplate template = RequestTemplate.builder()
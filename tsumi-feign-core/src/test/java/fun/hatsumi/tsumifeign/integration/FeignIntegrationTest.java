@@ -1,23 +1,62 @@
 package fun.hatsumi.tsumifeign.integration;
 
+import com.alibaba.fastjson2.JSONB;
 import fun.hatsumi.tsumifeign.annotation.*;
+import fun.hatsumi.tsumifeign.client.Bulkhead;
+import fun.hatsumi.tsumifeign.client.BulkheadFullException;
+import fun.hatsumi.tsumifeign.client.BulkheadRegistry;
+import fun.hatsumi.tsumifeign.client.BulkheadStats;
+import fun.hatsumi.tsumifeign.client.ConnectionTracker;
+import fun.hatsumi.tsumifeign.client.FeignClient;
 import fun.hatsumi.tsumifeign.client.OkHttpFeignClient;
+import fun.hatsumi.tsumifeign.client.RetryPolicy;
+import fun.hatsumi.tsumifeign.client.RetryingFeignClient;
+import fun.hatsumi.tsumifeign.client.TokenBudget;
+import fun.hatsumi.tsumifeign.codec.CodecRegistry;
+import fun.hatsumi.tsumifeign.codec.EncodedBody;
 import fun.hatsumi.tsumifeign.codec.FastJsonDecoder;
 import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
+import fun.hatsumi.tsumifeign.codec.FastJsonbEncoder;
 import fun.hatsumi.tsumifeign.contract.AnnotationContract;
+import fun.hatsumi.tsumifeign.core.Deadline;
+import fun.hatsumi.tsumifeign.core.DeadlineExceededException;
 import fun.hatsumi.tsumifeign.core.MethodMetadata;
+import fun.hatsumi.tsumifeign.core.RequestPlan;
 import fun.hatsumi.tsumifeign.core.RequestTemplate;
 import fun.hatsumi.tsumifeign.core.Response;
+import fun.hatsumi.tsumifeign.proxy.FeignInvocationHandler;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -133,6 +172,36 @@ public class FeignIntegrationTest {
         assertEquals("New User", result.getName());
     }
 
+    @Test
+    public void testStreamingEncode() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                .setBody("{\"id\":7,\"name\":\"Streamed\"}"));
+
+        FastJsonEncoder streamingEncoder = new FastJsonEncoder(true);
+        MethodMetadata metadata = contract.parseMethod(
+                TestClient.class.getMethod("updateUser", Long.class, TestUser.class));
+        TestUser user = new TestUser();
+        user.setName("Streamed");
+        RequestTemplate template = RequestPlan.compile(metadata, baseUrl, streamingEncoder)
+                .createTemplate(new Object[]{7L, user});
+        assertTrue(template.getBody() instanceof EncodedBody);
+
+        // 延迟编码的请求体可以重放，重试时重新编码
+        FeignClient client = new RetryingFeignClient(feignClient,
+                new RetryPolicy(1, 1, 1, Set.of(503)), new TokenBudget(0.2, 10));
+        FeignInvocationHandler handler = new FeignInvocationHandler(TestClient.class, client,
+                streamingEncoder, decoder, contract);
+        TestUser result = (TestUser) handler.execute(template, metadata);
+        assertEquals(Long.valueOf(7), result.getId());
+
+        for (int i = 0; i < 2; i++) {
+            RecordedRequest request = mockWebServer.takeRequest();
+            assertEquals("chunked", request.getHeader("Transfer-Encoding"));
+            assertTrue(request.getBody().readUtf8().contains("\"name\":\"Streamed\""));
+        }
+    }
+
     private TestUser executeCreateUser(TestUser user) throws IOException {
         Method method = null;
         try {
@@ -154,6 +223,464 @@ public class FeignIntegrationTest {
         return (TestUser) decoder.decode(response.getBody(), TestUser.class);
     }
 
+    @Test
+    public void testEncodedUrl() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+        RequestTemplate template = RequestTemplate.builder()
+                .method("GET")
+                .url(baseUrl)
+                .path("/files/{name}")
+                .build();
+        template.addPathVariable("name", "a b/c");
+        template.addQueryParam("tag", List.of("x&y", "z"));
+        feignClient.execute(template);
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("/api/files/a%20b%2Fc?tag=x%26y&tag=z", request.getPath());
+    }
+
+    @Test
+    public void testServiceClientSelection() throws Exception {
+        MockWebServer h2cServer = new MockWebServer();
+        h2cServer.setProtocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+        h2cServer.start();
+        try {
+            OkHttpClient defaultClient = new OkHttpClient();
+            OkHttpClient h2cClient = defaultClient.newBuilder()
+                    .protocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE))
+                    .build();
+            OkHttpFeignClient client = new OkHttpFeignClient(defaultClient, Map.of("mesh-service", h2cClient));
+
+            // h2c 服务只接受 HTTP/2 先验知识连接，按客户端名称选中 h2c 客户端
+            h2cServer.enqueue(new MockResponse().setResponseCode(200).setBody("h2"));
+            RequestTemplate template = RequestTemplate.builder()
+                    .method("GET")
+                    .url(h2cServer.url("/").toString())
+                    .clientName("mesh-service")
+                    .path("/ping")
+                    .build();
+            Response response = client.execute(template);
+            assertEquals("h2", new String(response.getBody(), StandardCharsets.UTF_8));
+
+            // 未配置覆盖的客户端仍使用默认 HTTP/1.1 客户端
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+            template = RequestTemplate.builder()
+                    .method("GET")
+                    .url(baseUrl)
+                    .clientName("other-service")
+                    .path("/ping")
+                    .build();
+            assertEquals(200, client.execute(template).getStatus());
+        } finally {
+            h2cServer.shutdown();
+        }
+    }
+
+    @Test
+    public void testBulkheadIsolation() throws Exception {
+        OkHttpClient sharedClient = new OkHttpClient();
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(1);
+        OkHttpClient partnerClient = sharedClient.newBuilder()
+                .connectionPool(new ConnectionPool())
+                .dispatcher(dispatcher)
+                .build();
+        BulkheadRegistry bulkheads = new BulkheadRegistry(List.of(new Bulkhead("partner-api", partnerClient, 0)));
+        OkHttpFeignClient client = new OkHttpFeignClient(sharedClient, Map.of(), bulkheads);
+
+        // 慢下游占满舱壁唯一的并发额度
+        mockWebServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        CompletableFuture<Response> slow = client.executeAsync(namedTemplate("partner-api"));
+
+        // 同一舱壁的后续请求立即被拒绝
+        try {
+            client.execute(namedTemplate("partner-api"));
+            fail("Expected BulkheadFullException");
+        } catch (BulkheadFullException expected) {
+            // 排队已满
+        }
+
+        // 其他服务不受影响
+        mockWebServer.enqueue(new MockResponse().setBody("fast"));
+        assertEquals("fast", new String(client.execute(namedTemplate("internal")).getBody(), StandardCharsets.UTF_8));
+
+        BulkheadStats stats = bulkheads.get("partner-api").stats();
+        assertEquals(1, stats.getRunningRequests());
+        assertEquals(1, stats.getRejectedRequests());
+        assertEquals(1.0, stats.getUtilization(), 0.0);
+
+        assertEquals("slow", new String(slow.get(5, TimeUnit.SECONDS).getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testBulkheadRejectsWhenHostSaturated() throws Exception {
+        // 默认 Dispatcher：单个主机最多 5 个并发，远未达到 maxRequests
+        OkHttpClient sharedClient = new OkHttpClient();
+        OkHttpClient partnerClient = sharedClient.newBuilder()
+                .connectionPool(new ConnectionPool())
+                .dispatcher(new Dispatcher())
+                .build();
+        BulkheadRegistry bulkheads = new BulkheadRegistry(List.of(new Bulkhead("partner-api", partnerClient, 1)));
+        OkHttpFeignClient client = new OkHttpFeignClient(sharedClient, Map.of(), bulkheads);
+
+        List<CompletableFuture<Response>> calls = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            mockWebServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(300, TimeUnit.MILLISECONDS));
+            calls.add(client.executeAsync(namedTemplate("partner-api")));
+        }
+
+        // 5 个请求占满主机并发，1 个排队，再来的请求被拒绝
+        BulkheadStats stats = bulkheads.get("partner-api").stats();
+        assertEquals(5, stats.getRunningRequests());
+        assertEquals(1, stats.getQueuedRequests());
+        assertThrows(BulkheadFullException.class, () -> client.execute(namedTemplate("partner-api")));
+        assertEquals(1, bulkheads.get("partner-api").stats().getRejectedRequests());
+
+        for (CompletableFuture<Response> call : calls) {
+            assertEquals("slow", new String(call.get(5, TimeUnit.SECONDS).getBody(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testWarmUpUsesBulkheadPool() throws Exception {
+        OkHttpClient sharedClient = new OkHttpClient();
+        OkHttpClient partnerClient = sharedClient.newBuilder()
+                .connectionPool(new ConnectionPool())
+                .dispatcher(new Dispatcher())
+                .build();
+        BulkheadRegistry bulkheads = new BulkheadRegistry(List.of(new Bulkhead("partner-api", partnerClient, 10)));
+        OkHttpFeignClient client = new OkHttpFeignClient(sharedClient, Map.of(), bulkheads);
+        for (int i = 0; i < 2; i++) {
+            mockWebServer.enqueue(new MockResponse().setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        }
+
+        // 以服务名预热实例地址，连接建立在请求实际使用的舱壁连接池中
+        client.warmUp("partner-api", baseUrl, 2).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, partnerClient.connectionPool().connectionCount());
+        assertEquals(0, sharedClient.connectionPool().connectionCount());
+    }
+
+    @Test
+    public void testEvictConnections() throws Exception {
+        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+                .eventListenerFactory(new ConnectionTracker())
+                .build();
+        OkHttpFeignClient client = new OkHttpFeignClient(okHttpClient);
+        mockWebServer.enqueue(new MockResponse().setBody("first"));
+        mockWebServer.enqueue(new MockResponse().setBody("second"));
+
+        client.execute(namedTemplate("user-service"));
+        assertEquals(1, okHttpClient.connectionPool().idleConnectionCount());
+
+        // 实例下线后驱逐空闲连接，下一个请求重新建连
+        client.evictConnections(baseUrl);
+        client.execute(namedTemplate("user-service"));
+
+        assertEquals(0, mockWebServer.takeRequest().getSequenceNumber());
+        assertEquals(0, mockWebServer.takeRequest().getSequenceNumber());
+    }
+
+    @Test
+    public void testAsyncRequest() throws Exception {
+        String responseBody = "{\"id\":4,\"name\":\"Async User\",\"email\":\"async@example.com\"}";
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody(responseBody)
+                .addHeader("Content-Type", "application/json"));
+
+        RequestTemplate template = RequestTemplate.builder()
+                .method("GET")
+                .url(baseUrl)
+                .path("/users/{id}")
+                .build();
+        template.addPathVariable("id", 4L);
+
+        // 通过 enqueue 非阻塞执行
+        Response response = feignClient.executeAsync(template).get(5, TimeUnit.SECONDS);
+        TestUser result = (TestUser) decoder.decode(response.getBody(), TestUser.class);
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("/api/users/4", request.getPath());
+        assertEquals(Long.valueOf(4), result.getId());
+        assertEquals("Async User", result.getName());
+    }
+
+    @Test
+    public void testWarmUpOpensConnections() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+        }
+
+        feignClient.warmUp(baseUrl, 3).get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, mockWebServer.getRequestCount());
+        assertEquals("HEAD", mockWebServer.takeRequest().getMethod());
+    }
+
+    @Test
+    public void testStreamingInputStreamResponse() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("line1\nline2"));
+
+        InputStream stream = (InputStream) executeStreaming("export");
+        try (stream) {
+            assertEquals("line1\nline2", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // 关闭流后连接归还连接池，可被下一次请求复用
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("again"));
+        try (InputStream again = (InputStream) executeStreaming("export")) {
+            assertEquals("again", new String(again.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        mockWebServer.takeRequest();
+        assertEquals(1, mockWebServer.takeRequest().getSequenceNumber());
+    }
+
+    @Test
+    public void testStreamingDecode() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                .setBody("{\"id\":5,\"name\":\"Stream User\",\"email\":\"stream@example.com\"}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+        MethodMetadata metadata = contract.parseMethod(TestClient.class.getMethod("getUser", Long.class));
+        assertTrue(metadata.isStreamingDecode());
+        RequestPlan plan = RequestPlan.compile(metadata, baseUrl, encoder);
+        FeignInvocationHandler handler = new FeignInvocationHandler(TestClient.class, feignClient,
+                encoder, decoder, contract);
+
+        TestUser user = (TestUser) handler.execute(plan.createTemplate(new Object[]{5L}), metadata);
+        assertEquals("Stream User", user.getName());
+
+        // 空响应体解码为 null；解析完成后连接已释放，第二次请求复用同一连接
+        assertNull(handler.execute(plan.createTemplate(new Object[]{6L}), metadata));
+        mockWebServer.takeRequest();
+        assertEquals(1, mockWebServer.takeRequest().getSequenceNumber());
+    }
+
+    @Test
+    public void testStreamingChannelResponse() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("channel"));
+
+        try (ReadableByteChannel channel = (ReadableByteChannel) executeStreaming("exportChannel")) {
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            while (channel.read(buffer) >= 0) {
+                // 读取到流结束
+            }
+            buffer.flip();
+            assertEquals("channel", StandardCharsets.UTF_8.decode(buffer).toString());
+        }
+    }
+
+    @Test
+    public void testStreamingResponseToFile() throws Throwable {
+        byte[] payload = new byte[256 * 1024];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(new Buffer().write(payload)));
+
+        Path target = Files.createTempFile("tsumi-feign", ".bin");
+        try {
+            Object result = executeStreaming("download", target);
+
+            assertEquals(target, result);
+            assertArrayEquals(payload, Files.readAllBytes(target));
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    @Test
+    public void testStreamingPathUpload() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        byte[] payload = new byte[256 * 1024];
+        Arrays.fill(payload, (byte) 7);
+        Path source = Files.createTempFile("tsumi-feign", ".bin");
+        try {
+            Files.write(source, payload);
+            executeStreaming("uploadFile", source);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals(String.valueOf(payload.length), request.getHeader("Content-Length"));
+        assertEquals("application/octet-stream", request.getHeader("Content-Type"));
+        assertArrayEquals(payload, request.getBody().readByteArray());
+    }
+
+    @Test
+    public void testStreamingInputStreamUpload() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+        executeStreaming("uploadStream", new ByteArrayInputStream("streamed".getBytes(StandardCharsets.UTF_8)));
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("chunked", request.getHeader("Transfer-Encoding"));
+        assertEquals("text/csv", request.getHeader("Content-Type"));
+        assertEquals("streamed", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testStreamingPublisherUpload() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+        try (SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>()) {
+            CompletableFuture<Object> result = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return executeStreaming("uploadChunks", publisher);
+                } catch (Throwable e) {
+                    throw new CompletionException(e);
+                }
+            });
+            while (publisher.getNumberOfSubscribers() == 0) {
+                Thread.onSpinWait();
+            }
+            for (String chunk : List.of("a", "bc", "def")) {
+                publisher.submit(ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+            }
+            publisher.close();
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("chunked", request.getHeader("Transfer-Encoding"));
+        assertEquals("abcdef", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testMethodTimeout() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(2, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        try {
+            executeTimed("slow");
+            fail("Expected call timeout");
+        } catch (InterruptedIOException expected) {
+            // @Timeout(100) 覆盖客户端 10 秒的读超时
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+    }
+
+    @Test
+    public void testMethodTimeoutExtendsReadTimeout() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(800, TimeUnit.MILLISECONDS));
+        feignClient = new OkHttpFeignClient(new OkHttpClient.Builder()
+                .readTimeout(300, TimeUnit.MILLISECONDS)
+                .writeTimeout(300, TimeUnit.MILLISECONDS)
+                .build());
+
+        // 接口上声明的 5 秒替换客户端 300 毫秒的读超时
+        executeTimed("inherited");
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    public void testDeadlinePropagation() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+        // 接口上声明 5 秒，上游剩余 2 秒，取较早者
+        Deadline.bind(Deadline.after(2, TimeUnit.SECONDS));
+        try {
+            executeTimed("inherited");
+        } finally {
+            Deadline.unbind();
+        }
+
+        long remaining = Long.parseLong(mockWebServer.takeRequest().getHeader(Deadline.HEADER));
+        assertTrue(remaining > 0 && remaining <= 2000);
+    }
+
+    @Test
+    public void testExpiredDeadlineNotSent() throws Throwable {
+        Deadline.bind(Deadline.after(0, TimeUnit.MILLISECONDS));
+        try {
+            executeTimed("inherited");
+            fail("Expected deadline exceeded");
+        } catch (DeadlineExceededException expected) {
+            // 预期异常
+        } finally {
+            Deadline.unbind();
+        }
+        assertEquals(0, mockWebServer.getRequestCount());
+    }
+
+    private Object executeTimed(String methodName) throws Throwable {
+        MethodMetadata metadata = contract.parseMethod(TimeoutClient.class.getMethod(methodName));
+        RequestTemplate template = RequestPlan.compile(metadata, baseUrl, encoder).createTemplate(null);
+
+        FeignInvocationHandler handler = new FeignInvocationHandler(TimeoutClient.class, feignClient,
+                encoder, decoder, contract);
+        return handler.execute(template, metadata);
+    }
+
+    private RequestTemplate namedTemplate(String clientName) {
+        return RequestTemplate.builder()
+                .method("GET")
+                .url(baseUrl)
+                .clientName(clientName)
+                .path("/ping")
+                .build();
+    }
+
+    private Object executeStreaming(String methodName, Object... args) throws Throwable {
+        Method method = null;
+        for (Method candidate : StreamClient.class.getMethods()) {
+            if (candidate.getName().equals(methodName)) {
+                method = candidate;
+            }
+        }
+        MethodMetadata metadata = contract.parseMethod(method);
+        RequestTemplate template = RequestPlan.compile(metadata, baseUrl, encoder).createTemplate(args);
+
+        FeignInvocationHandler handler = new FeignInvocationHandler(StreamClient.class, feignClient,
+                encoder, decoder, contract);
+        return handler.execute(template, metadata);
+    }
+
+    @Test
+    public void testCodecNegotiation() throws Throwable {
+        TestUser user = new TestUser();
+        user.setId(9L);
+        user.setName("Binary");
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"id\":9,\"name\":\"Binary\"}")
+                .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(new Buffer().write(JSONB.toBytes(user)))
+                .addHeader("Content-Type", FastJsonbEncoder.MEDIA_TYPE));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(415));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"id\":9}")
+                .addHeader("Content-Type", "application/json"));
+
+        FeignInvocationHandler handler = new FeignInvocationHandler(CodecClient.class, feignClient,
+                encoder, decoder, contract, CodecRegistry.defaults(encoder, decoder));
+        MethodMetadata metadata = contract.parseMethod(CodecClient.class.getMethod("createUser", TestUser.class));
+        RequestPlan plan = RequestPlan.compile(metadata, baseUrl, handler.getEncoder(metadata));
+        Object[] args = {user};
+
+        // 服务端以 JSON 响应，请求体仍为 JSON
+        assertEquals("Binary", ((TestUser) handler.execute(plan.createTemplate(args), metadata)).getName());
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertTrue(request.getHeader("Content-Type").startsWith("application/json"));
+        assertTrue(request.getHeader("Accept").startsWith(FastJsonbEncoder.MEDIA_TYPE));
+
+        // 服务端以 JSONB 响应，按响应的 Content-Type 解码
+        assertEquals("Binary", ((TestUser) handler.execute(plan.createTemplate(args), metadata)).getName());
+        assertTrue(mockWebServer.takeRequest().getHeader("Content-Type").startsWith("application/json"));
+
+        // 此后请求体改用 JSONB，服务端返回 415 时回退到 JSON
+        assertThrows(RuntimeException.class, () -> handler.execute(plan.createTemplate(args), metadata));
+        request = mockWebServer.takeRequest();
+        assertEquals(FastJsonbEncoder.MEDIA_TYPE, request.getHeader("Content-Type"));
+        assertEquals("Binary", JSONB.parseObject(request.getBody().readByteArray(), TestUser.class).getName());
+
+        assertEquals(Long.valueOf(9), ((TestUser) handler.execute(plan.createTemplate(args), metadata)).getId());
+        assertTrue(mockWebServer.takeRequest().getHeader("Content-Type").startsWith("application/json"));
+    }
+
     @Test
     public void testCodecIntegration() throws Exception {
         // 测试编解码器集成
@@ -194,6 +721,54 @@ public class FeignIntegrationTest {
         TestUser getUserWithAuth(@RequestHeader("Authorization") String token);
     }
 
+    /**
+     * 编解码格式协商测试接口
+     */
+    @Codec(CodecRegistry.JSONB)
+    @TsumiFeignClient(url = "http://localhost:8080")
+    interface CodecClient {
+        @PostMapping("/users")
+        TestUser createUser(@RequestBody TestUser user);
+    }
+
+    /**
+     * 流式响应测试接口
+     */
+    @TsumiFeignClient(url = "http://localhost:8080")
+    interface StreamClient {
+        @GetMapping("/export")
+        InputStream export();
+
+        @GetMapping("/export")
+        ReadableByteChannel exportChannel();
+
+        @GetMapping("/export")
+        Path download(@ResponseTarget Path target);
+
+        @PostMapping("/upload")
+        void uploadFile(@RequestBody Path file);
+
+        @PostMapping(value = "/upload", headers = "Content-Type: text/csv")
+        void uploadStream(@RequestBody InputStream stream);
+
+        @PostMapping("/upload")
+        void uploadChunks(@RequestBody Flow.Publisher<ByteBuffer> chunks);
+    }
+
+    /**
+     * 调用超时测试接口
+     */
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @TsumiFeignClient(url = "http://localhost:8080")
+    interface TimeoutClient {
+        @Timeout(100)
+        @GetMapping("/slow")
+        void slow();
+
+        @GetMapping("/inherited")
+        void inherited();
+    }
+
     /**
      * 测试用 POJO
      */
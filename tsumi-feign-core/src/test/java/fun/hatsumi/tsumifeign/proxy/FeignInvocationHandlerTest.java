@@ -0,0 +1,249 @@
+package fun.hatsumi.tsumifeign.proxy;
+
+import fun.hatsumi.tsumifeign.annotation.*;
+import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.codec.FastJsonDecoder;
+import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
+import fun.hatsumi.tsumifeign.contract.AnnotationContract;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * FeignInvocationHandler 单元测试
+ * 使用桩 FeignClient 验证代理调用的完整流程
+ *
+ * @author Kakeru
+ */
+public class FeignInvocationHandlerTest {
+
+    private StubFeignClient feignClient;
+    private TestClient client;
+
+    @Before
+    public void setUp() {
+        feignClient = new StubFeignClient();
+        FeignInvocationHandler handler = new FeignInvocationHandler(TestClient.class, feignClient,
+                new FastJsonEncoder(), new FastJsonDecoder(), new AnnotationContract());
+        client = (TestClient) Proxy.newProxyInstance(TestClient.class.getClassLoader(),
+                new Class<?>[]{TestClient.class}, handler);
+    }
+
+    @Test
+    public void testSyncCall() {
+        feignClient.body = "{\"id\":1,\"name\":\"Tsumi\"}";
+
+        TestUser user = client.getUser(1L);
+
+        assertEquals(Long.valueOf(1), user.getId());
+        assertEquals("Tsumi", user.getName());
+        assertEquals("http://localhost:8080/users/1", feignClient.lastRequest.buildUrl());
+    }
+
+    @Test
+    public void testCompletableFutureReturnType() throws Exception {
+        feignClient.body = "{\"id\":2,\"name\":\"Async\"}";
+
+        CompletableFuture<TestUser> future = client.getUserAsync(2L);
+
+        assertTrue(feignClient.asyncCalled);
+        TestUser user = future.get();
+        assertEquals(Long.valueOf(2), user.getId());
+        assertEquals("Async", user.getName());
+    }
+
+    @Test
+    public void testCompletionStageReturnType() throws Exception {
+        feignClient.body = "[{\"id\":1},{\"id\":2}]";
+
+        List<TestUser> users = client.listUsers().toCompletableFuture().get();
+
+        assertEquals(2, users.size());
+        assertEquals(Long.valueOf(2), users.get(1).getId());
+    }
+
+    @Test
+    public void testAsyncErrorStatusFailsFuture() {
+        feignClient.status = 500;
+
+        CompletableFuture<TestUser> future = client.getUserAsync(3L);
+
+        try {
+            future.get();
+            fail("Expected failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RuntimeException);
+        } catch (InterruptedException e) {
+            fail("Interrupted");
+        }
+    }
+
+    @Test
+    public void testCancelPropagatesToClient() {
+        feignClient.pending = new CompletableFuture<>();
+
+        CompletableFuture<TestUser> future = client.getUserAsync(4L);
+        future.cancel(true);
+
+        assertTrue(feignClient.pending.isCancelled());
+    }
+
+    @Test
+    public void testMonoReturnTypeIsLazy() {
+        feignClient.body = "{\"id\":5,\"name\":\"Mono\"}";
+
+        Mono<TestUser> mono = client.getUserMono(5L);
+        assertFalse(feignClient.asyncCalled);
+
+        TestUser user = mono.block();
+        assertTrue(feignClient.asyncCalled);
+        assertEquals(Long.valueOf(5), user.getId());
+    }
+
+    @Test
+    public void testFluxReturnTypeHonoursDemand() {
+        feignClient.body = "[{\"id\":1},{\"id\":2},{\"id\":3}]";
+
+        List<TestUser> users = client.streamUsers().take(2).collectList().block();
+
+        assertEquals(2, users.size());
+        assertEquals(Long.valueOf(2), users.get(1).getId());
+    }
+
+    @Test
+    public void testMonoCancelPropagatesToClient() {
+        feignClient.pending = new CompletableFuture<>();
+
+        client.getUserMono(6L).subscribe().dispose();
+
+        assertTrue(feignClient.pending.isCancelled());
+    }
+
+    @Test
+    public void testEagerInitAndWarmUp() throws Exception {
+        FeignInvocationHandler handler = new FeignInvocationHandler(TestClient.class, feignClient,
+                new FastJsonEncoder(), new FastJsonDecoder(), new AnnotationContract());
+
+        handler.eagerInit();
+        handler.warmUp(3).get();
+
+        assertEquals("http://localhost:8080", feignClient.warmUpUrl);
+        assertEquals(3, feignClient.warmUpConnections);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEagerInitRejectsInvalidMethod() {
+        FeignInvocationHandler handler = new FeignInvocationHandler(InvalidClient.class, feignClient,
+                new FastJsonEncoder(), new FastJsonDecoder(), new AnnotationContract());
+
+        handler.eagerInit();
+    }
+
+    /**
+     * 桩客户端，记录请求并返回预设响应
+     */
+    private static class StubFeignClient implements FeignClient {
+        private int status = 200;
+        private String body = "";
+        private RequestTemplate lastRequest;
+        private boolean asyncCalled;
+        private CompletableFuture<Response> pending;
+        private String warmUpUrl;
+        private int warmUpConnections;
+
+        @Override
+        public Response execute(RequestTemplate requestTemplate) {
+            lastRequest = requestTemplate;
+            return Response.builder()
+                    .status(status)
+                    .headers(new HashMap<>())
+                    .body(body.getBytes(StandardCharsets.UTF_8))
+                    .build();
+        }
+
+        @Override
+        public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+            asyncCalled = true;
+            if (pending != null) {
+                return pending;
+            }
+            return CompletableFuture.completedFuture(execute(requestTemplate));
+        }
+
+        @Override
+        public CompletableFuture<Void> warmUp(String url, int connections) {
+            warmUpUrl = url;
+            warmUpConnections = connections;
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * 包含未标注 HTTP 方法的客户端接口
+     */
+    @TsumiFeignClient(url = "http://localhost:8080")
+    interface InvalidClient {
+        @GetMapping("/users/{id}")
+        TestUser getUser(@PathVariable("id") Long id);
+
+        void invalidMethod();
+    }
+
+    /**
+     * 测试用客户端接口
+     */
+    @TsumiFeignClient(url = "http://localhost:8080")
+    interface TestClient {
+        @GetMapping("/users/{id}")
+        TestUser getUser(@PathVariable("id") Long id);
+
+        @GetMapping("/users/{id}")
+        CompletableFuture<TestUser> getUserAsync(@PathVariable("id") Long id);
+
+        @GetMapping("/users")
+        CompletionStage<List<TestUser>> listUsers();
+
+        @GetMapping("/users/{id}")
+        Mono<TestUser> getUserMono(@PathVariable("id") Long id);
+
+        @GetMapping("/users")
+        Flux<TestUser> streamUsers();
+    }
+
+    /**
+     * 测试用 POJO
+     */
+    public static class TestUser {
+        private Long id;
+        private String name;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
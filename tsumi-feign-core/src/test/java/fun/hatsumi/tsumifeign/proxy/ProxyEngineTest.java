@@ -0,0 +1,197 @@
+package fun.hatsumi.tsumifeign.proxy;
+
+import fun.hatsumi.tsumifeign.annotation.*;
+import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.codec.FastJsonDecoder;
+import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
+import fun.hatsumi.tsumifeign.contract.AnnotationContract;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import fun.hatsumi.tsumifeign.factory.TsumiFeignClientFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * ProxyEngine 单元测试
+ * 验证隐藏类代理与 JDK 动态代理行为一致
+ *
+ * @author Kakeru
+ */
+public class ProxyEngineTest {
+
+    private StubFeignClient feignClient;
+    private FeignInvocationHandler handler;
+
+    @Before
+    public void setUp() {
+        feignClient = new StubFeignClient();
+        handler = new FeignInvocationHandler(TestClient.class, feignClient,
+                new FastJsonEncoder(), new FastJsonDecoder(), new AnnotationContract());
+    }
+
+    @Test
+    public void testHiddenClassProxyIsNotJdkProxy() {
+        TestClient client = ProxyEngine.HIDDEN_CLASS.newProxy(TestClient.class, handler);
+
+        assertFalse(Proxy.isProxyClass(client.getClass()));
+        assertTrue(client.getClass().isHidden());
+    }
+
+    @Test
+    public void testJdkProxy() {
+        TestClient client = ProxyEngine.JDK.newProxy(TestClient.class, handler);
+
+        assertTrue(Proxy.isProxyClass(client.getClass()));
+        feignClient.body = "Tsumi";
+        assertEquals("Tsumi", client.getName(1L, "x"));
+    }
+
+    @Test
+    public void testFactoryCachesPerEngine() {
+        try {
+            TestClient jdk = TsumiFeignClientFactory.create(TestClient.class, ProxyEngine.JDK);
+            TestClient hidden = TsumiFeignClientFactory.create(TestClient.class, ProxyEngine.HIDDEN_CLASS);
+
+            assertTrue(Proxy.isProxyClass(jdk.getClass()));
+            assertTrue(hidden.getClass().isHidden());
+            assertSame(jdk, TsumiFeignClientFactory.create(TestClient.class));
+            assertSame(hidden, TsumiFeignClientFactory.create(TestClient.class, ProxyEngine.HIDDEN_CLASS));
+        } finally {
+            TsumiFeignClientFactory.removeClient(TestClient.class);
+        }
+    }
+
+    @Test
+    public void testReferenceArgumentsAndReturn() {
+        TestClient client = ProxyEngine.HIDDEN_CLASS.newProxy(TestClient.class, handler);
+        feignClient.body = "Tsumi";
+
+        assertEquals("Tsumi", client.getName(1L, "x"));
+        assertEquals("http://localhost:8080/users/1?q=x", feignClient.lastRequest.buildUrl());
+    }
+
+    @Test
+    public void testPrimitiveArgumentsAndReturn() {
+        TestClient client = ProxyEngine.HIDDEN_CLASS.newProxy(TestClient.class, handler);
+
+        feignClient.body = "42";
+        assertEquals(42, client.count(7L, 2, 1.5d, true));
+        assertEquals(7L, feignClient.lastRequest.getPathVariables().get("id"));
+        assertEquals(2, feignClient.lastRequest.getQueryParams().get("page"));
+        assertEquals(1.5d, feignClient.lastRequest.getQueryParams().get("ratio"));
+        assertEquals(true, feignClient.lastRequest.getQueryParams().get("flag"));
+
+        feignClient.body = "9";
+        assertEquals(9L, client.total());
+
+        feignClient.body = "true";
+        assertTrue(client.exists(3));
+    }
+
+    @Test
+    public void testVoidReturn() {
+        TestClient client = ProxyEngine.HIDDEN_CLASS.newProxy(TestClient.class, handler);
+
+        client.delete(5L);
+
+        assertEquals("DELETE", feignClient.lastRequest.getMethod());
+    }
+
+    @Test
+    public void testDefaultAndObjectMethodsAreNotProxied() {
+        TestClient client = ProxyEngine.HIDDEN_CLASS.newProxy(TestClient.class, handler);
+        feignClient.body = "Tsumi";
+
+        assertEquals("Hello Tsumi", client.greet(1L));
+        assertEquals(client, client);
+        assertNotNull(client.toString());
+    }
+
+    @Test
+    public void testCheckedExceptions() {
+        TestClient client = ProxyEngine.HIDDEN_CLASS.newProxy(TestClient.class, handler);
+        feignClient.failure = new IOException("boom");
+
+        try {
+            client.getName(1L, "x");
+            fail("Expected failure");
+        } catch (UndeclaredThrowableException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        try {
+            client.fetch();
+            fail("Expected failure");
+        } catch (IOException e) {
+            assertEquals("boom", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testProxyClassIsSharedPerInterface() {
+        TestClient first = ProxyEngine.HIDDEN_CLASS.newProxy(TestClient.class, handler);
+        TestClient second = ProxyEngine.HIDDEN_CLASS.newProxy(TestClient.class, handler);
+
+        assertNotSame(first, second);
+        assertSame(first.getClass(), second.getClass());
+    }
+
+    /**
+     * 桩客户端，记录请求并返回预设响应
+     */
+    private static class StubFeignClient implements FeignClient {
+        private String body = "";
+        private IOException failure;
+        private RequestTemplate lastRequest;
+
+        @Override
+        public Response execute(RequestTemplate requestTemplate) throws IOException {
+            lastRequest = requestTemplate;
+            if (failure != null) {
+                throw failure;
+            }
+            return Response.builder()
+                    .status(200)
+                    .headers(new HashMap<>())
+                    .body(body.getBytes(StandardCharsets.UTF_8))
+                    .build();
+        }
+    }
+
+    /**
+     * 测试用客户端接口
+     */
+    @TsumiFeignClient(url = "http://localhost:8080")
+    interface TestClient {
+        @GetMapping("/users/{id}")
+        String getName(@PathVariable("id") Long id, @RequestParam("q") String query);
+
+        @GetMapping("/count/{id}")
+        int count(@PathVariable("id") long id, @RequestParam("page") int page,
+                  @RequestParam("ratio") double ratio, @RequestParam("flag") boolean flag);
+
+        @GetMapping("/total")
+        long total();
+
+        @GetMapping("/exists")
+        boolean exists(@RequestParam("id") int id);
+
+        @DeleteMapping("/users/{id}")
+        void delete(@PathVariable("id") Long id);
+
+        @GetMapping("/fetch")
+        String fetch() throws IOException;
+
+        default String greet(Long id) {
+            return "Hello " + getName(id, "greet");
+        }
+    }
+}
@@ -3,12 +3,17 @@ package fun.hatsumi.tsumifeign.nacos.client;
 import fun.hatsumi.tsumifeign.client.FeignClient;
 import fun.hatsumi.tsumifeign.core.RequestTemplate;
 import fun.hatsumi.tsumifeign.core.Response;
+import fun.hatsumi.tsumifeign.nacos.loadbalancer.InstanceConnectionPrewarmer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 支持负载均衡的 Feign 客户端
@@ -19,12 +24,28 @@ import java.util.HashMap;
 @Slf4j
 public class LoadBalancerFeignClient implements FeignClient {
 
+    /**
+     * 需要避开已请求过的实例时，最多向负载均衡器选择的次数
+     */
+    private static final int MAX_CHOOSE_ATTEMPTS = 3;
+
     private final FeignClient delegate;
     private final LoadBalancerClient loadBalancerClient;
 
+    /**
+     * 实例连接预热器，为 null 时不预热
+     */
+    private final InstanceConnectionPrewarmer prewarmer;
+
     public LoadBalancerFeignClient(FeignClient delegate, LoadBalancerClient loadBalancerClient) {
+        this(delegate, loadBalancerClient, null);
+    }
+
+    public LoadBalancerFeignClient(FeignClient delegate, LoadBalancerClient loadBalancerClient,
+                                   InstanceConnectionPrewarmer prewarmer) {
         this.delegate = delegate;
         this.loadBalancerClient = loadBalancerClient;
+        this.prewarmer = prewarmer;
     }
 
     @Override
@@ -32,48 +53,150 @@ public class LoadBalancerFeignClient implements FeignClient {
         String serviceName = requestTemplate.getUrl();
 
         // 如果 URL 为空或已经是完整 URL，直接使用原客户端
-        if (serviceName == null || serviceName.isEmpty() || serviceName.startsWith("http://") || serviceName.startsWith("https://")) {
+        if (isDirectUrl(serviceName)) {
             log.debug("Bypassing load balancer for URL: {}", serviceName);
             return delegate.execute(requestTemplate);
         }
 
         // URL 是服务名，使用负载均衡
         log.debug("Using load balancer for service: {}", serviceName);
+        watchInstances(serviceName);
 
         try {
-            // 从负载均衡器选择一个服务实例
-            ServiceInstance instance = loadBalancerClient.choose(serviceName);
+            // 执行请求
+            return delegate.execute(chooseInstance(requestTemplate, serviceName));
 
-            if (instance == null) {
-                log.error("No available instances for service: {}", serviceName);
-                throw new IOException("No available instances for service: " + serviceName);
-            }
+        } catch (IOException e) {
+            // 保留原始异常类型，上层据此判断是否重试，与异步调用一致
+            log.error("Failed to execute request with load balancer for service: {}", serviceName, e);
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("Failed to execute request with load balancer for service: {}", serviceName, e);
+            throw new IOException("Load balancer execution failed: " + e.getMessage(), e);
+        }
+    }
 
-            log.info("Selected instance: {}:{} for service: {}",
-                    instance.getHost(), instance.getPort(), serviceName);
-
-            // 构建实际的 URL
-            String actualUrl = String.format("http://%s:%d", instance.getHost(), instance.getPort());
-            
-            // 创建新的 RequestTemplate 以避免修改原对象
-            RequestTemplate newTemplate = RequestTemplate.builder()
-                    .method(requestTemplate.getMethod())
-                    .url(actualUrl)
-                    .path(requestTemplate.getPath())
-                    .headers(requestTemplate.getHeaders() != null ? new HashMap<>(requestTemplate.getHeaders()) : new HashMap<>())
-                    .queryParams(requestTemplate.getQueryParams() != null ? new HashMap<>(requestTemplate.getQueryParams()) : new HashMap<>())
-                    .pathVariables(requestTemplate.getPathVariables() != null ? new HashMap<>(requestTemplate.getPathVariables()) : new HashMap<>())
-                    .body(requestTemplate.getBody())
-                    .build();
-
-            log.debug("Transformed URL from '{}' to '{}'" , serviceName, actualUrl);
+    @Override
+    public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        String serviceName = requestTemplate.getUrl();
 
-            // 执行请求
-            return delegate.execute(newTemplate);
+        if (isDirectUrl(serviceName)) {
+            log.debug("Bypassing load balancer for URL: {}", serviceName);
+            return delegate.executeAsync(requestTemplate);
+        }
 
+        log.debug("Using load balancer for async request to service: {}", serviceName);
+        watchInstances(serviceName);
+
+        RequestTemplate newTemplate;
+        try {
+            newTemplate = chooseInstance(requestTemplate, serviceName);
         } catch (Exception e) {
             log.error("Failed to execute request with load balancer for service: {}", serviceName, e);
-            throw new IOException("Load balancer execution failed: " + e.getMessage(), e);
+            return CompletableFuture.failedFuture(
+                    new IOException("Load balancer execution failed: " + e.getMessage(), e));
+        }
+        return delegate.executeAsync(newTemplate);
+    }
+
+    /**
+     * 按负载均衡策略逐个选择实例并预热连接，连接会分布到被选中的各个实例上；
+     * 与请求一致以服务名作为客户端名称，预热的是该服务实际使用的连接池
+     */
+    @Override
+    public CompletableFuture<Void> warmUp(String url, int connections) {
+        if (isDirectUrl(url)) {
+            return delegate.warmUp(url, connections);
+        }
+
+        Map<String, Integer> perInstance = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < connections; i++) {
+                ServiceInstance instance = loadBalancerClient.choose(url);
+                if (instance == null) {
+                    log.warn("No available instances to warm up for service: {}", url);
+                    break;
+                }
+                perInstance.merge(String.format("http://%s:%d", instance.getHost(), instance.getPort()), 1, Integer::sum);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to choose instances to warm up for service: {}", url, e);
         }
+
+        CompletableFuture<?>[] futures = perInstance.entrySet().stream()
+                .map(entry -> delegate.warmUp(url, entry.getKey(), entry.getValue()))
+                .toArray(CompletableFuture<?>[]::new);
+        return CompletableFuture.allOf(futures);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String clientName, String url, int connections) {
+        return isDirectUrl(url) ? delegate.warmUp(clientName, url, connections) : warmUp(url, connections);
+    }
+
+    @Override
+    public void evictConnections(String url) {
+        delegate.evictConnections(url);
+    }
+
+    /**
+     * 首次调用服务时开始订阅其实例变更，此后新实例上线即预热连接
+     */
+    private void watchInstances(String serviceName) {
+        if (prewarmer != null) {
+            prewarmer.watch(serviceName);
+        }
+    }
+
+    /**
+     * 判断是否为无需负载均衡的完整 URL
+     */
+    private boolean isDirectUrl(String url) {
+        return url == null || url.isEmpty() || url.startsWith("http://") || url.startsWith("https://")
+                || url.startsWith("unix:");
+    }
+
+    /**
+     * 选择服务实例，并生成指向该实例的新请求模板
+     */
+    private RequestTemplate chooseInstance(RequestTemplate requestTemplate, String serviceName) throws IOException {
+        // 从负载均衡器选择一个服务实例，对冲或重试时尽量避开本次调用已经请求过的实例
+        Set<String> attempted = requestTemplate.getAttemptedInstances();
+        ServiceInstance instance = null;
+        String actualUrl = null;
+        for (int i = 0; i < MAX_CHOOSE_ATTEMPTS; i++) {
+            ServiceInstance candidate = loadBalancerClient.choose(serviceName);
+            if (candidate == null) {
+                break;
+            }
+            instance = candidate;
+            actualUrl = String.format("http://%s:%d", instance.getHost(), instance.getPort());
+            if (attempted == null || !attempted.contains(actualUrl)) {
+                break;
+            }
+        }
+
+        if (instance == null) {
+            log.error("No available instances for service: {}", serviceName);
+            throw new IOException("No available instances for service: " + serviceName);
+        }
+        if (attempted != null) {
+            attempted.add(actualUrl);
+        }
+
+        log.info("Selected instance: {}:{} for service: {}",
+                instance.getHost(), instance.getPort(), serviceName);
+
+        // 复制 RequestTemplate 以避免修改原对象，查询参数保持原有顺序
+        RequestTemplate newTemplate = requestTemplate.toBuilder()
+                .url(actualUrl)
+                .clientName(requestTemplate.getClientName() != null ? requestTemplate.getClientName() : serviceName)
+                .headers(requestTemplate.getHeaders() != null ? new HashMap<>(requestTemplate.getHeaders()) : new HashMap<>())
+                .queryParams(requestTemplate.getQueryParams() != null ? new LinkedHashMap<>(requestTemplate.getQueryParams()) : new LinkedHashMap<>())
+                .pathVariables(requestTemplate.getPathVariables() != null ? new HashMap<>(requestTemplate.getPathVariables()) : new HashMap<>())
+                .build();
+
+        log.debug("Transformed URL from '{}' to '{}'" , serviceName, actualUrl);
+        return newTemplate;
     }
 }
@@ -4,13 +4,16 @@ import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 import fun.hatsumi.tsumifeign.client.FeignClient;
 import fun.hatsumi.tsumifeign.nacos.client.LoadBalancerFeignClient;
+import fun.hatsumi.tsumifeign.nacos.loadbalancer.InstanceConnectionPrewarmer;
 import fun.hatsumi.tsumifeign.nacos.loadbalancer.NacosServiceInstanceListSupplier;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClientConfiguration;
 import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
@@ -28,18 +31,42 @@ import org.springframework.core.env.Environment;
  */
 @Slf4j
 @Configuration
-@AutoConfigureAfter(name = "fun.hatsumi.tsumifeign.spring.configuration.TsumiFeignAutoConfiguration")
+@EnableConfigurationProperties(TsumiFeignNacosProperties.class)
+@AutoConfigureAfter(name = {
+        "fun.hatsumi.tsumifeign.spring.configuration.TsumiFeignAutoConfiguration",
+        "com.alibaba.cloud.nacos.NacosServiceAutoConfiguration",
+        "com.alibaba.cloud.nacos.discovery.NacosDiscoveryAutoConfiguration"
+})
 public class TsumiFeignNacosAutoConfiguration {
 
+    /**
+     * 实例连接预热器，预热和驱逐作用于 httpFeignClient 的连接池
+     */
+    @Bean
+    @ConditionalOnBean({NacosDiscoveryProperties.class, NacosServiceManager.class})
+    @ConditionalOnProperty(value = "tsumi.feign.nacos.prewarm.enabled", havingValue = "true", matchIfMissing = true)
+    public InstanceConnectionPrewarmer instanceConnectionPrewarmer(
+            @Lazy @Qualifier("httpFeignClient") FeignClient transport,
+            NacosDiscoveryProperties discoveryProperties,
+            NacosServiceManager nacosServiceManager,
+            TsumiFeignNacosProperties properties) {
+
+        log.info("Creating InstanceConnectionPrewarmer with {} connections per new instance",
+                properties.getPrewarm().getConnections());
+        return new InstanceConnectionPrewarmer(transport, discoveryProperties, nacosServiceManager,
+                properties.getPrewarm().getConnections());
+    }
+
     @Bean(name = "loadBalancerFeignClient")
     @Primary
     public FeignClient loadBalancerFeignClient(
             @Lazy @Qualifier("httpFeignClient") FeignClient delegate,
-            LoadBalancerClient loadBalancerClient) {
+            LoadBalancerClient loadBalancerClient,
+            ObjectProvider<InstanceConnectionPrewarmer> prewarmer) {
 
         log.info("=== Creating LoadBalancerFeignClient with Nacos integration ===");
 
-        return new LoadBalancerFeignClient(delegate, loadBalancerClient);
+        return new LoadBalancerFeignClient(delegate, loadBalancerClient, prewarmer.getIfAvailable());
     }
 
     /**
@@ -48,9 +75,10 @@ public class TsumiFeignNacosAutoConfiguration {
     @Bean(name = "nacosFeignClient")
     public FeignClient nacosFeignClient(
             @Lazy @Qualifier("httpFeignClient") FeignClient delegate,
-            LoadBalancerClient loadBalancerClient) {
+            LoadBalancerClient loadBalancerClient,
+            ObjectProvider<InstanceConnectionPrewarmer> prewarmer) {
 
         log.info("Creating nacosFeignClient (same as loadBalancerFeignClient)");
-        return new LoadBalancerFeignClient(delegate, loadBalancerClient);
+        return new LoadBalancerFeignClient(delegate, loadBalancerClient, prewarmer.getIfAvailable());
     }
 }
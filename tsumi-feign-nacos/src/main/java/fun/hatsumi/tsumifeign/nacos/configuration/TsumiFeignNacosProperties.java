@@ -27,6 +27,11 @@ public class TsumiFeignNacosProperties {
      */
     private LoadBalancerConfig loadBalancer = new LoadBalancerConfig();
 
+    /**
+     * 实例连接预热配置
+     */
+    private PrewarmConfig prewarm = new PrewarmConfig();
+
     @Data
     public static class DiscoveryConfig {
         /**
@@ -62,4 +67,17 @@ public class TsumiFeignNacosProperties {
          */
         private boolean sameClusterPriority = true;
     }
+
+    @Data
+    public static class PrewarmConfig {
+        /**
+         * 是否在新实例上线时预热连接、实例下线时驱逐空闲连接
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每个新实例预热的连接数，0 表示只驱逐不预热
+         */
+        private int connections = 2;
+    }
 }
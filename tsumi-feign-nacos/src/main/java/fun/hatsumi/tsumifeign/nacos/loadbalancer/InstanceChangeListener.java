@@ -0,0 +1,23 @@
+package fun.hatsumi.tsumifeign.nacos.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.List;
+
+/**
+ * 服务实例列表变更监听器
+ *
+ * @author kakeru
+ */
+@FunctionalInterface
+public interface InstanceChangeListener {
+
+    /**
+     * 实例列表发生变化
+     *
+     * @param serviceId 服务名
+     * @param added     新上线的实例
+     * @param removed   已下线的实例
+     */
+    void onChange(String serviceId, List<ServiceInstance> added, List<ServiceInstance> removed);
+}
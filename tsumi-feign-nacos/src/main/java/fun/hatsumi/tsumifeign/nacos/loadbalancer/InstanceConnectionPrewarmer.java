@@ -0,0 +1,86 @@
+package fun.hatsumi.tsumifeign.nacos.loadbalancer;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.exception.NacosException;
+import fun.hatsumi.tsumifeign.client.FeignClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实例连接预热器
+ * 订阅服务的实例列表变更：新实例上线时在后台预先建立连接，首批请求无需等待建连；
+ * 实例下线时驱逐指向它的空闲连接，连接池不再保留失效连接直到保活超时
+ *
+ * @author kakeru
+ */
+@Slf4j
+public class InstanceConnectionPrewarmer implements InstanceChangeListener {
+
+    private final FeignClient transport;
+    private final NacosDiscoveryProperties discoveryProperties;
+    private final NacosServiceManager nacosServiceManager;
+    private final int connections;
+
+    /**
+     * 已订阅的服务
+     */
+    private final Set<String> watched = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param transport   实际发送请求的传输客户端，预热和驱逐都作用于它的连接池
+     * @param connections 每个新实例预热的连接数
+     */
+    public InstanceConnectionPrewarmer(FeignClient transport, NacosDiscoveryProperties discoveryProperties,
+                                       NacosServiceManager nacosServiceManager, int connections) {
+        this.transport = transport;
+        this.discoveryProperties = discoveryProperties;
+        this.nacosServiceManager = nacosServiceManager;
+        this.connections = connections;
+    }
+
+    /**
+     * 开始订阅服务的实例变更，重复调用只订阅一次
+     */
+    public void watch(String serviceId) {
+        if (watched.contains(serviceId) || !watched.add(serviceId)) {
+            return;
+        }
+        try {
+            new NacosServiceInstanceListSupplier(serviceId, discoveryProperties, nacosServiceManager)
+                    .subscribe(this);
+            log.info("Watching instance changes for connection pre-warming: {}", serviceId);
+        } catch (NacosException | RuntimeException e) {
+            // 允许下次调用时重试
+            watched.remove(serviceId);
+            log.warn("Failed to subscribe instance changes for service: {}", serviceId, e);
+        }
+    }
+
+    @Override
+    public void onChange(String serviceId, List<ServiceInstance> added, List<ServiceInstance> removed) {
+        for (ServiceInstance instance : removed) {
+            String url = instanceUrl(instance);
+            log.debug("Evicting connections to deregistered instance {} of {}", url, serviceId);
+            transport.evictConnections(url);
+        }
+        if (connections <= 0) {
+            return;
+        }
+        for (ServiceInstance instance : added) {
+            String url = instanceUrl(instance);
+            log.debug("Pre-warming {} connections to new instance {} of {}", connections, url, serviceId);
+            // 与负载均衡请求一致以服务名作为客户端名称，按服务配置的舱壁和独立客户端同样生效
+            transport.warmUp(serviceId, url, connections);
+        }
+    }
+
+    private String instanceUrl(ServiceInstance instance) {
+        // 与 LoadBalancerFeignClient 选择实例时构建的地址一致
+        return String.format("http://%s:%d", instance.getHost(), instance.getPort());
+    }
+}
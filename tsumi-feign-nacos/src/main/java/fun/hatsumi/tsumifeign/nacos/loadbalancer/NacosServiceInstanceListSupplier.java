@@ -4,6 +4,7 @@ import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
 import com.alibaba.cloud.nacos.NacosServiceManager;
 import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
 import com.alibaba.nacos.api.naming.pojo.Instance;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.client.DefaultServiceInstance;
@@ -13,7 +14,10 @@ import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Nacos 服务实例列表提供器
@@ -54,6 +58,53 @@ public class NacosServiceInstanceListSupplier implements ServiceInstanceListSupp
         });
     }
 
+    /**
+     * 订阅实例列表变更，每次变更回调新增和下线的实例
+     * 订阅前先以当前实例列表为基线，基线中的实例不会作为新增实例回调
+     */
+    public void subscribe(InstanceChangeListener listener) throws NacosException {
+        NamingService namingService = nacosServiceManager.getNamingService(
+                discoveryProperties.getNacosProperties());
+        AtomicReference<Map<String, ServiceInstance>> snapshot =
+                new AtomicReference<>(indexByAddress(getInstances()));
+
+        namingService.subscribe(serviceId, discoveryProperties.getGroup(), event -> {
+            if (!(event instanceof NamingEvent namingEvent)) {
+                return;
+            }
+            List<Instance> healthy = namingEvent.getInstances().stream()
+                    .filter(instance -> instance.isHealthy() && instance.isEnabled())
+                    .toList();
+            Map<String, ServiceInstance> current = indexByAddress(convertToServiceInstances(healthy));
+            Map<String, ServiceInstance> previous = snapshot.getAndSet(current);
+
+            List<ServiceInstance> added = current.entrySet().stream()
+                    .filter(entry -> !previous.containsKey(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .toList();
+            List<ServiceInstance> removed = previous.entrySet().stream()
+                    .filter(entry -> !current.containsKey(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .toList();
+            if (!added.isEmpty() || !removed.isEmpty()) {
+                log.info("Instances changed for service: {}, added: {}, removed: {}",
+                        serviceId, added.size(), removed.size());
+                listener.onChange(serviceId, added, removed);
+            }
+        });
+    }
+
+    /**
+     * 按 host:port 索引实例，同一地址重新注册时实例 ID 可能变化
+     */
+    private Map<String, ServiceInstance> indexByAddress(List<ServiceInstance> instances) {
+        Map<String, ServiceInstance> index = new LinkedHashMap<>();
+        for (ServiceInstance instance : instances) {
+            index.put(instance.getHost() + ":" + instance.getPort(), instance);
+        }
+        return index;
+    }
+
     /**
      * 从 Nacos 获取服务实例
      */
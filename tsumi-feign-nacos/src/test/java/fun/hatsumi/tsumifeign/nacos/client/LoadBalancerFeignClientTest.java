@@ -0,0 +1,144 @@
+package fun.hatsumi.tsumifeign.nacos.client;
+
+import fun.hatsumi.tsumifeign.client.BulkheadFullException;
+import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.client.RetryPolicy;
+import fun.hatsumi.tsumifeign.client.RetryingFeignClient;
+import fun.hatsumi.tsumifeign.client.TokenBudget;
+import fun.hatsumi.tsumifeign.core.DeadlineExceededException;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LoadBalancerFeignClient 单元测试
+ * 验证重试客户端叠加在负载均衡之上时能识别底层异常
+ *
+ * @author kakeru
+ */
+class LoadBalancerFeignClientTest {
+
+    private static final RetryPolicy POLICY = new RetryPolicy(2, 1, 5, Set.of(503));
+
+    @Test
+    void testBulkheadRejectionNotRetried() {
+        FailingClient transport = new FailingClient(new BulkheadFullException("Bulkhead 'user-service' is full"));
+        FeignClient client = retrying(transport);
+
+        assertThrows(BulkheadFullException.class, () -> client.execute(request()));
+        assertEquals(1, transport.calls.get());
+    }
+
+    @Test
+    void testDeadlineExceededNotRetried() {
+        FailingClient transport = new FailingClient(new DeadlineExceededException("Deadline exceeded"));
+        FeignClient client = retrying(transport);
+
+        assertThrows(DeadlineExceededException.class, () -> client.execute(request()));
+        assertEquals(1, transport.calls.get());
+    }
+
+    @Test
+    void testCallTimeoutNotRetried() {
+        FailingClient transport = new FailingClient(new InterruptedIOException("timeout"));
+        FeignClient client = retrying(transport);
+
+        assertThrows(InterruptedIOException.class, () -> client.execute(request()));
+        assertEquals(1, transport.calls.get());
+    }
+
+    @Test
+    void testConnectFailureRetried() {
+        FailingClient transport = new FailingClient(new ConnectException("Connection refused"));
+        FeignClient client = retrying(transport);
+
+        RequestTemplate template = request();
+        template.setMethod("POST");
+        template.setBody(new byte[0]);
+
+        assertThrows(ConnectException.class, () -> client.execute(template));
+        assertEquals(3, transport.calls.get());
+    }
+
+    private static FeignClient retrying(FeignClient transport) {
+        return new RetryingFeignClient(new LoadBalancerFeignClient(transport, new SingleInstanceLoadBalancer()),
+                POLICY, new TokenBudget(0.2, 10));
+    }
+
+    private static RequestTemplate request() {
+        return RequestTemplate.builder()
+                .method("GET")
+                .url("user-service")
+                .path("/users")
+                .headers(new HashMap<>())
+                .build();
+    }
+
+    /**
+     * 每次调用都抛出同一异常的传输客户端
+     */
+    private static final class FailingClient implements FeignClient {
+
+        private final IOException failure;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private FailingClient(IOException failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public Response execute(RequestTemplate requestTemplate) throws IOException {
+            calls.incrementAndGet();
+            throw failure;
+        }
+    }
+
+    /**
+     * 总是返回同一实例的负载均衡器
+     */
+    private static final class SingleInstanceLoadBalancer implements LoadBalancerClient {
+
+        private final ServiceInstance instance = new DefaultServiceInstance("user-1", "user-service",
+                "127.0.0.1", 8080, false);
+
+        @Override
+        public ServiceInstance choose(String serviceId) {
+            return instance;
+        }
+
+        @Override
+        public <T> ServiceInstance choose(String serviceId, Request<T> request) {
+            return instance;
+        }
+
+        @Override
+        public <T> T execute(String serviceId, LoadBalancerRequest<T> request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T execute(String serviceId, ServiceInstance serviceInstance, LoadBalancerRequest<T> request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public URI reconstructURI(ServiceInstance instance, URI original) {
+            return original;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package fun.hatsumi.tsumifeign.nacos.loadbalancer;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import fun.hatsumi.tsumifeign.client.FeignClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * InstanceConnectionPrewarmer 单元测试
+ *
+ * @author kakeru
+ */
+@ExtendWith(MockitoExtension.class)
+class InstanceConnectionPrewarmerTest {
+
+    private static final String SERVICE = "user-service";
+
+    @Mock
+    private FeignClient transport;
+
+    @Mock
+    private NacosDiscoveryProperties discoveryProperties;
+
+    @Mock
+    private NacosServiceManager nacosServiceManager;
+
+    @Test
+    void testWarmsAddedAndEvictsRemovedInstances() {
+        InstanceConnectionPrewarmer prewarmer = prewarmer(2);
+
+        prewarmer.onChange(SERVICE,
+                List.of(instance("10.0.0.3", 8080), instance("10.0.0.4", 9090)),
+                List.of(instance("10.0.0.1", 8080)));
+
+        verify(transport).evictConnections("http://10.0.0.1:8080");
+        // 以服务名作为客户端名称，按服务配置的客户端和舱壁同样预热
+        verify(transport).warmUp(SERVICE, "http://10.0.0.3:8080", 2);
+        verify(transport).warmUp(SERVICE, "http://10.0.0.4:9090", 2);
+        verifyNoMoreInteractions(transport);
+    }
+
+    @Test
+    void testEvictsWithoutWarmingWhenDisabled() {
+        InstanceConnectionPrewarmer prewarmer = prewarmer(0);
+
+        prewarmer.onChange(SERVICE, List.of(instance("10.0.0.3", 8080)), List.of(instance("10.0.0.1", 8080)));
+
+        verify(transport).evictConnections("http://10.0.0.1:8080");
+        verify(transport, never()).warmUp(anyString(), anyString(), anyInt());
+    }
+
+    private InstanceConnectionPrewarmer prewarmer(int connections) {
+        return new InstanceConnectionPrewarmer(transport, discoveryProperties, nacosServiceManager, connections);
+    }
+
+    private static ServiceInstance instance(String host, int port) {
+        return new DefaultServiceInstance(host + ":" + port, SERVICE, host, port, false);
+    }
+}
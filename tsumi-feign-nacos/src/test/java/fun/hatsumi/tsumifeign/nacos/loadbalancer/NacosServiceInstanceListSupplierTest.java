@@ -0,0 +1,152 @@
+package fun.hatsumi.tsumifeign.nacos.loadbalancer;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * NacosServiceInstanceListSupplier 实例变更订阅测试
+ *
+ * @author kakeru
+ */
+@ExtendWith(MockitoExtension.class)
+class NacosServiceInstanceListSupplierTest {
+
+    private static final String SERVICE = "user-service";
+    private static final String GROUP = "DEFAULT_GROUP";
+
+    @Mock
+    private NacosDiscoveryProperties discoveryProperties;
+
+    @Mock
+    private NacosServiceManager nacosServiceManager;
+
+    @Mock
+    private NamingService namingService;
+
+    private final List<Change> changes = new ArrayList<>();
+    private EventListener eventListener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Properties nacosProperties = new Properties();
+        when(discoveryProperties.getNacosProperties()).thenReturn(nacosProperties);
+        when(discoveryProperties.getGroup()).thenReturn(GROUP);
+        when(nacosServiceManager.getNamingService(nacosProperties)).thenReturn(namingService);
+        when(namingService.selectInstances(SERVICE, GROUP, true)).thenReturn(List.of(
+                instance("a-1", "10.0.0.1", 8080, true),
+                instance("b-1", "10.0.0.2", 8080, true)));
+
+        new NacosServiceInstanceListSupplier(SERVICE, discoveryProperties, nacosServiceManager)
+                .subscribe((serviceId, added, removed) -> changes.add(new Change(serviceId, added, removed)));
+
+        ArgumentCaptor<EventListener> captor = ArgumentCaptor.forClass(EventListener.class);
+        verify(namingService).subscribe(eq(SERVICE), eq(GROUP), captor.capture());
+        eventListener = captor.getValue();
+    }
+
+    @Test
+    void testReportsAddedAndRemovedByAddress() {
+        eventListener.onEvent(new NamingEvent(SERVICE, List.of(
+                instance("b-2", "10.0.0.2", 8080, true),
+                instance("c-1", "10.0.0.3", 8080, true))));
+
+        assertEquals(1, changes.size());
+        Change change = changes.get(0);
+        assertEquals(SERVICE, change.serviceId());
+        assertEquals(List.of("10.0.0.3:8080"), addresses(change.added()));
+        assertEquals(List.of("10.0.0.1:8080"), addresses(change.removed()));
+    }
+
+    @Test
+    void testReRegisteredInstanceIsNotReported() {
+        // 同一地址重新注册后实例 ID 变化，不视为新增或下线
+        eventListener.onEvent(new NamingEvent(SERVICE, List.of(
+                instance("a-2", "10.0.0.1", 8080, true),
+                instance("b-2", "10.0.0.2", 8080, true))));
+
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    void testSamePortOnOtherHostIsDistinct() {
+        eventListener.onEvent(new NamingEvent(SERVICE, List.of(
+                instance("a-1", "10.0.0.1", 8080, true),
+                instance("a-2", "10.0.0.1", 8081, true),
+                instance("b-1", "10.0.0.2", 8080, true))));
+
+        assertEquals(1, changes.size());
+        assertEquals(List.of("10.0.0.1:8081"), addresses(changes.get(0).added()));
+        assertTrue(changes.get(0).removed().isEmpty());
+    }
+
+    @Test
+    void testUnhealthyInstanceCountsAsRemoved() {
+        eventListener.onEvent(new NamingEvent(SERVICE, List.of(
+                instance("a-1", "10.0.0.1", 8080, true),
+                instance("b-1", "10.0.0.2", 8080, false))));
+
+        assertEquals(1, changes.size());
+        assertTrue(changes.get(0).added().isEmpty());
+        assertEquals(List.of("10.0.0.2:8080"), addresses(changes.get(0).removed()));
+    }
+
+    @Test
+    void testDiffAgainstPreviousEvent() {
+        eventListener.onEvent(new NamingEvent(SERVICE, List.of(
+                instance("c-1", "10.0.0.3", 8080, true))));
+        eventListener.onEvent(new NamingEvent(SERVICE, List.of(
+                instance("c-1", "10.0.0.3", 8080, true),
+                instance("a-1", "10.0.0.1", 8080, true))));
+
+        assertEquals(2, changes.size());
+        assertEquals(List.of("10.0.0.3:8080"), addresses(changes.get(0).added()));
+        assertEquals(List.of("10.0.0.1:8080", "10.0.0.2:8080"), addresses(changes.get(0).removed()));
+        assertEquals(List.of("10.0.0.1:8080"), addresses(changes.get(1).added()));
+        assertTrue(changes.get(1).removed().isEmpty());
+    }
+
+    @Test
+    void testIgnoresOtherEvents() {
+        eventListener.onEvent(mock(com.alibaba.nacos.api.naming.listener.Event.class));
+
+        assertTrue(changes.isEmpty());
+    }
+
+    private static Instance instance(String id, String ip, int port, boolean healthy) {
+        Instance instance = new Instance();
+        instance.setInstanceId(id);
+        instance.setIp(ip);
+        instance.setPort(port);
+        instance.setHealthy(healthy);
+        instance.setEnabled(true);
+        return instance;
+    }
+
+    private static List<String> addresses(List<ServiceInstance> instances) {
+        return instances.stream()
+                .map(instance -> instance.getHost() + ":" + instance.getPort())
+                .toList();
+    }
+
+    private record Change(String serviceId, List<ServiceInstance> added, List<ServiceInstance> removed) {
+    }
+}
@@ -0,0 +1,172 @@
+package fun.hatsumi.tsumifeign.netty.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 流式响应体输入流
+ * 事件循环把收到的响应体分片放入队列，调用方线程阻塞读取；
+ * 队列积压超过高水位时暂停读取连接，消费到低水位以下再恢复，内存占用与响应体大小无关
+ *
+ * @author Kakeru
+ */
+final class ChannelInputStream extends InputStream {
+
+    private static final int HIGH_WATER_MARK = 16;
+    private static final int LOW_WATER_MARK = 4;
+
+    /**
+     * 响应体结束信号
+     */
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Channel channel;
+
+    /**
+     * 响应体未读完就关闭时的回调，用于关闭连接
+     */
+    private final Runnable onAbort;
+
+    private ByteBuf current;
+    private boolean finished;
+    private volatile boolean closed;
+
+    ChannelInputStream(Channel channel, Runnable onAbort) {
+        this.channel = channel;
+        this.onAbort = onAbort;
+    }
+
+    /**
+     * 放入响应体分片，在事件循环上调用，buf 的引用计数由本流负责释放
+     */
+    void offer(ByteBuf buf) {
+        if (closed) {
+            buf.release();
+            return;
+        }
+        queue.add(buf);
+        if (closed) {
+            // 与 close 并发时由这里释放刚放入的分片
+            releaseQueued();
+        } else if (queue.size() >= HIGH_WATER_MARK) {
+            channel.config().setAutoRead(false);
+        }
+    }
+
+    /**
+     * 响应体已全部接收
+     */
+    void end() {
+        queue.add(END);
+    }
+
+    /**
+     * 接收响应体失败
+     */
+    void fail(Throwable cause) {
+        queue.add(cause);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextReadable()) {
+            return -1;
+        }
+        int n = Math.min(len, current.readableBytes());
+        current.readBytes(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current != null ? current.readableBytes() : 0;
+    }
+
+    /**
+     * 确保 current 中有可读数据，响应体结束时返回 false
+     */
+    private boolean nextReadable() throws IOException {
+        while (current == null || !current.isReadable()) {
+            if (current != null) {
+                current.release();
+                current = null;
+            }
+            if (finished) {
+                return false;
+            }
+
+            Object signal;
+            try {
+                signal = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading response body");
+            }
+            if (signal == END) {
+                finished = true;
+                return false;
+            }
+            if (signal instanceof Throwable cause) {
+                finished = true;
+                throw cause instanceof IOException io ? io : new IOException("Failed to read response body", cause);
+            }
+            current = (ByteBuf) signal;
+
+            // 积压消化后恢复读取
+            if (queue.size() <= LOW_WATER_MARK && !channel.config().isAutoRead()) {
+                channel.config().setAutoRead(true);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (current != null) {
+            current.release();
+            current = null;
+        }
+        if (!finished && !releaseQueued()) {
+            onAbort.run();
+        }
+    }
+
+    /**
+     * 释放队列中剩余的分片，返回是否已收到结束或失败信号
+     */
+    private boolean releaseQueued() {
+        boolean complete = false;
+        for (Object signal; (signal = queue.poll()) != null; ) {
+            if (signal instanceof ByteBuf buf) {
+                buf.release();
+            } else {
+                complete = true;
+            }
+        }
+        return complete;
+    }
+}
@@ -0,0 +1,202 @@
+package fun.hatsumi.tsumifeign.netty.client;
+
+import fun.hatsumi.tsumifeign.core.Deadline;
+import fun.hatsumi.tsumifeign.core.Response;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次请求-响应交换
+ * 绑定在从连接池取出的连接上，除 abort 外所有方法都在该连接的事件循环上调用；
+ * 交换结束后连接归还连接池，无法复用时先关闭
+ *
+ * @author Kakeru
+ */
+final class Exchange {
+
+    static final AttributeKey<Exchange> KEY = AttributeKey.valueOf("tsumiFeignExchange");
+
+    private final Channel channel;
+    private final ChannelPool pool;
+    private final CompletableFuture<Response> future;
+    private final boolean streaming;
+    private final int maxContentLength;
+
+    private long readTimeout;
+    private Deadline deadline;
+    private ScheduledFuture<?> timeout;
+    private Response response;
+    private boolean keepAlive;
+    private CompositeByteBuf body;
+    private ChannelInputStream stream;
+    private boolean finished;
+
+    Exchange(Channel channel, ChannelPool pool, CompletableFuture<Response> future,
+             boolean streaming, int maxContentLength) {
+        this.channel = channel;
+        this.pool = pool;
+        this.future = future;
+        this.streaming = streaming;
+        this.maxContentLength = maxContentLength;
+    }
+
+    /**
+     * 开始交换并启动读超时计时
+     * 读超时一直生效到响应体接收完毕，流式响应每收到一个分片重新计时
+     *
+     * @param readTimeout 配置的读超时，0 表示不限
+     * @param deadline    请求的截止时间，设置时替换读超时
+     */
+    void start(long readTimeout, Deadline deadline) {
+        this.readTimeout = readTimeout;
+        this.deadline = deadline;
+        channel.attr(KEY).set(this);
+        scheduleTimeout();
+    }
+
+    /**
+     * 设置了截止时间时按其剩余部分计时，替换配置的读超时，否则按读超时计时
+     */
+    private void scheduleTimeout() {
+        long delay = deadline != null ? Math.max(1, deadline.remainingMillis()) : readTimeout;
+        if (delay > 0) {
+            long after = delay;
+            timeout = channel.eventLoop().schedule(() -> onTimeout(after), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void onTimeout(long after) {
+        timeout = null;
+        if (stream != null && !channel.config().isAutoRead() && (deadline == null || !deadline.isExpired())) {
+            // 调用方消费慢导致暂停读取，不计入读超时
+            scheduleTimeout();
+            return;
+        }
+        fail(new SocketTimeoutException("Read timed out after " + after + "ms"));
+    }
+
+    /**
+     * 收到响应头
+     */
+    void onHead(HttpResponse head) {
+        if (finished) {
+            return;
+        }
+        response = new Response();
+        response.setStatus(head.status().code());
+        Map<String, String> headers = new HashMap<>();
+        for (Entry<String, String> header : head.headers()) {
+            headers.put(header.getKey(), header.getValue());
+        }
+        response.setHeaders(headers);
+        keepAlive = HttpUtil.isKeepAlive(head);
+
+        if (streaming) {
+            // 流式响应在收到响应头时即返回，响应体边读边交给调用方；
+            // 读超时保持计时，服务端停止发送响应体时让阻塞的读取失败
+            stream = new ChannelInputStream(channel, () -> channel.eventLoop().execute(this::abort));
+            response.setBodyStream(stream);
+            future.complete(response);
+        } else {
+            body = channel.alloc().compositeBuffer();
+        }
+    }
+
+    /**
+     * 收到响应体分片
+     */
+    void onContent(HttpContent content) {
+        if (finished || !content.content().isReadable()) {
+            return;
+        }
+        if (stream != null) {
+            cancelTimeout();
+            scheduleTimeout();
+            stream.offer(content.content().retain());
+            return;
+        }
+        if (body.readableBytes() + content.content().readableBytes() > maxContentLength) {
+            fail(new IOException("Response body exceeds " + maxContentLength + " bytes"));
+            return;
+        }
+        body.addComponent(true, content.content().retain());
+    }
+
+    /**
+     * 响应体接收完毕
+     */
+    void onLast() {
+        if (finished) {
+            return;
+        }
+        cancelTimeout();
+        if (stream != null) {
+            stream.end();
+        } else {
+            response.setBody(ByteBufUtil.getBytes(body));
+            body.release();
+            body = null;
+            future.complete(response);
+        }
+        finish(keepAlive);
+    }
+
+    /**
+     * 交换失败，连接关闭后归还
+     */
+    void fail(Throwable cause) {
+        if (finished) {
+            return;
+        }
+        cancelTimeout();
+        if (body != null) {
+            body.release();
+            body = null;
+        }
+        if (stream != null) {
+            stream.fail(cause);
+        } else {
+            future.completeExceptionally(cause);
+        }
+        finish(false);
+    }
+
+    /**
+     * 调用方取消请求或提前关闭流式响应体
+     */
+    void abort() {
+        fail(new IOException("Exchange aborted"));
+    }
+
+    private void finish(boolean reusable) {
+        finished = true;
+        channel.attr(KEY).set(null);
+        channel.config().setAutoRead(true);
+        if (!reusable) {
+            channel.close();
+        }
+        pool.release(channel);
+    }
+
+    private void cancelTimeout() {
+        if (timeout != null) {
+            timeout.cancel(false);
+            timeout = null;
+        }
+    }
+}
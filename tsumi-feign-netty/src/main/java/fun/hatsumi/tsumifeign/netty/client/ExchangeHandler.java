@@ -0,0 +1,66 @@
+package fun.hatsumi.tsumifeign.netty.client;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import java.io.IOException;
+
+/**
+ * 将解码后的 HTTP 消息分发给连接上当前的交换，所有连接共享同一个实例
+ *
+ * @author Kakeru
+ */
+@ChannelHandler.Sharable
+final class ExchangeHandler extends SimpleChannelInboundHandler<HttpObject> {
+
+    static final ExchangeHandler INSTANCE = new ExchangeHandler();
+
+    private ExchangeHandler() {
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+        Exchange exchange = ctx.channel().attr(Exchange.KEY).get();
+        if (exchange == null) {
+            // 没有进行中的交换，如已超时的请求迟到的响应
+            return;
+        }
+        if (msg.decoderResult().isFailure()) {
+            exchange.fail(new IOException("Invalid HTTP response", msg.decoderResult().cause()));
+            return;
+        }
+        if (msg instanceof HttpResponse head) {
+            exchange.onHead(head);
+        }
+        if (msg instanceof HttpContent content) {
+            exchange.onContent(content);
+        }
+        if (msg instanceof LastHttpContent) {
+            exchange.onLast();
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        Exchange exchange = ctx.channel().attr(Exchange.KEY).get();
+        if (exchange != null) {
+            exchange.fail(new IOException("Connection closed before response completed"));
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        Exchange exchange = ctx.channel().attr(Exchange.KEY).get();
+        if (exchange != null) {
+            exchange.fail(cause);
+        } else {
+            ctx.close();
+        }
+    }
+}
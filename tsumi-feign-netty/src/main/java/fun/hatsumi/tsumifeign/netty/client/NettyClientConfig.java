@@ -0,0 +1,63 @@
+package fun.hatsumi.tsumifeign.netty.client;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Netty 客户端配置
+ *
+ * @author Kakeru
+ */
+@Data
+@Builder
+public class NettyClientConfig {
+
+    /**
+     * 事件循环线程数，0 表示使用 Netty 默认值（CPU 核数 * 2）
+     */
+    @Builder.Default
+    private int eventLoopThreads = 0;
+
+    /**
+     * 是否优先使用 Linux 原生 epoll 传输，不可用时回退到 NIO
+     */
+    @Builder.Default
+    private boolean preferNative = true;
+
+    /**
+     * 每个目标主机的最大连接数
+     */
+    @Builder.Default
+    private int maxConnectionsPerHost = 64;
+
+    /**
+     * 每个目标主机等待获取连接的最大请求数
+     */
+    @Builder.Default
+    private int maxPendingAcquires = 1024;
+
+    /**
+     * 连接超时（毫秒）
+     */
+    @Builder.Default
+    private long connectTimeout = 5000;
+
+    /**
+     * 等待获取连接的超时（毫秒）
+     */
+    @Builder.Default
+    private long acquireTimeout = 5000;
+
+    /**
+     * 读超时（毫秒），从请求发出到收到完整响应（流式响应为相邻两个分片之间）的最长时间，0 表示不限制；
+     * 设置了截止时间的请求以剩余时间替代
+     */
+    @Builder.Default
+    private long readTimeout = 10000;
+
+    /**
+     * 非流式响应体的最大字节数
+     */
+    @Builder.Default
+    private int maxContentLength = 16 * 1024 * 1024;
+}
@@ -0,0 +1,487 @@
+package fun.hatsumi.tsumifeign.netty.client;
+
+import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.codec.EncodedBody;
+import fun.hatsumi.tsumifeign.core.Deadline;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.stream.ChunkedStream;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.net.ssl.SSLException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netty 客户端实现
+ * 所有目标共享一个事件循环组（Linux 上优先使用原生 epoll），每个目标主机维护固定上限的连接池，
+ * 请求体和响应体使用池化的直接内存缓冲区，适合连接扇出很大、线程和分配都需要节制的场景
+ *
+ * @author Kakeru
+ */
+@Slf4j
+public class NettyFeignClient implements FeignClient, Closeable {
+
+    private final NettyClientConfig config;
+    private final EventLoopGroup eventLoopGroup;
+    private final Bootstrap bootstrap;
+    private final AbstractChannelPoolMap<Endpoint, FixedChannelPool> pools;
+    private volatile SslContext sslContext;
+
+    public NettyFeignClient() {
+        this(NettyClientConfig.builder().build());
+    }
+
+    public NettyFeignClient(NettyClientConfig config) {
+        this.config = config;
+
+        boolean epoll = config.isPreferNative() && Epoll.isAvailable();
+        this.eventLoopGroup = epoll
+                ? new EpollEventLoopGroup(config.getEventLoopThreads())
+                : new NioEventLoopGroup(config.getEventLoopThreads());
+        log.info("Netty transport uses {}", epoll ? "native epoll" : "NIO");
+
+        this.bootstrap = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(epoll ? EpollSocketChannel.class : NioSocketChannel.class)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) config.getConnectTimeout())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true);
+
+        this.pools = new AbstractChannelPoolMap<>() {
+            @Override
+            protected FixedChannelPool newPool(Endpoint endpoint) {
+                // 使用未解析地址，每次建连时重新解析，DNS 变更无需重建连接池
+                Bootstrap endpointBootstrap = bootstrap.clone()
+                        .remoteAddress(InetSocketAddress.createUnresolved(endpoint.host(), endpoint.port()));
+                return new FixedChannelPool(endpointBootstrap, new EndpointPoolHandler(endpoint),
+                        ChannelHealthChecker.ACTIVE, FixedChannelPool.AcquireTimeoutAction.FAIL,
+                        config.getAcquireTimeout(), config.getMaxConnectionsPerHost(),
+                        config.getMaxPendingAcquires());
+            }
+        };
+    }
+
+    @Override
+    public Response execute(RequestTemplate requestTemplate) throws IOException {
+        CompletableFuture<Response> future = executeAsync(requestTemplate);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request interrupted: " + requestTemplate.getMethod());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+
+        URI uri;
+        Endpoint endpoint;
+        try {
+            // 截止时间已过时不再发出请求
+            Deadline.propagate(requestTemplate);
+            uri = URI.create(requestTemplate.buildUrl());
+            endpoint = Endpoint.of(uri);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        log.debug("Executing request: {} {}", requestTemplate.getMethod(), uri);
+
+        ChannelPool pool = pools.get(endpoint);
+        pool.acquire().addListener((Future<Channel> acquired) -> {
+            if (!acquired.isSuccess()) {
+                future.completeExceptionally(new IOException("Failed to acquire connection to " + endpoint,
+                        acquired.cause()));
+                return;
+            }
+
+            Channel channel = acquired.getNow();
+            Exchange exchange = new Exchange(channel, pool, future,
+                    requestTemplate.isStreamingResponse(), config.getMaxContentLength());
+            if (future.isDone()) {
+                // 获取连接期间已被取消
+                exchange.abort();
+                return;
+            }
+            exchange.start(config.getReadTimeout(), requestTemplate.getDeadline());
+            future.whenComplete((response, throwable) -> {
+                if (future.isCancelled()) {
+                    channel.eventLoop().execute(exchange::abort);
+                }
+            });
+
+            try {
+                writeRequest(channel, exchange, requestTemplate, uri, endpoint);
+            } catch (IOException | RuntimeException e) {
+                exchange.fail(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 并发获取指定数量的连接后全部归还，连接建立后保留在连接池中
+     */
+    @Override
+    public CompletableFuture<Void> warmUp(String url, int connections) {
+        Endpoint endpoint;
+        try {
+            endpoint = url != null ? Endpoint.of(URI.create(url)) : null;
+        } catch (RuntimeException e) {
+            endpoint = null;
+        }
+        if (endpoint == null || connections <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        log.debug("Warming up {} connections to {}", connections, endpoint);
+        FixedChannelPool pool = pools.get(endpoint);
+        List<Channel> channels = new ArrayList<>(connections);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            Endpoint target = endpoint;
+            pool.acquire().addListener((Future<Channel> acquired) -> {
+                if (acquired.isSuccess()) {
+                    synchronized (channels) {
+                        channels.add(acquired.getNow());
+                    }
+                } else {
+                    log.warn("Connection warm-up to {} failed: {}", target, acquired.cause().getMessage());
+                }
+                future.complete(null);
+            });
+            futures[i] = future;
+        }
+        return CompletableFuture.allOf(futures).whenComplete((ignored, throwable) -> {
+            synchronized (channels) {
+                channels.forEach(pool::release);
+            }
+        });
+    }
+
+    /**
+     * 移除目标主机的连接池，空闲连接立即关闭，进行中的连接在交换结束后关闭
+     */
+    @Override
+    public void evictConnections(String url) {
+        try {
+            Endpoint endpoint = Endpoint.of(URI.create(url));
+            if (pools.remove(endpoint)) {
+                log.debug("Evicted connection pool for {}", endpoint);
+            }
+        } catch (RuntimeException e) {
+            log.debug("Ignoring eviction for invalid URL: {}", url);
+        }
+    }
+
+    /**
+     * 关闭所有连接池和事件循环组
+     */
+    @Override
+    public void close() {
+        pools.close();
+        eventLoopGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 将延迟编码的请求体编码到池化的直接内存，编码失败时释放缓冲区
+     */
+    private static ByteBuf encode(Channel channel, EncodedBody body) throws IOException {
+        ByteBuf content = channel.alloc().directBuffer();
+        try {
+            body.writeTo(new ByteBufOutputStream(content));
+            return content;
+        } catch (IOException | RuntimeException e) {
+            content.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 写出请求头和请求体
+     */
+    private void writeRequest(Channel channel, Exchange exchange, RequestTemplate requestTemplate,
+                              URI uri, Endpoint endpoint) throws IOException {
+        HttpMethod method = HttpMethod.valueOf(requestTemplate.getMethod());
+        String target = uri.getRawQuery() != null ? uri.getRawPath() + "?" + uri.getRawQuery() : uri.getRawPath();
+        if (target.isEmpty()) {
+            target = "/";
+        }
+
+        Object body = requestTemplate.getBody();
+        if (HttpMethod.GET.equals(method) || HttpMethod.DELETE.equals(method)) {
+            body = null;
+        }
+
+        ChannelFutureListener failOnError = written -> {
+            if (!written.isSuccess()) {
+                exchange.fail(written.cause());
+            }
+        };
+
+        // 字节数组请求体写入池化的直接内存，延迟编码的请求体直接编码到池化的直接内存，与请求头一起发送
+        if (body == null || body instanceof byte[] || body instanceof EncodedBody) {
+            ByteBuf content;
+            if (body instanceof EncodedBody encoded) {
+                content = encode(channel, encoded);
+            } else {
+                byte[] bytes = (byte[]) body;
+                content = bytes != null && bytes.length > 0
+                        ? channel.alloc().directBuffer(bytes.length).writeBytes(bytes)
+                        : Unpooled.EMPTY_BUFFER;
+            }
+            DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, target, content);
+            copyHeaders(request.headers(), requestTemplate, endpoint);
+            if (body != null || !HttpMethod.GET.equals(method) && !HttpMethod.DELETE.equals(method)) {
+                HttpUtil.setContentLength(request, content.readableBytes());
+            }
+            channel.writeAndFlush(request).addListener(failOnError);
+            return;
+        }
+
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, method, target);
+        copyHeaders(request.headers(), requestTemplate, endpoint);
+
+        if (body instanceof Path || body instanceof File) {
+            Path path = body instanceof File file ? file.toPath() : (Path) body;
+            FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+            long size = file.size();
+            HttpUtil.setContentLength(request, size);
+            channel.write(request).addListener(failOnError);
+            if (channel.pipeline().get(SslHandler.class) == null) {
+                // 明文连接使用 FileRegion 零拷贝发送
+                channel.write(new DefaultFileRegion(file, 0, size)).addListener(failOnError);
+                channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(failOnError);
+            } else {
+                channel.writeAndFlush(new HttpChunkedInput(new ChunkedNioFile(file))).addListener(failOnError);
+            }
+            return;
+        }
+
+        long contentLength = contentLength(requestTemplate);
+        if (contentLength >= 0) {
+            HttpUtil.setContentLength(request, contentLength);
+        } else {
+            HttpUtil.setTransferEncodingChunked(request, true);
+        }
+        channel.write(request).addListener(failOnError);
+
+        if (body instanceof InputStream inputStream) {
+            // 输入流在事件循环上读取，应为本地数据源
+            channel.writeAndFlush(new HttpChunkedInput(new ChunkedStream(inputStream))).addListener(failOnError);
+        } else if (body instanceof Flow.Publisher<?> publisher) {
+            @SuppressWarnings("unchecked")
+            Flow.Publisher<ByteBuffer> buffers = (Flow.Publisher<ByteBuffer>) publisher;
+            channel.flush();
+            buffers.subscribe(new PublisherWriter(channel, exchange));
+        } else {
+            throw new IllegalArgumentException("Unsupported request body type: " + body.getClass().getName());
+        }
+    }
+
+    private void copyHeaders(HttpHeaders headers, RequestTemplate requestTemplate, Endpoint endpoint) {
+        headers.set(HttpHeaderNames.HOST, endpoint.hostHeader());
+        if (requestTemplate.getHeaders() != null) {
+            requestTemplate.getHeaders().forEach((name, value) -> {
+                if (!HttpHeaderNames.CONTENT_LENGTH.contentEqualsIgnoreCase(name)) {
+                    headers.set(name, value);
+                }
+            });
+        }
+    }
+
+    /**
+     * 请求头中声明的 Content-Length，未声明时返回 -1 使用分块传输
+     */
+    private long contentLength(RequestTemplate requestTemplate) {
+        String contentLength = requestTemplate.getHeaders() != null
+                ? requestTemplate.getHeaders().get("Content-Length") : null;
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private SslContext sslContext() throws SSLException {
+        SslContext context = sslContext;
+        if (context == null) {
+            synchronized (this) {
+                if (sslContext == null) {
+                    sslContext = SslContextBuilder.forClient().build();
+                }
+                context = sslContext;
+            }
+        }
+        return context;
+    }
+
+    /**
+     * 目标主机
+     */
+    record Endpoint(String scheme, String host, int port) {
+
+        static Endpoint of(URI uri) {
+            String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase() : "";
+            if (!scheme.equals("http") && !scheme.equals("https")) {
+                throw new IllegalArgumentException("Unsupported URL: " + uri);
+            }
+            int port = uri.getPort() != -1 ? uri.getPort() : scheme.equals("https") ? 443 : 80;
+            return new Endpoint(scheme, uri.getHost(), port);
+        }
+
+        boolean secure() {
+            return scheme.equals("https");
+        }
+
+        String hostHeader() {
+            boolean defaultPort = port == (secure() ? 443 : 80);
+            return defaultPort ? host : host + ":" + port;
+        }
+
+        @Override
+        public String toString() {
+            return scheme + "://" + host + ":" + port;
+        }
+    }
+
+    /**
+     * 新建连接时初始化管道：SSL（https）、HTTP 编解码、分块写出和交换分发
+     */
+    private final class EndpointPoolHandler extends AbstractChannelPoolHandler {
+
+        private final Endpoint endpoint;
+
+        private EndpointPoolHandler(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public void channelCreated(Channel channel) throws Exception {
+            log.debug("Opened connection to {}", endpoint);
+            ChannelPipeline pipeline = channel.pipeline();
+            if (endpoint.secure()) {
+                pipeline.addLast(sslContext().newHandler(channel.alloc(), endpoint.host(), endpoint.port()));
+            }
+            pipeline.addLast(new HttpClientCodec());
+            pipeline.addLast(new ChunkedWriteHandler());
+            pipeline.addLast(ExchangeHandler.INSTANCE);
+        }
+    }
+
+    /**
+     * 将 Flow.Publisher 的 ByteBuffer 逐个写为 HTTP 分片，上一个分片写出后才请求下一个
+     */
+    private static final class PublisherWriter implements Flow.Subscriber<ByteBuffer> {
+
+        private final Channel channel;
+        private final Exchange exchange;
+        private Flow.Subscription subscription;
+
+        private PublisherWriter(Channel channel, Exchange exchange) {
+            this.channel = channel;
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            channel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(item))).addListener(written -> {
+                if (written.isSuccess()) {
+                    subscription.request(1);
+                } else {
+                    subscription.cancel();
+                    channel.eventLoop().execute(() -> exchange.fail(written.cause()));
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            channel.eventLoop().execute(() -> exchange.fail(
+                    new IOException("Request body publisher failed", throwable)));
+        }
+
+        @Override
+        public void onComplete() {
+            channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+        }
+    }
+}
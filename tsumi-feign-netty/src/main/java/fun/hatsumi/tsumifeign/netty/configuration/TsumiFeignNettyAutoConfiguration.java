@@ -0,0 +1,53 @@
+package fun.hatsumi.tsumifeign.netty.configuration;
+
+import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.netty.client.NettyClientConfig;
+import fun.hatsumi.tsumifeign.netty.client.NettyFeignClient;
+import io.netty.bootstrap.Bootstrap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * TsumiFeign Netty 自动配置
+ * 注册名为 nettyFeignClient 的传输，通过 clientType = "netty" 选用
+ *
+ * @author kakeru
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(Bootstrap.class)
+@ConditionalOnProperty(value = "tsumi.feign.netty.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(TsumiFeignNettyProperties.class)
+@AutoConfigureAfter(name = "fun.hatsumi.tsumifeign.spring.configuration.TsumiFeignAutoConfiguration")
+public class TsumiFeignNettyAutoConfiguration {
+
+    /**
+     * 基于 Netty 的 FeignClient
+     * 延迟创建，未被任何客户端使用时不启动事件循环线程
+     */
+    @Lazy
+    @Bean(name = "nettyFeignClient", destroyMethod = "close")
+    @ConditionalOnMissingBean(name = "nettyFeignClient")
+    public FeignClient nettyFeignClient(TsumiFeignNettyProperties properties) {
+        log.info("Creating nettyFeignClient (NettyFeignClient) with config: {}", properties);
+
+        NettyClientConfig config = NettyClientConfig.builder()
+                .eventLoopThreads(properties.getEventLoopThreads())
+                .preferNative(properties.isPreferNative())
+                .maxConnectionsPerHost(properties.getMaxConnectionsPerHost())
+                .maxPendingAcquires(properties.getMaxPendingAcquires())
+                .connectTimeout(properties.getConnectTimeout())
+                .acquireTimeout(properties.getAcquireTimeout())
+                .readTimeout(properties.getReadTimeout())
+                .maxContentLength(properties.getMaxContentLength())
+                .build();
+        return new NettyFeignClient(config);
+    }
+}
@@ -0,0 +1,59 @@
+package fun.hatsumi.tsumifeign.netty.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * TsumiFeign Netty 配置属性
+ *
+ * @author kakeru
+ */
+@Data
+@ConfigurationProperties(prefix = "tsumi.feign.netty")
+public class TsumiFeignNettyProperties {
+
+    /**
+     * 是否启用 Netty 传输
+     */
+    private boolean enabled = true;
+
+    /**
+     * 事件循环线程数，0 表示使用 Netty 默认值（CPU 核数 * 2）
+     */
+    private int eventLoopThreads = 0;
+
+    /**
+     * 是否优先使用 Linux 原生 epoll 传输，不可用时回退到 NIO
+     */
+    private boolean preferNative = true;
+
+    /**
+     * 每个目标主机的最大连接数
+     */
+    private int maxConnectionsPerHost = 64;
+
+    /**
+     * 每个目标主机等待获取连接的最大请求数
+     */
+    private int maxPendingAcquires = 1024;
+
+    /**
+     * 连接超时（毫秒）
+     */
+    private long connectTimeout = 5000;
+
+    /**
+     * 等待获取连接的超时（毫秒）
+     */
+    private long acquireTimeout = 5000;
+
+    /**
+     * 读超时（毫秒），0 表示不限制
+     */
+    private long readTimeout = 10000;
+
+    /**
+     * 非流式响应体的最大字节数
+     */
+    private int maxContentLength = 16 * 1024 * 1024;
+}
@@ -0,0 +1,236 @@
+package fun.hatsumi.tsumifeign.netty.client;
+
+import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
+import fun.hatsumi.tsumifeign.core.Deadline;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * NettyFeignClient 单元测试
+ *
+ * @author Kakeru
+ */
+public class NettyFeignClientTest {
+
+    private MockWebServer mockWebServer;
+    private NettyFeignClient feignClient;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        baseUrl = mockWebServer.url("/api").toString();
+        feignClient = new NettyFeignClient(NettyClientConfig.builder()
+                .eventLoopThreads(2)
+                .readTimeout(2000)
+                .build());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        feignClient.close();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void testGetRequest() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader("X-Trace", "t1")
+                .setBody("{\"id\":1}"));
+
+        RequestTemplate template = template("GET", "/users/{id}");
+        template.addPathVariable("id", 1);
+        template.addQueryParam("q", "a b");
+        template.addHeader("X-Token", "secret");
+        Response response = feignClient.execute(template);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("{\"id\":1}", new String(response.getBody(), StandardCharsets.UTF_8));
+        assertEquals("t1", response.getHeaders().get("X-Trace"));
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("GET", request.getMethod());
+        assertEquals("/api/users/1?q=a%20b", request.getPath());
+        assertEquals("secret", request.getHeader("X-Token"));
+        assertEquals("localhost:" + mockWebServer.getPort(), request.getHeader("Host"));
+    }
+
+    @Test
+    public void testPostBody() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+
+        RequestTemplate template = template("POST", "/users");
+        template.addHeader("Content-Type", "application/json");
+        template.setBody("{\"name\":\"Tsumi\"}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(201, feignClient.execute(template).getStatus());
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("POST", request.getMethod());
+        assertEquals("application/json", request.getHeader("Content-Type"));
+        assertEquals("{\"name\":\"Tsumi\"}", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testEncodedBody() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+
+        RequestTemplate template = template("POST", "/users");
+        template.addHeader("Content-Type", "application/json");
+        template.setBody(new FastJsonEncoder(true).encodeBody(Map.of("name", "Tsumi")));
+        assertEquals(201, feignClient.execute(template).getStatus());
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("16", request.getHeader("Content-Length"));
+        assertEquals("{\"name\":\"Tsumi\"}", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void testConnectionReuse() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("first"));
+        mockWebServer.enqueue(new MockResponse().setBody("second"));
+
+        feignClient.execute(template("GET", "/first"));
+        feignClient.execute(template("GET", "/second"));
+
+        assertEquals(0, mockWebServer.takeRequest().getSequenceNumber());
+        // 第二个请求复用同一连接
+        assertEquals(1, mockWebServer.takeRequest().getSequenceNumber());
+    }
+
+    @Test
+    public void testFileUpload() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        Path file = Files.createTempFile("tsumi-netty", ".bin");
+        try {
+            Files.writeString(file, "file content");
+            RequestTemplate template = template("PUT", "/files");
+            template.setBody(file);
+            feignClient.execute(template);
+
+            RecordedRequest request = mockWebServer.takeRequest();
+            assertEquals("12", request.getHeader("Content-Length"));
+            assertEquals("file content", request.getBody().readUtf8());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testStreamingResponse() throws Exception {
+        // 远大于高水位的分块响应，验证暂停读取后能恢复
+        byte[] chunk = new byte[1024];
+        Arrays.fill(chunk, (byte) 'x');
+        Buffer body = new Buffer();
+        for (int i = 0; i < 256; i++) {
+            body.write(chunk);
+        }
+        mockWebServer.enqueue(new MockResponse().setChunkedBody(body, 1024));
+
+        RequestTemplate template = template("GET", "/export");
+        template.setStreamingResponse(true);
+        try (Response response = feignClient.execute(template); InputStream stream = response.getBodyAsStream()) {
+            assertEquals(256 * 1024, stream.readAllBytes().length);
+        }
+    }
+
+    @Test
+    public void testStreamingResponseBodyStall() throws Exception {
+        // 响应头和前 5 个字节立即发出，之后服务端停止发送响应体
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("0123456789")
+                .throttleBody(5, 4, TimeUnit.SECONDS));
+
+        RequestTemplate template = template("GET", "/stall");
+        template.setStreamingResponse(true);
+        long start = System.nanoTime();
+        try (Response response = feignClient.execute(template); InputStream stream = response.getBodyAsStream()) {
+            stream.readAllBytes();
+            fail("Expected timeout");
+        } catch (SocketTimeoutException e) {
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 4000);
+        }
+    }
+
+    @Test
+    public void testAsyncRequest() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("async"));
+
+        CompletableFuture<Response> future = feignClient.executeAsync(template("GET", "/async"));
+        Response response = future.get(5, TimeUnit.SECONDS);
+
+        assertEquals("async", new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReadTimeout() {
+        mockWebServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(5, TimeUnit.SECONDS));
+
+        try {
+            feignClient.execute(template("GET", "/slow"));
+            fail("Expected timeout");
+        } catch (IOException e) {
+            assertTrue(e instanceof SocketTimeoutException);
+        }
+    }
+
+    @Test
+    public void testDeadlineExtendsReadTimeout() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("report").setHeadersDelay(3, TimeUnit.SECONDS));
+
+        // 截止时间的剩余部分替换客户端 2 秒的读超时
+        RequestTemplate template = template("GET", "/report");
+        template.setDeadline(Deadline.after(6, TimeUnit.SECONDS));
+
+        assertEquals("report", new String(feignClient.execute(template).getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testConnectionFailure() {
+        RequestTemplate template = RequestTemplate.builder()
+                .method("GET")
+                .url("http://127.0.0.1:1")
+                .path("/")
+                .build();
+
+        CompletableFuture<Response> future = feignClient.executeAsync(template);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected failure");
+        } catch (Exception e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private RequestTemplate template(String method, String path) {
+        Map<String, String> headers = new HashMap<>();
+        return RequestTemplate.builder()
+                .method(method)
+                .url(baseUrl)
+                .path(path)
+                .headers(headers)
+                .build();
+    }
+}
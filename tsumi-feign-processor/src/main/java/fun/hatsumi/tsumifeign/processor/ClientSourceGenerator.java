@@ -0,0 +1,762 @@
+package fun.hatsumi.tsumifeign.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端实现类源码生成器
+ * 解析规则与运行时 AnnotationContract 保持一致：未标注的参数作为请求体，
+ * 返回 CompletableFuture/CompletionStage/Mono/Flux 时按包装类型走异步路径
+ *
+ * @author hatsumi
+ */
+class ClientSourceGenerator {
+
+    private static final String ANNOTATION_PACKAGE = "fun.hatsumi.tsumifeign.annotation.";
+    private static final String CORE_PACKAGE = "fun.hatsumi.tsumifeign.core.";
+
+    private static final String[][] HTTP_MAPPINGS = {
+            {ANNOTATION_PACKAGE + "GetMapping", "GET"},
+            {ANNOTATION_PACKAGE + "PostMapping", "POST"},
+            {ANNOTATION_PACKAGE + "PutMapping", "PUT"},
+            {ANNOTATION_PACKAGE + "DeleteMapping", "DELETE"},
+    };
+
+    private static final String PATH_VARIABLE = ANNOTATION_PACKAGE + "PathVariable";
+    private static final String REQUEST_PARAM = ANNOTATION_PACKAGE + "RequestParam";
+    private static final String REQUEST_HEADER = ANNOTATION_PACKAGE + "RequestHeader";
+    private static final String REQUEST_BODY = ANNOTATION_PACKAGE + "RequestBody";
+    private static final String RESPONSE_TARGET = ANNOTATION_PACKAGE + "ResponseTarget";
+    private static final String TIMEOUT = ANNOTATION_PACKAGE + "Timeout";
+    private static final String HEDGED = ANNOTATION_PACKAGE + "Hedged";
+    private static final String CODEC = ANNOTATION_PACKAGE + "Codec";
+    private static final String JSON_FEATURES = ANNOTATION_PACKAGE + "JsonFeatures";
+
+    private static final String MONO_TYPE = "reactor.core.publisher.Mono";
+    private static final String FLUX_TYPE = "reactor.core.publisher.Flux";
+
+    /**
+     * 为装饰器追加请求头预留的容量，与 RequestPlan 一致
+     */
+    private static final int RESERVED_HEADERS = 2;
+
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement type;
+    private final String packageName;
+    private final String simpleName;
+
+    ClientSourceGenerator(ProcessingEnvironment processingEnv, TypeElement type) {
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.type = type;
+
+        PackageElement packageElement = elements.getPackageOf(type);
+        this.packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+
+        // 嵌套接口的外部类名以下划线连接
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement(); enclosing.getKind() != ElementKind.PACKAGE;
+             enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+        }
+        this.simpleName = name + TsumiFeignClientProcessor.SUFFIX;
+    }
+
+    /**
+     * 生成类的全限定名
+     */
+    String getQualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    /**
+     * 生成实现类源码
+     */
+    String generate() {
+        List<ExecutableElement> methods = collectMethods();
+
+        StringBuilder sb = new StringBuilder(4096);
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n * ").append(type.getQualifiedName()).append(" 的编译期生成实现，请勿手动修改\n */\n");
+        sb.append("@javax.annotation.processing.Generated(\"")
+                .append(TsumiFeignClientProcessor.class.getName()).append("\")\n");
+        sb.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        sb.append("public final class ").append(simpleName)
+                .append(" implements ").append(type.getQualifiedName()).append(" {\n\n");
+
+        // 每个方法的路径模板和元数据在类加载时创建一次
+        for (int i = 0; i < methods.size(); i++) {
+            appendConstants(sb, methods.get(i), i);
+        }
+
+        sb.append("    private final fun.hatsumi.tsumifeign.proxy.FeignInvocationHandler handler;\n");
+        sb.append("    private final String baseUrl;\n\n");
+        sb.append("    public ").append(simpleName)
+                .append("(fun.hatsumi.tsumifeign.proxy.FeignInvocationHandler handler) {\n");
+        sb.append("        this.handler = handler;\n");
+        sb.append("        this.baseUrl = handler.getBaseUrl();\n");
+        sb.append("    }\n");
+
+        for (int i = 0; i < methods.size(); i++) {
+            appendMethod(sb, methods.get(i), i);
+        }
+
+        sb.append("\n    @Override\n    public String toString() {\n");
+        sb.append("        return \"").append(simpleName).append("(\" + this.baseUrl + \")\";\n    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * 收集需要实现的抽象方法，default、static 方法和 Object 方法保持原样
+     */
+    private List<ExecutableElement> collectMethods() {
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (!method.getModifiers().contains(Modifier.ABSTRACT) || isObjectMethod(method)) {
+                continue;
+            }
+            methods.add(method);
+        }
+        return methods;
+    }
+
+    private boolean isObjectMethod(ExecutableElement method) {
+        Element owner = method.getEnclosingElement();
+        if (owner instanceof TypeElement typeElement && typeElement.getQualifiedName().contentEquals("java.lang.Object")) {
+            return true;
+        }
+        String name = method.getSimpleName().toString();
+        int parameters = method.getParameters().size();
+        return (parameters == 0 && (name.equals("toString") || name.equals("hashCode")))
+                || (parameters == 1 && name.equals("equals"));
+    }
+
+    /**
+     * 生成路径模板和方法元数据常量
+     */
+    private void appendConstants(StringBuilder sb, ExecutableElement method, int index) {
+        ExecutableType executableType = asMemberOf(method);
+        Mapping mapping = parseMapping(method);
+        TypeMirror returnType = executableType.getReturnType();
+
+        String returnKind = "SYNC";
+        String decodeType = typeExpression(returnType);
+        if (returnType.getKind() == TypeKind.DECLARED) {
+            String rawName = types.erasure(returnType).toString();
+            if (rawName.equals("java.util.concurrent.CompletableFuture")
+                    || rawName.equals("java.util.concurrent.CompletionStage")) {
+                returnKind = "FUTURE";
+                decodeType = typeExpression(typeArgument(returnType));
+            } else if (rawName.equals(MONO_TYPE)) {
+                returnKind = "MONO";
+                decodeType = typeExpression(typeArgument(returnType));
+            } else if (rawName.equals(FLUX_TYPE)) {
+                // Flux 的响应体按 JSON 数组解码后逐个发出
+                returnKind = "FLUX";
+                decodeType = "new " + CORE_PACKAGE + "ParameterizedTypeImpl(java.util.List.class, "
+                        + typeExpression(typeArgument(returnType)) + ")";
+            }
+        }
+
+        boolean streaming = isStreaming(method, decodeType);
+
+        sb.append("    private static final ").append(CORE_PACKAGE).append("PathTemplate PATH_").append(index)
+                .append(" =\n            ").append(CORE_PACKAGE).append("PathTemplate.compile(")
+                .append(literal(mapping.path())).append(");\n");
+        sb.append("    private static final ").append(CORE_PACKAGE).append("MethodMetadata METADATA_").append(index)
+                .append(" =\n            fun.hatsumi.tsumifeign.proxy.GeneratedClients.metadata()\n")
+                .append("                    .httpMethod(").append(literal(mapping.httpMethod())).append(")\n")
+                .append("                    .path(").append(literal(mapping.path())).append(")\n")
+                .append("                    .headers(").append(stringArray(mapping.headers())).append(")\n")
+                .append("                    .returnKind(").append(CORE_PACKAGE).append("MethodMetadata.ReturnKind.")
+                .append(returnKind).append(")\n")
+                .append("                    .returnType(").append(typeExpression(returnType)).append(")\n")
+                .append("                    .decodeType(").append(decodeType).append(")\n");
+        // 未声明的可选项不生成，构建器取默认值
+        appendOption(sb, "streamingResponse", streaming ? "true" : null);
+        long timeoutMillis = timeoutMillis(method);
+        appendOption(sb, "timeoutMillis", timeoutMillis > 0 ? timeoutMillis + "L" : null);
+        appendOption(sb, "hedgePolicy", hedgePolicy(method, mapping));
+        appendOption(sb, "codec", codec(method));
+        appendOption(sb, "bodyType", bodyType(method, executableType));
+        AnnotationMirror jsonFeatures = jsonFeatures(method);
+        if (jsonFeatures != null) {
+            appendOption(sb, "writeFeatures",
+                    featureArray(jsonFeatures, "write", "com.alibaba.fastjson2.JSONWriter.Feature"));
+            appendOption(sb, "readFeatures",
+                    featureArray(jsonFeatures, "read", "com.alibaba.fastjson2.JSONReader.Feature"));
+        }
+        sb.append("                    .build();\n\n");
+    }
+
+    /**
+     * 生成元数据构建器的一项设置，表达式为 null 或 "null" 时跳过
+     */
+    private void appendOption(StringBuilder sb, String name, String expression) {
+        if (expression != null && !expression.equals("null")) {
+            sb.append("                    .").append(name).append('(').append(expression).append(")\n");
+        }
+    }
+
+    /**
+     * 生成接口方法实现，请求模板的构建直接内联
+     */
+    private void appendMethod(StringBuilder sb, ExecutableElement method, int index) {
+        ExecutableType executableType = asMemberOf(method);
+        Mapping mapping = parseMapping(method);
+        List<? extends VariableElement> parameters = method.getParameters();
+        List<? extends TypeMirror> parameterTypes = executableType.getParameterTypes();
+        TypeMirror returnType = executableType.getReturnType();
+
+        // 方法签名
+        sb.append("\n    @Override\n    public ");
+        appendTypeParameters(sb, method);
+        sb.append(returnType).append(' ').append(method.getSimpleName()).append('(');
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(parameterTypes.get(i)).append(' ').append(parameters.get(i).getSimpleName());
+        }
+        sb.append(')');
+        List<? extends TypeMirror> thrownTypes = executableType.getThrownTypes();
+        if (!thrownTypes.isEmpty()) {
+            sb.append(" throws ");
+            for (int i = 0; i < thrownTypes.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(types.erasure(thrownTypes.get(i)));
+            }
+        }
+        sb.append(" {\n");
+
+        // 统计各类参数，预估容器容量
+        int headerParams = 0;
+        int queryParams = 0;
+        int pathParams = 0;
+        List<Binding> bindings = new ArrayList<>(parameters.size());
+        for (int i = 0; i < parameters.size(); i++) {
+            Binding binding = parseParameter(parameters.get(i), parameterTypes.get(i));
+            bindings.add(binding);
+            switch (binding.kind()) {
+                case PATH -> pathParams++;
+                case QUERY -> queryParams++;
+                case HEADER, BODY, STREAM_BODY -> headerParams++;
+                default -> {
+                }
+            }
+        }
+
+        // 静态请求头在编译期解析
+        List<String[]> staticHeaders = new ArrayList<>();
+        for (String header : mapping.headers()) {
+            String[] parts = header.split(":", 2);
+            if (parts.length == 2) {
+                staticHeaders.add(new String[]{parts[0].trim(), parts[1].trim()});
+            }
+        }
+
+        sb.append("        java.util.Map<String, String> $headers = new java.util.HashMap<>(")
+                .append(capacityFor(staticHeaders.size() + headerParams + RESERVED_HEADERS)).append(");\n");
+        for (String[] header : staticHeaders) {
+            sb.append("        $headers.put(").append(literal(header[0])).append(", ")
+                    .append(literal(header[1])).append(");\n");
+        }
+        sb.append("        ").append(CORE_PACKAGE).append("RequestTemplate $template = ")
+                .append(CORE_PACKAGE).append("RequestTemplate.builder()\n");
+        sb.append("                .method(").append(literal(mapping.httpMethod())).append(")\n");
+        sb.append("                .url(this.baseUrl)\n");
+        sb.append("                .clientName(this.baseUrl)\n");
+        sb.append("                .path(PATH_").append(index).append(".getTemplate())\n");
+        sb.append("                .pathTemplate(PATH_").append(index).append(")\n");
+        sb.append("                .headers($headers)\n");
+        sb.append("                .queryParams(").append(newMap("LinkedHashMap", queryParams)).append(")\n");
+        sb.append("                .pathVariables(").append(newMap("HashMap", pathParams)).append(")\n");
+        sb.append("                .streamingResponse(METADATA_").append(index).append(".isResponseStreamed())\n");
+        sb.append("                .build();\n");
+
+        // 请求体和 Content-Type 取自同一个编码器，协商中的编解码器在每次调用时确定
+        if (bindings.stream().anyMatch(binding -> binding.kind() == Binding.Kind.BODY)) {
+            sb.append("        fun.hatsumi.tsumifeign.codec.Encoder $encoder = ")
+                    .append("fun.hatsumi.tsumifeign.codec.NegotiatingEncoder.current(this.handler.getEncoder(METADATA_")
+                    .append(index).append("));\n");
+        }
+
+        // 参数绑定
+        for (Binding binding : bindings) {
+            appendBinding(sb, binding, index);
+        }
+
+        // 执行请求
+        String call = "this.handler.execute($template, METADATA_" + index + ")";
+        sb.append("        try {\n");
+        if (returnType.getKind() == TypeKind.VOID) {
+            sb.append("            ").append(call).append(";\n");
+        } else {
+            sb.append("            return (").append(returnType).append(") ").append(call).append(";\n");
+        }
+        appendCatches(sb, thrownTypes);
+        sb.append("    }\n");
+    }
+
+    /**
+     * 生成参数绑定语句，null 值跳过
+     */
+    private void appendBinding(StringBuilder sb, Binding binding, int index) {
+        String name = binding.name();
+        List<String> statements = switch (binding.kind()) {
+            case PATH -> List.of("$template.addPathVariable(" + literal(binding.key()) + ", " + name + ");");
+            case QUERY -> List.of("$template.addQueryParam(" + literal(binding.key()) + ", " + name + ");");
+            case HEADER -> List.of("$template.addHeader(" + literal(binding.key()) + ", String.valueOf(" + name + "));");
+            case BODY -> List.of("$template.setBody($encoder.encodeBody(" + name + ", METADATA_" + index + "));",
+                    "$template.addHeader(\"Content-Type\", $encoder.getContentType(" + binding.key() + "));");
+            case STREAM_BODY -> List.of("$template.setBody(" + name + ");",
+                    "$headers.putIfAbsent(\"Content-Type\", \"application/octet-stream\");");
+            case RESPONSE_TARGET -> List.of("$template.setResponseTarget(" + name + ");");
+        };
+
+        String indent = binding.primitive() ? "        " : "            ";
+        if (!binding.primitive()) {
+            sb.append("        if (").append(name).append(" != null) {\n");
+        }
+        for (String statement : statements) {
+            sb.append(indent).append(statement).append('\n');
+        }
+        if (!binding.primitive()) {
+            sb.append("        }\n");
+        }
+    }
+
+    /**
+     * 与 JDK 动态代理一致：运行时异常和方法声明的受检异常原样抛出，
+     * 其余受检异常包装为 UndeclaredThrowableException
+     */
+    private void appendCatches(StringBuilder sb, List<? extends TypeMirror> thrownTypes) {
+        TypeMirror runtimeException = elements.getTypeElement("java.lang.RuntimeException").asType();
+        TypeMirror error = elements.getTypeElement("java.lang.Error").asType();
+        TypeMirror throwable = elements.getTypeElement("java.lang.Throwable").asType();
+
+        sb.append("        } catch (RuntimeException | Error e) {\n            throw e;\n");
+        boolean catchesAll = false;
+        for (TypeMirror thrown : thrownTypes) {
+            if (types.isSubtype(thrown, runtimeException) || types.isSubtype(thrown, error)
+                    || isCoveredByOther(thrown, thrownTypes)) {
+                continue;
+            }
+            sb.append("        } catch (").append(types.erasure(thrown)).append(" e) {\n            throw e;\n");
+            catchesAll |= types.isSameType(types.erasure(thrown), throwable);
+        }
+        if (!catchesAll) {
+            sb.append("        } catch (Throwable e) {\n");
+            sb.append("            throw new java.lang.reflect.UndeclaredThrowableException(e);\n");
+        }
+        sb.append("        }\n");
+    }
+
+    private boolean isCoveredByOther(TypeMirror thrown, List<? extends TypeMirror> thrownTypes) {
+        for (TypeMirror other : thrownTypes) {
+            if (other != thrown && !types.isSameType(other, thrown) && types.isSubtype(thrown, other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void appendTypeParameters(StringBuilder sb, ExecutableElement method) {
+        List<? extends TypeParameterElement> typeParameters = method.getTypeParameters();
+        if (typeParameters.isEmpty()) {
+            return;
+        }
+        sb.append('<');
+        for (int i = 0; i < typeParameters.size(); i++) {
+            TypeParameterElement typeParameter = typeParameters.get(i);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(typeParameter.getSimpleName());
+            List<String> bounds = new ArrayList<>();
+            for (TypeMirror bound : typeParameter.getBounds()) {
+                if (!bound.toString().equals("java.lang.Object")) {
+                    bounds.add(bound.toString());
+                }
+            }
+            if (!bounds.isEmpty()) {
+                sb.append(" extends ").append(String.join(" & ", bounds));
+            }
+        }
+        sb.append("> ");
+    }
+
+    /**
+     * 解析 HTTP 方法注解
+     */
+    private Mapping parseMapping(ExecutableElement method) {
+        for (String[] candidate : HTTP_MAPPINGS) {
+            AnnotationMirror mirror = findAnnotation(method, candidate[0]);
+            if (mirror != null) {
+                String value = stringValue(mirror, "value");
+                String path = !value.isEmpty() ? value : stringValue(mirror, "path");
+                return new Mapping(candidate[1], path, stringValues(mirror, "headers"));
+            }
+        }
+        throw new TsumiFeignClientProcessor.ProcessingException(method,
+                "Method " + method.getSimpleName() + " must have a HTTP method annotation");
+    }
+
+    /**
+     * 解析参数注解，未标注的参数作为请求体
+     */
+    private Binding parseParameter(VariableElement parameter, TypeMirror parameterType) {
+        String name = parameter.getSimpleName().toString();
+        boolean primitive = parameterType.getKind().isPrimitive();
+
+        AnnotationMirror mirror;
+        if (findAnnotation(parameter, RESPONSE_TARGET) != null) {
+            if (!types.erasure(parameterType).toString().equals("java.nio.file.Path")) {
+                throw new TsumiFeignClientProcessor.ProcessingException(parameter,
+                        "@ResponseTarget parameter must be a java.nio.file.Path");
+            }
+            return new Binding(Binding.Kind.RESPONSE_TARGET, name, null, primitive);
+        } else if ((mirror = findAnnotation(parameter, PATH_VARIABLE)) != null) {
+            return new Binding(Binding.Kind.PATH, name, paramName(mirror), primitive);
+        } else if ((mirror = findAnnotation(parameter, REQUEST_PARAM)) != null) {
+            return new Binding(Binding.Kind.QUERY, name, paramName(mirror), primitive);
+        } else if (findAnnotation(parameter, REQUEST_BODY) != null) {
+            return bodyBinding(parameter, parameterType, name, primitive);
+        } else if ((mirror = findAnnotation(parameter, REQUEST_HEADER)) != null) {
+            return new Binding(Binding.Kind.HEADER, name, paramName(mirror), primitive);
+        }
+        return bodyBinding(parameter, parameterType, name, primitive);
+    }
+
+    /**
+     * 请求体绑定，经过编码器的请求体以参数类型的类字面量作为键，用于按类型取得 Content-Type
+     */
+    private Binding bodyBinding(VariableElement parameter, TypeMirror parameterType, String name, boolean primitive) {
+        Binding.Kind kind = bodyKind(parameter, parameterType);
+        String key = kind == Binding.Kind.BODY ? types.erasure(parameterType) + ".class" : null;
+        return new Binding(kind, name, key, primitive);
+    }
+
+    /**
+     * InputStream、Path、File 和 {@code Flow.Publisher<ByteBuffer>} 请求体不经过编码器，以流方式发送
+     */
+    private Binding.Kind bodyKind(VariableElement parameter, TypeMirror parameterType) {
+        if (parameterType.getKind() != TypeKind.DECLARED) {
+            return Binding.Kind.BODY;
+        }
+        if (isSubtype(parameterType, "java.io.InputStream") || isSubtype(parameterType, "java.nio.file.Path")
+                || isSubtype(parameterType, "java.io.File")) {
+            return Binding.Kind.STREAM_BODY;
+        }
+        if (isSubtype(parameterType, "java.util.concurrent.Flow.Publisher")) {
+            TypeMirror element = typeArgument(parameterType);
+            if (element.getKind() == TypeKind.WILDCARD && ((WildcardType) element).getExtendsBound() != null) {
+                element = ((WildcardType) element).getExtendsBound();
+            }
+            if (!types.erasure(element).toString().equals("java.nio.ByteBuffer")) {
+                throw new TsumiFeignClientProcessor.ProcessingException(parameter,
+                        "Publisher body parameter must be a Flow.Publisher<ByteBuffer>");
+            }
+            return Binding.Kind.STREAM_BODY;
+        }
+        return Binding.Kind.BODY;
+    }
+
+    private boolean isSubtype(TypeMirror type, String className) {
+        TypeElement element = elements.getTypeElement(className);
+        return element != null && types.isSubtype(types.erasure(type), types.erasure(element.asType()));
+    }
+
+    /**
+     * 返回 InputStream、ReadableByteChannel 或声明了 @ResponseTarget 参数时以流方式读取响应体
+     */
+    private boolean isStreaming(ExecutableElement method, String decodeType) {
+        if (decodeType.equals("java.io.InputStream.class")
+                || decodeType.equals("java.nio.channels.ReadableByteChannel.class")) {
+            return true;
+        }
+        for (VariableElement parameter : method.getParameters()) {
+            if (findAnnotation(parameter, RESPONSE_TARGET) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解析调用超时（毫秒），方法上的 @Timeout 优先于声明该方法的接口，未声明时为 0
+     */
+    private long timeoutMillis(ExecutableElement method) {
+        AnnotationMirror mirror = findAnnotation(method, TIMEOUT);
+        if (mirror == null) {
+            mirror = findAnnotation(method.getEnclosingElement(), TIMEOUT);
+        }
+        if (mirror == null) {
+            return 0;
+        }
+        long value = (Long) annotationValue(mirror, "value").getValue();
+        if (value <= 0) {
+            throw new TsumiFeignClientProcessor.ProcessingException(method, "@Timeout must be positive");
+        }
+        VariableElement unit = (VariableElement) annotationValue(mirror, "unit").getValue();
+        return Math.max(1, TimeUnit.valueOf(unit.getSimpleName().toString()).toMillis(value));
+    }
+
+    /**
+     * 生成对冲策略的构造表达式，只有 GET 方法可以对冲，接口上的 @Hedged 只作用于其中的 GET 方法
+     */
+    private String hedgePolicy(ExecutableElement method, Mapping mapping) {
+        boolean get = mapping.httpMethod().equals("GET");
+        AnnotationMirror mirror = findAnnotation(method, HEDGED);
+        if (mirror != null && !get) {
+            throw new TsumiFeignClientProcessor.ProcessingException(method, "@Hedged method must be a GET method");
+        }
+        if (mirror == null && get) {
+            mirror = findAnnotation(method.getEnclosingElement(), HEDGED);
+        }
+        if (mirror == null) {
+            return "null";
+        }
+        long delay = (Long) annotationValue(mirror, "delay").getValue();
+        double percentile = (Double) annotationValue(mirror, "percentile").getValue();
+        int maxHedges = (Integer) annotationValue(mirror, "maxHedges").getValue();
+        if (delay < 0 || percentile < 0 || percentile >= 1 || (delay == 0 && percentile == 0) || maxHedges < 1) {
+            throw new TsumiFeignClientProcessor.ProcessingException(method,
+                    "@Hedged requires a positive delay or a percentile in (0, 1) and maxHedges of at least 1");
+        }
+        return "new " + CORE_PACKAGE + "HedgePolicy(" + delay + "L, " + percentile + ", " + maxHedges + ")";
+    }
+
+    /**
+     * 解析编解码格式名称的字面量，方法上的 @Codec 优先于声明该方法的接口，未声明时为 null
+     */
+    private String codec(ExecutableElement method) {
+        AnnotationMirror mirror = findAnnotation(method, CODEC);
+        if (mirror == null) {
+            mirror = findAnnotation(method.getEnclosingElement(), CODEC);
+        }
+        if (mirror == null) {
+            return "null";
+        }
+        String value = stringValue(mirror, "value");
+        if (value.isEmpty()) {
+            throw new TsumiFeignClientProcessor.ProcessingException(method, "@Codec must not be empty");
+        }
+        return literal(value);
+    }
+
+    /**
+     * 生成首个请求体参数类型的构造表达式，没有请求体时为 null
+     */
+    private String bodyType(ExecutableElement method, ExecutableType executableType) {
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            TypeMirror parameterType = executableType.getParameterTypes().get(i);
+            if (parseParameter(parameters.get(i), parameterType).kind() == Binding.Kind.BODY) {
+                return typeExpression(parameterType);
+            }
+        }
+        return "null";
+    }
+
+    /**
+     * 查找 @JsonFeatures 声明，方法上的声明优先于声明该方法的接口，未声明时为 null
+     */
+    private AnnotationMirror jsonFeatures(ExecutableElement method) {
+        AnnotationMirror mirror = findAnnotation(method, JSON_FEATURES);
+        return mirror != null ? mirror : findAnnotation(method.getEnclosingElement(), JSON_FEATURES);
+    }
+
+    private String featureArray(AnnotationMirror mirror, String name, String featureType) {
+        StringBuilder sb = new StringBuilder("new ").append(featureType).append("[]{");
+        AnnotationValue value = annotationValue(mirror, name);
+        if (value != null && value.getValue() instanceof List<?> list) {
+            for (int i = 0; i < list.size(); i++) {
+                VariableElement constant = (VariableElement) ((AnnotationValue) list.get(i)).getValue();
+                sb.append(i > 0 ? ", " : "").append(featureType).append('.').append(constant.getSimpleName());
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private String paramName(AnnotationMirror mirror) {
+        String value = stringValue(mirror, "value");
+        return !value.isEmpty() ? value : stringValue(mirror, "name");
+    }
+
+    private ExecutableType asMemberOf(ExecutableElement method) {
+        return (ExecutableType) types.asMemberOf((DeclaredType) type.asType(), method);
+    }
+
+    /**
+     * 获取包装类型的泛型参数，未声明时按 Object 处理
+     */
+    private TypeMirror typeArgument(TypeMirror type) {
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.isEmpty()) {
+            return elements.getTypeElement("java.lang.Object").asType();
+        }
+        return arguments.get(0);
+    }
+
+    /**
+     * 生成运行时 java.lang.reflect.Type 的构造表达式
+     */
+    private String typeExpression(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN, BYTE, SHORT, INT, LONG, CHAR, FLOAT, DOUBLE:
+                return type + ".class";
+            case VOID:
+                return "void.class";
+            case ARRAY:
+                return types.erasure(type) + ".class";
+            case DECLARED: {
+                List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+                String raw = types.erasure(type) + ".class";
+                if (arguments.isEmpty()) {
+                    return raw;
+                }
+                StringBuilder sb = new StringBuilder("new ").append(CORE_PACKAGE)
+                        .append("ParameterizedTypeImpl(").append(raw);
+                for (TypeMirror argument : arguments) {
+                    sb.append(", ").append(typeExpression(argument));
+                }
+                return sb.append(')').toString();
+            }
+            case WILDCARD: {
+                TypeMirror bound = ((WildcardType) type).getExtendsBound();
+                return bound != null ? typeExpression(bound) : "java.lang.Object.class";
+            }
+            case TYPEVAR:
+                return types.erasure(type) + ".class";
+            default:
+                return "java.lang.Object.class";
+        }
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation.getQualifiedName().contentEquals(annotationType)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private String stringValue(AnnotationMirror mirror, String name) {
+        AnnotationValue value = annotationValue(mirror, name);
+        return value != null ? (String) value.getValue() : "";
+    }
+
+    private List<String> stringValues(AnnotationMirror mirror, String name) {
+        List<String> values = new ArrayList<>();
+        AnnotationValue value = annotationValue(mirror, name);
+        if (value != null && value.getValue() instanceof List<?> list) {
+            for (Object item : list) {
+                values.add((String) ((AnnotationValue) item).getValue());
+            }
+        }
+        return values;
+    }
+
+    private AnnotationValue annotationValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String newMap(String mapType, int size) {
+        return size > 0 ? "new java.util." + mapType + "<>(" + capacityFor(size) + ")" : "null";
+    }
+
+    /**
+     * 计算容纳 n 个元素而不扩容的 HashMap 初始容量
+     */
+    private static int capacityFor(int n) {
+        return (int) (n / 0.75f) + 1;
+    }
+
+    private static String stringArray(List<String> values) {
+        StringBuilder sb = new StringBuilder("new String[]{");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(literal(values.get(i)));
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * 转义为 Java 字符串字面量
+     */
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * HTTP 方法注解信息
+     */
+    private record Mapping(String httpMethod, String path, List<String> headers) {
+    }
+
+    /**
+     * 参数绑定信息
+     */
+    private record Binding(Kind kind, String name, String key, boolean primitive) {
+
+        enum Kind {
+            PATH, QUERY, HEADER, BODY, STREAM_BODY, RESPONSE_TARGET
+        }
+    }
+}
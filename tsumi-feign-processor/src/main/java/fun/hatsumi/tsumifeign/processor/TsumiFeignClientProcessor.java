@@ -0,0 +1,113 @@
+package fun.hatsumi.tsumifeign.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * TsumiFeign 客户端注解处理器
+ * 在编译期为每个 @TsumiFeignClient 接口生成 {@code <接口名>_TsumiFeign} 实现类，
+ * 请求模板的构建直接内联到各个方法中，运行时不再需要反射解析注解和动态代理
+ *
+ * @author hatsumi
+ */
+@SupportedAnnotationTypes(TsumiFeignClientProcessor.CLIENT_ANNOTATION)
+public class TsumiFeignClientProcessor extends AbstractProcessor {
+
+    static final String CLIENT_ANNOTATION = "fun.hatsumi.tsumifeign.annotation.TsumiFeignClient";
+
+    /**
+     * 生成类名后缀，与运行时 GeneratedClients.SUFFIX 保持一致
+     */
+    static final String SUFFIX = "_TsumiFeign";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.INTERFACE) {
+                    error(element, "@TsumiFeignClient can only be applied to interfaces");
+                    continue;
+                }
+
+                TypeElement type = (TypeElement) element;
+                if (isPrivate(type)) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                            "Skipping generation for private interface, a runtime proxy will be used", type);
+                    continue;
+                }
+
+                try {
+                    generate(type);
+                } catch (ProcessingException e) {
+                    error(e.getElement() != null ? e.getElement() : type, e.getMessage());
+                } catch (IOException e) {
+                    error(type, "Failed to write generated client: " + e.getMessage());
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成并写出实现类源文件
+     */
+    private void generate(TypeElement type) throws IOException {
+        ClientSourceGenerator generator = new ClientSourceGenerator(processingEnv, type);
+        String source = generator.generate();
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(generator.getQualifiedName(), type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source);
+        }
+    }
+
+    /**
+     * 接口自身或任一外部类为 private 时生成类无法访问
+     */
+    private boolean isPrivate(Element element) {
+        for (Element current = element; current != null && current.getKind() != ElementKind.PACKAGE;
+             current = current.getEnclosingElement()) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * 接口定义不合法时抛出，携带出错的元素用于定位
+     */
+    static class ProcessingException extends RuntimeException {
+
+        private final transient Element element;
+
+        ProcessingException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+
+        Element getElement() {
+            return element;
+        }
+    }
+}
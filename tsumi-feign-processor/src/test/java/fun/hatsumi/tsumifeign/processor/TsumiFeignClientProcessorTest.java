@@ -0,0 +1,368 @@
+package fun.hatsumi.tsumifeign.processor;
+
+import com.alibaba.fastjson2.JSONB;
+import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.codec.CodecRegistry;
+import fun.hatsumi.tsumifeign.codec.FastJsonDecoder;
+import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
+import fun.hatsumi.tsumifeign.codec.FastJsonbEncoder;
+import fun.hatsumi.tsumifeign.contract.AnnotationContract;
+import fun.hatsumi.tsumifeign.core.RequestTemplate;
+import fun.hatsumi.tsumifeign.core.Response;
+import fun.hatsumi.tsumifeign.proxy.FeignInvocationHandler;
+import fun.hatsumi.tsumifeign.proxy.GeneratedClients;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * TsumiFeignClientProcessor 单元测试
+ * 编译示例接口并通过生成的实现类发起调用
+ *
+ * @author hatsumi
+ */
+public class TsumiFeignClientProcessorTest {
+
+    private static final String USER_CLIENT = """
+            package demo;
+
+            import fun.hatsumi.tsumifeign.annotation.*;
+            import java.util.List;
+            import java.util.concurrent.CompletableFuture;
+
+            @TsumiFeignClient(url = "http://localhost:8080")
+            public interface UserClient {
+
+                @GetMapping(value = "/users/{id}", headers = {"Accept: application/json"})
+                String getUser(@PathVariable("id") Long id, @RequestParam("q") String query,
+                               @RequestHeader("X-Token") String token);
+
+                @PostMapping("/users")
+                List<Integer> createUser(@RequestBody java.util.Map<String, Object> user);
+
+                @JsonFeatures(write = {})
+                @PostMapping("/users")
+                void createCompact(@RequestBody java.util.Map<String, Object> user);
+
+                @Timeout(value = 2, unit = java.util.concurrent.TimeUnit.SECONDS)
+                @GetMapping("/count")
+                int count(@RequestParam("page") int page);
+
+                @DeleteMapping("/users/{id}")
+                void delete(@PathVariable("id") long id) throws java.io.IOException;
+
+                @GetMapping("/users/{id}")
+                CompletableFuture<String> getUserAsync(@PathVariable("id") Long id);
+
+                @GetMapping("/export")
+                java.io.InputStream export();
+
+                @GetMapping("/export")
+                long download(@ResponseTarget java.nio.file.Path target);
+
+                @PostMapping("/upload")
+                void upload(@RequestBody java.nio.file.Path file);
+
+                @PostMapping(value = "/upload", headers = "Content-Type: text/csv")
+                void uploadStream(java.io.InputStream stream);
+
+                default String greet(Long id) {
+                    return "Hello " + getUser(id, "greet", null);
+                }
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<RequestTemplate> requests = new ArrayList<>();
+    private String responseBody = "";
+
+    @Before
+    public void setUp() {
+        requests.clear();
+    }
+
+    @Test
+    public void testGeneratesImplementation() throws Exception {
+        Compilation compilation = compile("demo/UserClient.java", USER_CLIENT);
+
+        assertTrue(compilation.diagnostics(), compilation.success);
+        assertTrue(Files.exists(compilation.sources.resolve("demo/UserClient_TsumiFeign.java")));
+
+        Class<?> type = compilation.loader.loadClass("demo.UserClient");
+        Object client = newClient(type);
+        assertFalse(Proxy.isProxyClass(client.getClass()));
+        assertEquals("demo.UserClient_TsumiFeign", client.getClass().getName());
+    }
+
+    @Test
+    public void testRequestBuilding() throws Exception {
+        Class<?> type = compileUserClient();
+        Object client = newClient(type);
+
+        responseBody = "Tsumi";
+        Object result = invoke(type, client, "getUser", 1L, "x", "secret");
+
+        assertEquals("Tsumi", result);
+        RequestTemplate request = requests.get(0);
+        assertEquals("GET", request.getMethod());
+        assertEquals("http://localhost:8080/users/1?q=x", request.buildUrl());
+        assertEquals("application/json", request.getHeaders().get("Accept"));
+        assertEquals("secret", request.getHeaders().get("X-Token"));
+    }
+
+    @Test
+    public void testBodyPrimitiveAndVoid() throws Exception {
+        Class<?> type = compileUserClient();
+        Object client = newClient(type);
+
+        responseBody = "[1,2]";
+        Map<String, Object> user = new HashMap<>();
+        user.put("name", "Tsumi");
+        assertEquals(List.of(1, 2), invoke(type, client, "createUser", user));
+        assertEquals("{\"name\":\"Tsumi\"}", new String((byte[]) requests.get(0).getBody(), StandardCharsets.UTF_8));
+        assertNotNull(requests.get(0).getHeaders().get("Content-Type"));
+
+        responseBody = "7";
+        assertEquals(7, invoke(type, client, "count", 3));
+        assertEquals(3, requests.get(1).getQueryParams().get("page"));
+
+        invoke(type, client, "delete", 9L);
+        assertEquals("DELETE", requests.get(2).getMethod());
+        assertEquals("http://localhost:8080/users/9", requests.get(2).buildUrl());
+    }
+
+    @Test
+    public void testJsonFeatures() throws Exception {
+        Class<?> type = compileUserClient();
+        Object client = newClient(type);
+
+        Map<String, Object> user = new HashMap<>();
+        user.put("name", "Tsumi");
+        user.put("email", null);
+        responseBody = "[]";
+        invoke(type, client, "createUser", user);
+        invoke(type, client, "createCompact", user);
+
+        // 只有声明了 @JsonFeatures(write = {}) 的方法省略 null 字段
+        assertTrue(new String((byte[]) requests.get(0).getBody(), StandardCharsets.UTF_8).contains("\"email\":null"));
+        assertEquals("{\"name\":\"Tsumi\"}", new String((byte[]) requests.get(1).getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        Class<?> type = compileUserClient();
+        Object client = newClient(type);
+
+        responseBody = "3";
+        invoke(type, client, "count", 1);
+        responseBody = "Tsumi";
+        invoke(type, client, "getUser", 1L, "x", "secret");
+
+        // 仅声明了 @Timeout 的方法带有截止时间
+        long remaining = requests.get(0).getDeadline().remainingMillis();
+        assertTrue(remaining > 0 && remaining <= 2000);
+        assertNull(requests.get(1).getDeadline());
+    }
+
+    @Test
+    public void testAsyncAndDefaultMethods() throws Exception {
+        Class<?> type = compileUserClient();
+        Object client = newClient(type);
+
+        responseBody = "Async";
+        CompletableFuture<?> future = (CompletableFuture<?>) invoke(type, client, "getUserAsync", 2L);
+        assertEquals("Async", future.get());
+
+        assertEquals("Hello Async", invoke(type, client, "greet", 3L));
+        assertNull(requests.get(1).getHeaders().get("X-Token"));
+    }
+
+    @Test
+    public void testStreamingResponse() throws Exception {
+        Class<?> type = compileUserClient();
+        Object client = newClient(type);
+
+        responseBody = "report";
+        try (InputStream stream = (InputStream) invoke(type, client, "export")) {
+            assertEquals("report", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(requests.get(0).isStreamingResponse());
+
+        Path target = folder.getRoot().toPath().resolve("report.csv");
+        assertEquals(6L, invoke(type, client, "download", target));
+        assertEquals("report", Files.readString(target));
+    }
+
+    @Test
+    public void testStreamingBodyBypassesEncoder() throws Exception {
+        Class<?> type = compileUserClient();
+        Object client = newClient(type);
+
+        Path file = folder.newFile("upload.bin").toPath();
+        invoke(type, client, "upload", file);
+        assertSame(file, requests.get(0).getBody());
+        assertEquals("application/octet-stream", requests.get(0).getHeaders().get("Content-Type"));
+
+        InputStream stream = InputStream.nullInputStream();
+        invoke(type, client, "uploadStream", stream);
+        assertSame(stream, requests.get(1).getBody());
+        assertEquals("text/csv", requests.get(1).getHeaders().get("Content-Type"));
+    }
+
+    @Test
+    public void testCodecNegotiation() throws Exception {
+        Compilation compilation = compile("demo/CatalogClient.java", """
+                package demo;
+
+                import fun.hatsumi.tsumifeign.annotation.*;
+
+                @Codec("jsonb")
+                @TsumiFeignClient(url = "http://localhost:8080")
+                public interface CatalogClient {
+                    @PostMapping("/items")
+                    String save(@RequestBody java.util.Map<String, Object> item);
+                }
+                """);
+        assertTrue(compilation.diagnostics(), compilation.success);
+        Class<?> type = compilation.loader.loadClass("demo.CatalogClient");
+
+        FeignClient feignClient = requestTemplate -> {
+            requests.add(requestTemplate);
+            Map<String, String> headers = new HashMap<>();
+            headers.put("Content-Type", FastJsonbEncoder.MEDIA_TYPE);
+            return Response.builder().status(200).headers(headers).body(JSONB.toBytes("saved")).build();
+        };
+        FastJsonEncoder encoder = new FastJsonEncoder();
+        FastJsonDecoder decoder = new FastJsonDecoder();
+        FeignInvocationHandler handler = new FeignInvocationHandler(type, feignClient, encoder, decoder,
+                new AnnotationContract(), CodecRegistry.defaults(encoder, decoder));
+        Object client = GeneratedClients.newInstance(type, handler);
+
+        // 服务端以 JSONB 响应后，请求体改用 JSONB
+        assertEquals("saved", invoke(type, client, "save", Map.of("name", "Tsumi")));
+        assertTrue(requests.get(0).getHeaders().get("Content-Type").startsWith("application/json"));
+        assertEquals("saved", invoke(type, client, "save", Map.of("name", "Tsumi")));
+        assertEquals(FastJsonbEncoder.MEDIA_TYPE, requests.get(1).getHeaders().get("Content-Type"));
+        assertEquals(Map.of("name", "Tsumi"), JSONB.parseObject((byte[]) requests.get(1).getBody(), Map.class));
+    }
+
+    @Test
+    public void testMissingHttpMethodIsCompileError() throws Exception {
+        Compilation compilation = compile("demo/BrokenClient.java", """
+                package demo;
+
+                import fun.hatsumi.tsumifeign.annotation.*;
+
+                @TsumiFeignClient(url = "http://localhost:8080")
+                public interface BrokenClient {
+                    String unmapped();
+                }
+                """);
+
+        assertFalse(compilation.success);
+        assertTrue(compilation.diagnostics(), compilation.diagnostics().contains("must have a HTTP method annotation"));
+    }
+
+    private Class<?> compileUserClient() throws Exception {
+        Compilation compilation = compile("demo/UserClient.java", USER_CLIENT);
+        assertTrue(compilation.diagnostics(), compilation.success);
+        return compilation.loader.loadClass("demo.UserClient");
+    }
+
+    private Object newClient(Class<?> type) {
+        FeignClient feignClient = requestTemplate -> {
+            requests.add(requestTemplate);
+            return Response.builder()
+                    .status(200)
+                    .headers(new HashMap<>())
+                    .body(responseBody.getBytes(StandardCharsets.UTF_8))
+                    .build();
+        };
+        FeignInvocationHandler handler = new FeignInvocationHandler(type, feignClient,
+                new FastJsonEncoder(), new FastJsonDecoder(), new AnnotationContract());
+        Object client = GeneratedClients.newInstance(type, handler);
+        assertNotNull("Generated client not found", client);
+        return client;
+    }
+
+    private static Object invoke(Class<?> type, Object client, String name, Object... args) throws Exception {
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method.invoke(client, args);
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    private Compilation compile(String fileName, String source) throws Exception {
+        Path sourceDir = folder.newFolder("src").toPath();
+        Path generatedDir = folder.newFolder("generated").toPath();
+        Path classesDir = folder.newFolder("classes").toPath();
+
+        Path sourceFile = sourceDir.resolve(fileName);
+        Files.createDirectories(sourceFile.getParent());
+        Files.writeString(sourceFile, source);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        String classpath = location(FeignInvocationHandler.class) + File.pathSeparator
+                + location(TsumiFeignClientProcessor.class) + File.pathSeparator + location(JSONB.class);
+
+        boolean success;
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sourceFile.toFile());
+            List<String> options = List.of("-classpath", classpath, "-processorpath", classpath,
+                    "-s", generatedDir.toString(), "-d", classesDir.toString());
+            success = compiler.getTask(null, fileManager, diagnostics, options, null, units).call();
+        }
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{classesDir.toUri().toURL()}, getClass().getClassLoader());
+        return new Compilation(success, diagnostics.getDiagnostics(), generatedDir, loader);
+    }
+
+    private static String location(Class<?> type) throws URISyntaxException {
+        return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+    /**
+     * 编译结果
+     */
+    private record Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnosticList,
+                               Path sources, URLClassLoader loader) {
+
+        String diagnostics() {
+            StringBuilder sb = new StringBuilder();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnosticList) {
+                sb.append(diagnostic.getKind()).append(": ").append(diagnostic.getMessage(null)).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+}
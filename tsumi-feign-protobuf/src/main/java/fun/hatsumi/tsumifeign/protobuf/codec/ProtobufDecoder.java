@@ -0,0 +1,86 @@
+package fun.hatsumi.tsumifeign.protobuf.codec;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import fun.hatsumi.tsumifeign.codec.Decoder;
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Protobuf 解码器
+ * 目标类型为 Protobuf 消息时按二进制格式解码，并通过 Accept 请求 application/x-protobuf；其他类型交给委托的解码器
+ *
+ * @author Kakeru
+ */
+public class ProtobufDecoder implements Decoder {
+
+    private final Decoder delegate;
+
+    /**
+     * @param delegate 非 Protobuf 类型使用的解码器，通常为 FastJsonDecoder
+     */
+    public ProtobufDecoder(Decoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object decode(byte[] bytes, Type type) {
+        if (!ProtobufTypes.isMessage(type)) {
+            return delegate.decode(bytes, type);
+        }
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return ProtobufTypes.parser(type).parseFrom(bytes);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Failed to decode protobuf message " + ((Class<?>) type).getName(), e);
+        }
+    }
+
+    /**
+     * 消息直接从输入流解析，不经过中间字节数组
+     */
+    @Override
+    public Object decodeStream(InputStream input, Type type) throws IOException {
+        if (!ProtobufTypes.isMessage(type)) {
+            return delegate.decodeStream(input, type);
+        }
+        if (input == null) {
+            return null;
+        }
+        return ProtobufTypes.parser(type).parseFrom(input);
+    }
+
+    @Override
+    public Object decode(byte[] bytes, MethodMetadata metadata) {
+        if (!ProtobufTypes.isMessage(metadata.getDecodeType())) {
+            return delegate.decode(bytes, metadata);
+        }
+        return decode(bytes, metadata.getDecodeType());
+    }
+
+    @Override
+    public Object decodeStream(InputStream input, MethodMetadata metadata) throws IOException {
+        if (!ProtobufTypes.isMessage(metadata.getDecodeType())) {
+            return delegate.decodeStream(input, metadata);
+        }
+        return decodeStream(input, metadata.getDecodeType());
+    }
+
+    @Override
+    public String getAccept(Type type) {
+        return ProtobufTypes.isMessage(type) ? ProtobufTypes.MEDIA_TYPE : delegate.getAccept(type);
+    }
+
+    @Override
+    public void prepare(Type type) {
+        if (ProtobufTypes.isMessage(type)) {
+            ProtobufTypes.parser(type);
+        } else {
+            delegate.prepare(type);
+        }
+    }
+}
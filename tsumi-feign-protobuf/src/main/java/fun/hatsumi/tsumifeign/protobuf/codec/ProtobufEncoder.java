@@ -0,0 +1,85 @@
+package fun.hatsumi.tsumifeign.protobuf.codec;
+
+import com.google.protobuf.Message;
+import fun.hatsumi.tsumifeign.codec.Encoder;
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Protobuf 编码器
+ * Protobuf 消息按二进制格式编码，Content-Type 为 application/x-protobuf；其他类型交给委托的编码器
+ *
+ * @author Kakeru
+ */
+public class ProtobufEncoder implements Encoder {
+
+    private final Encoder delegate;
+
+    /**
+     * @param delegate 非 Protobuf 类型使用的编码器，通常为 FastJsonEncoder
+     */
+    public ProtobufEncoder(Encoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] encode(Object object) {
+        if (object instanceof Message message) {
+            return message.toByteArray();
+        }
+        return delegate.encode(object);
+    }
+
+    @Override
+    public void encode(Object object, OutputStream output) throws IOException {
+        if (object instanceof Message message) {
+            message.writeTo(output);
+            return;
+        }
+        delegate.encode(object, output);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return delegate.isStreaming();
+    }
+
+    /**
+     * 消息的序列化大小已知，直接编码为等长字节数组并携带 Content-Length；其他类型按委托编码器的方式编码
+     */
+    @Override
+    public Object encodeBody(Object object) {
+        if (object instanceof Message message) {
+            return message.toByteArray();
+        }
+        return delegate.encodeBody(object);
+    }
+
+    @Override
+    public Object encodeBody(Object object, MethodMetadata metadata) {
+        if (object instanceof Message message) {
+            return message.toByteArray();
+        }
+        return delegate.encodeBody(object, metadata);
+    }
+
+    @Override
+    public String getContentType() {
+        return delegate.getContentType();
+    }
+
+    @Override
+    public String getContentType(Type type) {
+        return ProtobufTypes.isMessage(type) ? ProtobufTypes.MEDIA_TYPE : delegate.getContentType(type);
+    }
+
+    @Override
+    public void prepare(Type type) {
+        if (!ProtobufTypes.isMessage(type)) {
+            delegate.prepare(type);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package fun.hatsumi.tsumifeign.protobuf.codec;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+
+import java.lang.reflect.Type;
+
+/**
+ * Protobuf 类型工具
+ * 按消息类型缓存 Parser，解码时不再反射查找
+ *
+ * @author Kakeru
+ */
+final class ProtobufTypes {
+
+    /**
+     * Protobuf 二进制格式的媒体类型
+     */
+    static final String MEDIA_TYPE = "application/x-protobuf";
+
+    private static final ClassValue<Parser<?>> PARSERS = new ClassValue<>() {
+        @Override
+        protected Parser<?> computeValue(Class<?> type) {
+            try {
+                Message defaultInstance = (Message) type.getMethod("getDefaultInstance").invoke(null);
+                return defaultInstance.getParserForType();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Not a generated protobuf message: " + type.getName(), e);
+            }
+        }
+    };
+
+    private ProtobufTypes() {
+    }
+
+    /**
+     * 是否为具体的 Protobuf 消息类型
+     */
+    static boolean isMessage(Type type) {
+        return type instanceof Class<?> clazz && Message.class.isAssignableFrom(clazz) && clazz != Message.class;
+    }
+
+    /**
+     * 获取消息类型的 Parser
+     */
+    static Parser<?> parser(Type type) {
+        return PARSERS.get((Class<?>) type);
+    }
+}
@@ -0,0 +1,47 @@
+package fun.hatsumi.tsumifeign.protobuf.configuration;
+
+import com.google.protobuf.Message;
+import fun.hatsumi.tsumifeign.codec.Decoder;
+import fun.hatsumi.tsumifeign.codec.Encoder;
+import fun.hatsumi.tsumifeign.codec.FastJsonDecoder;
+import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
+import fun.hatsumi.tsumifeign.protobuf.codec.ProtobufDecoder;
+import fun.hatsumi.tsumifeign.protobuf.codec.ProtobufEncoder;
+import fun.hatsumi.tsumifeign.spring.configuration.TsumiFeignProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * TsumiFeign Protobuf 自动配置
+ * 在默认编解码器之前注册，Protobuf 消息类型的参数和返回值按 application/x-protobuf 编解码，其他类型仍使用 JSON
+ *
+ * @author kakeru
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(Message.class)
+@ConditionalOnProperty(value = "tsumi.feign.protobuf.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(TsumiFeignProperties.class)
+@AutoConfigureBefore(name = "fun.hatsumi.tsumifeign.spring.configuration.TsumiFeignAutoConfiguration")
+public class TsumiFeignProtobufAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Encoder protobufEncoder(TsumiFeignProperties properties) {
+        log.info("Creating ProtobufEncoder with FastJsonEncoder fallback");
+        return new ProtobufEncoder(new FastJsonEncoder(properties.getCodec().isStreamingEncode()));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Decoder protobufDecoder() {
+        log.info("Creating ProtobufDecoder with FastJsonDecoder fallback");
+        return new ProtobufDecoder(new FastJsonDecoder());
+    }
+}
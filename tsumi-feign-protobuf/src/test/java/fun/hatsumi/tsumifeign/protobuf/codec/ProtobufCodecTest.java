@@ -0,0 +1,136 @@
+package fun.hatsumi.tsumifeign.protobuf.codec;
+
+import com.google.protobuf.Int64Value;
+import com.google.protobuf.StringValue;
+import fun.hatsumi.tsumifeign.annotation.GetMapping;
+import fun.hatsumi.tsumifeign.annotation.PostMapping;
+import fun.hatsumi.tsumifeign.annotation.RequestBody;
+import fun.hatsumi.tsumifeign.annotation.TsumiFeignClient;
+import fun.hatsumi.tsumifeign.client.OkHttpFeignClient;
+import fun.hatsumi.tsumifeign.codec.FastJsonDecoder;
+import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
+import fun.hatsumi.tsumifeign.contract.AnnotationContract;
+import fun.hatsumi.tsumifeign.core.MethodMetadata;
+import fun.hatsumi.tsumifeign.core.RequestPlan;
+import fun.hatsumi.tsumifeign.proxy.FeignInvocationHandler;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * ProtobufEncoder / ProtobufDecoder 单元测试
+ *
+ * @author Kakeru
+ */
+public class ProtobufCodecTest {
+
+    private final ProtobufEncoder encoder = new ProtobufEncoder(new FastJsonEncoder());
+    private final ProtobufDecoder decoder = new ProtobufDecoder(new FastJsonDecoder());
+    private final AnnotationContract contract = new AnnotationContract();
+
+    private MockWebServer mockWebServer;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        baseUrl = mockWebServer.url("/api").toString();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void testRoundTrip() {
+        StringValue value = StringValue.of("tsumi");
+
+        byte[] bytes = encoder.encode(value);
+        assertEquals(value, decoder.decode(bytes, StringValue.class));
+        assertEquals("application/x-protobuf", encoder.getContentType(StringValue.class));
+        assertEquals("application/x-protobuf", decoder.getAccept(StringValue.class));
+    }
+
+    @Test
+    public void testJsonFallback() {
+        assertEquals("{\"id\":1}", new String(encoder.encode(Map.of("id", 1))));
+        assertEquals("application/json; charset=UTF-8", encoder.getContentType(Map.class));
+        assertNull(decoder.getAccept(Map.class));
+        assertEquals(Map.of("id", 1), decoder.decode("{\"id\":1}".getBytes(), Map.class));
+    }
+
+    @Test
+    public void testProtobufCall() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                .addHeader("Content-Type", "application/x-protobuf")
+                .setBody(new Buffer().write(StringValue.of("item-42").toByteArray())));
+
+        Object result = execute("lookup", Int64Value.of(42));
+        assertEquals(StringValue.of("item-42"), result);
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("application/x-protobuf", request.getHeader("Content-Type"));
+        assertEquals("application/x-protobuf", request.getHeader("Accept"));
+        assertEquals(Int64Value.of(42), Int64Value.parseFrom(request.getBody().readByteArray()));
+    }
+
+    @Test
+    public void testProtobufAsyncCall() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                .setBody(new Buffer().write(StringValue.of("async").toByteArray())));
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<StringValue> future = (CompletableFuture<StringValue>) execute("lookupAsync", Int64Value.of(1));
+        assertEquals("async", future.get(5, TimeUnit.SECONDS).getValue());
+    }
+
+    @Test
+    public void testJsonCallKeepsJson() throws Throwable {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{\"version\":\"1.0\"}"));
+
+        Object result = execute("meta");
+        assertEquals(Map.of("version", "1.0"), result);
+        assertNull(mockWebServer.takeRequest().getHeader("Accept"));
+    }
+
+    private Object execute(String methodName, Object... args) throws Throwable {
+        Method method = null;
+        for (Method candidate : CatalogClient.class.getMethods()) {
+            if (candidate.getName().equals(methodName)) {
+                method = candidate;
+            }
+        }
+        MethodMetadata metadata = contract.parseMethod(method);
+        FeignInvocationHandler handler = new FeignInvocationHandler(CatalogClient.class, new OkHttpFeignClient(),
+                encoder, decoder, contract);
+        return handler.execute(RequestPlan.compile(metadata, baseUrl, encoder).createTemplate(args), metadata);
+    }
+
+    /**
+     * 测试用客户端接口
+     */
+    @TsumiFeignClient(url = "http://localhost:8080")
+    interface CatalogClient {
+        @PostMapping("/lookup")
+        StringValue lookup(@RequestBody Int64Value id);
+
+        @PostMapping("/lookup")
+        CompletableFuture<StringValue> lookupAsync(@RequestBody Int64Value id);
+
+        @GetMapping("/meta")
+        Map<String, Object> meta();
+    }
+}
@@ -1,6 +1,7 @@
 package fun.hatsumi.tsumifeign.seata.client;
 
 import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.client.Futures;
 import fun.hatsumi.tsumifeign.core.RequestTemplate;
 import fun.hatsumi.tsumifeign.core.Response;
 import fun.hatsumi.tsumifeign.seata.configuration.TsumiFeignSeataProperties;
@@ -9,6 +10,7 @@ import io.seata.core.model.BranchType;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 支持 Seata 事务传播的 Feign 客户端
@@ -29,6 +31,74 @@ public class SeataFeignClient implements FeignClient {
 
     @Override
     public Response execute(RequestTemplate requestTemplate) throws IOException {
+        // 1-3. 传播全局事务XID和分支类型
+        String xid = propagateTransaction(requestTemplate);
+
+        // 4. 执行实际请求
+        try {
+            Response response = delegate.execute(requestTemplate);
+            
+            // 5. 检查响应状态
+            if (response.getStatus() >= 500 && properties.isLogXid()) {
+                log.warn("Seata transaction request returned server error: status={}, xid={}", 
+                        response.getStatus(), xid);
+            }
+            
+            return response;
+            
+        } catch (IOException e) {
+            // 记录事务异常信息
+            if (properties.isLogXid()) {
+                log.error("Seata transaction request failed, xid: {}", xid, e);
+            } else {
+                log.error("Seata transaction request failed", e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        // XID 绑定在调用线程上，必须在请求切换线程之前写入请求头
+        String xid = propagateTransaction(requestTemplate);
+
+        CompletableFuture<Response> future = delegate.executeAsync(requestTemplate);
+        CompletableFuture<Response> result = future.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                if (properties.isLogXid()) {
+                    log.error("Seata transaction request failed, xid: {}", xid, throwable);
+                } else {
+                    log.error("Seata transaction request failed", throwable);
+                }
+            } else if (response.getStatus() >= 500 && properties.isLogXid()) {
+                log.warn("Seata transaction request returned server error: status={}, xid={}",
+                        response.getStatus(), xid);
+            }
+        });
+        return Futures.propagateCancel(result, future);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String url, int connections) {
+        return delegate.warmUp(url, connections);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String clientName, String url, int connections) {
+        return delegate.warmUp(clientName, url, connections);
+    }
+
+    @Override
+    public void evictConnections(String url) {
+        delegate.evictConnections(url);
+    }
+
+    /**
+     * 将当前线程的全局事务 XID 和分支类型写入请求头
+     *
+     * @return 当前全局事务 XID，不存在时为 null
+     */
+    private String propagateTransaction(RequestTemplate requestTemplate) {
         // 1. 获取当前全局事务XID
         String xid = RootContext.getXID();
 
@@ -53,26 +123,6 @@ public class SeataFeignClient implements FeignClient {
             }
         }
 
-        // 4. 执行实际请求
-        try {
-            Response response = delegate.execute(requestTemplate);
-            
-            // 5. 检查响应状态
-            if (response.getStatus() >= 500 && properties.isLogXid()) {
-                log.warn("Seata transaction request returned server error: status={}, xid={}", 
-                        response.getStatus(), xid);
-            }
-            
-            return response;
-            
-        } catch (IOException e) {
-            // 记录事务异常信息
-            if (properties.isLogXid()) {
-                log.error("Seata transaction request failed, xid: {}", xid, e);
-            } else {
-                log.error("Seata transaction request failed", e);
-            }
-            throw e;
-        }
+        return xid;
     }
 }
@@ -14,6 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -204,6 +205,36 @@ class SeataFeignClientTest {
         verify(delegateFeignClient, times(1)).execute(requestTemplate);
     }
 
+    @Test
+    void testExecuteAsyncWithXid() throws Exception {
+        // Given: 存在全局事务XID，请求走异步路径
+        String xid = UUID.randomUUID().toString();
+        RootContext.bind(xid);
+
+        RequestTemplate requestTemplate = RequestTemplate.builder()
+                .url("http://localhost:8080")
+                .method("POST")
+                .path("/api/test")
+                .build();
+
+        Response mockResponse = Response.builder()
+                .status(200)
+                .reason("OK")
+                .body(new byte[0])
+                .build();
+
+        when(delegateFeignClient.executeAsync(any(RequestTemplate.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        // When: 异步执行请求
+        Response response = seataFeignClient.executeAsync(requestTemplate).get();
+
+        // Then: XID 在切换线程前已写入请求头
+        assertEquals(200, response.getStatus());
+        assertEquals(xid, requestTemplate.getHeaders().get("TX_XID"));
+        verify(delegateFeignClient, times(1)).executeAsync(requestTemplate);
+    }
+
     @Test
     void testCustomHeaderNames() throws IOException {
         // Given: 自定义Header名称
@@ -1,16 +1,19 @@
 package fun.hatsumi.tsumifeign.sentinel.client;
 
+import com.alibaba.csp.sentinel.AsyncEntry;
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.client.Futures;
 import fun.hatsumi.tsumifeign.core.RequestTemplate;
 import fun.hatsumi.tsumifeign.core.Response;
 import fun.hatsumi.tsumifeign.sentinel.fallback.FallbackFactory;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 支持 Sentinel 熔断降级的 Feign 客户端
@@ -86,6 +89,81 @@ public class SentinelFeignClient implements FeignClient {
         }
     }
 
+    @Override
+    public CompletableFuture<Response> executeAsync(RequestTemplate requestTemplate) {
+        String resourceName = buildResourceName(requestTemplate);
+
+        AsyncEntry entry;
+        try {
+            // 异步资源在调用线程上进入，在请求完成的回调中退出
+            ContextUtil.enter(resourceName, "tsumi-feign");
+            entry = SphU.asyncEntry(resourceName);
+        } catch (BlockException e) {
+            // 被 Sentinel 限流或熔断
+            log.warn("Request blocked by Sentinel for resource: {}", resourceName, e);
+
+            if (fallbackFactory != null) {
+                return CompletableFuture.completedFuture(handleFallback(requestTemplate, e));
+            }
+            return CompletableFuture.failedFuture(
+                    new IOException("Request blocked by Sentinel: " + e.getMessage(), e));
+        } finally {
+            ContextUtil.exit();
+        }
+
+        CompletableFuture<Response> future;
+        try {
+            future = delegate.executeAsync(requestTemplate);
+        } catch (RuntimeException e) {
+            entry.exit();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Response> result = future.handle((response, throwable) -> {
+            try {
+                if (throwable == null) {
+                    if (response.getStatus() >= 500) {
+                        log.warn("Server error detected for resource: {}, status: {}",
+                                resourceName, response.getStatus());
+                    }
+                    return CompletableFuture.completedFuture(response);
+                }
+
+                Throwable cause = Futures.unwrap(throwable);
+                if (cause instanceof IOException) {
+                    // HTTP 请求异常
+                    log.error("HTTP request failed for resource: {}", resourceName, cause);
+
+                    if (fallbackFactory != null) {
+                        return CompletableFuture.completedFuture(handleFallback(requestTemplate, cause));
+                    }
+                }
+                return CompletableFuture.<Response>failedFuture(cause);
+            } finally {
+                entry.exit();
+            }
+        }).thenCompose(stage -> stage);
+        return Futures.propagateCancel(result, future);
+    }
+
+    /**
+     * 连接预热不计入 Sentinel 资源统计
+     */
+    @Override
+    public CompletableFuture<Void> warmUp(String url, int connections) {
+        return delegate.warmUp(url, connections);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(String clientName, String url, int connections) {
+        return delegate.warmUp(clientName, url, connections);
+    }
+
+    @Override
+    public void evictConnections(String url) {
+        delegate.evictConnections(url);
+    }
+
     /**
      * 构建资源名称
      */
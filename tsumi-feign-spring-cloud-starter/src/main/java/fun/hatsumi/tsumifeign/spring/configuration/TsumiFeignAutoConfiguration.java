@@ -1,21 +1,46 @@
 package fun.hatsumi.tsumifeign.spring.configuration;
 
+import fun.hatsumi.tsumifeign.client.Bulkhead;
+import fun.hatsumi.tsumifeign.client.BulkheadRegistry;
+import fun.hatsumi.tsumifeign.client.ConnectionTracker;
 import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.client.JdkHttpFeignClient;
 import fun.hatsumi.tsumifeign.client.OkHttpFeignClient;
+import fun.hatsumi.tsumifeign.client.VirtualThreadFeignClient;
+import fun.hatsumi.tsumifeign.codec.CodecRegistry;
 import fun.hatsumi.tsumifeign.codec.Decoder;
 import fun.hatsumi.tsumifeign.codec.Encoder;
 import fun.hatsumi.tsumifeign.codec.FastJsonDecoder;
 import fun.hatsumi.tsumifeign.codec.FastJsonEncoder;
 import fun.hatsumi.tsumifeign.contract.AnnotationContract;
+import fun.hatsumi.tsumifeign.spring.interceptor.DeadlineInterceptor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -30,9 +55,9 @@ public class TsumiFeignAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public Encoder encoder() {
+    public Encoder encoder(TsumiFeignProperties properties) {
         log.info("Creating default FastJsonEncoder");
-        return new FastJsonEncoder();
+        return new FastJsonEncoder(properties.getCodec().isStreamingEncode());
     }
 
     @Bean
@@ -42,6 +67,12 @@ public class TsumiFeignAutoConfiguration {
         return new FastJsonDecoder();
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public CodecRegistry codecRegistry(Encoder encoder, Decoder decoder) {
+        return CodecRegistry.defaults(encoder, decoder);
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public AnnotationContract annotationContract() {
@@ -49,14 +80,26 @@ public class TsumiFeignAutoConfiguration {
         return new AnnotationContract();
     }
 
+    /**
+     * 虚拟线程执行器，仅在 tsumi.feign.client.virtual-threads=true 时创建
+     */
+    @Bean(name = "tsumiFeignVirtualThreadExecutor", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tsumi.feign.client", name = "virtual-threads", havingValue = "true")
+    public ExecutorService tsumiFeignVirtualThreadExecutor() {
+        log.info("Creating virtual thread executor for TsumiFeign");
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tsumi-feign-vt-", 0).factory());
+    }
+
     @Bean
     @ConditionalOnMissingBean
-    public OkHttpClient okHttpClient(TsumiFeignProperties properties) {
+    public OkHttpClient okHttpClient(TsumiFeignProperties properties,
+                                     @Qualifier("tsumiFeignVirtualThreadExecutor")
+                                     ObjectProvider<ExecutorService> virtualThreadExecutor) {
         log.info("Creating OkHttpClient with config: {}", properties);
         
         TsumiFeignProperties.OkHttpConfig config = properties.getOkhttp();
         
-        return new OkHttpClient.Builder()
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
                 .connectTimeout(config.getConnectTimeout(), TimeUnit.MILLISECONDS)
                 .readTimeout(config.getReadTimeout(), TimeUnit.MILLISECONDS)
                 .writeTimeout(config.getWriteTimeout(), TimeUnit.MILLISECONDS)
@@ -65,14 +108,83 @@ public class TsumiFeignAutoConfiguration {
                         config.getConnectionPool().getKeepAliveDuration(),
                         TimeUnit.SECONDS
                 ))
-                .build();
+                // 跟踪连接使用情况，实例下线时可按地址驱逐空闲连接
+                .eventListenerFactory(new ConnectionTracker());
+
+        applyProtocol(builder, config.isH2PriorKnowledge(), config.getPingInterval());
+        ExecutorService executor = virtualThreadExecutor.getIfAvailable();
+        if (executor != null) {
+            log.info("OkHttp Dispatcher uses virtual threads");
+        }
+        builder.dispatcher(newDispatcher(config.getMaxRequests(), config.getMaxRequestsPerHost(), executor));
+
+        return builder.build();
+    }
+
+    /**
+     * 按服务舱壁，每个舱壁由共享客户端 newBuilder() 派生，使用独立的连接池和并发上限
+     * Dispatcher 与共享客户端共用同一线程池，舱壁只隔离许可，不额外创建线程
+     * 注册为 Bean 以便查询各舱壁的使用情况
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public BulkheadRegistry tsumiFeignBulkheads(OkHttpClient okHttpClient, TsumiFeignProperties properties) {
+        TsumiFeignProperties.OkHttpConfig config = properties.getOkhttp();
+        List<Bulkhead> bulkheads = new ArrayList<>();
+        config.getServices().forEach((name, service) -> {
+            if (!service.isBulkhead()) {
+                return;
+            }
+            int maxRequests = service.getMaxRequests() != null ? service.getMaxRequests() : config.getMaxRequests();
+            int maxRequestsPerHost = service.getMaxRequestsPerHost() != null
+                    ? service.getMaxRequestsPerHost() : config.getMaxRequestsPerHost();
+            int maxQueuedRequests = service.getMaxQueuedRequests() != null
+                    ? service.getMaxQueuedRequests() : maxRequests;
+            int maxIdleConnections = service.getMaxIdleConnections() != null
+                    ? service.getMaxIdleConnections() : config.getConnectionPool().getMaxIdleConnections();
+            long keepAliveDuration = service.getKeepAliveDuration() != null
+                    ? service.getKeepAliveDuration() : config.getConnectionPool().getKeepAliveDuration();
+            log.info("Bulkhead for {}: maxRequests={}, maxQueuedRequests={}, maxIdleConnections={}",
+                    name, maxRequests, maxQueuedRequests, maxIdleConnections);
+
+            OkHttpClient.Builder builder = okHttpClient.newBuilder()
+                    .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveDuration, TimeUnit.SECONDS));
+            applyServiceProtocol(builder, config, service);
+            builder.dispatcher(deriveDispatcher(okHttpClient, maxRequests, maxRequestsPerHost));
+            bulkheads.add(new Bulkhead(name, builder.build(), maxQueuedRequests));
+        });
+        return new BulkheadRegistry(bulkheads);
     }
 
     @Bean(name = "httpFeignClient")
     @ConditionalOnMissingBean(name = "httpFeignClient")
-    public FeignClient httpFeignClient(OkHttpClient okHttpClient) {
+    public FeignClient httpFeignClient(OkHttpClient okHttpClient, TsumiFeignProperties properties,
+                                       BulkheadRegistry bulkheads,
+                                       @Qualifier("tsumiFeignVirtualThreadExecutor")
+                                       ObjectProvider<ExecutorService> virtualThreadExecutor) {
         log.info("Creating httpFeignClient (OkHttpFeignClient)");
-        return new OkHttpFeignClient(okHttpClient);
+        return createHttpFeignClient(okHttpClient, properties.getOkhttp(), bulkheads,
+                virtualThreadExecutor.getIfAvailable());
+    }
+
+    /**
+     * 基于 JDK HttpClient 的 FeignClient，通过 clientType = "jdk" 选用
+     * 延迟创建，未被任何客户端使用时不启动 HttpClient 的选择器线程
+     */
+    @Lazy
+    @Bean(name = "jdkFeignClient")
+    @ConditionalOnMissingBean(name = "jdkFeignClient")
+    public FeignClient jdkFeignClient(TsumiFeignProperties properties,
+                                      @Qualifier("tsumiFeignVirtualThreadExecutor")
+                                      ObjectProvider<ExecutorService> virtualThreadExecutor) {
+        TsumiFeignProperties.JdkHttpConfig config = properties.getJdk();
+        log.info("Creating jdkFeignClient (JdkHttpFeignClient) with config: {}", config);
+
+        // 虚拟线程模式下 HttpClient 的异步回调也运行在虚拟线程上
+        HttpClient httpClient = JdkHttpFeignClient.newHttpClient(config.getVersion(),
+                Duration.ofMillis(config.getConnectTimeout()), virtualThreadExecutor.getIfAvailable());
+        Duration requestTimeout = config.getRequestTimeout() > 0 ? Duration.ofMillis(config.getRequestTimeout()) : null;
+        return new JdkHttpFeignClient(httpClient, requestTimeout);
     }
 
     /**
@@ -81,8 +193,122 @@ public class TsumiFeignAutoConfiguration {
      */
     @Bean
     @ConditionalOnMissingBean(FeignClient.class)
-    public FeignClient defaultFeignClient(OkHttpClient okHttpClient) {
+    public FeignClient defaultFeignClient(OkHttpClient okHttpClient, TsumiFeignProperties properties,
+                                          BulkheadRegistry bulkheads,
+                                          @Qualifier("tsumiFeignVirtualThreadExecutor")
+                                          ObjectProvider<ExecutorService> virtualThreadExecutor) {
         log.info("Creating default FeignClient (delegates to httpFeignClient)");
-        return new OkHttpFeignClient(okHttpClient);
+        return createHttpFeignClient(okHttpClient, properties.getOkhttp(), bulkheads,
+                virtualThreadExecutor.getIfAvailable());
+    }
+
+    /**
+     * 创建 OkHttp 客户端，虚拟线程模式下异步请求改为在虚拟线程上执行阻塞调用
+     */
+    private FeignClient createHttpFeignClient(OkHttpClient okHttpClient, TsumiFeignProperties.OkHttpConfig config,
+                                              BulkheadRegistry bulkheads, ExecutorService virtualThreadExecutor) {
+        FeignClient client = new OkHttpFeignClient(okHttpClient,
+                createServiceClients(okHttpClient, config), bulkheads);
+        if (virtualThreadExecutor != null) {
+            log.info("Async requests run the blocking FeignClient chain on virtual threads");
+            return new VirtualThreadFeignClient(client, virtualThreadExecutor);
+        }
+        return client;
+    }
+
+    /**
+     * 为按服务覆盖的配置派生 OkHttpClient，与默认客户端共享连接池和线程池，使用各自的并发上限
+     * 启用舱壁的服务由 tsumiFeignBulkheads 创建
+     */
+    private Map<String, OkHttpClient> createServiceClients(OkHttpClient okHttpClient,
+                                                           TsumiFeignProperties.OkHttpConfig config) {
+        Map<String, OkHttpClient> clients = new HashMap<>();
+        config.getServices().forEach((name, service) -> {
+            if (service.isBulkhead()) {
+                return;
+            }
+            int maxRequests = service.getMaxRequests() != null ? service.getMaxRequests() : config.getMaxRequests();
+            int maxRequestsPerHost = service.getMaxRequestsPerHost() != null
+                    ? service.getMaxRequestsPerHost() : config.getMaxRequestsPerHost();
+            log.info("OkHttp overrides for {}: maxRequests={}, maxRequestsPerHost={}",
+                    name, maxRequests, maxRequestsPerHost);
+
+            OkHttpClient.Builder builder = okHttpClient.newBuilder();
+            applyServiceProtocol(builder, config, service);
+            builder.dispatcher(deriveDispatcher(okHttpClient, maxRequests, maxRequestsPerHost));
+            clients.put(name, builder.build());
+        });
+        return clients;
+    }
+
+    /**
+     * 按服务覆盖 h2c 先验知识和 ping 间隔，未设置时沿用全局配置
+     */
+    private void applyServiceProtocol(OkHttpClient.Builder builder, TsumiFeignProperties.OkHttpConfig config,
+                                      TsumiFeignProperties.ServiceOkHttpConfig service) {
+        boolean h2PriorKnowledge = service.getH2PriorKnowledge() != null
+                ? service.getH2PriorKnowledge() : config.isH2PriorKnowledge();
+        long pingInterval = service.getPingInterval() != null
+                ? service.getPingInterval() : config.getPingInterval();
+        applyProtocol(builder, h2PriorKnowledge, pingInterval);
+    }
+
+    /**
+     * h2c 先验知识模式下只能使用 H2_PRIOR_KNOWLEDGE 协议，不会再协商 HTTP/1.1
+     */
+    private void applyProtocol(OkHttpClient.Builder builder, boolean h2PriorKnowledge, long pingInterval) {
+        if (h2PriorKnowledge) {
+            builder.protocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+        }
+        builder.pingInterval(pingInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 虚拟线程模式下 Dispatcher 的异步调用也运行在虚拟线程上
+     */
+    private Dispatcher newDispatcher(int maxRequests, int maxRequestsPerHost, ExecutorService virtualThreadExecutor) {
+        Dispatcher dispatcher = virtualThreadExecutor != null ? new Dispatcher(virtualThreadExecutor) : new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return dispatcher;
+    }
+
+    /**
+     * 派生 Dispatcher，沿用共享客户端的线程池，只设置独立的并发上限
+     */
+    private Dispatcher deriveDispatcher(OkHttpClient okHttpClient, int maxRequests, int maxRequestsPerHost) {
+        Dispatcher dispatcher = new Dispatcher(okHttpClient.dispatcher().executorService());
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return dispatcher;
+    }
+
+    /**
+     * Spring MVC 服务端的截止时间拦截器，tsumi.feign.deadline.enabled=false 时关闭
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(WebMvcConfigurer.class)
+    @ConditionalOnProperty(prefix = "tsumi.feign.deadline", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class DeadlineInterceptorConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public DeadlineInterceptor deadlineInterceptor() {
+            log.info("Registering TsumiFeign deadline interceptor");
+            return new DeadlineInterceptor();
+        }
+
+        @Bean
+        public WebMvcConfigurer deadlineWebMvcConfigurer(DeadlineInterceptor interceptor) {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry registry) {
+                    registry.addInterceptor(interceptor)
+                            .addPathPatterns("/**")
+                            .order(0);
+                }
+            };
+        }
     }
 }
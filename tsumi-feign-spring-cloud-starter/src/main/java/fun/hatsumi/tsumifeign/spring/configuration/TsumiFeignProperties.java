@@ -1,8 +1,15 @@
 package fun.hatsumi.tsumifeign.spring.configuration;
 
+import fun.hatsumi.tsumifeign.proxy.ProxyEngine;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.net.http.HttpClient;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * TsumiFeign 配置属性
  *
@@ -17,16 +24,41 @@ public class TsumiFeignProperties {
      */
     private OkHttpConfig okhttp = new OkHttpConfig();
 
+    /**
+     * JDK HttpClient 配置，clientType 为 jdk 时使用
+     */
+    private JdkHttpConfig jdk = new JdkHttpConfig();
+
     /**
      * 客户端配置
      */
     private ClientConfig client = new ClientConfig();
 
+    /**
+     * 请求/响应压缩配置
+     */
+    private CompressionConfig compression = new CompressionConfig();
+
+    /**
+     * 对冲请求配置
+     */
+    private HedgingConfig hedging = new HedgingConfig();
+
     /**
      * LoadBalancer 配置
      */
     private LoadBalancerConfig loadbalancer = new LoadBalancerConfig();
 
+    /**
+     * 截止时间传播配置
+     */
+    private DeadlineConfig deadline = new DeadlineConfig();
+
+    /**
+     * 编解码配置
+     */
+    private CodecConfig codec = new CodecConfig();
+
     @Data
     public static class OkHttpConfig {
         /**
@@ -48,6 +80,94 @@ public class TsumiFeignProperties {
          * 连接池配置
          */
         private ConnectionPoolConfig connectionPool = new ConnectionPoolConfig();
+
+        /**
+         * 是否以 HTTP/2 明文先验知识（h2c prior knowledge）连接
+         * 仅适用于确定支持 HTTP/2 的明文服务，开启后同一目标的并发请求在单个连接上多路复用
+         */
+        private boolean h2PriorKnowledge = false;
+
+        /**
+         * 异步请求的最大并发数
+         */
+        private int maxRequests = 64;
+
+        /**
+         * 异步请求对同一主机的最大并发数
+         */
+        private int maxRequestsPerHost = 5;
+
+        /**
+         * HTTP/2 ping 间隔（毫秒），0 表示不发送
+         */
+        private long pingInterval = 0;
+
+        /**
+         * 按客户端名称（@TsumiFeignClient 的 name 或 url）或主机名覆盖的配置
+         */
+        private Map<String, ServiceOkHttpConfig> services = new HashMap<>();
+    }
+
+    @Data
+    public static class ServiceOkHttpConfig {
+        /**
+         * 是否启用舱壁隔离，启用后该服务使用独立的连接池和 Dispatcher，并限制排队请求数
+         */
+        private boolean bulkhead = false;
+
+        /**
+         * 异步请求的最大并发数，舱壁内同步请求同样受此限制，未设置时沿用全局配置
+         */
+        private Integer maxRequests;
+
+        /**
+         * 舱壁并发已满时最多排队的请求数，超出后直接拒绝，未设置时等于 maxRequests
+         */
+        private Integer maxQueuedRequests;
+
+        /**
+         * 舱壁连接池的最大空闲连接数，未设置时沿用全局配置
+         */
+        private Integer maxIdleConnections;
+
+        /**
+         * 舱壁连接池的连接保持时间（秒），未设置时沿用全局配置
+         */
+        private Long keepAliveDuration;
+
+        /**
+         * 是否以 h2c 先验知识连接，未设置时沿用全局配置
+         */
+        private Boolean h2PriorKnowledge;
+
+        /**
+         * 异步请求对同一主机的最大并发数，未设置时沿用全局配置
+         */
+        private Integer maxRequestsPerHost;
+
+        /**
+         * HTTP/2 ping 间隔（毫秒），未设置时沿用全局配置
+         */
+        private Long pingInterval;
+    }
+
+    @Data
+    public static class JdkHttpConfig {
+        /**
+         * HTTP 版本：HTTP_2, HTTP_1_1
+         * HTTP_2 时同一目标的并发请求在少量连接上多路复用
+         */
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+
+        /**
+         * 连接超时（毫秒）
+         */
+        private long connectTimeout = 5000;
+
+        /**
+         * 单次请求超时（毫秒），0 表示不限制
+         */
+        private long requestTimeout = 10000;
     }
 
     @Data
@@ -66,7 +186,7 @@ public class TsumiFeignProperties {
     @Data
     public static class ClientConfig {
         /**
-         * 客户端类型：http, triple, custom
+         * 客户端类型：http, jdk, triple, custom
          * 默认为 http
          */
         private String defaultClientType = "http";
@@ -78,6 +198,7 @@ public class TsumiFeignProperties {
 
         /**
          * 是否启用重试
+         * 幂等请求在 I/O 异常或 retryableStatuses 中的状态码时重试，非幂等请求只在连接未建立时重试
          */
         private boolean retryEnabled = true;
 
@@ -85,6 +206,152 @@ public class TsumiFeignProperties {
          * 最大重试次数
          */
         private int maxRetries = 3;
+
+        /**
+         * 首次重试前的退避上限（毫秒），之后每次翻倍，实际等待时间在上限内随机
+         */
+        private long retryInitialBackoff = 100;
+
+        /**
+         * 退避上限的最大值（毫秒）
+         */
+        private long retryMaxBackoff = 2000;
+
+        /**
+         * 幂等请求可以重试的响应状态码
+         */
+        private Set<Integer> retryableStatuses = Set.of(502, 503, 504);
+
+        /**
+         * 每次成功调用为重试预算存入的令牌数，即重试请求占成功调用的最大比例
+         */
+        private double retryBudgetRatio = 0.2;
+
+        /**
+         * 重试预算的令牌上限，决定允许突发的重试请求数
+         */
+        private int retryBudgetMaxTokens = 10;
+
+        /**
+         * 是否启用虚拟线程执行模式
+         * 启用后异步请求在虚拟线程上执行阻塞调用链，OkHttp Dispatcher 也使用虚拟线程执行器
+         */
+        private boolean virtualThreads = false;
+
+        /**
+         * 代理引擎：jdk, hidden-class
+         * hidden-class 为每个接口生成隐藏类，方法直接调用预绑定的处理器
+         */
+        private ProxyEngine proxyEngine = ProxyEngine.JDK;
+
+        /**
+         * 是否在创建客户端时预先解析全部方法并准备编解码器
+         * 也可以通过 @TsumiFeignClient(eagerInit = true) 按客户端开启
+         */
+        private boolean eagerInit = false;
+
+        /**
+         * 预初始化时预热的连接数，0 表示不预热
+         */
+        private int warmUpConnections = 0;
+    }
+
+    @Data
+    public static class CompressionConfig {
+        /**
+         * 是否启用压缩
+         */
+        private boolean enabled = false;
+
+        /**
+         * 请求体压缩算法：gzip, zstd, none
+         */
+        private String requestEncoding = "gzip";
+
+        /**
+         * 请求体压缩阈值（字节），小于该大小的请求体原样发送
+         */
+        private int minRequestSize = 1024;
+
+        /**
+         * 可接受的响应编码，按优先级排列，为空时保留 OkHttp 的透明 gzip
+         */
+        private List<String> acceptEncodings = List.of("gzip");
+
+        /**
+         * zstd 压缩级别
+         */
+        private int zstdLevel = 3;
+
+        /**
+         * zstd 预训练字典的本地文件路径，为空时不使用字典
+         */
+        private String zstdDictionary;
+
+        /**
+         * 按客户端名称（@TsumiFeignClient 的 name 或 url）覆盖的配置
+         */
+        private Map<String, ServiceCompressionConfig> services = new HashMap<>();
+    }
+
+    @Data
+    public static class ServiceCompressionConfig {
+        /**
+         * 请求体压缩算法，未设置时沿用全局配置
+         */
+        private String requestEncoding;
+
+        /**
+         * 请求体压缩阈值（字节），未设置时沿用全局配置
+         */
+        private Integer minRequestSize;
+
+        /**
+         * 可接受的响应编码，未设置时沿用全局配置
+         */
+        private List<String> acceptEncodings;
+
+        /**
+         * zstd 预训练字典的本地文件路径，未设置时沿用全局配置
+         */
+        private String zstdDictionary;
+    }
+
+    @Data
+    public static class HedgingConfig {
+        /**
+         * 每次正常调用为对冲预算存入的令牌数，即对冲请求占正常调用的最大比例
+         */
+        private double budgetRatio = 0.1;
+
+        /**
+         * 对冲预算的令牌上限，决定允许突发的对冲请求数
+         */
+        private int budgetMaxTokens = 10;
+
+        /**
+         * 按客户端名称（@TsumiFeignClient 的 name 或 url）启用的对冲策略，作用于该客户端的全部 GET 方法，
+         * 方法或接口上的 @Hedged 优先
+         */
+        private Map<String, ServiceHedgingConfig> services = new HashMap<>();
+    }
+
+    @Data
+    public static class ServiceHedgingConfig {
+        /**
+         * 固定对冲延迟（毫秒），同时配置 percentile 时在统计样本不足前使用
+         */
+        private long delay = 0;
+
+        /**
+         * 以近期延迟的该分位数（0~1）作为对冲延迟，0 表示只使用固定延迟
+         */
+        private double percentile = 0;
+
+        /**
+         * 最多追加的对冲请求数
+         */
+        private int maxHedges = 1;
     }
 
     @Data
@@ -99,4 +366,21 @@ public class TsumiFeignProperties {
          */
         private boolean enabled = true;
     }
+
+    @Data
+    public static class DeadlineConfig {
+        /**
+         * 是否在 Spring MVC 服务端读取上游传入的截止时间，并在处理期间的出站调用中继续传播
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class CodecConfig {
+        /**
+         * 是否以流方式编码请求体：请求体在发送时直接序列化到连接的输出缓冲，不再生成中间字节数组
+         * HTTP/1.1 下请求改为分块传输，不再携带 Content-Length
+         */
+        private boolean streamingEncode = false;
+    }
 }
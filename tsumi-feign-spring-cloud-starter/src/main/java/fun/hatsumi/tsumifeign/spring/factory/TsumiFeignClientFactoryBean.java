@@ -1,11 +1,23 @@
 package fun.hatsumi.tsumifeign.spring.factory;
 
+import fun.hatsumi.tsumifeign.annotation.Hedged;
 import fun.hatsumi.tsumifeign.annotation.TsumiFeignClient;
+import fun.hatsumi.tsumifeign.client.CompressionFeignClient;
 import fun.hatsumi.tsumifeign.client.FeignClient;
+import fun.hatsumi.tsumifeign.client.HedgingFeignClient;
+import fun.hatsumi.tsumifeign.client.RetryPolicy;
+import fun.hatsumi.tsumifeign.client.RetryingFeignClient;
+import fun.hatsumi.tsumifeign.client.TokenBudget;
+import fun.hatsumi.tsumifeign.codec.CodecRegistry;
+import fun.hatsumi.tsumifeign.codec.Compressor;
 import fun.hatsumi.tsumifeign.codec.Decoder;
 import fun.hatsumi.tsumifeign.codec.Encoder;
+import fun.hatsumi.tsumifeign.codec.GzipCompressor;
+import fun.hatsumi.tsumifeign.codec.ZstdCompressor;
 import fun.hatsumi.tsumifeign.contract.AnnotationContract;
+import fun.hatsumi.tsumifeign.core.HedgePolicy;
 import fun.hatsumi.tsumifeign.proxy.FeignInvocationHandler;
+import fun.hatsumi.tsumifeign.proxy.GeneratedClients;
 import fun.hatsumi.tsumifeign.spring.configuration.TsumiFeignProperties;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -16,7 +28,11 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.util.StringUtils;
 
-import java.lang.reflect.Proxy;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * TsumiFeign 客户端 FactoryBean
@@ -75,15 +91,31 @@ public class TsumiFeignClientFactoryBean implements FactoryBean<Object>, Initial
             log.debug("Using client type: {} for interface: {}", finalClientType, clientType.getName());
 
             // 从 Spring 容器获取对应的 FeignClient 实现
-            FeignClient feignClient = resolveFeignClient(finalClientType);
+            TsumiFeignProperties.ClientConfig clientConfig = resolveClientConfig();
+            FeignClient feignClient = applyCompression(applyRetry(
+                    applyHedging(resolveFeignClient(finalClientType), clientType), clientConfig));
             Encoder encoder = applicationContext.getBean(Encoder.class);
             Decoder decoder = applicationContext.getBean(Decoder.class);
             AnnotationContract contract = applicationContext.getBean(AnnotationContract.class);
+            CodecRegistry codecRegistry = applicationContext.getBeanProvider(CodecRegistry.class).getIfAvailable();
 
             // 创建动态代理
-            FeignInvocationHandler handler = new FeignInvocationHandler(clientType, feignClient, encoder, decoder, contract);
+            FeignInvocationHandler handler = new FeignInvocationHandler(clientType, feignClient, encoder, decoder,
+                    contract, codecRegistry);
 
-            target = Proxy.newProxyInstance(clientType.getClassLoader(), new Class<?>[]{clientType}, handler);
+            // 预初始化：注解级或全局配置开启时生效
+            if ((annotation != null && annotation.eagerInit()) || clientConfig.isEagerInit()) {
+                handler.eagerInit();
+                int connections = annotation != null && annotation.warmUpConnections() >= 0
+                        ? annotation.warmUpConnections() : clientConfig.getWarmUpConnections();
+                handler.warmUp(connections);
+            }
+
+            // 优先使用编译期生成的实现类，否则创建代理
+            target = GeneratedClients.newInstance(clientType, handler);
+            if (target == null) {
+                target = clientConfig.getProxyEngine().newProxy(clientType, handler);
+            }
         }
         return target;
     }
@@ -108,6 +140,115 @@ public class TsumiFeignClientFactoryBean implements FactoryBean<Object>, Initial
         }
     }
 
+    /**
+     * 获取全局客户端配置，未注册配置属性时使用默认值
+     */
+    private TsumiFeignProperties.ClientConfig resolveClientConfig() {
+        try {
+            return applicationContext.getBean(TsumiFeignProperties.class).getClient();
+        } catch (NoSuchBeanDefinitionException e) {
+            return new TsumiFeignProperties.ClientConfig();
+        }
+    }
+
+    /**
+     * 启用重试时包装重试客户端，每个客户端使用独立的重试预算
+     * 重试位于对冲之上、压缩之下，每次重试都可以再对冲，且复用已压缩的请求体
+     */
+    private FeignClient applyRetry(FeignClient feignClient, TsumiFeignProperties.ClientConfig config) {
+        if (!config.isRetryEnabled() || config.getMaxRetries() <= 0) {
+            return feignClient;
+        }
+        RetryPolicy policy = new RetryPolicy(config.getMaxRetries(), config.getRetryInitialBackoff(),
+                config.getRetryMaxBackoff(), config.getRetryableStatuses());
+        return new RetryingFeignClient(feignClient, policy,
+                new TokenBudget(config.getRetryBudgetRatio(), config.getRetryBudgetMaxTokens()));
+    }
+
+    /**
+     * 接口声明了 @Hedged 或按客户端名称配置了对冲策略时，包装对冲客户端
+     * 对冲客户端位于压缩之下，追加的请求复用已压缩的请求体
+     */
+    private FeignClient applyHedging(FeignClient feignClient, Class<?> clientType) {
+        TsumiFeignProperties.HedgingConfig config;
+        try {
+            config = applicationContext.getBean(TsumiFeignProperties.class).getHedging();
+        } catch (NoSuchBeanDefinitionException e) {
+            config = new TsumiFeignProperties.HedgingConfig();
+        }
+
+        String clientName = StringUtils.hasText(name) ? name : url;
+        TsumiFeignProperties.ServiceHedgingConfig service = config.getServices().get(clientName);
+        if (service == null && !isHedged(clientType)) {
+            return feignClient;
+        }
+
+        HedgePolicy defaultPolicy = service != null
+                ? new HedgePolicy(service.getDelay(), service.getPercentile(), service.getMaxHedges()) : null;
+        log.info("Hedging for {}: policy={}, budgetRatio={}", clientName, defaultPolicy, config.getBudgetRatio());
+        return new HedgingFeignClient(feignClient, defaultPolicy,
+                new TokenBudget(config.getBudgetRatio(), config.getBudgetMaxTokens()));
+    }
+
+    private boolean isHedged(Class<?> clientType) {
+        if (clientType.isAnnotationPresent(Hedged.class)) {
+            return true;
+        }
+        for (Method method : clientType.getMethods()) {
+            if (method.isAnnotationPresent(Hedged.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 启用压缩时按客户端名称合并全局和覆盖配置，包装压缩客户端
+     */
+    private FeignClient applyCompression(FeignClient feignClient) throws IOException {
+        TsumiFeignProperties.CompressionConfig config;
+        try {
+            config = applicationContext.getBean(TsumiFeignProperties.class).getCompression();
+        } catch (NoSuchBeanDefinitionException e) {
+            return feignClient;
+        }
+        if (!config.isEnabled()) {
+            return feignClient;
+        }
+
+        String clientName = StringUtils.hasText(name) ? name : url;
+        TsumiFeignProperties.ServiceCompressionConfig service = config.getServices().get(clientName);
+        String requestEncoding = service != null && service.getRequestEncoding() != null
+                ? service.getRequestEncoding() : config.getRequestEncoding();
+        int minRequestSize = service != null && service.getMinRequestSize() != null
+                ? service.getMinRequestSize() : config.getMinRequestSize();
+        List<String> acceptEncodings = service != null && service.getAcceptEncodings() != null
+                ? service.getAcceptEncodings() : config.getAcceptEncodings();
+        String dictionary = service != null && service.getZstdDictionary() != null
+                ? service.getZstdDictionary() : config.getZstdDictionary();
+
+        Compressor requestCompressor = "none".equalsIgnoreCase(requestEncoding) ? null
+                : newCompressor(requestEncoding, config.getZstdLevel(), dictionary);
+        List<Compressor> accepted = new ArrayList<>(acceptEncodings.size());
+        for (String encoding : acceptEncodings) {
+            accepted.add(requestCompressor != null && requestCompressor.encoding().equalsIgnoreCase(encoding)
+                    ? requestCompressor : newCompressor(encoding, config.getZstdLevel(), dictionary));
+        }
+        log.info("Compression for {}: request={}, minRequestSize={}, accept={}",
+                clientName, requestEncoding, minRequestSize, acceptEncodings);
+        return new CompressionFeignClient(feignClient, requestCompressor, minRequestSize, accepted);
+    }
+
+    private Compressor newCompressor(String encoding, int zstdLevel, String dictionary) throws IOException {
+        return switch (encoding.toLowerCase()) {
+            case "gzip" -> new GzipCompressor();
+            case "zstd" -> StringUtils.hasText(dictionary)
+                    ? ZstdCompressor.withDictionary(zstdLevel, Path.of(dictionary))
+                    : new ZstdCompressor(zstdLevel);
+            default -> throw new IllegalArgumentException("Unsupported compression encoding: " + encoding);
+        };
+    }
+
     /**
      * 根据 clientType 从容器获取对应的 FeignClient 实现
      */
@@ -0,0 +1,38 @@
+package fun.hatsumi.tsumifeign.spring.interceptor;
+
+import fun.hatsumi.tsumifeign.core.Deadline;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 截止时间拦截器
+ * 在服务端接收请求时，从请求头读取上游剩余的时间预算并绑定到当前线程，
+ * 处理期间发出的 TsumiFeign 调用据此计算各自的剩余时间
+ *
+ * @author kakeru
+ */
+@Slf4j
+public class DeadlineInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request,
+                             HttpServletResponse response,
+                             Object handler) {
+        Deadline deadline = Deadline.parse(request.getHeader(Deadline.HEADER));
+        if (deadline != null) {
+            Deadline.bind(deadline);
+            log.debug("Bound inbound deadline to context: {}", deadline);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request,
+                                HttpServletResponse response,
+                                Object handler,
+                                Exception ex) {
+        Deadline.unbind();
+    }
+}